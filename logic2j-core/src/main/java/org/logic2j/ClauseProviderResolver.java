@@ -0,0 +1,97 @@
+/**
+ * 
+ */
+package org.logic2j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.logic2j.model.symbol.PredicateKey;
+import org.logic2j.model.symbol.Struct;
+
+/**
+ * @author Vincent Berthet
+ */
+/**
+ * Find the {@link ClauseProvider}s of a predicate, by its {@link PredicateKey}.
+ * A provider registered under a vararg key (see {@link PredicateKey#varargs()}) provides the predicates of that
+ * name with any arity, unless providers were registered for the exact arity.
+ * Lookups do not lock: the lists of providers are never modified once registered, they are
+ * replaced by modified copies, so that solving threads can iterate them while theories are loaded.
+ */
+public class ClauseProviderResolver {
+
+    private static final List<ClauseProvider> EMPTY = Collections.emptyList();
+    private final ConcurrentHashMap<PredicateKey, List<ClauseProvider>> register = new ConcurrentHashMap<PredicateKey, List<ClauseProvider>>();
+
+    public void register(PredicateKey predicateKey, ClauseProvider provider) {
+        final List<ClauseProvider> providers = register.get(predicateKey);
+        if (providers != null && providers.contains(provider)) {
+            // Most frequent case when loading a theory: one registration per clause
+            return;
+        }
+        synchronized (this) {
+            final List<ClauseProvider> current = register.get(predicateKey);
+            if (current == null) {
+                register.put(predicateKey, Collections.singletonList(provider));
+            } else if (!current.contains(provider)) {
+                final List<ClauseProvider> copy = new ArrayList<ClauseProvider>(current);
+                copy.add(provider);
+                register.put(predicateKey, Collections.unmodifiableList(copy));
+            }
+        }
+    }
+
+    public synchronized void unregister(PredicateKey predicateKey, ClauseProvider provider) {
+        final List<ClauseProvider> current = register.get(predicateKey);
+        if (current != null && current.contains(provider)) {
+            final List<ClauseProvider> copy = new ArrayList<ClauseProvider>(current);
+            copy.remove(provider);
+            if (copy.isEmpty()) {
+                register.remove(predicateKey);
+            } else {
+                register.put(predicateKey, Collections.unmodifiableList(copy));
+            }
+        }
+    }
+
+    /**
+     * @param theReplacements Providers to replace by others, such as the theory managers of a forked engine.
+     * @return A resolver with the same registrations as this one, after replacements.
+     */
+    public synchronized ClauseProviderResolver copy(Map<ClauseProvider, ClauseProvider> theReplacements) {
+        final ClauseProviderResolver result = new ClauseProviderResolver();
+        for (Map.Entry<PredicateKey, List<ClauseProvider>> entry : register.entrySet()) {
+            final List<ClauseProvider> providers = entry.getValue();
+            List<ClauseProvider> copy = providers;
+            for (int i = 0; i < providers.size(); i++) {
+                final ClauseProvider replacement = theReplacements.get(providers.get(i));
+                if (replacement != null) {
+                    if (copy == providers) {
+                        copy = new ArrayList<ClauseProvider>(providers);
+                    }
+                    copy.set(i, replacement);
+                }
+            }
+            // Lists of providers are immutable, those without replacement are shared
+            result.register.put(entry.getKey(), copy == providers ? providers : Collections.unmodifiableList(copy));
+        }
+        return result;
+    }
+
+    public Iterable<ClauseProvider> find(Struct struct) {
+        return find(struct.getPredicateKey());
+    }
+
+    /**
+     * Same as {@link #find(Struct)} when the predicate key was already obtained.
+     */
+    public Iterable<ClauseProvider> find(PredicateKey predicateKey) {
+        List<ClauseProvider> list = register.get(predicateKey);
+        if (list == null) list = register.get(predicateKey.varargs());
+        return list == null ? EMPTY : list;
+    }
+}
@@ -17,13 +17,16 @@
  */
 package org.logic2j;
 
-import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.logic2j.TermFactory.FactoryMode;
 import org.logic2j.io.format.DefaultFormatter;
 import org.logic2j.io.operator.DefaultOperatorManager;
 import org.logic2j.io.operator.OperatorManager;
+import org.logic2j.io.operator.OperatorManagerBase;
 import org.logic2j.io.parse.DefaultTermFactory;
 import org.logic2j.library.impl.LibraryBase;
 import org.logic2j.library.impl.config.ConfigLibrary;
@@ -32,8 +35,8 @@ import org.logic2j.library.impl.io.IOLibrary;
 import org.logic2j.library.mgmt.DefaultLibraryManager;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.var.Bindings;
-import org.logic2j.solve.DefaultGoalSolver;
 import org.logic2j.solve.GoalSolver;
+import org.logic2j.solve.StacklessGoalSolver;
 import org.logic2j.solve.holder.SolutionHolder;
 import org.logic2j.theory.DefaultTheoryManager;
 import org.logic2j.theory.TheoryManager;
@@ -44,6 +47,10 @@ import org.logic2j.util.ReportUtils;
 
 /**
  * Root Prolog API implementation.
+ * Once its libraries and theories are loaded, one instance can be shared by threads solving concurrently:
+ * the state of a resolution lives in its own {@link Bindings} and {@link org.logic2j.solve.GoalFrame},
+ * and the shared structures (theory content, clause providers) hand out immutable snapshots to solvers.
+ * An engine loaded once can also serve as a template for cheap independent engines, see {@link #fork()}.
  */
 public class PrologImpl implements PrologImplementor {
   /**
@@ -71,19 +78,22 @@ public class PrologImpl implements PrologImplementor {
 
   private TermFactory termFactory = new DefaultTermFactory(this);
   private Formatter formatter = new DefaultFormatter(this);
-  private LibraryManager libraryManager = new DefaultLibraryManager(this);
-  private OperatorManager operatorManager = new DefaultOperatorManager();
-  private GoalSolver solver = new DefaultGoalSolver(this);
-  private Unifyer unifyer = new DefaultUnifyer();
-  private ClauseProviderResolver clauseProviderResolver = new ClauseProviderResolver();
+  private final LibraryManager libraryManager;
+  private final OperatorManager operatorManager;
+  private volatile GoalSolver solver = new StacklessGoalSolver(this);
+  private volatile Unifyer unifyer = new DefaultUnifyer();
+  private final ClauseProviderResolver clauseProviderResolver;
   // TODO Does the clauseProviders belong here or from the GoalSolver where they are solely used??? See https://github.com/ltettoni/logic2j/issues/17
-  private List<ClauseProvider> clauseProviders = new ArrayList<ClauseProvider>();
+  private volatile List<ClauseProvider> clauseProviders = new CopyOnWriteArrayList<ClauseProvider>();
 
   public PrologImpl() {
     this(InitLevel.L1_CORE_LIBRARY);
   }
 
   public PrologImpl(InitLevel theLevel) {
+    this.libraryManager = new DefaultLibraryManager(this);
+    this.operatorManager = new DefaultOperatorManager();
+    this.clauseProviderResolver = new ClauseProviderResolver();
     // The first clause provider is always the TheoryManager. Others may be added.
     final TheoryManager tm = new DefaultTheoryManager(this);
     this.clauseProviders.add(tm);
@@ -108,6 +118,41 @@ public class PrologImpl implements PrologImplementor {
 //    }
   }
 
+  /**
+   * Create an engine with the content of theTemplate, see {@link #fork()}.
+   * @param theTemplate
+   */
+  private PrologImpl(PrologImpl theTemplate) {
+    this.libraryManager = new DefaultLibraryManager(this, (DefaultLibraryManager) theTemplate.libraryManager);
+    this.operatorManager = new DefaultOperatorManager((OperatorManagerBase) theTemplate.operatorManager);
+    this.unifyer = theTemplate.unifyer;
+    final DefaultTheoryManager templateTheory = (DefaultTheoryManager) theTemplate.getTheoryManager();
+    final DefaultTheoryManager theory = new DefaultTheoryManager(this, templateTheory);
+    // Our own theory replaces the template's wherever it was registered
+    final Map<ClauseProvider, ClauseProvider> replacements = new IdentityHashMap<ClauseProvider, ClauseProvider>();
+    replacements.put(templateTheory, theory);
+    replacements.put(templateTheory.getTabling(), theory.getTabling());
+    this.clauseProviderResolver = theTemplate.clauseProviderResolver.copy(replacements);
+    for (ClauseProvider provider : theTemplate.clauseProviders) {
+      final ClauseProvider replacement = replacements.get(provider);
+      this.clauseProviders.add(replacement != null ? replacement : provider);
+    }
+  }
+
+  /**
+   * Create a new engine with the libraries, operators and theory of this one, without loading or copying
+   * them: the parsed clauses and their indexes, the libraries' primitives and the operators are shared,
+   * and copied by either engine only when it modifies them (per predicate for the theory). Theories and
+   * libraries loaded into the new engine are not seen by this one, and conversely.
+   * The new engine uses the default {@link StacklessGoalSolver}, and this one's {@link Unifyer}.
+   * The libraries' instances remain this engine's, their primitives solve with the engine running the goal.
+   * Do not load into this engine while forking it from another thread.
+   * @return The new engine.
+   */
+  public PrologImpl fork() {
+    return new PrologImpl(this);
+  }
+
   //---------------------------------------------------------------------------
   // Accessors
   //---------------------------------------------------------------------------
@@ -182,10 +227,10 @@ public class PrologImpl implements PrologImplementor {
   }
 
   /**
-   * @param theClauseProviders the clauseProviders to set
+   * @param theClauseProviders the clauseProviders to set, they are copied.
    */
   public void setClauseProviders(List<ClauseProvider> theClauseProviders) {
-    this.clauseProviders = theClauseProviders;
+    this.clauseProviders = new CopyOnWriteArrayList<ClauseProvider>(theClauseProviders);
   }
 
   //---------------------------------------------------------------------------
@@ -24,8 +24,10 @@ import org.logic2j.io.operator.OperatorManager;
 import org.logic2j.io.parse.tuprolog.Parser;
 import org.logic2j.model.symbol.Struct;
 import org.logic2j.model.symbol.StructObject;
+import org.logic2j.model.symbol.TBigInteger;
 import org.logic2j.model.symbol.TDouble;
 import org.logic2j.model.symbol.TLong;
+import org.logic2j.model.symbol.TString;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.symbol.Var;
 
@@ -63,11 +65,24 @@ public class DefaultFormatter implements Formatter {
     return String.valueOf(theLong.longValue());
   }
 
+  @Override
+  public String visit(TBigInteger theBigInteger) {
+    return theBigInteger.bigIntegerValue().toString();
+  }
+
   @Override
   public String visit(TDouble theDouble) {
     return String.valueOf(theDouble.doubleValue());
   }
 
+  /**
+   * Strings are enclosed in double quotes, the ones they contain are doubled.
+   */
+  @Override
+  public String visit(TString theString) {
+    return '"' + theString.getValue().replace("\"", "\"\"") + '"';
+  }
+
   @Override
   public String visit(Struct theStruct) {
     return String.valueOf(formatStruct(theStruct));
@@ -30,6 +30,7 @@ public class DefaultOperatorManager extends OperatorManagerBase {
     addOperator("-->", Operator.XFX, 1200);
     addOperator(Struct.FUNCTOR_CLAUSE, Operator.FX, 1200); // Actually, query not clause // Any reason for this order - is registered in a LinkedMap...
     addOperator("?-", Operator.FX, 1200);
+    addOperator("table", Operator.FX, 1150); // Directive ":- table Name/Arity."
     addOperator(";", Operator.XFY, 1100); // OR
     addOperator("->", Operator.XFY, 1050);
     addOperator(Struct.FUNCTOR_COMMA, Operator.XFY, 1000); // AND
@@ -60,6 +61,7 @@ public class DefaultOperatorManager extends OperatorManagerBase {
     addOperator("-", Operator.YFX, 500);
     addOperator("/\\", Operator.YFX, 500);
     addOperator("\\/", Operator.YFX, 500);
+    addOperator("xor", Operator.YFX, 500);
     addOperator("*", Operator.YFX, 400);
     addOperator("/", Operator.YFX, 400);
     addOperator("//", Operator.YFX, 400);
@@ -73,4 +75,12 @@ public class DefaultOperatorManager extends OperatorManagerBase {
     addOperator("-", Operator.FY, 200);
   }
 
+  /**
+   * Create with the same operators as theTemplate, see {@link OperatorManagerBase#OperatorManagerBase(OperatorManagerBase)}.
+   * @param theTemplate
+   */
+  public DefaultOperatorManager(OperatorManagerBase theTemplate) {
+    super(theTemplate);
+  }
+
 }
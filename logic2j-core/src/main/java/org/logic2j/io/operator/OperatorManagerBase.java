@@ -22,12 +22,27 @@ import java.util.LinkedHashSet;
 
 /**
  * Base implementation.
+ * The register of operators can be shared with other managers, see {@link #OperatorManagerBase(OperatorManagerBase)}:
+ * it is then copied by the first manager that adds an operator.
  */
 public class OperatorManagerBase implements java.io.Serializable, OperatorManager {
   private static final long serialVersionUID = 1L;
 
   /** current known operators */
-  private OperatorRegister operatorList = new OperatorRegister();
+  private OperatorRegister operatorList;
+
+  public OperatorManagerBase() {
+    this.operatorList = new OperatorRegister();
+  }
+
+  /**
+   * Create with the same operators as theTemplate, sharing them until either manager adds an operator.
+   * @param theTemplate
+   */
+  public OperatorManagerBase(OperatorManagerBase theTemplate) {
+    theTemplate.operatorList.shared = true;
+    this.operatorList = theTemplate.operatorList;
+  }
 
   /**
    * Creates a new operator. If the operator is already provided,
@@ -37,6 +52,9 @@ public class OperatorManagerBase implements java.io.Serializable, OperatorManage
   public void addOperator(String theName, String theAssociativityType, int thePriority) {
     final Operator op = new Operator(theName, theAssociativityType, thePriority);
     if (thePriority >= Operator.OP_LOW && thePriority <= Operator.OP_HIGH) {
+      if (this.operatorList.shared) {
+        this.operatorList = new OperatorRegister(this.operatorList);
+      }
       this.operatorList.addOperator(op);
     } else {
       throw new IllegalArgumentException("Operator priority not in valid range for " + op);
@@ -66,6 +84,18 @@ public class OperatorManagerBase implements java.io.Serializable, OperatorManage
     private HashMap<String, Operator> nameTypeToKey = new HashMap<String, Operator>();
     private LinkedHashSet<Operator> operators = new LinkedHashSet<Operator>();
 
+    // When true, the register is used by several managers and must no longer be modified
+    private boolean shared = false;
+
+    OperatorRegister() {
+      super();
+    }
+
+    OperatorRegister(OperatorRegister theOther) {
+      this.nameTypeToKey.putAll(theOther.nameTypeToKey);
+      this.operators.addAll(theOther.operators);
+    }
+
     public boolean addOperator(Operator op) {
       final String nameTypeKey = op.name + op.type;
       Operator matchingOp = this.nameTypeToKey.get(nameTypeKey);
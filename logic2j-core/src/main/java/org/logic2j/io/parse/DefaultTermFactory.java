@@ -23,6 +23,7 @@ import org.logic2j.io.parse.tuprolog.Parser;
 import org.logic2j.model.symbol.Struct;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.symbol.TermApi;
+import org.logic2j.model.symbol.TermTable;
 
 /**
  * Default implementation of {@link TermFactory}
@@ -32,13 +33,16 @@ public class DefaultTermFactory implements TermFactory {
   private static final TermApi TERM_API = new TermApi();
   private final PrologImplementor prolog;
 
+  // Ground terms normalized by this factory are shared, they are used with the libraries of our engine only
+  private final TermTable termTable = new TermTable();
+
   public DefaultTermFactory(PrologImplementor theProlog) {
     this.prolog = theProlog;
   }
 
   @Override
   public Term normalize(Term theTerm) {
-    return TERM_API.normalize(theTerm, this.prolog.getLibraryManager().wholeContent());
+    return TERM_API.normalize(theTerm, this.prolog.getLibraryManager().wholeContent(), this.termTable);
   }
 
   @Override
@@ -58,7 +62,6 @@ public class DefaultTermFactory implements TermFactory {
       return parse((CharSequence) theObject);
     }
     final Term created = TERM_API.valueOf(theObject, theMode);
-    normalize(created);
-    return created;
+    return normalize(created);
   }
 }
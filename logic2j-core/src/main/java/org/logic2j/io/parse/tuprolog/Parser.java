@@ -35,6 +35,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Serializable;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -44,6 +45,7 @@ import org.logic2j.io.operator.Operator;
 import org.logic2j.io.operator.OperatorManager;
 import org.logic2j.model.exception.InvalidTermException;
 import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.TBigInteger;
 import org.logic2j.model.symbol.TDouble;
 import org.logic2j.model.symbol.TLong;
 import org.logic2j.model.symbol.TNumber;
@@ -480,8 +482,12 @@ public class Parser implements Serializable {
   // commodity methods to parse numbers
 
   TNumber parseInteger(String s) {
-    long num = Long.parseLong(s);
-    return new TLong(num);
+    try {
+      return TLong.valueOf(Long.parseLong(s));
+    } catch (NumberFormatException e) {
+      // Too large for a long (or not an integer at all, then this throws too)
+      return TBigInteger.valueOf(new BigInteger(s));
+    }
   }
 
   TDouble parseFloat(String s) {
@@ -40,6 +40,7 @@ import java.io.Reader;
 import java.io.Serializable;
 import java.io.StreamTokenizer;
 import java.io.StringReader;
+import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.LinkedList;
 
@@ -352,13 +353,13 @@ class Tokenizer extends StreamTokenizer implements Serializable {
         // 1.a. complex integers
         if (svala.startsWith("0")) {
           if (svala.indexOf('b') == 1) {
-            return new Token("" + Long.parseLong(svala.substring(2), 2), INTEGER); // try binary
+            return new Token(new BigInteger(svala.substring(2), 2).toString(), INTEGER); // try binary
           }
           if (svala.indexOf('o') == 1) {
-            return new Token("" + Long.parseLong(svala.substring(2), 8), INTEGER); // try octal
+            return new Token(new BigInteger(svala.substring(2), 8).toString(), INTEGER); // try octal
           }
           if (svala.indexOf('x') == 1) {
-            return new Token("" + Long.parseLong(svala.substring(2), 16), INTEGER); // try hex
+            return new Token(new BigInteger(svala.substring(2), 16).toString(), INTEGER); // try hex
           }
         }
 
@@ -369,7 +370,7 @@ class Tokenizer extends StreamTokenizer implements Serializable {
         // 1.b ordinary integers
         if (typeb != '.' && typeb != '\'') { // i.e. not float or character constant
           pushBack(); // lookahead 0
-          return new Token("" + Long.parseLong(svala), INTEGER);
+          return new Token(new BigInteger(svala).toString(), INTEGER);
         }
 
         // 1.c character code constant
@@ -386,8 +387,8 @@ class Tokenizer extends StreamTokenizer implements Serializable {
               + " cannot be recognized.");
         }
 
-        // 2.a check that the value of the word prior to period is a valid long
-        Long.parseLong(svala); // throws an exception if not
+        // 2.a check that the value of the word prior to period is a valid integer
+        new BigInteger(svala); // throws an exception if not
 
         // 2.b first int is followed by a period
         if (typeb != '.') {
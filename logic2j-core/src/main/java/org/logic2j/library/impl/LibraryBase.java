@@ -20,16 +20,16 @@ package org.logic2j.library.impl;
 import org.logic2j.PrologImplementor;
 import org.logic2j.TermFactory.FactoryMode;
 import org.logic2j.library.PLibrary;
-import org.logic2j.library.mgmt.PrimitiveInfo;
-import org.logic2j.library.mgmt.PrimitiveInfo.PrimitiveType;
+import org.logic2j.library.impl.core.ArithmeticExpression;
 import org.logic2j.model.symbol.Struct;
-import org.logic2j.model.symbol.TNumber;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.symbol.TermApi;
 import org.logic2j.model.symbol.Var;
 import org.logic2j.model.var.Binding;
 import org.logic2j.model.var.Bindings;
 import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.ioc.SolutionGenerator;
+import org.logic2j.solve.ioc.SolutionGeneratorListener;
 import org.logic2j.solve.ioc.SolutionListener;
 
 /**
@@ -86,7 +86,29 @@ public class LibraryBase implements PLibrary {
     }
   }
 
-  
+  /**
+   * Hand theGenerator over to theListener when it pulls solutions on demand, see {@link SolutionGeneratorListener};
+   * otherwise generate and notify all solutions now, undoing the bindings of each one before generating the next.
+   * @param theGenerator
+   * @param theGoalFrame
+   * @param theListener
+   */
+  protected void notifySolutions(SolutionGenerator theGenerator, GoalFrame theGoalFrame, SolutionListener theListener) {
+    if (theListener instanceof SolutionGeneratorListener) {
+      ((SolutionGeneratorListener) theListener).onSolutions(theGenerator);
+      return;
+    }
+    final int trailSize = theGoalFrame.getTrailSize();
+    try {
+      while (!theGoalFrame.isUserCanceled() && theGenerator.next(theGoalFrame)) {
+        notifySolution(theGoalFrame, theListener);
+        theGoalFrame.clearBindingsToTrailSize(trailSize);
+      }
+    } finally {
+      theGenerator.close();
+    }
+  }
+
   /**
    * @param theBindings
    * @param thePrimitive
@@ -107,38 +129,10 @@ public class LibraryBase implements PLibrary {
 
   /**
    * Evaluates an expression. Returns null value if the argument
-   * is not an evaluable expression
+   * is not an evaluable expression, see {@link ArithmeticExpression#evaluate(Term, Bindings)}.
    */
   protected Term evaluateFunctor(Bindings theBindings, Term theTerm) {
-    if (theTerm == null) {
-      return null;
-    }
-    // TODO are the lines below this exactly as in resolve() / substitute() method?
-    if (theTerm instanceof Var && !((Var) theTerm).isAnonymous()) {
-      final Binding binding = ((Var) theTerm).bindingWithin(theBindings).followLinks();
-      if (!binding.isLiteral()) {
-        return null;
-      }
-      theTerm = binding.getTerm();
-    }
-
-    if (theTerm instanceof TNumber) {
-      return theTerm;
-    }
-    if (theTerm instanceof Struct) {
-      final Struct struct = (Struct) theTerm;
-      final PrimitiveInfo desc = struct.getPrimitiveInfo();
-      if (desc == null) {
-        // throw new IllegalArgumentException("Predicate's functor " + struct.getName() + " is not a primitive");
-        return null;
-      }
-      if (desc.getType() != PrimitiveType.FUNCTOR) {
-        // throw new IllegalArgumentException("Predicate's functor " + struct.getName() + " is a primitive, but not a functor");
-        return null;
-      }
-      return desc.invokeFunctor(struct, theBindings);
-    }
-    return null;
+    return ArithmeticExpression.evaluate(theTerm, theBindings);
   }
 
   protected Term createConstantTerm(Object anyObject) {
@@ -148,11 +142,15 @@ public class LibraryBase implements PLibrary {
     return getProlog().getTermFactory().create(anyObject, FactoryMode.ATOM);
   }
 
+  /**
+   * Unify theVariables with theValues, converted by {@link #createConstantTerm(Object)} unless they are
+   * {@link Term}s already, and notify a solution when they unify.
+   */
   protected void unifyAndNotify(Var[] theVariables, Object[] theValues, Bindings theBindings, GoalFrame theGoalFrame,
       SolutionListener theListener) {
     final Term[] values = new Term[theValues.length];
     for (int i = 0; i < theValues.length; i++) {
-      values[i] = createConstantTerm(theValues[i]);
+      values[i] = theValues[i] instanceof Term ? (Term) theValues[i] : createConstantTerm(theValues[i]);
     }
     boolean unified = unify(new Struct("group", theVariables), theBindings, new Struct("group", values), theBindings, theGoalFrame);
     notifyIfUnified(unified, theGoalFrame, theListener);
@@ -169,6 +167,17 @@ public class LibraryBase implements PLibrary {
     return this.prolog;
   }
 
+  /**
+   * @param theGoalFrame
+   * @return The engine solving with theGoalFrame, which is not this library's one when the library is
+   * shared by engines forked from it (see {@link org.logic2j.PrologImpl#fork()}); primitives solving
+   * subgoals or listing clauses must use this one.
+   */
+  protected PrologImplementor getProlog(GoalFrame theGoalFrame) {
+    final PrologImplementor solving = theGoalFrame.getProlog();
+    return solving != null ? solving : this.prolog;
+  }
+
   @Override
   public String toString() {
     return this.getClass().getSimpleName();
@@ -18,6 +18,7 @@ import javax.sql.DataSource;
 import org.logic2j.PrologImplementor;
 import org.logic2j.library.impl.LibraryBase;
 import org.logic2j.library.mgmt.Primitive;
+import org.logic2j.model.symbol.PredicateKey;
 import org.logic2j.model.symbol.Struct;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.var.Bindings;
@@ -142,7 +143,7 @@ public class ConfigLibrary extends LibraryBase {
             clauseProvider.registerTableMetaData(tableNameLc, originalNames.toArray(new String[] {}));
             // int arity = columnDescription.size();
             // String predicateKey = prefix + tableNameLc + '/' + arity;
-            getProlog().getClauseProviderResolver().register(prefix + tableNameLc, clauseProvider);
+            getProlog().getClauseProviderResolver().register(PredicateKey.of(prefix + tableNameLc, PredicateKey.VARARG_ARITY), clauseProvider);
             tableColumns.close();
         }
         tables.close();
@@ -0,0 +1,1222 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.library.impl.core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+import org.logic2j.library.mgmt.PrimitiveInfo;
+import org.logic2j.library.mgmt.PrimitiveInfo.PrimitiveType;
+import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.TBigInteger;
+import org.logic2j.model.symbol.TDouble;
+import org.logic2j.model.symbol.TLong;
+import org.logic2j.model.symbol.TNumber;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.symbol.Var;
+import org.logic2j.model.var.Binding;
+import org.logic2j.model.var.Bindings;
+
+/**
+ * An arithmetic expression compiled into a tree of nodes that compute on primitive longs and doubles:
+ * no {@link TNumber} is allocated for intermediate results, and small integer results are shared, see
+ * {@link TLong#valueOf(long)}. Integer operations that overflow a long are computed on {@link BigInteger}s,
+ * see {@link TBigInteger}. A {@link Struct} is compiled on its first evaluation, see
+ * {@link Struct#getArithmeticExpression()}.
+ * The ISO operations, which the {@link CoreLibrary} registers as functors, are evaluated natively; other
+ * functors (primitives of type {@link PrimitiveType#FUNCTOR}) are invoked as primitives.
+ * Dividing integers with "/" gives an integer when the division is exact, a float otherwise.
+ */
+public abstract class ArithmeticExpression {
+
+  /**
+   * Returned by {@link #compare(Term, Term, Bindings)} when a term is not evaluable.
+   */
+  public static final int NOT_EVALUABLE = Integer.MIN_VALUE;
+
+  // Bounds of the doubles whose integer part fits in a long
+  private static final double LONG_MIN_AS_DOUBLE = -0x1p63;
+  private static final double LONG_MAX_AS_DOUBLE = 0x1p63;
+
+  private static final ArithmeticExpression NOT_A_FUNCTOR = new ArithmeticExpression() {
+    @Override
+    boolean evaluate(Bindings theBindings, Value theValue) {
+      return false;
+    }
+  };
+
+  // Every evaluation writes its result last, after evaluating its operands, so nested evaluations may share a Value
+  private static final ThreadLocal<Value> VALUE = new ThreadLocal<Value>() {
+    @Override
+    protected Value initialValue() {
+      return new Value();
+    }
+  };
+
+  /**
+   * The result of an evaluation: a long, a {@link BigInteger} that does not fit in a long, or a double.
+   */
+  static final class Value {
+    static final byte LONG = 0;
+    static final byte BIG = 1;
+    static final byte DOUBLE = 2;
+
+    byte type;
+    long longValue;
+    BigInteger bigValue;
+    double doubleValue;
+
+    void setLong(long theValue) {
+      this.type = LONG;
+      this.longValue = theValue;
+    }
+
+    void setBig(BigInteger theValue) {
+      if (theValue.bitLength() < Long.SIZE) {
+        setLong(theValue.longValue());
+      } else {
+        this.type = BIG;
+        this.bigValue = theValue;
+      }
+    }
+
+    void setDouble(double theValue) {
+      this.type = DOUBLE;
+      this.doubleValue = theValue;
+    }
+
+    void set(byte theType, long theLong, BigInteger theBig, double theDouble) {
+      this.type = theType;
+      this.longValue = theLong;
+      this.bigValue = theBig;
+      this.doubleValue = theDouble;
+    }
+
+    double asDouble() {
+      return ArithmeticExpression.asDouble(this.type, this.longValue, this.bigValue, this.doubleValue);
+    }
+
+    BigInteger asBig() {
+      return ArithmeticExpression.asBig(this.type, this.longValue, this.bigValue);
+    }
+
+    TNumber toTerm() {
+      switch (this.type) {
+        case LONG:
+          return TLong.valueOf(this.longValue);
+        case BIG:
+          return TBigInteger.valueOf(this.bigValue);
+        default:
+          return new TDouble(this.doubleValue);
+      }
+    }
+  }
+
+  static double asDouble(byte theType, long theLong, BigInteger theBig, double theDouble) {
+    switch (theType) {
+      case Value.LONG:
+        return theLong;
+      case Value.BIG:
+        return theBig.doubleValue();
+      default:
+        return theDouble;
+    }
+  }
+
+  static BigInteger asBig(byte theType, long theLong, BigInteger theBig) {
+    return theType == Value.BIG ? theBig : BigInteger.valueOf(theLong);
+  }
+
+  /**
+   * Evaluate this expression.
+   * @param theBindings Of the variables of the expression.
+   * @param theValue Receives the result.
+   * @return false when this expression is not evaluable (it is not a functor).
+   */
+  abstract boolean evaluate(Bindings theBindings, Value theValue);
+
+  /**
+   * @param theTerm
+   * @param theBindings
+   * @return The {@link TNumber} theTerm evaluates to, or null when theTerm is a free variable, or neither a number
+   *         nor a functor.
+   */
+  public static Term evaluate(Term theTerm, Bindings theBindings) {
+    if (theTerm == null) {
+      return null;
+    }
+    Term term = theTerm;
+    Bindings bindings = theBindings;
+    if (term instanceof Var) {
+      if (((Var) term).isAnonymous()) {
+        return null;
+      }
+      final Binding binding = ((Var) term).bindingWithin(bindings).followLinks();
+      if (!binding.isLiteral()) {
+        return null;
+      }
+      term = binding.getTerm();
+      bindings = binding.getLiteralBindings();
+    }
+    if (term instanceof TNumber) {
+      return term;
+    }
+    if (!(term instanceof Struct)) {
+      return null;
+    }
+    final Value value = VALUE.get();
+    if (!((Struct) term).getArithmeticExpression().evaluate(bindings, value)) {
+      return null;
+    }
+    return value.toTerm();
+  }
+
+  /**
+   * Evaluate an operation of the {@link CoreLibrary} when its primitive is invoked, instead of being compiled.
+   * @param theName
+   * @param theBindings
+   * @param theArguments
+   * @return The {@link TNumber} result.
+   */
+  static Term evaluate(String theName, Bindings theBindings, Term... theArguments) {
+    final Struct expression = new Struct(theName, theArguments);
+    final ArithmeticExpression operation = operation(expression, operands(expression));
+    if (operation == null) {
+      throw new InvalidTermException("No arithmetic operation " + expression.getPredicateIndicator());
+    }
+    final Value value = new Value();
+    operation.evaluate(theBindings, value);
+    return value.toTerm();
+  }
+
+  /**
+   * Compare the values of two expressions, without allocating.
+   * @param theTerm1
+   * @param theTerm2
+   * @param theBindings
+   * @return Negative, zero or positive when the value of theTerm1 is lower, equal or greater than the one of
+   *         theTerm2, or {@link #NOT_EVALUABLE}.
+   */
+  public static int compare(Term theTerm1, Term theTerm2, Bindings theBindings) {
+    final Value value = VALUE.get();
+    if (!evaluate(theTerm1, theBindings, value)) {
+      return NOT_EVALUABLE;
+    }
+    final byte type = value.type;
+    final long x = value.longValue;
+    final BigInteger xBig = value.bigValue;
+    final double xDouble = value.doubleValue;
+    if (!evaluate(theTerm2, theBindings, value)) {
+      return NOT_EVALUABLE;
+    }
+    return compare(type, x, xBig, xDouble, value);
+  }
+
+  /**
+   * Compare a value, given by its fields, to theValue. Integers are compared exactly, they are converted
+   * to floats when compared to floats.
+   */
+  static int compare(byte theType, long theLong, BigInteger theBig, double theDouble, Value theValue) {
+    if (theType == Value.LONG && theValue.type == Value.LONG) {
+      return theLong < theValue.longValue ? -1 : (theLong == theValue.longValue ? 0 : 1);
+    }
+    if (theType == Value.DOUBLE || theValue.type == Value.DOUBLE) {
+      final double x = asDouble(theType, theLong, theBig, theDouble);
+      final double y = theValue.asDouble();
+      return x < y ? -1 : (x > y ? 1 : 0);
+    }
+    return asBig(theType, theLong, theBig).compareTo(theValue.asBig());
+  }
+
+  /**
+   * Evaluate any term: a number, a variable bound to an expression, or an expression.
+   */
+  static boolean evaluate(Term theTerm, Bindings theBindings, Value theValue) {
+    Term term = theTerm;
+    Bindings bindings = theBindings;
+    if (term instanceof Var) {
+      if (((Var) term).isAnonymous()) {
+        return false;
+      }
+      final Binding binding = ((Var) term).bindingWithin(bindings).followLinks();
+      if (!binding.isLiteral()) {
+        return false;
+      }
+      term = binding.getTerm();
+      bindings = binding.getLiteralBindings();
+    }
+    if (term instanceof TLong) {
+      theValue.setLong(((TLong) term).longValue());
+      return true;
+    }
+    if (term instanceof TDouble) {
+      theValue.setDouble(((TDouble) term).doubleValue());
+      return true;
+    }
+    if (term instanceof TBigInteger) {
+      theValue.setBig(((TBigInteger) term).bigIntegerValue());
+      return true;
+    }
+    if (term instanceof Struct) {
+      return ((Struct) term).getArithmeticExpression().evaluate(bindings, theValue);
+    }
+    return false;
+  }
+
+  /**
+   * @param theExpression
+   * @return theExpression compiled, use {@link Struct#getArithmeticExpression()} to compile only once.
+   */
+  public static ArithmeticExpression compile(Struct theExpression) {
+    final PrimitiveInfo primitive = theExpression.getPrimitiveInfo();
+    if (primitive == null || primitive.getType() != PrimitiveType.FUNCTOR) {
+      return NOT_A_FUNCTOR;
+    }
+    if (primitive.getLibrary() instanceof CoreLibrary) {
+      final ArithmeticExpression operation = operation(theExpression, operands(theExpression));
+      if (operation != null) {
+        return operation;
+      }
+    }
+    return new Functor(theExpression, primitive);
+  }
+
+  private static ArithmeticExpression[] operands(Struct theExpression) {
+    final ArithmeticExpression[] operands = new ArithmeticExpression[theExpression.getArity()];
+    for (int i = 0; i < operands.length; i++) {
+      operands[i] = operand(theExpression.getArg(i));
+    }
+    return operands;
+  }
+
+  private static ArithmeticExpression operand(Term theTerm) {
+    if (theTerm instanceof TLong) {
+      final long constant = ((TLong) theTerm).longValue();
+      return new ArithmeticExpression() {
+        @Override
+        boolean evaluate(Bindings theBindings, Value theValue) {
+          theValue.setLong(constant);
+          return true;
+        }
+      };
+    }
+    if (theTerm instanceof TDouble) {
+      return constant(((TDouble) theTerm).doubleValue());
+    }
+    if (theTerm instanceof TBigInteger) {
+      final BigInteger constant = ((TBigInteger) theTerm).bigIntegerValue();
+      return new ArithmeticExpression() {
+        @Override
+        boolean evaluate(Bindings theBindings, Value theValue) {
+          theValue.setBig(constant);
+          return true;
+        }
+      };
+    }
+    if (theTerm instanceof Struct) {
+      return ((Struct) theTerm).getArithmeticExpression();
+    }
+    if (theTerm instanceof Var) {
+      final Var var = (Var) theTerm;
+      return new ArithmeticExpression() {
+        @Override
+        boolean evaluate(Bindings theBindings, Value theValue) {
+          return evaluate(var, theBindings, theValue);
+        }
+      };
+    }
+    return NOT_A_FUNCTOR;
+  }
+
+  private static ArithmeticExpression constant(final double theConstant) {
+    return new ArithmeticExpression() {
+      @Override
+      boolean evaluate(Bindings theBindings, Value theValue) {
+        theValue.setDouble(theConstant);
+        return true;
+      }
+    };
+  }
+
+  /**
+   * @param theExpression
+   * @param theOperands The arguments of theExpression, compiled.
+   * @return The native operation of theExpression, or null if there is none.
+   */
+  private static ArithmeticExpression operation(Struct theExpression, ArithmeticExpression[] theOperands) {
+    switch (theExpression.getArity()) {
+      case 0:
+        return constant(theExpression.getName());
+      case 1:
+        return unary(theExpression, theOperands[0]);
+      case 2:
+        return binary(theExpression, theOperands[0], theOperands[1]);
+      default:
+        return null;
+    }
+  }
+
+  private static ArithmeticExpression constant(String theName) {
+    switch (theName) {
+      case "pi":
+        return constant(Math.PI);
+      case "e":
+        return constant(Math.E);
+      default:
+        return null;
+    }
+  }
+
+  private static ArithmeticExpression unary(Struct theExpression, ArithmeticExpression theOperand) {
+    switch (theExpression.getName()) {
+      case "-":
+        return new Unary(theExpression, theOperand) {
+          @Override
+          void apply(long x, Value theValue) {
+            if (x == Long.MIN_VALUE) {
+              theValue.setBig(BigInteger.valueOf(x).negate());
+            } else {
+              theValue.setLong(-x);
+            }
+          }
+
+          @Override
+          void apply(BigInteger x, Value theValue) {
+            theValue.setBig(x.negate());
+          }
+
+          @Override
+          void apply(double x, Value theValue) {
+            theValue.setDouble(-x);
+          }
+        };
+      case "+":
+        return new Unary(theExpression, theOperand) {
+          @Override
+          void apply(long x, Value theValue) {
+            theValue.setLong(x);
+          }
+
+          @Override
+          void apply(BigInteger x, Value theValue) {
+            theValue.setBig(x);
+          }
+
+          @Override
+          void apply(double x, Value theValue) {
+            theValue.setDouble(x);
+          }
+        };
+      case "abs":
+        return new Unary(theExpression, theOperand) {
+          @Override
+          void apply(long x, Value theValue) {
+            if (x == Long.MIN_VALUE) {
+              theValue.setBig(BigInteger.valueOf(x).negate());
+            } else {
+              theValue.setLong(Math.abs(x));
+            }
+          }
+
+          @Override
+          void apply(BigInteger x, Value theValue) {
+            theValue.setBig(x.abs());
+          }
+
+          @Override
+          void apply(double x, Value theValue) {
+            theValue.setDouble(Math.abs(x));
+          }
+        };
+      case "sign":
+        return new Unary(theExpression, theOperand) {
+          @Override
+          void apply(long x, Value theValue) {
+            theValue.setLong(Long.signum(x));
+          }
+
+          @Override
+          void apply(BigInteger x, Value theValue) {
+            theValue.setLong(x.signum());
+          }
+
+          @Override
+          void apply(double x, Value theValue) {
+            theValue.setDouble(Math.signum(x));
+          }
+        };
+      case "\\":
+        return new IntegerUnary(theExpression, theOperand) {
+          @Override
+          void apply(long x, Value theValue) {
+            theValue.setLong(~x);
+          }
+
+          @Override
+          void apply(BigInteger x, Value theValue) {
+            theValue.setBig(x.not());
+          }
+        };
+      case "float":
+        return new FloatUnary(theExpression, theOperand) {
+          @Override
+          void apply(double x, Value theValue) {
+            theValue.setDouble(x);
+          }
+        };
+      case "float_integer_part":
+        return new FloatUnary(theExpression, theOperand) {
+          @Override
+          void apply(double x, Value theValue) {
+            theValue.setDouble(x < 0 ? Math.ceil(x) : Math.floor(x));
+          }
+        };
+      case "float_fractional_part":
+        return new FloatUnary(theExpression, theOperand) {
+          @Override
+          void apply(double x, Value theValue) {
+            theValue.setDouble(x - (x < 0 ? Math.ceil(x) : Math.floor(x)));
+          }
+        };
+      case "sqrt":
+        return new FloatUnary(theExpression, theOperand) {
+          @Override
+          void apply(double x, Value theValue) {
+            if (x < 0) {
+              throw undefined(this.expression);
+            }
+            theValue.setDouble(Math.sqrt(x));
+          }
+        };
+      case "sin":
+        return new FloatUnary(theExpression, theOperand) {
+          @Override
+          void apply(double x, Value theValue) {
+            theValue.setDouble(Math.sin(x));
+          }
+        };
+      case "cos":
+        return new FloatUnary(theExpression, theOperand) {
+          @Override
+          void apply(double x, Value theValue) {
+            theValue.setDouble(Math.cos(x));
+          }
+        };
+      case "tan":
+        return new FloatUnary(theExpression, theOperand) {
+          @Override
+          void apply(double x, Value theValue) {
+            theValue.setDouble(Math.tan(x));
+          }
+        };
+      case "asin":
+        return new FloatUnary(theExpression, theOperand) {
+          @Override
+          void apply(double x, Value theValue) {
+            if (x < -1 || x > 1) {
+              throw undefined(this.expression);
+            }
+            theValue.setDouble(Math.asin(x));
+          }
+        };
+      case "acos":
+        return new FloatUnary(theExpression, theOperand) {
+          @Override
+          void apply(double x, Value theValue) {
+            if (x < -1 || x > 1) {
+              throw undefined(this.expression);
+            }
+            theValue.setDouble(Math.acos(x));
+          }
+        };
+      case "atan":
+        return new FloatUnary(theExpression, theOperand) {
+          @Override
+          void apply(double x, Value theValue) {
+            theValue.setDouble(Math.atan(x));
+          }
+        };
+      case "exp":
+        return new FloatUnary(theExpression, theOperand) {
+          @Override
+          void apply(double x, Value theValue) {
+            theValue.setDouble(Math.exp(x));
+          }
+        };
+      case "log":
+        return new FloatUnary(theExpression, theOperand) {
+          @Override
+          void apply(double x, Value theValue) {
+            if (x <= 0) {
+              throw undefined(this.expression);
+            }
+            theValue.setDouble(Math.log(x));
+          }
+        };
+      case "integer":
+      case "round":
+        return new Rounding(theExpression, theOperand) {
+          @Override
+          double round(double x) {
+            return Math.floor(x + 0.5);
+          }
+        };
+      case "truncate":
+        return new Rounding(theExpression, theOperand) {
+          @Override
+          double round(double x) {
+            return x < 0 ? Math.ceil(x) : Math.floor(x);
+          }
+        };
+      case "ceiling":
+        return new Rounding(theExpression, theOperand) {
+          @Override
+          double round(double x) {
+            return Math.ceil(x);
+          }
+        };
+      case "floor":
+        return new Rounding(theExpression, theOperand) {
+          @Override
+          double round(double x) {
+            return Math.floor(x);
+          }
+        };
+      default:
+        return null;
+    }
+  }
+
+  private static ArithmeticExpression binary(Struct theExpression, ArithmeticExpression theLeft,
+      ArithmeticExpression theRight) {
+    switch (theExpression.getName()) {
+      case "+":
+        return new Binary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            final long r = x + y;
+            if (((x ^ r) & (y ^ r)) < 0) {
+              theValue.setBig(BigInteger.valueOf(x).add(BigInteger.valueOf(y)));
+            } else {
+              theValue.setLong(r);
+            }
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            theValue.setBig(x.add(y));
+          }
+
+          @Override
+          void apply(double x, double y, Value theValue) {
+            theValue.setDouble(x + y);
+          }
+        };
+      case "-":
+        return new Binary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            final long r = x - y;
+            if (((x ^ y) & (x ^ r)) < 0) {
+              theValue.setBig(BigInteger.valueOf(x).subtract(BigInteger.valueOf(y)));
+            } else {
+              theValue.setLong(r);
+            }
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            theValue.setBig(x.subtract(y));
+          }
+
+          @Override
+          void apply(double x, double y, Value theValue) {
+            theValue.setDouble(x - y);
+          }
+        };
+      case "*":
+        return new Binary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            final long low = x * y;
+            if (Math.multiplyHigh(x, y) != (low >> 63)) {
+              theValue.setBig(BigInteger.valueOf(x).multiply(BigInteger.valueOf(y)));
+            } else {
+              theValue.setLong(low);
+            }
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            theValue.setBig(x.multiply(y));
+          }
+
+          @Override
+          void apply(double x, double y, Value theValue) {
+            theValue.setDouble(x * y);
+          }
+        };
+      case "/":
+        return new Binary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            if (y == 0) {
+              throw zeroDivisor(this.expression);
+            }
+            if (x % y != 0) {
+              theValue.setDouble((double) x / y);
+            } else if (x == Long.MIN_VALUE && y == -1) {
+              theValue.setBig(BigInteger.valueOf(x).negate());
+            } else {
+              theValue.setLong(x / y);
+            }
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            if (y.signum() == 0) {
+              throw zeroDivisor(this.expression);
+            }
+            final BigInteger[] quotientAndRemainder = x.divideAndRemainder(y);
+            if (quotientAndRemainder[1].signum() == 0) {
+              theValue.setBig(quotientAndRemainder[0]);
+            } else {
+              theValue.setDouble(new BigDecimal(x).divide(new BigDecimal(y), MathContext.DECIMAL64).doubleValue());
+            }
+          }
+
+          @Override
+          void apply(double x, double y, Value theValue) {
+            if (y == 0) {
+              throw zeroDivisor(this.expression);
+            }
+            theValue.setDouble(x / y);
+          }
+        };
+      case "//":
+        return new IntegerBinary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            if (y == 0) {
+              throw zeroDivisor(this.expression);
+            }
+            if (x == Long.MIN_VALUE && y == -1) {
+              theValue.setBig(BigInteger.valueOf(x).negate());
+            } else {
+              theValue.setLong(x / y);
+            }
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            if (y.signum() == 0) {
+              throw zeroDivisor(this.expression);
+            }
+            theValue.setBig(x.divide(y));
+          }
+        };
+      case "rem":
+        return new IntegerBinary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            if (y == 0) {
+              throw zeroDivisor(this.expression);
+            }
+            theValue.setLong(x % y);
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            if (y.signum() == 0) {
+              throw zeroDivisor(this.expression);
+            }
+            theValue.setBig(x.remainder(y));
+          }
+        };
+      case "mod":
+        return new IntegerBinary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            if (y == 0) {
+              throw zeroDivisor(this.expression);
+            }
+            theValue.setLong(Math.floorMod(x, y));
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            if (y.signum() == 0) {
+              throw zeroDivisor(this.expression);
+            }
+            // The result has the sign of y
+            BigInteger result = x.mod(y.abs());
+            if (y.signum() < 0 && result.signum() != 0) {
+              result = result.add(y);
+            }
+            theValue.setBig(result);
+          }
+        };
+      case "min":
+        return new Extremum(theExpression, theLeft, theRight, false);
+      case "max":
+        return new Extremum(theExpression, theLeft, theRight, true);
+      case "/\\":
+        return new IntegerBinary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            theValue.setLong(x & y);
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            theValue.setBig(x.and(y));
+          }
+        };
+      case "\\/":
+        return new IntegerBinary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            theValue.setLong(x | y);
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            theValue.setBig(x.or(y));
+          }
+        };
+      case "xor":
+        return new IntegerBinary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            theValue.setLong(x ^ y);
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            theValue.setBig(x.xor(y));
+          }
+        };
+      case "<<":
+        return new IntegerBinary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            shiftLeft(x, y, theValue, this.expression);
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            theValue.setBig(x.shiftLeft(shiftDistance(y, this.expression)));
+          }
+        };
+      case ">>":
+        return new IntegerBinary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            if (y == Long.MIN_VALUE) {
+              throw undefined(this.expression);
+            }
+            shiftLeft(x, -y, theValue, this.expression);
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            theValue.setBig(x.shiftRight(shiftDistance(y, this.expression)));
+          }
+        };
+      case "**":
+        return new FloatBinary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(double x, double y, Value theValue) {
+            final double result = Math.pow(x, y);
+            if (Double.isNaN(result)) {
+              throw undefined(this.expression);
+            }
+            theValue.setDouble(result);
+          }
+        };
+      case "^":
+        return new Binary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(long x, long y, Value theValue) {
+            power(x, y, theValue, this.expression);
+          }
+
+          @Override
+          void apply(BigInteger x, BigInteger y, Value theValue) {
+            if (y.bitLength() >= Long.SIZE) {
+              // Only the powers of 0, 1 and -1 are representable, they depend on the sign and parity of y
+              if (x.abs().bitLength() > 1) {
+                throw undefined(this.expression);
+              }
+              power(x.longValue(), y.signum() * (y.testBit(0) ? 1 : 2), theValue, this.expression);
+              return;
+            }
+            if (x.bitLength() >= Long.SIZE) {
+              if (y.signum() < 0) {
+                throw undefined(this.expression);
+              }
+              theValue.setBig(x.pow(exponent(y.longValue(), this.expression)));
+              return;
+            }
+            power(x.longValue(), y.longValue(), theValue, this.expression);
+          }
+
+          @Override
+          void apply(double x, double y, Value theValue) {
+            final double result = Math.pow(x, y);
+            if (Double.isNaN(result)) {
+              throw undefined(this.expression);
+            }
+            theValue.setDouble(result);
+          }
+        };
+      case "atan2":
+      case "atan":
+        return new FloatBinary(theExpression, theLeft, theRight) {
+          @Override
+          void apply(double x, double y, Value theValue) {
+            theValue.setDouble(Math.atan2(x, y));
+          }
+        };
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * x shifted left by y bits, right when y is negative.
+   */
+  static void shiftLeft(long x, long y, Value theValue, Struct theExpression) {
+    if (y <= 0) {
+      theValue.setLong(y <= -Long.SIZE ? x >> (Long.SIZE - 1) : x >> -y);
+    } else if (y < Long.SIZE - 1 && (x << y) >> y == x) {
+      theValue.setLong(x << y);
+    } else {
+      theValue.setBig(BigInteger.valueOf(x).shiftLeft(exponent(y, theExpression)));
+    }
+  }
+
+  static int shiftDistance(BigInteger theDistance, Struct theExpression) {
+    if (theDistance.bitLength() >= Integer.SIZE) {
+      throw undefined(theExpression);
+    }
+    return theDistance.intValue();
+  }
+
+  /**
+   * @return theExponent, when usable as an exponent (or shift distance) of a {@link BigInteger}.
+   */
+  static int exponent(long theExponent, Struct theExpression) {
+    if (theExponent > Integer.MAX_VALUE) {
+      throw undefined(theExpression);
+    }
+    return (int) theExponent;
+  }
+
+  /**
+   * Integer power: x^y is an integer, so y may only be negative when x is 1 or -1.
+   */
+  static void power(long x, long y, Value theValue, Struct theExpression) {
+    if (y < 0) {
+      if (x == 1) {
+        theValue.setLong(1);
+      } else if (x == -1) {
+        theValue.setLong((y & 1) == 0 ? 1 : -1);
+      } else if (x == 0) {
+        throw zeroDivisor(theExpression);
+      } else {
+        throw undefined(theExpression);
+      }
+      return;
+    }
+    // Exponentiation by squaring, on BigIntegers as soon as it overflows
+    long result = 1;
+    long base = x;
+    long exponent = y;
+    while (exponent != 0) {
+      if ((exponent & 1) != 0) {
+        final long low = result * base;
+        if (Math.multiplyHigh(result, base) != (low >> 63)) {
+          theValue.setBig(BigInteger.valueOf(x).pow(exponent(y, theExpression)));
+          return;
+        }
+        result = low;
+      }
+      exponent >>= 1;
+      if (exponent != 0) {
+        final long low = base * base;
+        if (Math.multiplyHigh(base, base) != (low >> 63)) {
+          theValue.setBig(BigInteger.valueOf(x).pow(exponent(y, theExpression)));
+          return;
+        }
+        base = low;
+      }
+    }
+    theValue.setLong(result);
+  }
+
+  /**
+   * Set theValue to the integer x, which was rounded already.
+   */
+  static void setInteger(double x, Value theValue, Struct theExpression) {
+    if (Double.isNaN(x) || Double.isInfinite(x)) {
+      throw undefined(theExpression);
+    }
+    if (x >= LONG_MIN_AS_DOUBLE && x < LONG_MAX_AS_DOUBLE) {
+      theValue.setLong((long) x);
+    } else {
+      theValue.setBig(new BigDecimal(x).toBigInteger());
+    }
+  }
+
+  /**
+   * Operation on one argument, which must evaluate.
+   */
+  private abstract static class Unary extends ArithmeticExpression {
+    final Struct expression;
+    private final ArithmeticExpression operand;
+
+    Unary(Struct theExpression, ArithmeticExpression theOperand) {
+      this.expression = theExpression;
+      this.operand = theOperand;
+    }
+
+    abstract void apply(long x, Value theValue);
+
+    abstract void apply(BigInteger x, Value theValue);
+
+    abstract void apply(double x, Value theValue);
+
+    @Override
+    final boolean evaluate(Bindings theBindings, Value theValue) {
+      if (!this.operand.evaluate(theBindings, theValue)) {
+        throw notNumbers(this.expression);
+      }
+      switch (theValue.type) {
+        case Value.LONG:
+          apply(theValue.longValue, theValue);
+          break;
+        case Value.BIG:
+          apply(theValue.bigValue, theValue);
+          break;
+        default:
+          apply(theValue.doubleValue, theValue);
+          break;
+      }
+      return true;
+    }
+  }
+
+  private abstract static class IntegerUnary extends Unary {
+    IntegerUnary(Struct theExpression, ArithmeticExpression theOperand) {
+      super(theExpression, theOperand);
+    }
+
+    @Override
+    final void apply(double x, Value theValue) {
+      throw integerExpected(this.expression);
+    }
+  }
+
+  private abstract static class FloatUnary extends Unary {
+    FloatUnary(Struct theExpression, ArithmeticExpression theOperand) {
+      super(theExpression, theOperand);
+    }
+
+    @Override
+    final void apply(long x, Value theValue) {
+      apply((double) x, theValue);
+    }
+
+    @Override
+    final void apply(BigInteger x, Value theValue) {
+      apply(x.doubleValue(), theValue);
+    }
+  }
+
+  /**
+   * Integer value of a float, integers are left unchanged.
+   */
+  private abstract static class Rounding extends Unary {
+    Rounding(Struct theExpression, ArithmeticExpression theOperand) {
+      super(theExpression, theOperand);
+    }
+
+    abstract double round(double x);
+
+    @Override
+    final void apply(long x, Value theValue) {
+      theValue.setLong(x);
+    }
+
+    @Override
+    final void apply(BigInteger x, Value theValue) {
+      theValue.setBig(x);
+    }
+
+    @Override
+    final void apply(double x, Value theValue) {
+      setInteger(round(x), theValue, this.expression);
+    }
+  }
+
+  /**
+   * Operation on two arguments, which must evaluate. Computes on longs when both are longs, on doubles when
+   * any is a double, on {@link BigInteger}s otherwise.
+   */
+  private abstract static class Binary extends ArithmeticExpression {
+    final Struct expression;
+    private final ArithmeticExpression left;
+    private final ArithmeticExpression right;
+
+    Binary(Struct theExpression, ArithmeticExpression theLeft, ArithmeticExpression theRight) {
+      this.expression = theExpression;
+      this.left = theLeft;
+      this.right = theRight;
+    }
+
+    abstract void apply(long x, long y, Value theValue);
+
+    abstract void apply(BigInteger x, BigInteger y, Value theValue);
+
+    abstract void apply(double x, double y, Value theValue);
+
+    @Override
+    final boolean evaluate(Bindings theBindings, Value theValue) {
+      if (!this.left.evaluate(theBindings, theValue)) {
+        throw notNumbers(this.expression);
+      }
+      final byte type = theValue.type;
+      final long x = theValue.longValue;
+      final BigInteger xBig = theValue.bigValue;
+      final double xDouble = theValue.doubleValue;
+      if (!this.right.evaluate(theBindings, theValue)) {
+        throw notNumbers(this.expression);
+      }
+      if (type == Value.LONG && theValue.type == Value.LONG) {
+        apply(x, theValue.longValue, theValue);
+      } else if (type == Value.DOUBLE || theValue.type == Value.DOUBLE) {
+        apply(asDouble(type, x, xBig, xDouble), theValue.asDouble(), theValue);
+      } else {
+        apply(asBig(type, x, xBig), theValue.asBig(), theValue);
+      }
+      return true;
+    }
+  }
+
+  private abstract static class IntegerBinary extends Binary {
+    IntegerBinary(Struct theExpression, ArithmeticExpression theLeft, ArithmeticExpression theRight) {
+      super(theExpression, theLeft, theRight);
+    }
+
+    @Override
+    final void apply(double x, double y, Value theValue) {
+      throw integerExpected(this.expression);
+    }
+  }
+
+  private abstract static class FloatBinary extends Binary {
+    FloatBinary(Struct theExpression, ArithmeticExpression theLeft, ArithmeticExpression theRight) {
+      super(theExpression, theLeft, theRight);
+    }
+
+    @Override
+    final void apply(long x, long y, Value theValue) {
+      apply((double) x, (double) y, theValue);
+    }
+
+    @Override
+    final void apply(BigInteger x, BigInteger y, Value theValue) {
+      apply(x.doubleValue(), y.doubleValue(), theValue);
+    }
+  }
+
+  /**
+   * min/2 and max/2: the lowest or greatest argument, unconverted; the second one when they compare equal.
+   */
+  private static final class Extremum extends ArithmeticExpression {
+    private final Struct expression;
+    private final ArithmeticExpression left;
+    private final ArithmeticExpression right;
+    private final boolean max;
+
+    Extremum(Struct theExpression, ArithmeticExpression theLeft, ArithmeticExpression theRight, boolean isMax) {
+      this.expression = theExpression;
+      this.left = theLeft;
+      this.right = theRight;
+      this.max = isMax;
+    }
+
+    @Override
+    boolean evaluate(Bindings theBindings, Value theValue) {
+      if (!this.left.evaluate(theBindings, theValue)) {
+        throw notNumbers(this.expression);
+      }
+      final byte type = theValue.type;
+      final long x = theValue.longValue;
+      final BigInteger xBig = theValue.bigValue;
+      final double xDouble = theValue.doubleValue;
+      if (!this.right.evaluate(theBindings, theValue)) {
+        throw notNumbers(this.expression);
+      }
+      final int comparison = compare(type, x, xBig, xDouble, theValue);
+      if (this.max ? comparison > 0 : comparison < 0) {
+        theValue.set(type, x, xBig, xDouble);
+      }
+      return true;
+    }
+  }
+
+  /**
+   * A functor that is not evaluated natively: its primitive is invoked.
+   */
+  private static final class Functor extends ArithmeticExpression {
+    private final Struct expression;
+    private final PrimitiveInfo primitive;
+
+    Functor(Struct theExpression, PrimitiveInfo thePrimitive) {
+      this.expression = theExpression;
+      this.primitive = thePrimitive;
+    }
+
+    @Override
+    boolean evaluate(Bindings theBindings, Value theValue) {
+      final Term result = this.primitive.invokeFunctor(this.expression, theBindings);
+      return result != null && evaluate(result, theBindings, theValue);
+    }
+  }
+
+  static InvalidTermException notNumbers(Struct theExpression) {
+    return new InvalidTermException("Could not evaluate " + theExpression + " because its arguments are not all numbers");
+  }
+
+  static InvalidTermException integerExpected(Struct theExpression) {
+    return new InvalidTermException("Could not evaluate " + theExpression + " because its arguments must be integers");
+  }
+
+  static InvalidTermException zeroDivisor(Struct theExpression) {
+    return new InvalidTermException("Could not evaluate " + theExpression + ": division by zero");
+  }
+
+  static InvalidTermException undefined(Struct theExpression) {
+    return new InvalidTermException("Could not evaluate " + theExpression + ": undefined result");
+  }
+
+}
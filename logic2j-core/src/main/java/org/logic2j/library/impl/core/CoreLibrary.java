@@ -0,0 +1,739 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.library.impl.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.logic2j.ClauseProvider;
+import org.logic2j.PrologImplementor;
+import org.logic2j.library.impl.LibraryBase;
+import org.logic2j.library.mgmt.Primitive;
+import org.logic2j.model.Clause;
+import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.StructObject;
+import org.logic2j.model.symbol.TLong;
+import org.logic2j.model.symbol.TNumber;
+import org.logic2j.model.symbol.TString;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.symbol.Var;
+import org.logic2j.model.var.Binding;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.ioc.SolutionGenerator;
+import org.logic2j.solve.ioc.SolutionListener;
+import org.logic2j.solve.ioc.SolutionListenerBase;
+import org.logic2j.theory.TheoryManager;
+import org.logic2j.util.ReflectUtils;
+
+public class CoreLibrary extends LibraryBase {
+  static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(CoreLibrary.class);
+
+  /**
+   * Name of the {@link StructObject}s referencing clauses, see clause/3 and erase/1.
+   */
+  private static final String CLAUSE_REF = "$clause";
+
+  public CoreLibrary(PrologImplementor theProlog) {
+    super(theProlog);
+  }
+
+  @Primitive(name = Struct.FUNCTOR_TRUE)
+  // We can't name the method "true" it's a Java reserved word...
+  public void trueFunctor(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings) {
+    notifySolution(theGoalFrame, theListener);
+  }
+
+  @Primitive
+  public void fail(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings) {
+    // Do not propagate a solution - that's all
+  }
+
+  @Primitive
+  public void var(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    if (t1 instanceof Var) {
+      Var var = (Var) t1;
+      if (var.isAnonymous()) {
+        notifySolution(theGoalFrame, theListener);
+      } else {
+        final Binding binding = var.bindingWithin(theBindings).followLinks();
+        if (!binding.isLiteral()) {
+          // Not ending on a literal, we end up on a free var!
+          notifySolution(theGoalFrame, theListener);
+        }
+      }
+    }
+  }
+  
+  @Primitive
+  public void atomic(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term theTerm) {
+    final Bindings b = theBindings.focus(theTerm, Term.class);
+    assertValidBindings(b, "atomic/1");
+    final Term effectiveTerm = b.getReferrer();
+    if (effectiveTerm instanceof Struct || effectiveTerm instanceof TNumber || effectiveTerm instanceof TString) {
+      notifySolution(theGoalFrame, theListener);
+    }
+  }
+
+  @Primitive
+  public void number(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term theTerm) {
+    final Bindings b = theBindings.focus(theTerm, Term.class);
+    assertValidBindings(b, "number/1");
+    final Term effectiveTerm = b.getReferrer();
+    if (effectiveTerm instanceof TNumber) {
+      notifySolution(theGoalFrame, theListener);
+    }
+  }
+
+  @Primitive(name = Struct.FUNCTOR_CUT)
+  public void cut(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings) {
+    // This is a complex behaviour - read on DefaultGoalSolver
+    theGoalFrame.signalCut();
+    notifySolution(theGoalFrame, theListener);
+  }
+
+  @Primitive(name = "=")
+  public void unify(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    final boolean unified = unify(t1, theBindings, t2, theBindings, theGoalFrame);
+    notifyIfUnified(unified, theGoalFrame, theListener);
+  }
+
+  @Primitive(name = "\\=")
+  public void notUnify(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    final boolean unified = unify(t1, theBindings, t2, theBindings, theGoalFrame);
+    if (!unified) {
+      notifySolution(theGoalFrame, theListener);
+    }
+    if (unified) {
+      deunify(theGoalFrame);
+    }
+  }
+
+  @Primitive
+  public void atom_length(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term theAtom, Term theLength) {
+    final Bindings atomBindings = theBindings.focus(theAtom, Struct.class);
+    assertValidBindings(atomBindings, "atom_length/2");
+    final Struct atom = (Struct) atomBindings.getReferrer();
+    
+    final TLong atomLength = createTLong(atom.getName().length());
+    final boolean unified = unify(atomLength, atomBindings, theLength, theBindings, theGoalFrame);
+    notifyIfUnified(unified, theGoalFrame, theListener);
+  }
+  
+//  /**
+//   * A possible yet ineffective implementation of call/1. We much prefer have the solver taking care of calls immediately
+//   * @param theGoalFrame
+//   * @param theBindings
+//   * @param t1
+//   */
+//  @Primitive
+//  public void call(final SolutionListener theListener, final GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+//    // Resolve bindings wherever possible
+//    final Term target = resolveNonVar(t1, theBindings, "call");
+//    final SolutionListenerBase callListener = new SolutionListenerBase() {
+//      @SuppressWarnings("synthetic-access")
+//      // does not affect performance at all
+//      @Override
+//      public boolean onSolution() {
+//        notifySolution(theGoalFrame, theListener);
+//        return true;
+//      }
+//    };
+//    // TODO Need more testing of call/1, quite unsure if this way of doing is reliable
+//    getProlog().getSolver().solveGoalRecursive(target, theBindings, theGoalFrame, callListener);
+//  }
+
+  @Primitive(synonyms = "\\+")
+  public void not(final SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term theGoal) {
+    final Bindings b = theBindings.focus(theGoal, Struct.class);
+    assertValidBindings(b, "\\+/1");
+    final Term target = b.getReferrer();
+    
+    
+//    final Term target = resolveNonVar(theGoal, theBindings, "not");
+    final class AdHocListener implements SolutionListener {
+      public boolean found = false;
+
+      @Override
+      public boolean onSolution() {
+        // Do NOT relay the solution further, just note there was one
+        this.found = true;
+        return false; // No need to find further solutions
+      }
+    }
+    final AdHocListener callListener = new AdHocListener();
+    getProlog(theGoalFrame).getSolver().solveGoalRecursive(target, theBindings, theGoalFrame, callListener);
+    if (!callListener.found) {
+      theListener.onSolution();
+    }
+  }
+
+  @Primitive
+  public void findall(SolutionListener theListener, GoalFrame theGoalFrame, final Bindings theBindings, final Term theTemplate,
+      final Term theGoal, final Term theResult) {
+    final Bindings goalBindings = theBindings.focus(theGoal, Term.class);
+    assertValidBindings(goalBindings, "findall/3");
+    final Term effectiveGoal = goalBindings.getReferrer();
+    
+    // Define a listener to collect all solutions for the goal specified
+    final ArrayList<Term> javaResults = new ArrayList<Term>(); // Our internal collection of results
+    final SolutionListenerBase solutionListener = new SolutionListenerBase() {
+
+      @Override
+      public boolean onSolution() {
+        // Calculate the substituted goal value (resolve bindings)
+        @SuppressWarnings("synthetic-access")
+        
+        // FIXME This is most certainly wrong: how can we call substitute on a variable expressed in a different bindings?????
+        // The case is : findall(X, Expr, Result) where Expr -> something -> expr(a,b,X,c) 
+        final Term substitute = TERM_API.substitute(theTemplate, goalBindings, null);
+        // Map<String, Term> explicitBindings = goalBindings.explicitBindings(FreeVarRepresentation.FREE);
+        // And add as extra solution
+        javaResults.add(substitute);
+        return true;
+      }
+
+    };
+
+    // Now solve the target goal, this may find several values of course
+    getProlog(theGoalFrame).getSolver().solveGoalRecursive(effectiveGoal, goalBindings, new GoalFrame(), solutionListener); // TODO: use solveGoal() instead
+
+    // Convert all results into a prolog list structure
+    // Note on var indexes: all variables present in the projection term will be 
+    // copied into the resulting plist, so there's no need to reindex.
+    // However, the root level Struct that makes up the list does contain a bogus
+    // index value but -1.
+    final Struct plist = Struct.createPList(javaResults);
+
+    // And unify with result
+    final boolean unified = unify(theResult, theBindings, plist, theBindings, theGoalFrame);
+    notifyIfUnified(unified, theGoalFrame, theListener);
+  }
+
+ 
+  @Primitive
+  public void clause(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term theHead, Term theBody) {
+    final Binding dereferencedBinding = dereferencedBinding(theHead, theBindings);
+    final Struct realHead =  ReflectUtils.safeCastNotNull("dereferencing argumnent for clause/2", dereferencedBinding.getTerm(), Struct.class);
+    // TODO See if we could parallelize instead of sequential iteration, see https://github.com/ltettoni/logic2j/issues/18
+    final ClauseGenerator generator = new ClauseGenerator(getProlog(theGoalFrame).getClauseProviders().iterator(), realHead,
+        dereferencedBinding.getLiteralBindings(), theBody, theBindings, null);
+    notifySolutions(generator, theGoalFrame, theListener);
+  }
+
+  /**
+   * The clauses whose head and body unify with a head and a body, generated one at a time, see {@link SolutionGenerator}.
+   */
+  private class ClauseGenerator implements SolutionGenerator {
+    private final Iterator<? extends ClauseProvider> providers;
+    private final Struct head;
+    private final Bindings headBindings;
+    private final Term body;
+    private final Bindings bindings;
+    /**
+     * When not null, also unified with a reference to each clause.
+     */
+    private final Term ref;
+    private Iterator<Clause> clauses = null;
+
+    ClauseGenerator(Iterator<? extends ClauseProvider> theProviders, Struct theHead, Bindings theHeadBindings, Term theBody,
+        Bindings theBindings, Term theRef) {
+      this.providers = theProviders;
+      this.head = theHead;
+      this.headBindings = theHeadBindings;
+      this.body = theBody;
+      this.bindings = theBindings;
+      this.ref = theRef;
+    }
+
+    @Override
+    public boolean next(GoalFrame theGoalFrame) {
+      while (true) {
+        if (this.clauses == null || !this.clauses.hasNext()) {
+          if (!this.providers.hasNext()) {
+            return false;
+          }
+          close();
+          this.clauses = this.providers.next().listMatchingClauses(this.head, this.headBindings).iterator();
+          continue;
+        }
+        final Clause clause = this.clauses.next();
+        // Clone the clause so that we can unify against its bindings
+        final Clause clauseToUnify = new Clause(clause);
+        final int trailSize = theGoalFrame.getTrailSize();
+        if (bind(clauseToUnify.getHead(), clauseToUnify.getBindings(), this.head, this.headBindings, theGoalFrame)
+            && bind(clauseToUnify.getBody(), clauseToUnify.getBindings(), this.body, this.bindings, theGoalFrame)
+            && (this.ref == null || bind(this.ref, this.bindings, new StructObject<Clause>(CLAUSE_REF, clause), this.bindings, theGoalFrame))) {
+          return true;
+        }
+        theGoalFrame.clearBindingsToTrailSize(trailSize);
+      }
+    }
+
+    /**
+     * Unify, leaving the bindings to be undone by the caller of {@link #next(GoalFrame)}.
+     */
+    private boolean bind(Term t1, Bindings theBindings1, Term t2, Bindings theBindings2, GoalFrame theGoalFrame) {
+      if (!unify(t1, theBindings1, t2, theBindings2, theGoalFrame)) {
+        return false;
+      }
+      theGoalFrame.discardMark();
+      return true;
+    }
+
+    @Override
+    public void close() {
+      if (this.clauses instanceof AutoCloseable) {
+        try {
+          ((AutoCloseable) this.clauses).close();
+        } catch (Exception e) {
+          throw new IllegalStateException("Could not close clauses of " + this.head, e);
+        }
+      }
+      this.clauses = null;
+    }
+  }
+
+  //---------------------------------------------------------------------------
+  // Dynamic database. Goals being solved keep seeing the clauses of their predicate as they were
+  // when called (logical update view), retract/1 is defined in Prolog on top of clause/3 and erase/1.
+  //---------------------------------------------------------------------------
+
+  /**
+   * Like clause/2 but only for the clauses of the theory, unifying theRef with a reference to each clause found.
+   */
+  @Primitive(name = "clause")
+  public void clauseRef(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term theHead,
+      Term theBody, Term theRef) {
+    final Binding dereferencedBinding = dereferencedBinding(theHead, theBindings);
+    final Struct realHead = ReflectUtils.safeCastNotNull("dereferencing argument for clause/3", dereferencedBinding.getTerm(), Struct.class);
+    final TheoryManager theory = getProlog(theGoalFrame).getTheoryManager();
+    final ClauseGenerator generator = new ClauseGenerator(Collections.singletonList(theory).iterator(), realHead,
+        dereferencedBinding.getLiteralBindings(), theBody, theBindings, theRef);
+    notifySolutions(generator, theGoalFrame, theListener);
+  }
+
+  /**
+   * Remove the clause referenced by theRef, fails if it was already removed.
+   */
+  @Primitive
+  public void erase(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term theRef) {
+    final Term ref = dereferencedBinding(theRef, theBindings).getTerm();
+    if (!(ref instanceof StructObject<?>) || !(((StructObject<?>) ref).getObject() instanceof Clause)) {
+      throw new InvalidTermException("erase/1 expects a reference obtained from clause/3, not " + ref);
+    }
+    final Clause clause = (Clause) ((StructObject<?>) ref).getObject();
+    if (getProlog(theGoalFrame).getTheoryManager().retract(clause)) {
+      notifySolution(theGoalFrame, theListener);
+    }
+  }
+
+  @Primitive(synonyms = "assert")
+  public void assertz(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term theClause) {
+    getProlog(theGoalFrame).getTheoryManager().assertZ(newClause(theGoalFrame, theBindings, theClause));
+    notifySolution(theGoalFrame, theListener);
+  }
+
+  @Primitive
+  public void asserta(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term theClause) {
+    getProlog(theGoalFrame).getTheoryManager().assertA(newClause(theGoalFrame, theBindings, theClause));
+    notifySolution(theGoalFrame, theListener);
+  }
+
+  /**
+   * Remove all clauses whose head unifies with theHead, always succeeds once.
+   */
+  @Primitive
+  public void retractall(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term theHead) {
+    final Binding dereferencedBinding = dereferencedBinding(theHead, theBindings);
+    final Struct realHead = ReflectUtils.safeCastNotNull("dereferencing argument for retractall/1", dereferencedBinding.getTerm(), Struct.class);
+    final TheoryManager theory = getProlog(theGoalFrame).getTheoryManager();
+    for (Clause clause : theory.listMatchingClauses(realHead, dereferencedBinding.getLiteralBindings())) {
+      final Clause clauseToUnify = new Clause(clause);
+      if (unify(clauseToUnify.getHead(), clauseToUnify.getBindings(), realHead, dereferencedBinding.getLiteralBindings(), theGoalFrame)) {
+        deunify(theGoalFrame);
+        theory.retract(clause);
+      }
+    }
+    notifySolution(theGoalFrame, theListener);
+  }
+
+  /**
+   * @return A new {@link Clause} from the current value of theClause, independent from theBindings.
+   */
+  private Clause newClause(GoalFrame theGoalFrame, Bindings theBindings, Term theClause) {
+    final Term copy = TERM_API.copy(theClause, theBindings);
+    if (!(copy instanceof Struct)) {
+      throw new InvalidTermException("Cannot assert " + copy + ", a clause must be a Struct");
+    }
+    return new Clause(getProlog(theGoalFrame), copy);
+  }
+
+  @Primitive(name = "=..")
+  public void predicate2PList(final SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term thePredicate, Term theList) {
+    Bindings resolvedBindings = theBindings.focus(thePredicate, Term.class);
+    
+    if (resolvedBindings.isFreeReferrer()) {
+      // thePredicate is still free, going ot match from theList
+      resolvedBindings = theBindings.focus(theList, Term.class);
+      assertValidBindings(resolvedBindings, "=../2");
+      if (resolvedBindings.isFreeReferrer()) {
+        throw new IllegalArgumentException("Predicate =.. does not accept both arguments as free variable");
+      }
+      Struct lst2 = (Struct) resolvedBindings.getReferrer();
+      Struct flattened = lst2.predicateFromPList();
+      final boolean unified = unify(thePredicate, theBindings, flattened, resolvedBindings, theGoalFrame);
+      notifyIfUnified(unified, theGoalFrame, theListener);
+    } else {
+      final Term predResolved = resolvedBindings.getReferrer();
+      if (predResolved instanceof Struct) {
+        Struct struct = (Struct) predResolved;
+        ArrayList<Term> elems = new ArrayList<Term>();
+        elems.add(new Struct(struct.getName())); // Only copying the functor as an atom, not a deep copy of the struct!
+        int arity = struct.getArity();
+        for (int i = 0; i < arity; i++) {
+          elems.add(struct.getArg(i));
+        }
+        Struct plist = Struct.createPList(elems);
+        final boolean unified = unify(theList, theBindings, plist, resolvedBindings, theGoalFrame);
+        notifyIfUnified(unified, theGoalFrame, theListener);
+      }
+    }
+  }
+
+  @Primitive
+  public void is(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    final Term evaluated = evaluateFunctor(theBindings, t2);
+    if (evaluated == null) {
+      return;
+    }
+    final boolean unified = unify(t1, theBindings, evaluated, theBindings, theGoalFrame);
+    notifyIfUnified(unified, theGoalFrame, theListener);
+  }
+  
+  @Primitive(name = ">")
+  public void expression_greater_than(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    final int comparison = ArithmeticExpression.compare(t1, t2, theBindings);
+    if (comparison != ArithmeticExpression.NOT_EVALUABLE && comparison > 0) {
+      notifySolution(theGoalFrame, theListener);
+    }
+  }
+
+  @Primitive(name = "<")
+  public void expression_lower_than(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    final int comparison = ArithmeticExpression.compare(t1, t2, theBindings);
+    if (comparison != ArithmeticExpression.NOT_EVALUABLE && comparison < 0) {
+      notifySolution(theGoalFrame, theListener);
+    }
+  }
+
+  @Primitive(name = ">=")
+  public void expression_greater_or_equal(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    final int comparison = ArithmeticExpression.compare(t1, t2, theBindings);
+    if (comparison != ArithmeticExpression.NOT_EVALUABLE && comparison >= 0) {
+      notifySolution(theGoalFrame, theListener);
+    }
+  }
+
+  @Primitive(name = "=<")
+  public void expression_lower_or_equal(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    final int comparison = ArithmeticExpression.compare(t1, t2, theBindings);
+    if (comparison != ArithmeticExpression.NOT_EVALUABLE && comparison <= 0) {
+      notifySolution(theGoalFrame, theListener);
+    }
+  }
+
+  @Primitive(name = "=:=")
+  public void expression_equal(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    final int comparison = ArithmeticExpression.compare(t1, t2, theBindings);
+    if (comparison != ArithmeticExpression.NOT_EVALUABLE && comparison == 0) {
+      notifySolution(theGoalFrame, theListener);
+    }
+  }
+
+  @Primitive(name = "=\\=")
+  public void expression_not_equal(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    final int comparison = ArithmeticExpression.compare(t1, t2, theBindings);
+    if (comparison != ArithmeticExpression.NOT_EVALUABLE && comparison != 0) {
+      notifySolution(theGoalFrame, theListener);
+    }
+  }
+
+  // The arithmetic functors below are evaluated natively by ArithmeticExpression, they are
+  // only invoked as primitives when called directly.
+  // Integers overflowing a long are promoted to big integers, "/" gives an integer when the division is exact.
+
+  /**
+   * @return Binary plus (add)
+   */
+  @Primitive(name = "+")
+  public Term plus(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("+", theBindings, t1, t2);
+  }
+
+  /**
+   * @return Binary minus (subtract)
+   */
+  @Primitive(name = "-")
+  public Term minus(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("-", theBindings, t1, t2);
+  }
+
+  /**
+   * @return Binary multiply
+   */
+  @Primitive(name = "*")
+  public Term multiply(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("*", theBindings, t1, t2);
+  }
+
+  /**
+   * @return Division, an integer when exact
+   */
+  @Primitive(name = "/")
+  public Term divide(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("/", theBindings, t1, t2);
+  }
+
+  /**
+   * @return Integer division, truncated toward zero
+   */
+  @Primitive(name = "//")
+  public Term integer_divide(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("//", theBindings, t1, t2);
+  }
+
+  /**
+   * @return Modulo, with the sign of the divisor
+   */
+  @Primitive
+  public Term mod(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("mod", theBindings, t1, t2);
+  }
+
+  /**
+   * @return Remainder of the integer division, with the sign of the dividend
+   */
+  @Primitive
+  public Term rem(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("rem", theBindings, t1, t2);
+  }
+
+  @Primitive
+  public Term min(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("min", theBindings, t1, t2);
+  }
+
+  @Primitive
+  public Term max(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("max", theBindings, t1, t2);
+  }
+
+  /**
+   * @return Unary minus (negate)
+   */
+  @Primitive(name = "-")
+  public Term minus(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("-", theBindings, t1);
+  }
+
+  @Primitive(name = "+")
+  public Term plus(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("+", theBindings, t1);
+  }
+
+  @Primitive
+  public Term abs(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("abs", theBindings, t1);
+  }
+
+  @Primitive
+  public Term sign(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("sign", theBindings, t1);
+  }
+
+  /**
+   * @return Bitwise operations
+   */
+  @Primitive(name = "/\\")
+  public Term bitwise_and(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("/\\", theBindings, t1, t2);
+  }
+
+  @Primitive(name = "\\/")
+  public Term bitwise_or(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("\\/", theBindings, t1, t2);
+  }
+
+  @Primitive
+  public Term xor(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("xor", theBindings, t1, t2);
+  }
+
+  @Primitive(name = "\\")
+  public Term bitwise_not(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("\\", theBindings, t1);
+  }
+
+  @Primitive(name = "<<")
+  public Term shift_left(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("<<", theBindings, t1, t2);
+  }
+
+  @Primitive(name = ">>")
+  public Term shift_right(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate(">>", theBindings, t1, t2);
+  }
+
+  /**
+   * @return Power, always a float
+   */
+  @Primitive(name = "**")
+  public Term float_power(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("**", theBindings, t1, t2);
+  }
+
+  /**
+   * @return Power, an integer when both arguments are integers
+   */
+  @Primitive(name = "^")
+  public Term power(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("^", theBindings, t1, t2);
+  }
+
+  /**
+   * @return Float functions
+   */
+  @Primitive
+  public Term sqrt(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("sqrt", theBindings, t1);
+  }
+
+  @Primitive
+  public Term sin(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("sin", theBindings, t1);
+  }
+
+  @Primitive
+  public Term cos(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("cos", theBindings, t1);
+  }
+
+  @Primitive
+  public Term tan(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("tan", theBindings, t1);
+  }
+
+  @Primitive
+  public Term asin(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("asin", theBindings, t1);
+  }
+
+  @Primitive
+  public Term acos(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("acos", theBindings, t1);
+  }
+
+  @Primitive
+  public Term atan(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("atan", theBindings, t1);
+  }
+
+  @Primitive
+  public Term atan(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("atan", theBindings, t1, t2);
+  }
+
+  @Primitive
+  public Term atan2(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1, Term t2) {
+    return ArithmeticExpression.evaluate("atan2", theBindings, t1, t2);
+  }
+
+  @Primitive
+  public Term exp(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("exp", theBindings, t1);
+  }
+
+  @Primitive
+  public Term log(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("log", theBindings, t1);
+  }
+
+  /**
+   * @return Conversions
+   */
+  @Primitive(name = "float")
+  public Term to_float(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("float", theBindings, t1);
+  }
+
+  @Primitive
+  public Term integer(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("integer", theBindings, t1);
+  }
+
+  @Primitive
+  public Term float_integer_part(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("float_integer_part", theBindings, t1);
+  }
+
+  @Primitive
+  public Term float_fractional_part(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("float_fractional_part", theBindings, t1);
+  }
+
+  @Primitive
+  public Term truncate(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("truncate", theBindings, t1);
+  }
+
+  @Primitive
+  public Term round(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("round", theBindings, t1);
+  }
+
+  @Primitive
+  public Term ceiling(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("ceiling", theBindings, t1);
+  }
+
+  @Primitive
+  public Term floor(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term t1) {
+    return ArithmeticExpression.evaluate("floor", theBindings, t1);
+  }
+
+  /**
+   * @return Constants
+   */
+  @Primitive
+  public Term pi(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings) {
+    return ArithmeticExpression.evaluate("pi", theBindings);
+  }
+
+  @Primitive
+  public Term e(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings) {
+    return ArithmeticExpression.evaluate("e", theBindings);
+  }
+
+  private TLong createTLong(long num) {
+    return TLong.valueOf(num);
+  }
+
+}
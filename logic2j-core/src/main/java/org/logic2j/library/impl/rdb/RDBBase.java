@@ -0,0 +1,172 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.library.impl.rdb;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.logic2j.PrologImplementor;
+import org.logic2j.TermFactory;
+import org.logic2j.TermFactory.FactoryMode;
+import org.logic2j.io.parse.DefaultTermFactory;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.TString;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.symbol.TermApi;
+
+/**
+ * Base class for RDB access using JDBC.
+ */
+public class RDBBase {
+
+  /**
+   * A {@link TermFactory} that will parse all strings as atoms 
+   * (especially those starting with uppercase that must not become bindings).
+   */
+  public static class AllStringsAsAtoms extends DefaultTermFactory {
+    private static final TermApi TERM_API = new TermApi();
+
+    public AllStringsAsAtoms(PrologImplementor theProlog) {
+      super(theProlog);
+    }
+
+    @Override
+    public Term parse(CharSequence theExpression) {
+      return new Struct(theExpression.toString());
+    }
+
+    @Override
+    public Term create(Object theObject, FactoryMode theMode) {
+      // Ignore theMode argument, and use forcing of atom instead
+      return TERM_API.valueOf(theObject, FactoryMode.ATOM);
+    }
+
+  }
+
+  /**
+   * A {@link TermFactory} that will create {@link TString}s from all strings, unless an atom is
+   * required by {@link FactoryMode#ATOM}: scanning a table does not fill the
+   * {@link org.logic2j.model.symbol.SymbolTable} nor allocates a {@link Struct} per cell.
+   */
+  public static class AllStringsAsTStrings extends DefaultTermFactory {
+    private static final TermApi TERM_API = new TermApi();
+
+    public AllStringsAsTStrings(PrologImplementor theProlog) {
+      super(theProlog);
+    }
+
+    @Override
+    public Term parse(CharSequence theExpression) {
+      return new TString(theExpression.toString());
+    }
+
+    @Override
+    public Term create(Object theObject, FactoryMode theMode) {
+      if ((theObject instanceof CharSequence || theObject instanceof Character) && theMode != FactoryMode.ATOM) {
+        return new TString(theObject.toString());
+      }
+      return TERM_API.valueOf(theObject, FactoryMode.ATOM);
+    }
+
+  }
+
+  /**
+   * Names of the columns whose strings become atoms instead of {@link TString}s, case-insensitive.
+   * Shared by {@link RDBBase} and {@link RDBLibrary}.
+   */
+  public static class AtomColumns {
+    // In lower case
+    private final Set<String> names = new HashSet<String>();
+
+    public void add(String theColumnName) {
+      this.names.add(theColumnName.toLowerCase());
+    }
+
+    public boolean contains(String theColumnName) {
+      return this.names.contains(theColumnName.toLowerCase());
+    }
+
+    /**
+     * @param theColumnName
+     * @return The mode to create the terms of theColumnName's values.
+     */
+    public FactoryMode modeOf(String theColumnName) {
+      return contains(theColumnName) ? FactoryMode.ATOM : FactoryMode.ANY_TERM;
+    }
+  }
+
+  private final PrologImplementor prolog;
+  private TermFactory termFactory;
+  private DataSource dataSource;
+  private final AtomColumns atomColumns = new AtomColumns();
+
+  public RDBBase(PrologImplementor theProlog, DataSource theDataSource) {
+    this.prolog = theProlog;
+    this.termFactory = new RDBBase.AllStringsAsTStrings(this.prolog);
+    this.dataSource = theDataSource;
+  }
+
+  /**
+   * Strings of theColumnName will become atoms instead of {@link TString}s: appropriate for columns
+   * having few distinct values, such as codes, that are then shared.
+   * @param theColumnName Case-insensitive name of a column, in any table.
+   */
+  public void addAtomColumn(String theColumnName) {
+    this.atomColumns.add(theColumnName);
+  }
+
+  public boolean isAtomColumn(String theColumnName) {
+    return this.atomColumns.contains(theColumnName);
+  }
+
+  /**
+   * @param theValue A value read from theColumnName.
+   * @param theColumnName
+   * @return The {@link Term} for theValue, an atom when theColumnName is an atom column, see {@link #addAtomColumn(String)}.
+   */
+  protected Term createTerm(Object theValue, String theColumnName) {
+    return this.termFactory.create(theValue, this.atomColumns.modeOf(theColumnName));
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  public DataSource getDataSource() {
+    return this.dataSource;
+  }
+
+  public void setDataSource(DataSource theDataSource) {
+    this.dataSource = theDataSource;
+  }
+
+  public TermFactory getTermFactory() {
+    return this.termFactory;
+  }
+
+  public void setTermFactory(TermFactory theTermFactory) {
+    this.termFactory = theTermFactory;
+  }
+
+  public PrologImplementor getProlog() {
+    return this.prolog;
+  }
+
+}
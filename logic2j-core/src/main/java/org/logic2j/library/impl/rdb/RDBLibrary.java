@@ -33,16 +33,19 @@ import javax.sql.DataSource;
 
 import org.logic2j.PrologImplementor;
 import org.logic2j.TermFactory;
+import org.logic2j.TermFactory.FactoryMode;
 import org.logic2j.library.impl.LibraryBase;
 import org.logic2j.library.impl.pojo.PojoLibrary;
 import org.logic2j.library.mgmt.Primitive;
 import org.logic2j.model.exception.InvalidTermException;
 import org.logic2j.model.symbol.Struct;
 import org.logic2j.model.symbol.TNumber;
+import org.logic2j.model.symbol.TString;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.symbol.Var;
 import org.logic2j.model.var.Bindings;
 import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.ioc.SolutionGenerator;
 import org.logic2j.solve.ioc.SolutionListener;
 import org.logic2j.solve.ioc.UniqueSolutionListener;
 import org.logic2j.util.CollectionMap;
@@ -56,6 +59,7 @@ import org.logic2j.util.SqlRunner;
 /**
  * Prolog library that bridges the Prolog engine and
  * a relational database seen as a facts repository.
+ * Strings read from the database are bound as {@link TString}s, except in atom columns, see {@link #addAtomColumn(String)}.
  * TODO: the {@link #select(SolutionListener, GoalFrame, Bindings, Term...)} method should actually take the goal and create a constraint graph, then transform the graph into SQL.
  */
 public class RDBLibrary extends LibraryBase {
@@ -73,9 +77,23 @@ public class RDBLibrary extends LibraryBase {
 
   private TermFactory termFactory;
 
+  private final RDBBase.AtomColumns atomColumns = new RDBBase.AtomColumns();
+
   public RDBLibrary(PrologImplementor theProlog) {
     super(theProlog);
-    this.termFactory = new RDBBase.AllStringsAsAtoms(theProlog);
+    this.termFactory = new RDBBase.AllStringsAsTStrings(theProlog);
+  }
+
+  /**
+   * Strings of theColumnName will be bound as atoms instead of {@link TString}s, see {@link RDBBase#addAtomColumn(String)}.
+   * @param theColumnName Case-insensitive name of a column, in any table.
+   */
+  public void addAtomColumn(String theColumnName) {
+    this.atomColumns.add(theColumnName);
+  }
+
+  public boolean isAtomColumn(String theColumnName) {
+    return this.atomColumns.contains(theColumnName);
   }
 
 
@@ -108,7 +126,7 @@ public class RDBLibrary extends LibraryBase {
     internalGoal = getProlog().getTermFactory().normalize(internalGoal);
     final Bindings internalBindings = new Bindings(internalGoal);
     final UniqueSolutionListener internalListener = new UniqueSolutionListener(internalBindings);
-    getProlog().getSolver().solveGoal(internalBindings, new GoalFrame(), internalListener);
+    getProlog(theGoalFrame).getSolver().solveGoal(internalBindings, new GoalFrame(), internalListener);
     Term result = internalListener.getSolution().getBinding(resultVar);
     if (!(result instanceof Struct)) {
       throw new InvalidTermException("Internal result must be a Struct");
@@ -165,6 +183,8 @@ public class RDBLibrary extends LibraryBase {
     List<SqlBuilder3.Criterion> rawColumns = new ArrayList<SqlBuilder3.Criterion>();
     int aliasIndex = 1;
     final Set<Var> projectVars = new LinkedHashSet<Var>();
+    // Atom modes of the projected columns, in projection order
+    final List<FactoryMode> projectedModes = new ArrayList<FactoryMode>();
     for (Struct tbls : javaListRoot) {
       final String alias = "t" + (aliasIndex++);
       List<Struct> javaList = tbls.javaListFromPList(new ArrayList<Struct>(), Struct.class);
@@ -212,6 +232,7 @@ public class RDBLibrary extends LibraryBase {
             
             projectVars.add(originalVar);
             builder.addProjection(sqlColumn);
+            projectedModes.add(modeOf(sqlColumn));
           }
         } else {
           // A constant
@@ -234,7 +255,9 @@ public class RDBLibrary extends LibraryBase {
 
     // Every variable referenced contributes one projection. If more than on column for same variable (-->join), use only first of them
     for (Collection<SqlBuilder3.Criterion> clausesOfOneJoinExpression : columnsPerVariable.values()) {
-      builder.addProjection(clausesOfOneJoinExpression.iterator().next().getColumn());
+      final Column projected = clausesOfOneJoinExpression.iterator().next().getColumn();
+      builder.addProjection(projected);
+      projectedModes.add(modeOf(projected));
       if (clausesOfOneJoinExpression.size() >= 2) {
         List<SqlBuilder3.Criterion> toJoin = new ArrayList<SqlBuilder3.Criterion>(clausesOfOneJoinExpression);
         for (int i = 1; i < toJoin.size(); i++) {
@@ -283,11 +306,21 @@ public class RDBLibrary extends LibraryBase {
     	  throw new IllegalStateException("Query for counting " + effectiveSql + "did not return any result.");
       }
       final Number resultSet = (Number) firstObject[0];
-      int number = resultSet.intValue();
-      while (number-- > 0) {
-        // Generates solutions without binding variables, just the right number of them
-        notifySolution(theGoalFrame, theListener);
-      }
+      final int number = resultSet.intValue();
+      // Generates solutions without binding variables, just the right number of them
+      notifySolutions(new SolutionGenerator() {
+        private int remaining = number;
+
+        @Override
+        public boolean next(GoalFrame theFrame) {
+          return this.remaining-- > 0;
+        }
+
+        @Override
+        public void close() {
+          // Nothing held
+        }
+      }, theGoalFrame, theListener);
     } else {
       final Iterable<Object[]> resultSet = sqlRunner.query(effectiveSql, builder.getParameters());
       // Vars referenced in projections
@@ -315,15 +348,43 @@ public class RDBLibrary extends LibraryBase {
         }
         counter++;
       }
-      // Generate solutions, one per row
-      for (Object[] objects : resultSet) {
-        unifyAndNotify(projectedVars, objects, originalBindings, theGoalFrame, theListener);
-      }
+      // Generate solutions, one per row, converted only when needed
+      final FactoryMode[] modes = projectedModes.toArray(new FactoryMode[projectedModes.size()]);
+      final Iterator<Object[]> rows = resultSet.iterator();
+      final Struct projection = new Struct("group", projectedVars);
+      final Bindings projectionBindings = originalBindings;
+      notifySolutions(new SolutionGenerator() {
+        @Override
+        public boolean next(GoalFrame theFrame) {
+          while (rows.hasNext()) {
+            final Object[] objects = rows.next();
+            final Term[] values = new Term[objects.length];
+            for (int i = 0; i < objects.length; i++) {
+              values[i] = objects[i] == null ? Var.ANONYMOUS_VAR : RDBLibrary.this.termFactory.create(objects[i], modes[i]);
+            }
+            if (unify(projection, projectionBindings, new Struct("group", values), projectionBindings, theFrame)) {
+              // The bindings are undone by the caller
+              theFrame.discardMark();
+              return true;
+            }
+          }
+          return false;
+        }
+
+        @Override
+        public void close() {
+          // The rows are in memory
+        }
+      }, theGoalFrame, theListener);
     }
   }
 
 
 
+  private FactoryMode modeOf(Column theColumn) {
+    return this.atomColumns.modeOf(theColumn.getColumnName());
+  }
+
   /**
    * Translate prolog operators into SQL operator.
    * @param theOperator
@@ -347,6 +408,8 @@ public class RDBLibrary extends LibraryBase {
   private Object jdbcFromTerm(Term theTerm) {
     if (theTerm instanceof TNumber) {
       return ((TNumber) theTerm).longValue();
+    } else if (theTerm instanceof TString) {
+      return ((TString) theTerm).getValue();
     } else if (theTerm instanceof Struct) {
       final Struct struct = (Struct) theTerm;
       if (struct.isList()) {
@@ -20,11 +20,14 @@ package org.logic2j.library.mgmt;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.logic2j.LibraryManager;
 import org.logic2j.Prolog;
 import org.logic2j.library.PLibrary;
 import org.logic2j.library.mgmt.PrimitiveInfo.PrimitiveType;
+import org.logic2j.model.symbol.PredicateKey;
 import org.logic2j.model.symbol.Struct;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.var.Bindings;
@@ -43,6 +46,19 @@ public class DefaultLibraryManager implements LibraryManager {
    */
   private static final int NB_EXTRA_PARAMS = 3;
 
+  /**
+   * Generated registries by library class, {@link #NO_REGISTRY} when there is none, to not look up
+   * missing classes each time a library is loaded into a new engine.
+   */
+  private static final ConcurrentMap<Class<?>, PrimitiveRegistry> REGISTRIES = new ConcurrentHashMap<Class<?>, PrimitiveRegistry>();
+
+  private static final PrimitiveRegistry NO_REGISTRY = new PrimitiveRegistry() {
+    @Override
+    public void registerPrimitives(PLibrary theLibrary, LibraryContent theContent) {
+      throw new UnsupportedOperationException("No generated registry");
+    }
+  };
+
   // TODO Should this be a PrologImplementor instead of Prolog? If so it allows moving Prolog.getLibararyManager to PrologImplementor.
   private final Prolog prolog;
 
@@ -50,6 +66,12 @@ public class DefaultLibraryManager implements LibraryManager {
 
   private Map<Class<? extends PLibrary>, PLibrary> libraries = new HashMap<Class<? extends PLibrary>, PLibrary>();
 
+  /**
+   * True while {@link #wholeContent} and {@link #libraries} are also used by another manager: they must be
+   * copied before being modified.
+   */
+  private boolean shared = false;
+
   /**
    * @param theProlog
    */
@@ -57,11 +79,30 @@ public class DefaultLibraryManager implements LibraryManager {
     this.prolog = theProlog;
   }
 
+  /**
+   * Create with the same libraries as theTemplate, without copying them until either manager loads a library.
+   * The library instances remain those of theTemplate's engine.
+   * @param theProlog
+   * @param theTemplate
+   */
+  public DefaultLibraryManager(Prolog theProlog, DefaultLibraryManager theTemplate) {
+    this.prolog = theProlog;
+    theTemplate.shared = true;
+    this.shared = true;
+    this.wholeContent = theTemplate.wholeContent;
+    this.libraries = theTemplate.libraries;
+  }
+
   @Override
   public LibraryContent loadLibrary(PLibrary theLibrary) {
     if (alreadyLoaded(theLibrary)) {
       return this.wholeContent;
     }
+    if (this.shared) {
+      this.wholeContent = new LibraryContent(this.wholeContent);
+      this.libraries = new HashMap<Class<? extends PLibrary>, PLibrary>(this.libraries);
+      this.shared = false;
+    }
     final LibraryContent loadedContent = loadLibraryInternal(theLibrary);
     updateWholeContent(loadedContent);
     // Load the theory text associated to the library
@@ -91,7 +132,15 @@ public class DefaultLibraryManager implements LibraryManager {
     logger.debug("Loading new library {}", theLibrary);
     final Class<? extends PLibrary> libraryClass = theLibrary.getClass();
 
-    // Load all annotated methods
+    final PrimitiveRegistry registry = generatedRegistry(libraryClass);
+    if (registry != null) {
+      logger.debug("Registering primitives of {} from generated {}", libraryClass, registry);
+      registry.registerPrimitives(theLibrary, content);
+      this.libraries.put(libraryClass, theLibrary);
+      return content;
+    }
+
+    // No generated registry: load all annotated methods by reflection
     for (Method method : libraryClass.getMethods()) {
       final Primitive annotation = method.getAnnotation(Primitive.class);
       if (annotation != null) {
@@ -144,14 +193,14 @@ public class DefaultLibraryManager implements LibraryManager {
         if (primitiveName == null || primitiveName.isEmpty()) {
           primitiveName = method.getName();
         }
-        final String arityIndicator = varargs ? VARARG_ARITY_INDICATOR : Integer.toString(nbMethodParams - NB_EXTRA_PARAMS);
-        final String key1 = primitiveName + '/' + arityIndicator;
+        final int arity = varargs ? PredicateKey.VARARG_ARITY : nbMethodParams - NB_EXTRA_PARAMS;
+        final PredicateKey key1 = PredicateKey.of(primitiveName, arity);
         final PrimitiveInfo desc = new PrimitiveInfo(type, theLibrary, primitiveName, method, varargs);
         content.putPrimitive(key1, desc);
 
         // All other accepted synonyms for this primitive
         for (String synonym : annotation.synonyms()) {
-          final String key2 = synonym + '/' + arityIndicator;
+          final PredicateKey key2 = PredicateKey.of(synonym, arity);
           final PrimitiveInfo desc2 = new PrimitiveInfo(type, theLibrary, primitiveName, method, varargs);
           content.putPrimitive(key2, desc2);
         }
@@ -161,6 +210,28 @@ public class DefaultLibraryManager implements LibraryManager {
     return content;
   }
 
+  /**
+   * @param theLibraryClass
+   * @return The {@link PrimitiveRegistry} generated at build time for exactly theLibraryClass, or null if there is none.
+   */
+  private static PrimitiveRegistry generatedRegistry(Class<? extends PLibrary> theLibraryClass) {
+    PrimitiveRegistry registry = REGISTRIES.get(theLibraryClass);
+    if (registry == null) {
+      registry = NO_REGISTRY;
+      final String registryClassName = theLibraryClass.getName() + PrimitiveRegistry.GENERATED_CLASS_SUFFIX;
+      try {
+        final Class<?> registryClass = Class.forName(registryClassName, true, theLibraryClass.getClassLoader());
+        registry = (PrimitiveRegistry) registryClass.getDeclaredConstructor().newInstance();
+      } catch (ClassNotFoundException e) {
+        logger.debug("No generated registry for {}, will use reflection", theLibraryClass);
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Could not instantiate generated registry " + registryClassName, e);
+      }
+      REGISTRIES.putIfAbsent(theLibraryClass, registry);
+    }
+    return registry == NO_REGISTRY ? null : registry;
+  }
+
   /**
    * @return The whole libraries content.
    */
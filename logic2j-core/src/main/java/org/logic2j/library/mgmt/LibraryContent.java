@@ -20,32 +20,46 @@ package org.logic2j.library.mgmt;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.logic2j.model.symbol.PredicateKey;
+
 
 /**
- *
+ * The primitives of libraries, by their {@link PredicateKey}.
  */
 public class LibraryContent {
 
-  public Map<String, PrimitiveInfo> directiveMap = new HashMap<String, PrimitiveInfo>();
-  public Map<String, PrimitiveInfo> predicateMap = new HashMap<String, PrimitiveInfo>();
-  public Map<String, PrimitiveInfo> functorMap = new HashMap<String, PrimitiveInfo>();
-  public Map<String, PrimitiveInfo> primitiveMap = new HashMap<String, PrimitiveInfo>();
+  public Map<PredicateKey, PrimitiveInfo> directiveMap = new HashMap<PredicateKey, PrimitiveInfo>();
+  public Map<PredicateKey, PrimitiveInfo> predicateMap = new HashMap<PredicateKey, PrimitiveInfo>();
+  public Map<PredicateKey, PrimitiveInfo> functorMap = new HashMap<PredicateKey, PrimitiveInfo>();
+  public Map<PredicateKey, PrimitiveInfo> primitiveMap = new HashMap<PredicateKey, PrimitiveInfo>();
+
+  public LibraryContent() {
+    super();
+  }
+
+  /**
+   * Create with the same primitives as theOther.
+   * @param theOther
+   */
+  public LibraryContent(LibraryContent theOther) {
+    addAll(theOther);
+  }
 
-  public void putDirective(String theKey, PrimitiveInfo theDesc) {
+  public void putDirective(PredicateKey theKey, PrimitiveInfo theDesc) {
     if (this.directiveMap.containsKey(theKey)) {
       throw new IllegalStateException("A directive is already defined for key " + theKey + ", cannot override with " + theDesc);
     }
     this.directiveMap.put(theKey, theDesc);
   }
 
-  public void putPredicate(String theKey, PrimitiveInfo theDesc) {
+  public void putPredicate(PredicateKey theKey, PrimitiveInfo theDesc) {
     if (this.predicateMap.containsKey(theKey)) {
       throw new IllegalStateException("A predicate is already defined for key " + theKey + ", cannot override with " + theDesc);
     }
     this.predicateMap.put(theKey, theDesc);
   }
 
-  public void putFunctor(String theKey, PrimitiveInfo theDesc) {
+  public void putFunctor(PredicateKey theKey, PrimitiveInfo theDesc) {
     if (this.functorMap.containsKey(theKey)) {
       throw new IllegalStateException("A functor is already defined for key " + theKey + ", cannot override with " + theDesc);
     }
@@ -53,10 +67,19 @@ public class LibraryContent {
   }
 
   /**
-   * @param theKey
+   * Same as {@link #putPrimitive(PredicateKey, PrimitiveInfo)}, used by the registries generated at build time.
+   * @param theKey Predicate indicator, such as "name/arity".
    * @param theDesc
    */
   public void putPrimitive(String theKey, PrimitiveInfo theDesc) {
+    putPrimitive(PredicateKey.valueOf(theKey), theDesc);
+  }
+
+  /**
+   * @param theKey
+   * @param theDesc
+   */
+  public void putPrimitive(PredicateKey theKey, PrimitiveInfo theDesc) {
     switch (theDesc.getType()) {
       case DIRECTIVE:
         putDirective(theKey, theDesc);
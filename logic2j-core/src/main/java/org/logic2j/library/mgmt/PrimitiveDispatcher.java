@@ -0,0 +1,42 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.library.mgmt;
+
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.ioc.SolutionListener;
+
+/**
+ * Invokes the primitives of one library instance by direct calls, see {@link PrimitiveRegistry}.
+ */
+public interface PrimitiveDispatcher {
+
+  /**
+   * @param theIndex Index of the primitive within its library, as assigned by the generated registry.
+   * @param theListener
+   * @param theGoalFrame
+   * @param theBindings
+   * @param theGoalStruct The goal whose arguments are passed to the primitive.
+   * @return The value returned by the primitive, null for predicates.
+   * @throws Exception Whatever the primitive throws, mapped by {@link PrimitiveInfo#invoke(Struct, Bindings, GoalFrame, SolutionListener)}.
+   */
+  Object invoke(int theIndex, SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings,
+      Struct theGoalStruct) throws Exception;
+
+}
@@ -0,0 +1,276 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.library.mgmt;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+import org.logic2j.library.PLibrary;
+import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.exception.RecursionException;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.ioc.SolutionListener;
+import org.logic2j.solve.ioc.SolutionListenerBase;
+
+/**
+ * Describe a primitive, either a:
+ * <ul>
+ * <li>Directive</li>
+ * <li>Predicate</li>
+ * <li>Functor</li>
+ * </ul>
+ * Strangely, this class has ivoke() features so it's not only a description!
+ * The primitive's method is invoked through a {@link MethodHandle} bound to its library, adapted once
+ * for all to a signature of its arity: primitives with up to {@value #MAX_EXACT_ARITY} arguments
+ * are invoked without allocating an array of arguments, and exceptions are not wrapped.
+ * When the library was processed at build time, the primitive is instead invoked by a direct call from
+ * its generated {@link PrimitiveDispatcher}, and there is no {@link Method} at all.
+ */
+public class PrimitiveInfo {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PrimitiveInfo.class);
+  private static final boolean debug = logger.isDebugEnabled();
+
+  public static enum PrimitiveType {
+    DIRECTIVE,
+    PREDICATE,
+    FUNCTOR
+  }
+
+  private final PrimitiveType type;
+  private final String name;
+  private final PLibrary library; // The library instance on which the method will be invoked (they are not static methods)
+  private final Method method; // The method that implements the primitive's logic, null when dispatched by generated code
+  private final String methodName;
+  private final boolean varargs;
+
+  /**
+   * Highest arity of the primitives invoked with an exact signature, others are invoked with an array of arguments.
+   */
+  private static final int MAX_EXACT_ARITY = 4;
+
+  /**
+   * The method bound to the library, returning Object (null for void methods).
+   */
+  private final MethodHandle handle;
+
+  /**
+   * Number of arguments of the primitive in Prolog, not counting the listener, frame and bindings.
+   */
+  private final int arity;
+
+  /**
+   * Generated dispatcher and index of the primitive in it, when not invoked through the handle.
+   */
+  private final PrimitiveDispatcher dispatcher;
+  private final int dispatchIndex;
+
+  public PrimitiveInfo(PrimitiveType theType, PLibrary theLibrary, String theName, Method theMethod, boolean theVarargs) {
+    super();
+    this.type = theType;
+    this.library = theLibrary;
+    this.name = theName;
+    this.method = theMethod;
+    this.methodName = theMethod.getName();
+    this.varargs = theVarargs;
+    this.arity = theVarargs ? -1 : theMethod.getParameterTypes().length - 3;
+    this.handle = adaptedHandle(theLibrary, theMethod, theVarargs);
+    this.dispatcher = null;
+    this.dispatchIndex = -1;
+  }
+
+  /**
+   * Describe a primitive invoked by generated code, see {@link PrimitiveRegistry}.
+   * @param theType
+   * @param theLibrary
+   * @param theName
+   * @param theMethodName Name of the Java method, for information only.
+   * @param theDispatcher
+   * @param theDispatchIndex
+   * @param theVarargs
+   */
+  public PrimitiveInfo(PrimitiveType theType, PLibrary theLibrary, String theName, String theMethodName,
+      PrimitiveDispatcher theDispatcher, int theDispatchIndex, boolean theVarargs) {
+    super();
+    this.type = theType;
+    this.library = theLibrary;
+    this.name = theName;
+    this.method = null;
+    this.methodName = theMethodName;
+    this.varargs = theVarargs;
+    this.arity = -1;
+    this.handle = null;
+    this.dispatcher = theDispatcher;
+    this.dispatchIndex = theDispatchIndex;
+  }
+
+  private static MethodHandle adaptedHandle(PLibrary theLibrary, Method theMethod, boolean theVarargs) {
+    MethodHandle unreflected;
+    try {
+      unreflected = MethodHandles.publicLookup().unreflect(theMethod);
+    } catch (IllegalAccessException e) {
+      // Public method of a non-public library class
+      theMethod.setAccessible(true);
+      try {
+        unreflected = MethodHandles.lookup().unreflect(theMethod);
+      } catch (IllegalAccessException e2) {
+        throw new InvalidTermException("Could not access method " + theMethod, e2);
+      }
+    }
+    final Class<?>[] paramTypes = theMethod.getParameterTypes();
+    final Class<?>[] adaptedTypes = new Class<?>[paramTypes.length];
+    adaptedTypes[0] = SolutionListener.class;
+    adaptedTypes[1] = GoalFrame.class;
+    adaptedTypes[2] = Bindings.class;
+    for (int i = 3; i < paramTypes.length; i++) {
+      adaptedTypes[i] = theVarargs ? Term[].class : Term.class;
+    }
+    final MethodHandle bound = unreflected.bindTo(theLibrary);
+    final MethodType adaptedType = MethodType.methodType(Object.class, adaptedTypes);
+    if (!theVarargs && paramTypes.length - 3 > MAX_EXACT_ARITY) {
+      return bound.asType(adaptedType).asSpreader(Object[].class, paramTypes.length);
+    }
+    return bound.asType(adaptedType);
+  }
+
+  /**
+   * @param theGoalFrame 
+   * @param theGoalVars 
+   * @param theGoalStruct 
+   */
+  public Object invoke(Struct theGoalStruct, Bindings theGoalVars, GoalFrame theGoalFrame, SolutionListener theListener) {
+    if (debug) {
+      logger.debug("PRIMITIVE > invocation of {}", this);
+    }
+    try {
+      final Object result;
+      if (this.dispatcher != null) {
+        result = this.dispatcher.invoke(this.dispatchIndex, theListener, theGoalFrame, theGoalVars, theGoalStruct);
+      } else {
+        result = invokeHandle(theGoalStruct, theGoalVars, theGoalFrame, theListener);
+      }
+      if (debug) {
+        logger.debug("PRIMITIVE < result={}", result);
+      }
+      return result;
+    } catch (Throwable targetException) {
+      if (targetException instanceof RecursionException) {
+        // If we already have trouble in recursivity, don't add further exceptions - just rethrow.
+        throw (RecursionException) targetException;
+      }
+      if (targetException instanceof StackOverflowError) {
+        final RecursionException recursionException = new RecursionException("Stack overflow while executing primitive " + this);
+        recursionException.stackOverflow = true;
+        throw recursionException;
+      }
+      if (targetException instanceof RuntimeException) {
+        throw (RuntimeException) targetException;
+      }
+      throw new InvalidTermException("Primitive threw an exception: " + this + ": " + targetException, targetException);
+    }
+  }
+
+  private Object invokeHandle(Struct theGoalStruct, Bindings theGoalVars, GoalFrame theGoalFrame,
+      SolutionListener theListener) throws Throwable {
+    if (isVarargs()) {
+      // All arguments as an array
+      final int arity = theGoalStruct.getArity();
+      final Term[] varargArray = new Term[arity];
+      for (int j = 0; j < arity; j++) {
+        varargArray[j] = theGoalStruct.getArg(j);
+      }
+      return (Object) this.handle.invokeExact(theListener, theGoalFrame, theGoalVars, varargArray);
+    }
+    switch (this.arity) {
+      case 0:
+        return (Object) this.handle.invokeExact(theListener, theGoalFrame, theGoalVars);
+      case 1:
+        return (Object) this.handle.invokeExact(theListener, theGoalFrame, theGoalVars, theGoalStruct.getArg(0));
+      case 2:
+        return (Object) this.handle.invokeExact(theListener, theGoalFrame, theGoalVars, theGoalStruct.getArg(0),
+            theGoalStruct.getArg(1));
+      case 3:
+        return (Object) this.handle.invokeExact(theListener, theGoalFrame, theGoalVars, theGoalStruct.getArg(0),
+            theGoalStruct.getArg(1), theGoalStruct.getArg(2));
+      case 4:
+        return (Object) this.handle.invokeExact(theListener, theGoalFrame, theGoalVars, theGoalStruct.getArg(0),
+            theGoalStruct.getArg(1), theGoalStruct.getArg(2), theGoalStruct.getArg(3));
+      default:
+        // Regular argument passing, in an array
+        final Object[] args = new Object[3 + this.arity];
+        args[0] = theListener;
+        args[1] = theGoalFrame;
+        args[2] = theGoalVars;
+        for (int j = 0; j < this.arity; j++) {
+          args[3 + j] = theGoalStruct.getArg(j);
+        }
+        return (Object) this.handle.invokeExact(args);
+    }
+  }
+
+  public Term invokeFunctor(Struct theGoalStruct, Bindings theGoalVars) {
+    final GoalFrame unusedGoalFrame = null;
+    final SolutionListenerBase noListener = null;
+    return (Term) invoke(theGoalStruct, theGoalVars, unusedGoalFrame, noListener);
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  public PrimitiveType getType() {
+    return this.type;
+  }
+
+  public PLibrary getLibrary() {
+    return this.library;
+  }
+
+  /**
+   * @return The method implementing the primitive, or null when it is invoked by a generated {@link PrimitiveDispatcher}.
+   */
+  public Method getMethod() {
+    return this.method;
+  }
+
+  /**
+   * @return True when the primitive is invoked by a generated {@link PrimitiveDispatcher}, without reflection.
+   */
+  public boolean isGenerated() {
+    return this.dispatcher != null;
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  public boolean isVarargs() {
+    return this.varargs;
+  }
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + "{lib=" + getLibrary() + ", type=" + getType() + ", name=" + getName() + ", method="
+        + this.methodName + '}';
+  }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.library.mgmt;
+
+import org.logic2j.library.PLibrary;
+
+/**
+ * Registers the primitives of one {@link PLibrary} class without reflection. Implementations are generated
+ * at build time by the logic2j-processor annotation processor, from the methods annotated with {@link Primitive};
+ * for a library class "com.acme.MyLibrary" the generated class is "com.acme.MyLibrary_Primitives".
+ * When no such class is found, the {@link DefaultLibraryManager} falls back to scanning the library by reflection.
+ */
+public interface PrimitiveRegistry {
+
+  /**
+   * Suffix appended to the fully-qualified name of a library class to obtain the name of its generated registry.
+   */
+  String GENERATED_CLASS_SUFFIX = "_Primitives";
+
+  /**
+   * Register all primitives of theLibrary, and their synonyms, into theContent.
+   * @param theLibrary An instance of exactly the class this registry was generated for.
+   * @param theContent
+   */
+  void registerPrimitives(PLibrary theLibrary, LibraryContent theContent);
+
+}
@@ -19,8 +19,10 @@ package org.logic2j.model;
 
 import org.logic2j.model.symbol.Struct;
 import org.logic2j.model.symbol.StructObject;
+import org.logic2j.model.symbol.TBigInteger;
 import org.logic2j.model.symbol.TDouble;
 import org.logic2j.model.symbol.TLong;
+import org.logic2j.model.symbol.TString;
 import org.logic2j.model.symbol.Var;
 
 /**
@@ -37,11 +39,21 @@ public class BaseTermVisitor<T> implements TermVisitor<T> {
     return null;
   }
 
+  @Override
+  public T visit(TBigInteger theBigInteger) {
+    return null;
+  }
+
   @Override
   public T visit(TDouble theDouble) {
     return null;
   }
 
+  @Override
+  public T visit(TString theString) {
+    return null;
+  }
+
   @Override
   public T visit(Var theVar) {
     return null;
@@ -19,8 +19,13 @@ package org.logic2j.model;
 
 import org.logic2j.Prolog;
 import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.symbol.PredicateKey;
 import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.TNumber;
+import org.logic2j.model.symbol.TString;
 import org.logic2j.model.symbol.Term;
+import org.logic2j.model.symbol.Var;
+import org.logic2j.model.var.Binding;
 import org.logic2j.model.var.Bindings;
 import org.logic2j.theory.TheoryManager;
 
@@ -48,6 +53,19 @@ public class Clause {
    */
   private final Bindings bindings; // Immutable, not null
 
+  // Derived from the content once for all, since they are needed on every inference
+  private final Struct head;
+  private final Term body;
+  private final boolean fact;
+
+  // Arguments of the head that are atoms, numbers or strings, null for other arguments, see mayUnify()
+  private final Term[] headConstants;
+
+  /**
+   * Compiled form, owned by the solver that compiled this clause, see {@link #getCompiled()}.
+   */
+  private volatile Object compiled = null;
+
   /**
    * Normalize theClauseTerm to be ready for inference.
    * @param theProlog 
@@ -61,6 +79,10 @@ public class Clause {
     // Since we don't create via the TermFactory we have to do it here.
     this.content = (Struct) theProlog.getTermFactory().normalize(theClauseTerm);
     this.bindings = new Bindings(this.content);
+    this.head = computeHead();
+    this.body = computeBody();
+    this.fact = computeFact();
+    this.headConstants = computeHeadConstants();
   }
 
   /**
@@ -71,6 +93,10 @@ public class Clause {
     this.content = theOriginal.content.cloneIt(); // TODO LT: Why do we need cloning the content in a structure-sharing design???
     // Clone the block of variables
     this.bindings = new Bindings(theOriginal.getBindings());
+    this.head = computeHead();
+    this.body = computeBody();
+    this.fact = computeFact();
+    this.headConstants = computeHeadConstants();
   }
 
   /**
@@ -81,7 +107,10 @@ public class Clause {
    * the body is "true".
    */
   public boolean isFact() {
-    // TODO Cache this value, see https://github.com/ltettoni/logic2j/issues/16
+    return this.fact;
+  }
+
+  private boolean computeFact() {
     if (Struct.FUNCTOR_CLAUSE != this.content.getName()) {
       return true;
     }
@@ -104,6 +133,10 @@ public class Clause {
    * @return The clause's head as a {@link Term}, normally a {@link Struct}.
    */
   public Struct getHead() {
+    return this.head;
+  }
+
+  private Struct computeHead() {
     if (isWithClauseFunctor()) {
       return (Struct) this.content.getLHS();
     }
@@ -114,12 +147,73 @@ public class Clause {
    * @return The clause's body as a {@link Term}, normally a {@link Struct}.
    */
   public Term getBody() {
+    return this.body;
+  }
+
+  private Term computeBody() {
     if (isWithClauseFunctor()) {
       return this.content.getRHS();
     }
     return Struct.ATOM_TRUE;
   }
 
+  private Term[] computeHeadConstants() {
+    final Term[] result = new Term[this.head.getArity()];
+    for (int i = 0; i < result.length; i++) {
+      final Term arg = this.head.getArg(i);
+      if (arg instanceof TNumber || arg instanceof TString || isAtom(arg)) {
+        result[i] = arg;
+      }
+    }
+    return result;
+  }
+
+  private static boolean isAtom(Term theTerm) {
+    // Extensions such as StructObject unify as atoms, by name
+    return theTerm instanceof Struct && ((Struct) theTerm).getArity() == 0;
+  }
+
+  /**
+   * Quick check, before allocating anything for unification, that the head of this clause may unify with
+   * theGoal: the functors must be equal, and the arguments of the head that are atoms, numbers or strings must not
+   * differ from the corresponding arguments of theGoal (once their variables are dereferenced).
+   * @param theGoal
+   * @param theGoalBindings
+   * @return false when the head certainly does not unify with theGoal, true when it may.
+   */
+  public boolean mayUnify(Struct theGoal, Bindings theGoalBindings) {
+    if (!this.head.nameAndArityMatch(theGoal)) {
+      return false;
+    }
+    final Term[] constants = this.headConstants;
+    for (int i = 0; i < constants.length; i++) {
+      final Term constant = constants[i];
+      if (constant == null) {
+        continue;
+      }
+      Term arg = theGoal.getArg(i);
+      if (arg instanceof Var) {
+        final Var var = (Var) arg;
+        if (var.isAnonymous()) {
+          continue;
+        }
+        final Binding binding = var.bindingWithin(theGoalBindings).followLinks();
+        if (!binding.isLiteral()) {
+          continue;
+        }
+        arg = binding.getTerm();
+      }
+      if (constant instanceof TNumber || constant instanceof TString) {
+        if (!(arg instanceof Var) && !constant.equals(arg)) {
+          return false;
+        }
+      } else if (!(arg instanceof Var) && !(isAtom(arg) && ((Struct) arg).getSymbol() == ((Struct) constant).getSymbol())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   //---------------------------------------------------------------------------
   // Accessors
   //---------------------------------------------------------------------------
@@ -127,9 +221,9 @@ public class Clause {
   /**
    * @return The key that uniquely identifies the family of the {@link Clause}'s head predicate.
    */
-  public String getPredicateKey() {
+  public PredicateKey getPredicateKey() {
     final Struct head = getHead();
-    return head.getPredicateIndicator();
+    return head.getPredicateKey();
   }
 
   /**
@@ -139,6 +233,21 @@ public class Clause {
     return this.bindings;
   }
 
+  /**
+   * @return The compiled form of this clause, or null when it was not compiled yet. Its type is up to the solver
+   *         that compiles clauses; this model does not depend on it.
+   */
+  public Object getCompiled() {
+    return this.compiled;
+  }
+
+  /**
+   * @param theCompiled The compiled form of this clause, see {@link #getCompiled()}.
+   */
+  public void setCompiled(Object theCompiled) {
+    this.compiled = theCompiled;
+  }
+
   //---------------------------------------------------------------------------
   // Core java.lang.Object methods
   //---------------------------------------------------------------------------
@@ -19,8 +19,10 @@ package org.logic2j.model;
 
 import org.logic2j.model.symbol.Struct;
 import org.logic2j.model.symbol.StructObject;
+import org.logic2j.model.symbol.TBigInteger;
 import org.logic2j.model.symbol.TDouble;
 import org.logic2j.model.symbol.TLong;
+import org.logic2j.model.symbol.TString;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.symbol.Var;
 
@@ -32,8 +34,12 @@ public interface TermVisitor<T> {
 
   public T visit(TLong theLong);
 
+  public T visit(TBigInteger theBigInteger);
+
   public T visit(TDouble theDouble);
 
+  public T visit(TString theString);
+
   public T visit(Var theVar);
 
   public T visit(Struct theStruct);
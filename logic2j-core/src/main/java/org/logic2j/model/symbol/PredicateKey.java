@@ -0,0 +1,147 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.model.symbol;
+
+import java.io.Serializable;
+
+import org.logic2j.LibraryManager;
+
+/**
+ * Identifies the family of a predicate: its functor and its arity, such as "append/3".
+ * Keys are interned: there is a single instance per name and arity, obtained with {@link #of(String, int)}
+ * and held by the name's {@link Symbol}, so they can be used as map keys and compared without building or
+ * hashing strings. A {@link Struct} computes its key once, see {@link Struct#getPredicateKey()}.<br/>
+ * A key of arity {@link #VARARG_ARITY} designates a predicate that accepts any number of arguments,
+ * written with {@link LibraryManager#VARARG_ARITY_INDICATOR}, such as "write/N".
+ */
+public final class PredicateKey implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Arity of the keys of vararg predicates.
+   */
+  public static final int VARARG_ARITY = -1;
+
+  private final Symbol symbol;
+  private final int arity;
+  private transient String indicator;
+
+  PredicateKey(Symbol theSymbol, int theArity) {
+    this.symbol = theSymbol;
+    this.arity = theArity;
+  }
+
+  /**
+   * @param theName
+   * @param theArity Number of arguments, or {@link #VARARG_ARITY}.
+   * @return The unique key of theName/theArity.
+   */
+  public static PredicateKey of(String theName, int theArity) {
+    return SymbolTable.GLOBAL.symbol(theName).predicateKey(theArity);
+  }
+
+  /**
+   * @param thePredicateIndicator Such as "append/3" or "write/N".
+   * @return The unique key of thePredicateIndicator.
+   */
+  public static PredicateKey valueOf(String thePredicateIndicator) {
+    final int slash = thePredicateIndicator.lastIndexOf('/');
+    if (slash <= 0 || slash == thePredicateIndicator.length() - 1) {
+      throw new IllegalArgumentException("Not a predicate indicator \"name/arity\": " + thePredicateIndicator);
+    }
+    final String name = thePredicateIndicator.substring(0, slash);
+    final String arity = thePredicateIndicator.substring(slash + 1);
+    if (arity.equals(LibraryManager.VARARG_ARITY_INDICATOR)) {
+      return of(name, VARARG_ARITY);
+    }
+    try {
+      return of(name, Integer.parseInt(arity));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Not a predicate indicator \"name/arity\": " + thePredicateIndicator, e);
+    }
+  }
+
+  /**
+   * @return The key of the vararg predicate with the same name as this one.
+   */
+  public PredicateKey varargs() {
+    return this.symbol.predicateKey(VARARG_ARITY);
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  public String getName() {
+    return this.symbol.getName();
+  }
+
+  public Symbol getSymbol() {
+    return this.symbol;
+  }
+
+  public int getArity() {
+    return this.arity;
+  }
+
+  public boolean isVarargs() {
+    return this.arity == VARARG_ARITY;
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  /**
+   * Keep keys unique when deserialized.
+   */
+  private Object readResolve() {
+    return of(this.symbol.getName(), this.arity);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.symbol.getId() * 31 + this.arity;
+  }
+
+  @Override
+  public boolean equals(Object theOther) {
+    if (theOther == this) {
+      return true;
+    }
+    if (!(theOther instanceof PredicateKey)) {
+      return false;
+    }
+    final PredicateKey that = (PredicateKey) theOther;
+    return this.arity == that.arity && this.symbol == that.symbol;
+  }
+
+  /**
+   * @return The predicate indicator, such as "append/3".
+   */
+  @Override
+  public String toString() {
+    String result = this.indicator;
+    if (result == null) {
+      result = this.symbol.getName() + '/' + (isVarargs() ? LibraryManager.VARARG_ARITY_INDICATOR : Integer.toString(this.arity));
+      this.indicator = result;
+    }
+    return result;
+  }
+
+}
@@ -22,8 +22,8 @@ import java.util.Collection;
 import java.util.IdentityHashMap;
 import java.util.List;
 
-import org.logic2j.LibraryManager;
 import org.logic2j.TermFactory.FactoryMode;
+import org.logic2j.library.impl.core.ArithmeticExpression;
 import org.logic2j.library.mgmt.LibraryContent;
 import org.logic2j.library.mgmt.PrimitiveInfo;
 import org.logic2j.model.TermVisitor;
@@ -39,26 +39,23 @@ import org.logic2j.util.ReflectUtils;
 public class Struct extends Term {
   private static final long serialVersionUID = 1L;
 
-  /**
-   * Terminates a vararg predicate description: write/N
-   */
-  private static final String VARARG_PREDICATE_TRAILER = "/" + LibraryManager.VARARG_ARITY_INDICATOR;
-
   private static final TermApi TERM_API = new TermApi();
 
+  private static final SymbolTable SYMBOLS = SymbolTable.GLOBAL;
+
   // TODO Move these constants to a common place?
-  // TODO Replace all calls to intern() by some factory to initialize our constants. But aren't all java literal strings already internalized?
-  public static final String FUNCTOR_COMMA = ",".intern();
-  public static final String FUNCTOR_SEMICOLON = ";".intern();
-  public static final String LIST_SEPARATOR = ",".intern(); // In notations [a,b,c]
+  // The symbols of these names are kept by the SymbolTable with these String instances: compare names with them using ==
+  public static final String FUNCTOR_COMMA = ",";
+  public static final String FUNCTOR_SEMICOLON = ";";
+  public static final String LIST_SEPARATOR = ","; // In notations [a,b,c]
 
-  public static final String FUNCTOR_LIST = ".".intern();
-  public static final String FUNCTOR_LIST_EMPTY = "[]".intern(); // The functor representing an empty list
-  public static final String FUNCTOR_CLAUSE = ":-".intern();
-  public static final String FUNCTOR_CLAUSE_QUOTED = ("'" + FUNCTOR_CLAUSE + "'").intern();
+  public static final String FUNCTOR_LIST = ".";
+  public static final String FUNCTOR_LIST_EMPTY = "[]"; // The functor representing an empty list
+  public static final String FUNCTOR_CLAUSE = ":-";
+  public static final String FUNCTOR_CLAUSE_QUOTED = "'" + FUNCTOR_CLAUSE + "'";
 
   public static final String FUNCTOR_TRUE = "true";
-  public static final String FUNCTOR_FALSE = "false".intern();
+  public static final String FUNCTOR_FALSE = "false";
   public static final String FUNCTOR_CUT = "!";
   public static final String FUNCTOR_CALL = "call";
 
@@ -67,12 +64,16 @@ public class Struct extends Term {
   public static final Struct ATOM_TRUE = new Struct(FUNCTOR_TRUE);
   public static final Struct ATOM_CUT = new Struct(FUNCTOR_CUT);
 
-  private String name; // Always "internalized" with String.intern(), you can compare with == !
+  private Symbol symbol; // Unique per name, you can compare with == !
   private int arity;
   private Term[] args;
 
   private PrimitiveInfo primitiveInfo;
 
+  private transient PredicateKey predicateKey; // Computed on first use
+
+  private transient volatile ArithmeticExpression arithmeticExpression; // Compiled on first evaluation
+
   /**
    * Builds a compound, with any number of arguments.
    */
@@ -182,8 +183,9 @@ public class Struct extends Term {
    * @param theArity
    */
   private void setNameAndArity(String theName, int theArity) {
-    this.name = theName.intern();
+    this.symbol = SYMBOLS.symbol(theName);
     this.arity = theArity;
+    this.predicateKey = null;
   }
 
   /**
@@ -198,7 +200,14 @@ public class Struct extends Term {
    * Gets the functor name  of this structure
    */
   public String getName() {
-    return this.name;
+    return this.symbol.getName();
+  }
+
+  /**
+   * @return The symbol of the functor name of this structure.
+   */
+  public Symbol getSymbol() {
+    return this.symbol;
   }
 
   /**
@@ -235,14 +244,27 @@ public class Struct extends Term {
 
   /**
    * A unique identifier that determines the family of the predicate represented by this {@link Struct}.
+   * Computed once, then cached.
+   * @return The interned key of this predicate's name and arity.
+   */
+  public PredicateKey getPredicateKey() {
+    PredicateKey result = this.predicateKey;
+    if (result == null) {
+      result = this.symbol.predicateKey(this.arity);
+      this.predicateKey = result;
+    }
+    return result;
+  }
+
+  /**
    * @return The predicate's name + '/' + arity
    */
   public String getPredicateIndicator() {
-    return this.name + '/' + this.arity;
+    return getPredicateKey().toString();
   }
 
   public String getVarargsPredicateIndicator() {
-    return this.name + VARARG_PREDICATE_TRAILER;
+    return getPredicateKey().varargs().toString();
   }
 
   /**
@@ -253,6 +275,7 @@ public class Struct extends Term {
   @Deprecated
   public void setArg(int theIndex, Term argument) {
     this.args[theIndex] = argument;
+    this.arithmeticExpression = null;
   }
 
 
@@ -260,16 +283,32 @@ public class Struct extends Term {
     return this.primitiveInfo;
   }
 
+  /**
+   * @return This structure compiled as an arithmetic expression, compiled on first use; it is
+   * recompiled when primitives are assigned again.
+   */
+  public ArithmeticExpression getArithmeticExpression() {
+    ArithmeticExpression result = this.arithmeticExpression;
+    if (result == null) {
+      // Concurrent first uses may compile twice, that's harmless
+      result = ArithmeticExpression.compile(this);
+      this.arithmeticExpression = result;
+    }
+    return result;
+  }
+
   /**
    * @param theLib2Content
    */
   public void assignPrimitiveInfo(LibraryContent theLib2Content) {
     // Find by exact arity match
-    this.primitiveInfo = theLib2Content.primitiveMap.get(getPredicateIndicator());
+    final PredicateKey key = getPredicateKey();
+    this.primitiveInfo = theLib2Content.primitiveMap.get(key);
     if (this.primitiveInfo == null) {
       // Alternate find by wildcard (varargs signature)
-      this.primitiveInfo = theLib2Content.primitiveMap.get(getVarargsPredicateIndicator());
+      this.primitiveInfo = theLib2Content.primitiveMap.get(key.varargs());
     }
+    this.arithmeticExpression = null;
     for (int c = 0; c < this.arity; c++) {
       final Term sub = this.args[c];
       if (sub instanceof Struct) {
@@ -314,9 +353,9 @@ public class Struct extends Term {
     } catch (CloneNotSupportedException e) {
       throw new InvalidTermException("Could not clone: " + e, e);
     }
-    t.setNameAndArity(this.name, this.arity);
     t.args = new Term[this.arity];
     t.primitiveInfo = this.primitiveInfo;
+    t.arithmeticExpression = null;
     for (int c = 0; c < this.arity; c++) {
       t.args[c] = this.args[c].cloneIt();
     }
@@ -333,28 +372,21 @@ public class Struct extends Term {
     theFlatTerms.add(this);
   }
 
-  @Override
-  protected Term compact(Collection<Term> theFlatTerms) {
-    // Recursively compact all subelements
-    Term[] newArgs = new Term[this.arity];
-    boolean anyChange = false;
-    for (int c = 0; c < this.arity; c++) {
-      newArgs[c] = this.args[c].compact(theFlatTerms);
-      anyChange |= (newArgs[c] != this.args[c]);
-    }
-    final Struct compacted;
-    if (anyChange) {
-      compacted = this.cloneIt();
-      compacted.args = newArgs;
-    } else {
-      compacted = this;
-    }
-    // If this term already has an equivalent in the provided collection, return that one
-    Term betterEquivalent = compacted.findStaticallyEqual(theFlatTerms);
-    if (betterEquivalent != null) {
-      return betterEquivalent;
+  /**
+   * @param theArgs
+   * @return A shallow copy of this structure with other arguments, not normalized.
+   */
+  Struct withArgs(Term[] theArgs) {
+    final Struct result;
+    try {
+      result = (Struct) this.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new InvalidTermException("Could not clone: " + e, e);
     }
-    return compacted;
+    result.args = theArgs;
+    result.index = NO_INDEX;
+    result.arithmeticExpression = null;
+    return result;
   }
 
   @Override
@@ -400,7 +432,7 @@ public class Struct extends Term {
       return false;
     }
     final Struct that = (Struct) theOther;
-    if (this.arity == that.arity && this.name == that.name) {
+    if (this.arity == that.arity && this.symbol == that.symbol) {
       for (int c = 0; c < this.arity; c++) {
         if (!this.args[c].staticallyEquals(that.args[c])) {
           return false;
@@ -434,12 +466,12 @@ public class Struct extends Term {
    * Is this structure an empty list?
    */
   public boolean isEmptyList() {
-    return this.name.equals(FUNCTOR_LIST_EMPTY) && this.arity == 0;
+    return this.arity == 0 && getName() == FUNCTOR_LIST_EMPTY;
   }
 
   @Override
   public boolean isList() {
-    return (this.name.equals(FUNCTOR_LIST) && this.arity == 2 && this.args[1].isList()) || isEmptyList();
+    return (this.arity == 2 && getName() == FUNCTOR_LIST && this.args[1].isList()) || isEmptyList();
   }
 
   protected void assertPList(Term thePList) {
@@ -516,7 +548,7 @@ public class Struct extends Term {
       elements.add(runningElement.getLHS());
       runningElement = (Struct) runningElement.getRHS();
     }
-    return new Struct(((Struct) functor).name, elements);
+    return new Struct(((Struct) functor).getName(), elements);
   }
 
   @SuppressWarnings("unchecked")
@@ -541,9 +573,12 @@ public class Struct extends Term {
     int idx = 0;
     while (!runningElement.isEmptyList()) {
       assertPList(runningElement);
-      final Q term = ReflectUtils.safeCastNotNull("obtaining element " + idx + " of PList " + this, runningElement.getLHS(),
-          theElementClassOrNull);
-      result.add(term);
+      final Term element = runningElement.getLHS();
+      if (!theElementClassOrNull.isInstance(element)) {
+        // Describe the list only on failure: formatting it for every element would be quadratic
+        ReflectUtils.safeCastNotNull("obtaining element " + idx + " of PList " + this, element, theElementClassOrNull);
+      }
+      result.add(theElementClassOrNull.cast(element));
       runningElement = (Struct) runningElement.getRHS();
       idx++;
     }
@@ -590,7 +625,7 @@ public class Struct extends Term {
    * @return True if this and that Struct have the same name and arity.
    */
   public boolean nameAndArityMatch(Struct that) {
-    return this.arity==that.arity && this.name==that.name;
+    return this.arity == that.arity && this.symbol == that.symbol;
   }
 
   //---------------------------------------------------------------------------
@@ -606,7 +641,7 @@ public class Struct extends Term {
       return false;
     }
     final Struct that = (Struct) other;
-    if (!(this.arity == that.arity && this.name == that.name)) {
+    if (!(this.arity == that.arity && this.symbol == that.symbol)) {
       return false;
     }
     for (int c = 0; c < this.arity; c++) {
@@ -619,7 +654,7 @@ public class Struct extends Term {
 
   @Override
   public int hashCode() {
-    int result = this.name.hashCode();
+    int result = this.symbol.getId();
     result ^= this.arity << 8;
     for (int c = 0; c < this.arity; c++) {
       result ^= this.args[c].hashCode();
@@ -0,0 +1,113 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.model.symbol;
+
+import java.io.Serializable;
+
+/**
+ * The name of atoms and functors, as registered in a {@link SymbolTable}: there is a single instance
+ * per name, identified by a dense int id, so that {@link Struct}s compare their names by reference.<br/>
+ * A symbol also holds the {@link PredicateKey}s of its name, one per arity, created on first use.
+ */
+public final class Symbol implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private static final PredicateKey[] NO_KEYS = new PredicateKey[0];
+
+  private final String name;
+  private final int id;
+
+  private transient PredicateKey[] keys = NO_KEYS; // Indexed by arity
+  private transient PredicateKey varargsKey;
+
+  Symbol(String theName, int theId) {
+    this.name = theName;
+    this.id = theId;
+  }
+
+  /**
+   * @param theArity Number of arguments, or {@link PredicateKey#VARARG_ARITY}.
+   * @return The unique key of this name and theArity.
+   */
+  PredicateKey predicateKey(int theArity) {
+    if (theArity == PredicateKey.VARARG_ARITY) {
+      final PredicateKey key = this.varargsKey;
+      return key != null ? key : createKey(theArity);
+    }
+    final PredicateKey[] known = this.keys;
+    if (theArity < known.length && known[theArity] != null) {
+      return known[theArity];
+    }
+    return createKey(theArity);
+  }
+
+  private synchronized PredicateKey createKey(int theArity) {
+    if (theArity == PredicateKey.VARARG_ARITY) {
+      if (this.varargsKey == null) {
+        this.varargsKey = new PredicateKey(this, theArity);
+      }
+      return this.varargsKey;
+    }
+    if (theArity >= this.keys.length) {
+      final PredicateKey[] grown = new PredicateKey[theArity + 1];
+      System.arraycopy(this.keys, 0, grown, 0, this.keys.length);
+      this.keys = grown;
+    }
+    if (this.keys[theArity] == null) {
+      this.keys[theArity] = new PredicateKey(this, theArity);
+    }
+    return this.keys[theArity];
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * @return The id of this symbol in its {@link SymbolTable}, ids of collected symbols are reused.
+   */
+  public int getId() {
+    return this.id;
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  /**
+   * Keep symbols unique when deserialized.
+   */
+  private Object readResolve() {
+    return SymbolTable.GLOBAL.symbol(this.name);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.id;
+  }
+
+  @Override
+  public String toString() {
+    return this.name;
+  }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.model.symbol;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the names of atoms and functors to {@link Symbol}s with dense int ids. {@link Struct}s obtain their
+ * name from {@link #GLOBAL}, instead of loading the JVM's string table with String.intern() for each name.<br/>
+ * Symbols are only weakly referenced by the table: when no {@link Struct} (nor {@link PredicateKey}) uses a
+ * name anymore, such as the transient atoms read from a database, its symbol is garbage collected and its id
+ * is reused. Names that must keep their String instance, because code compares them by reference, are
+ * registered with {@link #keep(String)} before any other use: the Struct.FUNCTOR_* constants are.
+ */
+public final class SymbolTable {
+
+  /**
+   * The table of all {@link Struct}s.
+   */
+  public static final SymbolTable GLOBAL = new SymbolTable();
+
+  static {
+    // Compile-time constants, this does not initialize Struct
+    final String[] constants = { Struct.FUNCTOR_COMMA, Struct.FUNCTOR_SEMICOLON, Struct.FUNCTOR_LIST,
+        Struct.FUNCTOR_LIST_EMPTY, Struct.FUNCTOR_CLAUSE, Struct.FUNCTOR_CLAUSE_QUOTED, Struct.FUNCTOR_TRUE,
+        Struct.FUNCTOR_FALSE, Struct.FUNCTOR_CUT, Struct.FUNCTOR_CALL };
+    for (String name : constants) {
+      GLOBAL.keep(name);
+    }
+  }
+
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+  private final ReferenceQueue<Symbol> collected = new ReferenceQueue<Symbol>();
+
+  // The following fields are guarded by this
+  private Entry[] byId = new Entry[256];
+  private int nextId = 0;
+  private int[] freeIds = new int[64];
+  private int nbFreeIds = 0;
+  private long nbCollected = 0;
+  private final Set<Symbol> kept = new HashSet<Symbol>();
+
+  /**
+   * Weak reference to a symbol, remembering what to release when it is collected.
+   */
+  private static final class Entry extends WeakReference<Symbol> {
+    final String name;
+    final int id;
+
+    Entry(Symbol theSymbol, ReferenceQueue<Symbol> theQueue) {
+      super(theSymbol, theQueue);
+      this.name = theSymbol.getName();
+      this.id = theSymbol.getId();
+    }
+  }
+
+  /**
+   * @param theName
+   * @return The unique symbol of theName, registered if needed.
+   */
+  public Symbol symbol(String theName) {
+    final Entry entry = this.entries.get(theName);
+    if (entry != null) {
+      final Symbol symbol = entry.get();
+      if (symbol != null) {
+        return symbol;
+      }
+    }
+    return register(theName);
+  }
+
+  /**
+   * Register theName for good: its symbol will never be collected, and its String is theName itself
+   * unless already registered.
+   * @param theName
+   * @return The String of theName's symbol, to be compared by reference.
+   */
+  public synchronized String keep(String theName) {
+    final Symbol symbol = symbol(theName);
+    this.kept.add(symbol);
+    return symbol.getName();
+  }
+
+  /**
+   * @param theId
+   * @return The symbol with theId, or null if there is none (never registered, or collected).
+   */
+  public synchronized Symbol symbol(int theId) {
+    if (theId < 0 || theId >= this.nextId || this.byId[theId] == null) {
+      return null;
+    }
+    return this.byId[theId].get();
+  }
+
+  private synchronized Symbol register(String theName) {
+    expungeCollected();
+    final Entry existing = this.entries.get(theName);
+    if (existing != null) {
+      final Symbol symbol = existing.get();
+      if (symbol != null) {
+        return symbol;
+      }
+    }
+    final int id;
+    if (this.nbFreeIds > 0) {
+      id = this.freeIds[--this.nbFreeIds];
+    } else {
+      id = this.nextId++;
+      if (id == this.byId.length) {
+        final Entry[] grown = new Entry[id * 2];
+        System.arraycopy(this.byId, 0, grown, 0, id);
+        this.byId = grown;
+      }
+    }
+    final Symbol symbol = new Symbol(theName, id);
+    final Entry entry = new Entry(symbol, this.collected);
+    this.byId[id] = entry;
+    this.entries.put(theName, entry);
+    return symbol;
+  }
+
+  /**
+   * Release the names and ids of collected symbols.
+   */
+  private void expungeCollected() {
+    Entry entry;
+    while ((entry = (Entry) this.collected.poll()) != null) {
+      // The name may already have been registered again, with a new entry
+      this.entries.remove(entry.name, entry);
+      this.byId[entry.id] = null;
+      if (this.nbFreeIds == this.freeIds.length) {
+        final int[] grown = new int[this.nbFreeIds * 2];
+        System.arraycopy(this.freeIds, 0, grown, 0, this.nbFreeIds);
+        this.freeIds = grown;
+      }
+      this.freeIds[this.nbFreeIds++] = entry.id;
+      this.nbCollected++;
+    }
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  /**
+   * @return The number of registered symbols, after releasing the collected ones.
+   */
+  public synchronized int size() {
+    expungeCollected();
+    return this.entries.size();
+  }
+
+  /**
+   * @return The number of symbols collected so far.
+   */
+  public synchronized long getNbCollected() {
+    expungeCollected();
+    return this.nbCollected;
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + '(' + size() + " symbols)";
+  }
+
+}
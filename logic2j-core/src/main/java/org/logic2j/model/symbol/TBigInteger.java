@@ -0,0 +1,105 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.model.symbol;
+
+import java.math.BigInteger;
+
+import org.logic2j.model.TermVisitor;
+
+/**
+ * TBigInteger class represents the integers that don't fit in a long, integers are otherwise {@link TLong}s:
+ * create them with {@link #valueOf(BigInteger)}.
+ */
+public class TBigInteger extends TNumber {
+  private static final long serialVersionUID = 1L;
+
+  private final BigInteger value;
+
+  private TBigInteger(BigInteger v) {
+    this.value = v;
+  }
+
+  /**
+   * @param v
+   * @return A {@link TLong} when v fits in a long, a {@link TBigInteger} otherwise.
+   */
+  public static TNumber valueOf(BigInteger v) {
+    if (v.bitLength() < Long.SIZE) {
+      return TLong.valueOf(v.longValue());
+    }
+    return new TBigInteger(v);
+  }
+
+  public BigInteger bigIntegerValue() {
+    return this.value;
+  }
+
+  @Override
+  final public double doubleValue() {
+    return this.value.doubleValue();
+  }
+
+  /**
+   * @return The low-order 64 bits of the value.
+   */
+  @Override
+  final public long longValue() {
+    return this.value.longValue();
+  }
+
+  //---------------------------------------------------------------------------
+  // Template methods defined in abstract class Term
+  //---------------------------------------------------------------------------
+
+  @Override
+  public <T> T accept(TermVisitor<T> theVisitor) {
+    return theVisitor.visit(this);
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof TBigInteger)) {
+      return false;
+    }
+    final TBigInteger that = (TBigInteger) other;
+    return this.value.equals(that.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.value.hashCode();
+  }
+
+  //---------------------------------------------------------------------------
+  // Interface Comparable
+  //---------------------------------------------------------------------------
+
+  @Override
+  public int compareTo(TNumber that) {
+    if (that instanceof TDouble) {
+      return Double.compare(doubleValue(), that.doubleValue());
+    }
+    final BigInteger other = that instanceof TBigInteger ? ((TBigInteger) that).value : BigInteger.valueOf(that.longValue());
+    return this.value.compareTo(other);
+  }
+
+}
@@ -25,8 +25,33 @@ import org.logic2j.model.TermVisitor;
 public class TLong extends TNumber {
   private static final long serialVersionUID = 1L;
 
+  // Small values are shared, see valueOf()
+  private static final int CACHE_LOW = -128;
+  private static final int CACHE_HIGH = 1024;
+  private static final TLong[] CACHE = new TLong[CACHE_HIGH - CACHE_LOW + 1];
+
+  static {
+    for (int i = 0; i < CACHE.length; i++) {
+      CACHE[i] = new TLong(CACHE_LOW + i);
+      // Normalized already
+      CACHE[i].index = 0;
+    }
+  }
+
   private long value;
 
+  /**
+   * @param v
+   * @return A {@link TLong} of value v, shared for small values: prefer this to the constructors
+   * when computing numbers.
+   */
+  public static TLong valueOf(long v) {
+    if (v >= CACHE_LOW && v <= CACHE_HIGH) {
+      return CACHE[(int) v - CACHE_LOW];
+    }
+    return new TLong(v);
+  }
+
   public TLong(long v) {
     this.value = v;
   }
@@ -60,16 +60,6 @@ public abstract class TNumber extends Term implements Comparable<TNumber> {
     theFlatTerms.add(this);
   }
 
-  @Override
-  protected Term compact(Collection<Term> theFlatTerms) {
-    // If this term already has an equivalent in the provided collection, return that one
-    Term alreadyThere = findStaticallyEqual(theFlatTerms);
-    if (alreadyThere != null) {
-      return alreadyThere;
-    }
-    return this;
-  }
-
   @Override
   public Var findVar(String theVariableName) {
     return null;
@@ -0,0 +1,125 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.model.symbol;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+
+import org.logic2j.model.TermVisitor;
+import org.logic2j.model.var.Binding;
+import org.logic2j.model.var.Bindings;
+
+/**
+ * A {@link TString} is a character string literal: unlike an atom, its text is not named by a {@link Symbol}
+ * of the {@link SymbolTable}, so that large amounts of data (typically read from databases) don't fill it.
+ * A {@link TString} only unifies with another {@link TString} of the same value; it is formatted within double
+ * quotes.
+ */
+public final class TString extends Term {
+  private static final long serialVersionUID = 1L;
+
+  private final String value;
+
+  public TString(String theValue) {
+    if (theValue == null) {
+      throw new NullPointerException("The value of a TString cannot be null");
+    }
+    this.value = theValue;
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  public String getValue() {
+    return this.value;
+  }
+
+  //---------------------------------------------------------------------------
+  // Template methods defined in abstract class Term
+  //---------------------------------------------------------------------------
+
+  @Override
+  public boolean isAtom() {
+    return false;
+  }
+
+  @Override
+  public boolean isList() {
+    return false;
+  }
+
+  @Override
+  protected void flattenTerms(Collection<Term> theFlatTerms) {
+    this.index = NO_INDEX;
+    theFlatTerms.add(this);
+  }
+
+  @Override
+  public Var findVar(String theVariableName) {
+    return null;
+  }
+
+  /**
+   * No substitution occurs on literals.
+   */
+  @Override
+  protected Term substitute(Bindings theBindings, IdentityHashMap<Binding, Var> theBindingsToVars) {
+    return this;
+  }
+
+  @Override
+  public boolean staticallyEquals(Term theOther) {
+    if (theOther == this) {
+      return true; // Same reference
+    }
+    return equals(theOther);
+  }
+
+  @Override
+  public short assignVarOffsets(short theIndexOfNextUnindexedVar) {
+    // Don't leave the default NO_INDEX value otherwise this term won't be considered
+    // properly normalized.
+    this.index = 0;
+    // No variable found - return same index
+    return theIndexOfNextUnindexedVar;
+  }
+
+  @Override
+  public <T> T accept(TermVisitor<T> theVisitor) {
+    return theVisitor.visit(this);
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof TString)) {
+      return false;
+    }
+    return this.value.equals(((TString) other).value);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.value.hashCode();
+  }
+
+}
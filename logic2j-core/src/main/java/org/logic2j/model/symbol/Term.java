@@ -76,8 +76,6 @@ public abstract class Term implements java.io.Serializable, Cloneable {
 
   protected abstract void flattenTerms(Collection<Term> theFlatTerms);
 
-  protected abstract Term compact(Collection<Term> theFlatTerms);
-
   public abstract boolean staticallyEquals(Term theOther);
 
   protected abstract short assignVarOffsets(short theIndexOfNextUnindexedVar);
@@ -97,15 +95,6 @@ public abstract class Term implements java.io.Serializable, Cloneable {
    */
   public abstract Var findVar(String theVariableName);
 
-  protected Term findStaticallyEqual(Collection<Term> theTerms) {
-    for (Term term : theTerms) {
-      if (term != this && term.staticallyEquals(this)) {
-        return term;
-      }
-    }
-    return null;
-  }
-
 
   public short getIndex() {
     return this.index;
@@ -0,0 +1,461 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.model.symbol;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.logic2j.TermFactory;
+import org.logic2j.TermFactory.FactoryMode;
+import org.logic2j.library.mgmt.LibraryContent;
+import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.var.Binding;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.util.ReflectUtils;
+
+/**
+ * External facade API to the {@link Term} hierarchy.
+ *
+ */
+public class TermApi {
+
+  public TermApi() {
+    super();
+  }
+
+  Collection<Term> flatTerms(Term theTerm) {
+    Collection<Term> theFlatTerms = new ArrayList<Term>(20);
+    theTerm.flattenTerms(theFlatTerms);
+    return theFlatTerms;
+  }
+
+  /**
+   * Compact a term, this means recursively traversing the term structure
+   * and assigning any duplicates substructures to the same references.
+   * @param theTerm
+   * @return The compacted term, may be equal to the argument.
+   */
+  // TODO Rename to "factorize", since we merge common factors
+  Term compact(Term theTerm) {
+    return new Compactor(null).compact(theTerm);
+  }
+
+  void avoidCycle(Struct theClause) {
+    List<Term> visited = new ArrayList<Term>(20);
+    theClause.avoidCycle(visited);
+  }
+
+  short assignVarOffsets(Term theTerm) {
+    return theTerm.assignVarOffsets((short) 0);
+  }
+
+  /**
+   * Entry point for normalizing terms before they can be used for inference.
+   * Must exclusively be called from {@link TermFactory#normalize(Term)}, with the exception of test cases.
+   * @param theTerm
+   * @param theLibraryContent
+   * @return A normalized copy of theTerm
+   */
+  public Term normalize(Term theTerm, LibraryContent theLibraryContent) {
+    return normalize(theTerm, theLibraryContent, null);
+  }
+
+  /**
+   * Normalize like {@link #normalize(Term, LibraryContent)}, and share the ground sub-terms of theTerm
+   * with those of all terms normalized with theTable.
+   * @param theTerm
+   * @param theLibraryContent
+   * @param theTable May be null, then only the sub-terms of theTerm are shared.
+   * @return A normalized copy of theTerm
+   */
+  public Term normalize(Term theTerm, LibraryContent theLibraryContent, TermTable theTable) {
+    final Term compacted = new Compactor(theTable).compact(theTerm);
+    assignVarOffsets(compacted);
+    if (theTerm instanceof Struct && theLibraryContent != null) {
+      assignPrimitiveInfo((Struct) compacted, theLibraryContent);
+    }
+    return compacted;
+  }
+
+  /**
+   * Substitute, recursively, any bound {@link Var}s to their actual values.
+   * This delegates the call to {@link Term#substitute(Bindings, IdentityHashMap)}. 
+   * @param theTerm
+   * @param theBindings
+   * @param theBindingsToVars
+   * @return An equivalent Term with all bound variables pointing to literals, this implies a deep
+   * cloning of substructures that contain variables. When no variables are bound, then the
+   * same refernce is returned.
+   * Important note: the caller cannot know if the returned reference was cloned or not, so it must never mutate it!
+   */
+  public Term substitute(Term theTerm, final Bindings theBindings, IdentityHashMap<Binding, Var> theBindingsToVars)
+      throws InvalidTermException {
+    if ((theTerm instanceof Struct && theTerm.index == 0) || theBindings.getSize()==0) {
+      // No variables identified in the term, or no variables passed as argument: do not need to substitute
+      return theTerm;
+    }
+    // Delegate to actual subclass
+    return theTerm.substitute(theBindings, theBindingsToVars);
+  }
+
+  /**
+   * Copy a term with all its bound variables replaced by their values, and its free variables
+   * renamed apart in their order of first occurrence. Two goals that are variants of each other
+   * (equal up to the renaming of their free variables) therefore have equal copies.
+   * @param theTerm
+   * @param theBindings
+   * @return A new Term independent from theBindings, it is not normalized.
+   */
+  public Term copy(Term theTerm, Bindings theBindings) {
+    return copy(theTerm, theBindings, new IdentityHashMap<Binding, Var>());
+  }
+
+  private static Term copy(Term theTerm, Bindings theBindings, IdentityHashMap<Binding, Var> theFreeVars) {
+    if (theTerm instanceof Var) {
+      final Var var = (Var) theTerm;
+      if (var.isAnonymous()) {
+        return var;
+      }
+      final Binding binding = var.bindingWithin(theBindings).followLinks();
+      if (binding.isLiteral()) {
+        return copy(binding.getTerm(), binding.getLiteralBindings(), theFreeVars);
+      }
+      Var fresh = theFreeVars.get(binding);
+      if (fresh == null) {
+        fresh = new Var("_V" + theFreeVars.size());
+        theFreeVars.put(binding, fresh);
+      }
+      return fresh;
+    }
+    if (theTerm instanceof Struct && ((Struct) theTerm).getArity() > 0) {
+      final Struct struct = (Struct) theTerm;
+      final Term[] args = new Term[struct.getArity()];
+      for (int i = 0; i < args.length; i++) {
+        args[i] = copy(struct.getArg(i), theBindings, theFreeVars);
+      }
+      return new Struct(struct.getName(), args);
+    }
+    return theTerm;
+  }
+
+  /**
+   * @param theStruct
+   * @param theLib2Content
+   */
+  // TODO Move assignPrimitiveInfo() to LibraryManager
+  private void assignPrimitiveInfo(Struct theStruct, LibraryContent theLib2Content) {
+    theStruct.assignPrimitiveInfo(theLib2Content);
+  }
+
+  /**
+   * Lowest level to factorize an Object into a simple {@link Term}, this can create an atomic
+   * Struct, but not parse a prolog term into a compound Struct. For parsing, you must use the
+   * {@link TermFactory}.
+   * @param theObject
+   * @param theMode
+   * @return An instance of a subclass of {@link Term}.
+   * @throws InvalidTermException
+   */
+  public Term valueOf(Object theObject, FactoryMode theMode) throws InvalidTermException {
+    if (theObject == null) {
+      throw new InvalidTermException("Cannot create Term from null argument");
+    }
+    final Term term;
+    if (theObject instanceof Term) {
+      term = (Term) theObject;
+    } else if (theObject instanceof Integer) {
+      term = TLong.valueOf((Integer) theObject);
+    } else if (theObject instanceof Long) {
+      term = TLong.valueOf((Long) theObject);
+    } else if (theObject instanceof Double) {
+      term = new TDouble((Double) theObject);
+    } else if (theObject instanceof Float) {
+      term = new TDouble((Float) theObject);
+    } else if (theObject instanceof Boolean) {
+      term = (Boolean) theObject ? Struct.ATOM_TRUE : Struct.ATOM_FALSE;
+    } else if (theObject instanceof CharSequence || theObject instanceof Character) {
+      // Rudimentary parsing
+      final String chars = theObject.toString();
+      if (theMode == FactoryMode.ATOM) {
+        // Anything becomes an atom, actually only a Struct since we don't have powerful parsing here
+        term = new Struct(chars);
+      } else {
+        if (Var.ANONYMOUS_VAR_NAME.equals(chars)) {
+          term = Var.ANONYMOUS_VAR;
+        } else if (chars.isEmpty()) {
+          // Dubious for real programming, but data sources may contain empty fields, and this is the only way to represent them as a Term
+          term = new Struct("");
+        } else if (Character.isUpperCase(chars.charAt(0)) || chars.startsWith(Var.ANONYMOUS_VAR_NAME)) {
+          term = new Var(chars);
+        } else {
+          // Otherwise it's an atom
+          term = new Struct(chars);
+        }
+      }
+    } else {
+      throw new InvalidTermException("Cannot create Term from '" + theObject + "' of " + theObject.getClass());
+    }
+    return term;
+  }
+
+  /**
+   * @param theTPathExpression
+   * @param theClass 
+   */
+  // TODO Should this go to TermFactory - since we return a new Term
+  @SuppressWarnings("unchecked")
+  public <T extends Term> T selectTerm(Term theTerm, String theTPathExpression, Class<T> theClass) {
+    if (theTPathExpression.isEmpty()) {
+      return ReflectUtils.safeCastNotNull("selecting term", theTerm, theClass);
+    }
+    if (theTerm instanceof Struct) {
+      final Struct s = (Struct) theTerm;
+      int position = 0;
+      String level0 = theTPathExpression;
+      int end = theTPathExpression.length();
+      final int slash = theTPathExpression.indexOf('/');
+      if (slash >= 1) {
+        end = slash;
+        level0 = theTPathExpression.substring(0, slash);
+        position = 1;
+      }
+      String functor = level0;
+      final int par = level0.indexOf('[');
+      if (par >= 0) {
+        end = max(par, end);
+        functor = level0.substring(0, par);
+        if (!level0.endsWith("]")) {
+          throw new InvalidTermException("Malformed TPath expresson: \"" + theTPathExpression + "\": missing ending ']'");
+        }
+        position = Integer.parseInt(level0.substring(par + 1, level0.length() - 1));
+        if (position <= 0) {
+          throw new InvalidTermException("Index " + position + " in \"" + theTPathExpression + "\" is <=0");
+        }
+        if (position > s.getArity()) {
+          throw new InvalidTermException("Index " + position + " in \"" + theTPathExpression + "\" is > arity of " + s.getArity());
+        }
+      }
+      // In case functor was defined ("f[n]", since the expression "[n]" without f is also allowed)
+      if (!functor.isEmpty()) {
+        // Make sure the root name matches the struct at level 0
+        if (!s.getName().equals(functor)) {
+          throw new InvalidTermException("Term \"" + theTerm + "\" does not start with functor  \"" + functor + '"');
+        }
+      }
+      if (position >= 1) {
+        String levelsTail = theTPathExpression.substring(min(theTPathExpression.length(), end + 1));
+        return selectTerm(s.getArg(position - 1), levelsTail, theClass);
+      }
+      if (!(theClass.isAssignableFrom(theTerm.getClass()))) {
+        throw new ClassCastException("Cannot extract Term of " + theClass + " at expression=" + theTPathExpression + " from "
+            + theTerm);
+      }
+      return (T) theTerm;
+    }
+    throw new IllegalArgumentException("Cannot extract \"" + theTPathExpression + "\" from " + theTerm);
+  }
+
+  //---------------------------------------------------------------------------
+  // Compaction
+  //---------------------------------------------------------------------------
+
+  /**
+   * One traversal of {@link TermApi#compact(Term)}, in linear time: the arguments of a compound are
+   * compacted before it, so that it equals another compound exactly when they have the same functor
+   * and identical arguments, see {@link StructKey}.
+   * Variables are shared by name. Ground sub-terms are shared through the {@link TermTable} if any,
+   * others within the compacted term only.
+   */
+  private static final class Compactor {
+    private final TermTable table;
+    // Both maps are created when first needed: ground terms shared in the table need neither
+    private Map<String, Var> vars = null;
+    private Map<Object, Term> local = null;
+    // Compounds whose last argument is being compacted
+    private final List<Struct> spine = new ArrayList<Struct>();
+
+    // Whether the term last returned by compact() is ground
+    private boolean ground;
+
+    Compactor(TermTable theTable) {
+      this.table = theTable;
+    }
+
+    Term compact(Term theTerm) {
+      // Compounds are walked iteratively along their last argument, the way lists and conjunctions nest,
+      // so that long ones don't exhaust the Java stack. Other arguments are compacted recursively.
+      final int base = this.spine.size();
+      Term term = theTerm;
+      while (isCompound(term)) {
+        final Struct struct = (Struct) term;
+        this.spine.add(struct);
+        term = struct.getArg(struct.getArity() - 1);
+      }
+      Term result = compactNonCompound(term);
+      while (this.spine.size() > base) {
+        result = compactCompound(this.spine.remove(this.spine.size() - 1), result);
+      }
+      return result;
+    }
+
+    private static boolean isCompound(Term theTerm) {
+      return theTerm.getClass() == Struct.class && ((Struct) theTerm).getArity() > 0;
+    }
+
+    private Term compactNonCompound(Term theTerm) {
+      if (theTerm instanceof Var) {
+        this.ground = false;
+        final Var var = (Var) theTerm;
+        if (this.vars == null) {
+          this.vars = new HashMap<String, Var>();
+        }
+        final Var first = this.vars.get(var.getName());
+        if (first != null) {
+          return first;
+        }
+        // Offsets will be reassigned
+        var.index = Term.NO_INDEX;
+        this.vars.put(var.getName(), var);
+        return var;
+      }
+      if (theTerm instanceof TString) {
+        // Strings are not interned, neither are the compounds holding them: they would fill the table
+        this.ground = false;
+        return theTerm;
+      }
+      if (theTerm.getClass() != Struct.class && !(theTerm instanceof TNumber)) {
+        // Extensions such as StructObject are not compared structurally
+        this.ground = false;
+        return theTerm;
+      }
+      // Numbers and atoms
+      this.ground = true;
+      if (theTerm.index != 0) {
+        theTerm.index = 0;
+      }
+      if (theTerm instanceof TNumber) {
+        return share(theTerm, theTerm);
+      }
+      return share(new StructKey((Struct) theTerm), theTerm);
+    }
+
+    /**
+     * @param theStruct
+     * @param theLastArg The last argument of theStruct, already compacted, {@link #ground} is set accordingly.
+     * @return theStruct compacted
+     */
+    private Term compactCompound(Struct theStruct, Term theLastArg) {
+      final int arity = theStruct.getArity();
+      boolean allGround = this.ground;
+      Term[] newArgs = null;
+      for (int i = 0; i < arity; i++) {
+        final Term arg = theStruct.getArg(i);
+        final Term compacted;
+        if (i < arity - 1) {
+          compacted = compact(arg);
+          allGround &= this.ground;
+        } else {
+          compacted = theLastArg;
+        }
+        if (compacted != arg && newArgs == null) {
+          newArgs = new Term[arity];
+          for (int j = 0; j < i; j++) {
+            newArgs[j] = theStruct.getArg(j);
+          }
+        }
+        if (newArgs != null) {
+          newArgs[i] = compacted;
+        }
+      }
+      final Struct result = newArgs == null ? theStruct : theStruct.withArgs(newArgs);
+      this.ground = allGround;
+      if (allGround) {
+        // Normalized already: no variable. Only write when needed, since it may already be shared
+        if (result.index != 0) {
+          result.index = 0;
+        }
+      } else {
+        // Offsets will be reassigned
+        result.index = Term.NO_INDEX;
+      }
+      return share(new StructKey(result), result);
+    }
+
+    private Term share(Object theKey, Term theTerm) {
+      if (this.ground && this.table != null) {
+        return this.table.intern(theKey, theTerm);
+      }
+      if (this.local == null) {
+        this.local = new HashMap<Object, Term>();
+      }
+      final Term existing = this.local.get(theKey);
+      if (existing != null) {
+        return existing;
+      }
+      this.local.put(theKey, theTerm);
+      return theTerm;
+    }
+  }
+
+  /**
+   * Key of a compound whose arguments are already compacted: its functor and the identities of its arguments.
+   */
+  private static final class StructKey {
+    private final Struct struct;
+    private final int hash;
+
+    StructKey(Struct theStruct) {
+      this.struct = theStruct;
+      int h = theStruct.getSymbol().getId() * 31 + theStruct.getArity();
+      for (int i = 0; i < theStruct.getArity(); i++) {
+        h = h * 31 + System.identityHashCode(theStruct.getArg(i));
+      }
+      this.hash = h;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(Object theOther) {
+      if (!(theOther instanceof StructKey)) {
+        return false;
+      }
+      final Struct that = ((StructKey) theOther).struct;
+      if (!this.struct.nameAndArityMatch(that)) {
+        return false;
+      }
+      for (int i = 0; i < that.getArity(); i++) {
+        if (this.struct.getArg(i) != that.getArg(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.model.symbol;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hash-consing table of ground {@link Term}s: structurally equal ground terms normalized with the same
+ * table share a single instance, see {@link TermApi#normalize(Term, org.logic2j.library.mgmt.LibraryContent, TermTable)}.
+ * Duplicated atoms, numbers and ground compounds of large theories thus use memory once.<br/>
+ * Compound terms are looked up once their arguments have been replaced by their shared instances, so that
+ * their key is their functor and the identities of their arguments: a lookup costs O(arity), not O(size).<br/>
+ * The table is a cache: when it exceeds its maximal size it is cleared, terms already shared remain valid.
+ * Terms of one table must not be mutated, nor used with the libraries of another engine.
+ */
+public final class TermTable {
+
+  private static final int DEFAULT_MAX_SIZE = 1 << 18;
+
+  private final ConcurrentHashMap<Object, Term> terms = new ConcurrentHashMap<Object, Term>();
+  private final int maxSize;
+
+  public TermTable() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * @param theMaxSize Number of terms above which the table is cleared.
+   */
+  public TermTable(int theMaxSize) {
+    this.maxSize = theMaxSize;
+  }
+
+  /**
+   * @param theKey
+   * @param theTerm
+   * @return The term already registered under theKey, or theTerm after registering it.
+   */
+  Term intern(Object theKey, Term theTerm) {
+    final Term existing = this.terms.get(theKey);
+    if (existing != null) {
+      return existing;
+    }
+    if (this.terms.size() >= this.maxSize) {
+      this.terms.clear();
+    }
+    final Term raced = this.terms.putIfAbsent(theKey, theTerm);
+    return raced != null ? raced : theTerm;
+  }
+
+  /**
+   * @return The number of shared terms.
+   */
+  public int size() {
+    return this.terms.size();
+  }
+
+  public void clear() {
+    this.terms.clear();
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + '(' + size() + " terms)";
+  }
+
+}
@@ -167,24 +167,6 @@ public class Var extends Term {
     theFlatTerms.add(this);
   }
 
-  @Override
-  protected Term compact(Collection<Term> theFlatTerms) {
-    // If this term already has an equivalent in the provided collection, return that one
-    final Term alreadyThere = findStaticallyEqual(theFlatTerms);
-    if (alreadyThere != null) {
-      return alreadyThere;
-    }
-    for (Term term : theFlatTerms) {
-      if (term instanceof Var) {
-        final Var var = (Var) term;
-        if (this.getName().equals(var.getName())) {
-          return var;
-        }
-      }
-    }
-    return this;
-  }
-
   @Override
   public boolean staticallyEquals(Term theOther) {
     if (theOther == this) {
@@ -19,6 +19,8 @@ package org.logic2j.model.var;
 
 import org.logic2j.model.exception.InvalidTermException;
 import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.TNumber;
+import org.logic2j.model.symbol.TString;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.symbol.Var;
 import org.logic2j.solve.GoalFrame;
@@ -59,6 +61,11 @@ public class Binding implements Cloneable {
   // Note that this is the ref to the first instance of the var in case there are more than one.
   private Var var;
 
+  // Stamp of the inference step that created the Bindings holding this Binding, used to tell
+  // whether it is younger than a choice point, see Resolution. Zero when not known, then the
+  // binding is considered older than any choice point.
+  private long stamp;
+
   /**
    * New binding, for a (yet) free variable.
    */
@@ -114,7 +121,9 @@ public class Binding implements Cloneable {
     } else {
       this.type = BindingType.LIT;
       this.term = theTerm;
-      this.literalBindings = theFrame;
+      // Atomic literals have no variables: don't retain their frame, this would otherwise keep
+      // alive whole chains of frames during long iterations
+      this.literalBindings = isAtomic(theTerm) ? Bindings.NO_BINDINGS : theFrame;
       this.link = null;
     }
     // Remember (if asked for)
@@ -123,6 +132,30 @@ public class Binding implements Cloneable {
     }
   }
 
+  /**
+   * Bind this free variable exactly as theState, a copy obtained by {@link #cloneIt()} while
+   * this binding was bound. This allows replaying a binding after it has been freed.
+   * @param theState
+   * @param theGoalFrame
+   */
+  public void restoreFrom(Binding theState, GoalFrame theGoalFrame) {
+    if (!isFree()) {
+      throw new IllegalStateException("Should not restore a non-free Binding!");
+    }
+    this.type = theState.type;
+    this.term = theState.term;
+    this.literalBindings = theState.literalBindings;
+    this.link = theState.link;
+    // Remember (if asked for)
+    if (theGoalFrame != null) {
+      theGoalFrame.addBinding(this);
+    }
+  }
+
+  private static boolean isAtomic(Term theTerm) {
+    return theTerm instanceof TNumber || theTerm instanceof TString || (theTerm instanceof Struct && ((Struct) theTerm).getArity() == 0);
+  }
+
   /**
    * Follow chains of linked bindings.
    * @return The last binding of a chain, or this instance if it is not {@link BindingType#LINK}. 
@@ -211,6 +244,14 @@ public class Binding implements Cloneable {
     this.var = theVar;
   }
 
+  public long getStamp() {
+    return this.stamp;
+  }
+
+  void setStamp(long theStamp) {
+    this.stamp = theStamp;
+  }
+
   public boolean isFree() {
     return this.type == BindingType.FREE;
   }
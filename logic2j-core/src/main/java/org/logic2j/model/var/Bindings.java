@@ -47,6 +47,12 @@ public class Bindings {
 
   private static final TermApi TERM_API = new TermApi();
 
+  /**
+   * Bindings without any variable, used as the {@link Binding#getLiteralBindings()} of
+   * atomic literals (numbers and atoms).
+   */
+  static final Bindings NO_BINDINGS = new Bindings();
+
   /**
    * The Term, usually a {@link Struct}, whose {@link Var}iables refer to this Bindings
    * through their indexes.
@@ -100,26 +106,24 @@ public class Bindings {
   }
 
   /**
-   * A {@link TermVisitor} used to assign a reference to the original {@link Var}iable into a {@link Binding}.
+   * A {@link TermVisitor} used to assign a reference to the original {@link Var}iable into each {@link Binding},
+   * the first occurrence of each variable is retained. The whole term is traversed once for all bindings.
    */
   private static class SetVarInBindingVisitor extends BaseTermVisitor<Var> {
 
-    private Binding binding;
-    private int index;
+    private final Binding[] bindings;
 
-    SetVarInBindingVisitor(Binding theBinding, int theIndex) {
-      this.binding = theBinding;
-      this.index = theIndex;
+    SetVarInBindingVisitor(Binding[] theBindings) {
+      this.bindings = theBindings;
     }
 
-    @SuppressWarnings("synthetic-access")
     @Override
     public Var visit(Var theVar) {
-      if (theVar.getIndex() == index) {
-        binding.setVar(theVar);
-        // Returning non-null will stop useless recursion
-        return theVar;
+      final int index = theVar.getIndex();
+      if (index >= 0 && index < this.bindings.length && this.bindings[index].getVar() == null) {
+        this.bindings[index].setVar(theVar);
       }
+      // Continue traversal
       return null;
     }
 
@@ -157,13 +161,20 @@ public class Bindings {
     //
     this.bindings = new Binding[nbVars];
     for (int i = 0; i < nbVars; i++) {
-      final int varIndex = i; // Need a final var for visitor subclass
-      final Binding binding = new Binding();
-      this.bindings[varIndex] = binding;
-      // Assign Binding.var field 
-      // TODO This is costly see https://github.com/ltettoni/logic2j/issues/26
-      theReferrer.accept(new SetVarInBindingVisitor(binding, varIndex));
+      this.bindings[i] = new Binding();
     }
+    // Assign Binding.var fields in one traversal, see https://github.com/ltettoni/logic2j/issues/26
+    if (nbVars > 0) {
+      theReferrer.accept(new SetVarInBindingVisitor(this.bindings));
+    }
+  }
+
+  /**
+   * Empty bindings, see {@link #NO_BINDINGS}.
+   */
+  private Bindings() {
+    this.referrer = Struct.ATOM_TRUE;
+    this.bindings = new Binding[0];
   }
 
   /**
@@ -174,6 +185,7 @@ public class Bindings {
    */
   public Bindings(Bindings theOriginal) {
     this.referrer = theOriginal.referrer;
+    theOriginal.materialize();
     final int nbVars = theOriginal.bindings.length;
     this.bindings = new Binding[nbVars];
     // All bindings need cloning
@@ -182,6 +194,53 @@ public class Bindings {
     }
   }
 
+  private Bindings(Term theReferrer, Binding[] theBindings) {
+    this.referrer = theReferrer;
+    this.bindings = theBindings;
+  }
+
+  /**
+   * Copy theOriginal like {@link #Bindings(Bindings)}, but clone each {@link Binding} only on its first access.
+   * This is used for the bindings of a clause tried against a goal: unification often fails before it has
+   * accessed all variables.
+   * @param theOriginal Bindings that are never bound, typically {@link org.logic2j.model.Clause#getBindings()}:
+   * they are read upon first access to the copy.
+   * @return A new Bindings with the same referrer as theOriginal, or theOriginal itself if it has no variable.
+   */
+  public static Bindings createLazyCopy(Bindings theOriginal) {
+    if (theOriginal.bindings.length == 0) {
+      return theOriginal;
+    }
+    return new LazyCopy(theOriginal);
+  }
+
+  /**
+   * Bindings whose elements are null until first accessed, then cloned from a template, see
+   * {@link Bindings#createLazyCopy(Bindings)}.
+   */
+  private static final class LazyCopy extends Bindings {
+    private final Binding[] template;
+    private long stamp;
+
+    LazyCopy(Bindings theOriginal) {
+      super(theOriginal.referrer, new Binding[theOriginal.bindings.length]);
+      this.template = theOriginal.bindings;
+    }
+
+    @Override
+    Binding firstAccess(short theIndex) {
+      final Binding result = this.template[theIndex].cloneIt();
+      result.setStamp(this.stamp);
+      return result;
+    }
+
+    @Override
+    public void setStamp(long theStamp) {
+      this.stamp = theStamp;
+      super.setStamp(theStamp);
+    }
+  }
+
 
   /**
    * PROTOTYPE
@@ -193,6 +252,7 @@ public class Bindings {
     // 
 //    this.bindings = theOriginal.bindings;
     // Cloning - not necessary??
+    theOriginal.materialize();
     final int nbVars = theOriginal.bindings.length;
     this.bindings = new Binding[nbVars];
     // All bindings need cloning
@@ -201,6 +261,27 @@ public class Bindings {
     }
   }
 
+  /**
+   * Assign the stamp of all {@link Binding}s, see {@link Binding#getStamp()}.
+   * @param theStamp
+   */
+  public void setStamp(long theStamp) {
+    for (Binding binding : this.bindings) {
+      if (binding != null) {
+        binding.setStamp(theStamp);
+      }
+    }
+  }
+
+  /**
+   * Make sure all {@link Binding}s are present, before iterating on them, see {@link #createLazyCopy(Bindings)}.
+   */
+  private void materialize() {
+    for (short i = 0; i < this.bindings.length; i++) {
+      getBinding(i);
+    }
+  }
+
   //---------------------------------------------------------------------------
   // Methods for extracting values from variable Bindings
   //---------------------------------------------------------------------------
@@ -249,6 +330,7 @@ public class Bindings {
   public Map<String, Term> explicitBindings(FreeVarRepresentation theRepresentation) {
     // For every Binding in this object, identify to which Var it finally refers (following linked bindings)
     // ending up with either null (on a literal), or a real Var (on a free var).
+    materialize();
     final IdentityHashMap<Binding, Var> bindingToVar = new IdentityHashMap<Binding, Var>();
     for (Binding binding : this.bindings) {
       // Follow linked bindings
@@ -315,6 +397,7 @@ public class Bindings {
    * @return null when not found
    */
   public Bindings findBindings(Var theVar) {
+    materialize();
     // Search root level
     int index = 0;
     for (Binding binding : this.bindings) {
@@ -355,9 +438,10 @@ public class Bindings {
   public String toString() {
     final String address = isDebug ? ('@' + Integer.toHexString(super.hashCode())) : "";
     if (getSize()==0) {
-      return this.getClass().getSimpleName() + address + "(empty)";
+      return Bindings.class.getSimpleName() + address + "(empty)";
     }
-    return this.getClass().getSimpleName() + address + Arrays.asList(this.bindings);
+    materialize();
+    return Bindings.class.getSimpleName() + address + Arrays.asList(this.bindings);
   }
 
   //---------------------------------------------------------------------------
@@ -377,7 +461,20 @@ public class Bindings {
    * @return The {@link Binding} at theIndex.
    */
   public Binding getBinding(short theIndex) {
-    return this.bindings[theIndex];
+    Binding result = this.bindings[theIndex];
+    if (result == null) {
+      result = firstAccess(theIndex);
+      this.bindings[theIndex] = result;
+    }
+    return result;
+  }
+
+  /**
+   * @param theIndex
+   * @return The {@link Binding} to hold at theIndex, for subclasses that don't create them all upfront.
+   */
+  Binding firstAccess(short theIndex) {
+    throw new IllegalStateException("No Binding at index " + theIndex + " of " + this.referrer);
   }
 
   /**
@@ -0,0 +1,326 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.model.var;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.StructObject;
+import org.logic2j.model.symbol.TNumber;
+import org.logic2j.model.symbol.TString;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.symbol.Var;
+
+/**
+ * Packed alternative to {@link Bindings}: the values of all variables of a {@link Term} (the "referrer")
+ * are held in three parallel arrays indexed by {@link Var#getIndex()}, instead of one {@link Binding} object
+ * per variable:
+ * <pre>
+ * tag      term                          frame
+ * -----------------------------------------------------------------------------------------------------
+ * FREE     null                          null
+ * LIT      ref to term                   frame of the term's variables, null when the term is atomic
+ * LINK     ref to the bound Var          frame of the bound Var
+ * </pre>
+ * A frame is therefore 4 objects whatever its number of variables. Creating a fresh frame for a clause
+ * with {@link #fresh()} allocates the three arrays only, all variables are FREE when zero-filled.
+ * The variables of the referrer are found in a single traversal, and shared by all fresh frames; they
+ * are only needed to report solutions by name.<br/>
+ * Bindings done by {@link #unify(Term, VarFrame, Term, VarFrame, VarTrail)} are recorded in a {@link VarTrail}.
+ */
+public final class VarFrame {
+
+  public static final byte FREE = 0;
+  public static final byte LIT = 1;
+  public static final byte LINK = 2;
+
+  private static final Var[] NO_VARS = new Var[0];
+
+  private final Term referrer;
+
+  /**
+   * First occurrence of each variable within the referrer, shared by fresh frames.
+   */
+  private final Var[] vars;
+
+  private final byte[] tags;
+  private final Term[] terms;
+  private final VarFrame[] frames;
+
+  /**
+   * Instantiate a frame to hold all variables of theReferrer, which must be normalized.
+   * @param theReferrer
+   */
+  public VarFrame(Term theReferrer) {
+    final short index = theReferrer.getIndex();
+    if (index == Term.NO_INDEX) {
+      throw new InvalidTermException("Cannot create VarFrame for uninitialized Term " + theReferrer);
+    }
+    this.referrer = theReferrer;
+    final int nbVars;
+    if (theReferrer instanceof Var) {
+      nbVars = ((Var) theReferrer).isAnonymous() ? 0 : 1;
+    } else {
+      // A Struct: its index is the number of distinct variables
+      nbVars = index;
+    }
+    this.vars = nbVars == 0 ? NO_VARS : new Var[nbVars];
+    collectVars(theReferrer, this.vars);
+    this.tags = new byte[nbVars];
+    this.terms = new Term[nbVars];
+    this.frames = new VarFrame[nbVars];
+  }
+
+  private VarFrame(VarFrame theTemplate) {
+    this.referrer = theTemplate.referrer;
+    this.vars = theTemplate.vars;
+    final int nbVars = this.vars.length;
+    this.tags = new byte[nbVars];
+    this.terms = new Term[nbVars];
+    this.frames = new VarFrame[nbVars];
+  }
+
+  private static void collectVars(Term theTerm, Var[] theVars) {
+    if (theTerm instanceof Var) {
+      final int index = theTerm.getIndex();
+      if (index >= 0 && index < theVars.length && theVars[index] == null) {
+        theVars[index] = (Var) theTerm;
+      }
+    } else if (theTerm instanceof Struct && !(theTerm instanceof StructObject)) {
+      final Struct struct = (Struct) theTerm;
+      for (int i = 0; i < struct.getArity(); i++) {
+        collectVars(struct.getArg(i), theVars);
+      }
+    }
+  }
+
+  /**
+   * @return A new frame for the same referrer, with all variables free.
+   */
+  public VarFrame fresh() {
+    return new VarFrame(this);
+  }
+
+  //---------------------------------------------------------------------------
+  // Unification
+  //---------------------------------------------------------------------------
+
+  /**
+   * Unify two terms, each with the frame of its variables, with the same semantics as
+   * {@link org.logic2j.unify.DefaultUnifyer}. Bindings are recorded in theTrail; when unification fails,
+   * the bindings done by this call are undone.
+   * @param theTerm1
+   * @param theFrame1
+   * @param theTerm2
+   * @param theFrame2
+   * @param theTrail
+   * @return true when unified.
+   */
+  public static boolean unify(Term theTerm1, VarFrame theFrame1, Term theTerm2, VarFrame theFrame2, VarTrail theTrail) {
+    final int size = theTrail.size();
+    if (unifyInternal(theTerm1, theFrame1, theTerm2, theFrame2, theTrail)) {
+      return true;
+    }
+    theTrail.undoTo(size);
+    return false;
+  }
+
+  private static boolean unifyInternal(Term theTerm1, VarFrame theFrame1, Term theTerm2, VarFrame theFrame2,
+      VarTrail theTrail) {
+    Term term1 = theTerm1;
+    VarFrame frame1 = theFrame1;
+    Term term2 = theTerm2;
+    VarFrame frame2 = theFrame2;
+    // Dereference both sides, without allocating
+    int index1 = -1;
+    while (term1 instanceof Var) {
+      if (((Var) term1).isAnonymous()) {
+        return true;
+      }
+      index1 = term1.getIndex();
+      if (frame1.tags[index1] == FREE) {
+        break;
+      }
+      final Term next = frame1.terms[index1];
+      frame1 = frame1.frames[index1];
+      term1 = next;
+      index1 = -1;
+    }
+    int index2 = -1;
+    while (term2 instanceof Var) {
+      if (((Var) term2).isAnonymous()) {
+        return true;
+      }
+      index2 = term2.getIndex();
+      if (frame2.tags[index2] == FREE) {
+        break;
+      }
+      final Term next = frame2.terms[index2];
+      frame2 = frame2.frames[index2];
+      term2 = next;
+      index2 = -1;
+    }
+    if (index1 >= 0) {
+      if (index2 >= 0 && frame1 == frame2 && index1 == index2) {
+        // Same free variable
+        return true;
+      }
+      frame1.bind(index1, term2, frame2, theTrail);
+      return true;
+    }
+    if (index2 >= 0) {
+      frame2.bind(index2, term1, frame1, theTrail);
+      return true;
+    }
+    // Both are now non-variables
+    if (term1 instanceof TNumber || term1 instanceof TString) {
+      return term1.equals(term2);
+    }
+    if (term1 instanceof Struct && term2 instanceof Struct) {
+      final Struct s1 = (Struct) term1;
+      final Struct s2 = (Struct) term2;
+      if (!s1.nameAndArityMatch(s2) || s1.getClass() != s2.getClass()) {
+        return false;
+      }
+      final int arity = s1.getArity();
+      for (int i = 0; i < arity; i++) {
+        if (!unifyInternal(s1.getArg(i), frame1, s2.getArg(i), frame2, theTrail)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private void bind(int theIndex, Term theTerm, VarFrame theFrame, VarTrail theTrail) {
+    if (theTerm instanceof Var) {
+      this.tags[theIndex] = LINK;
+      this.frames[theIndex] = theFrame;
+    } else {
+      this.tags[theIndex] = LIT;
+      // Atomic literals have no variables: don't retain their frame
+      this.frames[theIndex] = isAtomic(theTerm) ? null : theFrame;
+    }
+    this.terms[theIndex] = theTerm;
+    theTrail.add(this, theIndex);
+  }
+
+  /**
+   * Revert the variable at theIndex to {@link #FREE}.
+   * @param theIndex
+   */
+  void free(int theIndex) {
+    this.tags[theIndex] = FREE;
+    this.terms[theIndex] = null;
+    this.frames[theIndex] = null;
+  }
+
+  private static boolean isAtomic(Term theTerm) {
+    return theTerm instanceof TNumber || theTerm instanceof TString || (theTerm instanceof Struct && ((Struct) theTerm).getArity() == 0);
+  }
+
+  //---------------------------------------------------------------------------
+  // Methods for extracting values
+  //---------------------------------------------------------------------------
+
+  /**
+   * Copy theTerm with its bound variables replaced by their values, recursively.
+   * Free variables are represented by the {@link Var} they are finally linked to.
+   * @param theTerm A term whose variables belong to this frame.
+   * @return A term independent from this frame, not normalized.
+   */
+  public Term resolve(Term theTerm) {
+    if (theTerm instanceof Var) {
+      final Var var = (Var) theTerm;
+      if (var.isAnonymous()) {
+        return var;
+      }
+      final int index = var.getIndex();
+      switch (this.tags[index]) {
+        case LIT:
+          final VarFrame frame = this.frames[index];
+          return frame == null ? this.terms[index] : frame.resolve(this.terms[index]);
+        case LINK:
+          return this.frames[index].resolve(this.terms[index]);
+        default:
+          return this.vars[index] != null ? this.vars[index] : var;
+      }
+    }
+    if (theTerm instanceof Struct && ((Struct) theTerm).getArity() > 0 && !(theTerm instanceof StructObject)) {
+      final Struct struct = (Struct) theTerm;
+      final Term[] args = new Term[struct.getArity()];
+      for (int i = 0; i < args.length; i++) {
+        args[i] = resolve(struct.getArg(i));
+      }
+      return new Struct(struct.getName(), args);
+    }
+    return theTerm;
+  }
+
+  /**
+   * @return The values of the variables of the referrer that are not free, by name.
+   */
+  public Map<String, Term> explicitBindings() {
+    final Map<String, Term> result = new TreeMap<String, Term>();
+    for (Var var : this.vars) {
+      if (var != null) {
+        final Term value = resolve(var);
+        if (!(value instanceof Var)) {
+          result.put(var.getName(), value);
+        }
+      }
+    }
+    return result;
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  /**
+   * @return The number of variables, as {@link Bindings#getSize()}.
+   */
+  public int getSize() {
+    return this.tags.length;
+  }
+
+  /**
+   * @param theIndex
+   * @return One of {@link #FREE}, {@link #LIT} or {@link #LINK}.
+   */
+  public byte getTag(int theIndex) {
+    return this.tags[theIndex];
+  }
+
+  public Term getReferrer() {
+    return this.referrer;
+  }
+
+  //---------------------------------------------------------------------------
+  // Methods of java.lang.Object
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + explicitBindings();
+  }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.model.var;
+
+import java.util.Arrays;
+
+/**
+ * The trail of the bindings done by {@link VarFrame#unify(org.logic2j.model.symbol.Term, VarFrame,
+ * org.logic2j.model.symbol.Term, VarFrame, VarTrail)}: pairs of (frame, index of the variable) held in
+ * two parallel arrays, grown by doubling.
+ */
+public final class VarTrail {
+  private static final int INITIAL_SIZE = 100;
+
+  private VarFrame[] frames = new VarFrame[INITIAL_SIZE];
+  private int[] indexes = new int[INITIAL_SIZE];
+  private int size = 0;
+
+  void add(VarFrame theFrame, int theIndex) {
+    if (this.size == this.frames.length) {
+      this.frames = Arrays.copyOf(this.frames, this.size * 2);
+      this.indexes = Arrays.copyOf(this.indexes, this.size * 2);
+    }
+    this.frames[this.size] = theFrame;
+    this.indexes[this.size] = theIndex;
+    this.size++;
+  }
+
+  /**
+   * @return The number of bindings in the trail, to be used later with {@link #undoTo(int)}.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Free the variables bound since the trail had theSize.
+   * @param theSize As obtained from {@link #size()}
+   */
+  public void undoTo(int theSize) {
+    for (int i = this.size - 1; i >= theSize; i--) {
+      this.frames[i].free(this.indexes[i]);
+      this.frames[i] = null;
+    }
+    if (theSize < this.size) {
+      this.size = theSize;
+    }
+  }
+
+}
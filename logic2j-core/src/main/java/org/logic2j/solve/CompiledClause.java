@@ -0,0 +1,302 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.logic2j.model.Clause;
+import org.logic2j.model.symbol.PredicateKey;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.Symbol;
+import org.logic2j.model.symbol.TNumber;
+import org.logic2j.model.symbol.TString;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.symbol.Var;
+import org.logic2j.model.var.Binding;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.unify.Unifyer;
+
+/**
+ * A {@link Clause} compiled for the {@link CompilingGoalSolver}: instead of walking the head and body
+ * {@link Struct}s on every call, the clause is translated once into flat instructions.
+ * <ul>
+ * <li>The head becomes one instruction per argument, specialised on what the argument is: an atom, a
+ * number or a string is compared directly, the first occurrence of a variable is bound without unification (and without
+ * trailing when bound to a value: the clause's variables are fresh, they are dropped on backtracking anyway),
+ * anonymous variables are skipped. Only compound arguments and repeated variables use the {@link Unifyer}.</li>
+ * <li>The body conjunction is flattened into an array of goals, each tagged with how to dispatch it:
+ * true, cut, primitive (with its {@link org.logic2j.library.mgmt.PrimitiveInfo} already resolved),
+ * user predicate (with its predicate key computed), or anything else that is left to the interpreter.</li>
+ * </ul>
+ */
+public final class CompiledClause {
+
+  // Head argument instructions
+  static final byte HEAD_VOID = 0;
+  static final byte HEAD_ATOM = 1;
+  static final byte HEAD_LITERAL = 2;
+  static final byte HEAD_FIRST_VAR = 3;
+  static final byte HEAD_UNIFY = 4;
+
+  // Body goal dispatch
+  static final byte GOAL_INTERPRETED = 0;
+  static final byte GOAL_TRUE = 1;
+  static final byte GOAL_CUT = 2;
+  static final byte GOAL_PRIMITIVE = 3;
+  static final byte GOAL_USER = 4;
+
+  private static final Term[] NO_GOALS = new Term[0];
+
+  private final Symbol symbol;
+  private final int arity;
+  private final byte[] headInstructions;
+  private final Term[] headArguments;
+
+  private final Term[] goals;
+  private final byte[] goalKinds;
+  private final PredicateKey[] goalKeys;
+
+  /**
+   * @param theClause
+   * @return The compiled form of theClause, compiled on first use and then kept by theClause.
+   */
+  public static CompiledClause of(Clause theClause) {
+    CompiledClause result = (CompiledClause) theClause.getCompiled();
+    if (result == null) {
+      // Concurrent first uses may compile twice, that's harmless
+      result = new CompiledClause(theClause);
+      theClause.setCompiled(result);
+    }
+    return result;
+  }
+
+  /**
+   * Compile theClause.
+   * @param theClause
+   */
+  public CompiledClause(Clause theClause) {
+    final Struct head = theClause.getHead();
+    this.symbol = head.getSymbol();
+    this.arity = head.getArity();
+    this.headInstructions = new byte[this.arity];
+    this.headArguments = new Term[this.arity];
+    final boolean[] seen = new boolean[theClause.getBindings().getSize()];
+    for (int i = 0; i < this.arity; i++) {
+      final Term arg = head.getArg(i);
+      this.headArguments[i] = arg;
+      this.headInstructions[i] = compileHeadArgument(arg, seen);
+    }
+    if (theClause.isFact()) {
+      this.goals = NO_GOALS;
+    } else {
+      final List<Term> flat = new ArrayList<Term>();
+      flattenConjunction(theClause.getBody(), flat);
+      this.goals = flat.toArray(new Term[flat.size()]);
+    }
+    this.goalKinds = new byte[this.goals.length];
+    this.goalKeys = new PredicateKey[this.goals.length];
+    for (int i = 0; i < this.goals.length; i++) {
+      this.goalKinds[i] = kindOf(this.goals[i]);
+      if (this.goalKinds[i] == GOAL_USER) {
+        this.goalKeys[i] = ((Struct) this.goals[i]).getPredicateKey();
+      }
+    }
+  }
+
+  private static byte compileHeadArgument(Term theArgument, boolean[] theSeen) {
+    if (theArgument instanceof Var) {
+      final Var var = (Var) theArgument;
+      if (var.isAnonymous()) {
+        return HEAD_VOID;
+      }
+      if (theSeen[var.getIndex()]) {
+        return HEAD_UNIFY;
+      }
+      theSeen[var.getIndex()] = true;
+      return HEAD_FIRST_VAR;
+    }
+    if (theArgument instanceof TNumber || theArgument instanceof TString) {
+      return HEAD_LITERAL;
+    }
+    if (theArgument.getClass() == Struct.class && ((Struct) theArgument).getArity() == 0) {
+      return HEAD_ATOM;
+    }
+    markVars(theArgument, theSeen);
+    return HEAD_UNIFY;
+  }
+
+  private static void markVars(Term theTerm, boolean[] theSeen) {
+    if (theTerm instanceof Var) {
+      if (!((Var) theTerm).isAnonymous()) {
+        theSeen[theTerm.getIndex()] = true;
+      }
+    } else if (theTerm instanceof Struct) {
+      final Struct struct = (Struct) theTerm;
+      for (int i = 0; i < struct.getArity(); i++) {
+        markVars(struct.getArg(i), theSeen);
+      }
+    }
+  }
+
+  private static void flattenConjunction(Term theBody, List<Term> theGoals) {
+    if (theBody instanceof Struct && ((Struct) theBody).getName() == Struct.FUNCTOR_COMMA) {
+      final Struct conjunction = (Struct) theBody;
+      for (int i = 0; i < conjunction.getArity(); i++) {
+        flattenConjunction(conjunction.getArg(i), theGoals);
+      }
+    } else {
+      theGoals.add(theBody);
+    }
+  }
+
+  private static byte kindOf(Term theGoal) {
+    if (!(theGoal instanceof Struct)) {
+      return GOAL_INTERPRETED;
+    }
+    final Struct struct = (Struct) theGoal;
+    final String functor = struct.getName();
+    if (functor == Struct.FUNCTOR_SEMICOLON || functor == Struct.FUNCTOR_CALL) {
+      return GOAL_INTERPRETED;
+    }
+    if (struct.getPrimitiveInfo() != null) {
+      if (struct.getArity() == 0 && functor == Struct.FUNCTOR_CUT) {
+        return GOAL_CUT;
+      }
+      if (struct.getArity() == 0 && functor == Struct.FUNCTOR_TRUE) {
+        return GOAL_TRUE;
+      }
+      return GOAL_PRIMITIVE;
+    }
+    return GOAL_USER;
+  }
+
+  /**
+   * Unify the head of this clause with a goal.
+   * @param theGoal
+   * @param theGoalBindings
+   * @param theClauseBindings Fresh bindings of this clause.
+   * @param theGoalFrame Records the bindings of the goal's variables.
+   * @param theUnifyer For the arguments that need full unification.
+   * @return false when not unified, the caller must then free the bindings above the trail size it had before.
+   */
+  boolean unifyHead(Struct theGoal, Bindings theGoalBindings, Bindings theClauseBindings, GoalFrame theGoalFrame,
+      Unifyer theUnifyer) {
+    if (theGoal.getArity() != this.arity || theGoal.getSymbol() != this.symbol) {
+      return false;
+    }
+    for (int i = 0; i < this.arity; i++) {
+      final Term headArg = this.headArguments[i];
+      switch (this.headInstructions[i]) {
+        case HEAD_VOID:
+          break;
+        case HEAD_FIRST_VAR:
+          bindFirstVar((Var) headArg, theGoal.getArg(i), theGoalBindings, theClauseBindings, theGoalFrame);
+          break;
+        case HEAD_ATOM:
+        case HEAD_LITERAL:
+          if (!matchConstant(headArg, theGoal.getArg(i), theGoalBindings, theGoalFrame)) {
+            return false;
+          }
+          break;
+        default:
+          if (!theUnifyer.unify(theGoal.getArg(i), theGoalBindings, headArg, theClauseBindings, theGoalFrame)) {
+            return false;
+          }
+          theGoalFrame.discardMark();
+          break;
+      }
+    }
+    return true;
+  }
+
+  private static void bindFirstVar(Var theHeadVar, Term theGoalArg, Bindings theGoalBindings,
+      Bindings theClauseBindings, GoalFrame theGoalFrame) {
+    if (theGoalArg instanceof Var) {
+      final Var goalVar = (Var) theGoalArg;
+      if (goalVar.isAnonymous()) {
+        return;
+      }
+      final Binding goalBinding = goalVar.bindingWithin(theGoalBindings).followLinks();
+      if (goalBinding.isFree()) {
+        // Link the goal's variable to the clause's one, as the Unifyer would, so that
+        // further occurrences of either variable end up on the same binding
+        goalBinding.bindTo(theHeadVar, theClauseBindings, theGoalFrame);
+        return;
+      }
+      theHeadVar.bindingWithin(theClauseBindings).bindTo(goalBinding.getTerm(), goalBinding.getLiteralBindings(), null);
+      return;
+    }
+    theHeadVar.bindingWithin(theClauseBindings).bindTo(theGoalArg, theGoalBindings, null);
+  }
+
+  private static boolean matchConstant(Term theConstant, Term theGoalArg, Bindings theGoalBindings,
+      GoalFrame theGoalFrame) {
+    Term term = theGoalArg;
+    if (term instanceof Var) {
+      final Var goalVar = (Var) term;
+      if (goalVar.isAnonymous()) {
+        return true;
+      }
+      final Binding goalBinding = goalVar.bindingWithin(theGoalBindings).followLinks();
+      if (goalBinding.isFree()) {
+        goalBinding.bindTo(theConstant, theGoalBindings, theGoalFrame);
+        return true;
+      }
+      term = goalBinding.getTerm();
+    }
+    if (theConstant instanceof TNumber || theConstant instanceof TString) {
+      return theConstant.equals(term);
+    }
+    // Extensions such as StructObject unify as atoms, by name
+    return term instanceof Struct && ((Struct) term).getSymbol() == ((Struct) theConstant).getSymbol()
+        && ((Struct) term).getArity() == 0;
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  /**
+   * @return The goals of the body, in order, conjunctions flattened. Empty for a fact.
+   */
+  Term[] getGoals() {
+    return this.goals;
+  }
+
+  byte[] getGoalKinds() {
+    return this.goalKinds;
+  }
+
+  /**
+   * @return Predicate keys of the goals of kind {@link #GOAL_USER}, null for others.
+   */
+  PredicateKey[] getGoalKeys() {
+    return this.goalKeys;
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + '(' + this.symbol + '/' + this.arity + ", " + this.goals.length + " goals)";
+  }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve;
+
+import org.logic2j.PrologImplementor;
+import org.logic2j.model.Clause;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.var.Bindings;
+
+/**
+ * Opt-in {@link GoalSolver} that solves like the {@link StacklessGoalSolver}, but from the compiled form
+ * of the clauses instead of their {@link org.logic2j.model.symbol.Struct}s, see {@link CompiledClause}.
+ * Each {@link Clause} is compiled on its first use. Install it with
+ * {@link org.logic2j.PrologImpl#setSolver(GoalSolver)}.
+ */
+public class CompilingGoalSolver extends StacklessGoalSolver {
+
+  public CompilingGoalSolver(PrologImplementor theProlog) {
+    super(theProlog);
+  }
+
+  @Override
+  protected Resolution newResolution(Term theGoal, Bindings theGoalBindings, GoalFrame theGoalFrame,
+      Iterable<Clause> theFirstGoalClauses) {
+    return new Resolution(getProlog(), theGoal, theGoalBindings, theGoalFrame, true, theFirstGoalClauses);
+  }
+
+}
@@ -35,7 +35,6 @@ public class DefaultGoalSolver implements GoalSolver {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DefaultGoalSolver.class);
   private static final boolean debug = logger.isDebugEnabled();
 
-  public int internalCounter = 0;
   private final PrologImplementor prolog;
 
   public DefaultGoalSolver(PrologImplementor theProlog) {
@@ -54,6 +53,7 @@ public class DefaultGoalSolver implements GoalSolver {
     if (debug) {
       logger.debug("Entering solveRecursive({}), callerFrame={}", goalTerm, callerFrame);
     }
+    callerFrame.solvedBy(this.prolog);
     if (!(goalTerm instanceof Struct)) {
       throw new InvalidTermException("Goal \"" + goalTerm + "\" is not a Struct and cannot be solved");
     }
@@ -75,7 +75,6 @@ public class DefaultGoalSolver implements GoalSolver {
 
           @Override
           public boolean onSolution() {
-            DefaultGoalSolver.this.internalCounter++;
             final int index2 = index + 1;
             solveGoalRecursive(goalStruct.getArg(index2), theGoalBindings, callerFrame, listeners[index2]);
             return true;
@@ -160,9 +159,12 @@ public class DefaultGoalSolver implements GoalSolver {
             }
             break;
           }
-          // Clone the variables so that we won't mutate our current clause's ones
-          final Bindings immutableVars = clause.getBindings();
-          final Bindings clauseVars = new Bindings(immutableVars);
+          // Don't allocate anything for clauses that certainly don't match
+          if (!clause.mayUnify(goalStruct, theGoalBindings)) {
+            continue;
+          }
+          // Copy the variables so that we won't mutate our current clause's ones
+          final Bindings clauseVars = Bindings.createLazyCopy(clause.getBindings());
           final Term clauseHead = clause.getHead();
           if (debug) {
             logger.debug("Unifying: goal={}        with  goalVars={}", goalTerm, theGoalBindings);
@@ -17,9 +17,9 @@
  */
 package org.logic2j.solve;
 
-import java.util.ArrayList;
-import java.util.Stack;
+import java.util.Arrays;
 
+import org.logic2j.PrologImplementor;
 import org.logic2j.model.var.Binding;
 import org.logic2j.util.ReportUtils;
 
@@ -30,6 +30,7 @@ import org.logic2j.util.ReportUtils;
  * <li>trailing variables bound by unification, in order to deunify</li>
  * <li>goal solving state to allow "cut"</li>
  * <li>user cancellation</li>
+ * <li>the engine solving the goal</li>
  * </ul>
  * The default constructor instantiates the whole trailing bindings stack, and 
  * returns a first node to hold inference and unificaiton state. 
@@ -52,14 +53,10 @@ public final class GoalFrame {
 
   private final GoalFrame parent; // Boundary condition of top: parent==this
 
-  private final ArrayList<Binding> trailingBindings;
-
   /**
-   * A stack of indexes into {@link #trailingBindings} to restore bindings between
-   * successive calls to unification. Each unification must call {@link #markForNextBindings()}
-   * before starting, then {@link #addBinding(Binding)}, and finally {@link #clearBindingsToMark()}.
+   * The trail of bindings and its marks, shared by all frames of one solving.
    */
-  private final Stack<Integer> bindingMarkBetweenUnify;
+  private final Trail trail;
 
   // Management of the "cut" goal requires breaking pure recursion, to do that we need to track
   // the position (index=0,1,2...) of this frame relative to its sibling (those frames having the same parent).
@@ -72,8 +69,12 @@ public final class GoalFrame {
   private int childIndex;
   private int cutIndex;
 
-  // Becomes true when user requested to cancel solutions
-  private boolean userCanceled;
+  // Becomes true when user requested to cancel solutions, possibly from another thread
+  private volatile boolean userCanceled;
+
+  // The engine that solves with this frame, assigned by the first GoalSolver using it. Libraries and clauses
+  // may be shared by several engines (see PrologImpl#fork()), primitives use this one to solve subgoals.
+  private PrologImplementor prolog;
 
   /**
    * Create a new full stack with a default size, and its root frame.
@@ -81,10 +82,7 @@ public final class GoalFrame {
    */
   public GoalFrame() {
     this.parent = this; // Boundary condition: loops on itself
-    this.trailingBindings = new ArrayList<Binding>(INITIAL_SIZE);
-    this.bindingMarkBetweenUnify = new Stack<Integer>();
-    this.bindingMarkBetweenUnify.ensureCapacity(INITIAL_SIZE);
-    this.bindingMarkBetweenUnify.push(0);
+    this.trail = new Trail();
     // State bindings dedicated to "cut"
     this.nbChildren = 0;
     this.childIndex = UNDEF_INDEX;
@@ -102,13 +100,13 @@ public final class GoalFrame {
     // share the same structures since they are not directly related to the management
     // of cut and user cancellation, but related to inference which is not altered
     // by goal solving boundaries
-    this.trailingBindings = theParent.trailingBindings;
-    this.bindingMarkBetweenUnify = theParent.bindingMarkBetweenUnify;
+    this.trail = theParent.trail;
     // State bindings dedicated to "cut"
     this.nbChildren = 0; // No children yet
     this.childIndex = theParent.nbChildren; // Our index within our parent goal: 0,1,...
     this.cutIndex = UNDEF_INDEX;
     this.userCanceled = false;
+    this.prolog = theParent.prolog;
     theParent.nbChildren++;
   }
 
@@ -117,8 +115,11 @@ public final class GoalFrame {
   //---------------------------------------------------------------------------
 
   public void markForNextBindings() {
-    final int upperMark = this.trailingBindings.size();
-    this.bindingMarkBetweenUnify.push(upperMark);
+    final Trail t = this.trail;
+    if (t.nbMarks == t.marks.length) {
+      t.marks = Arrays.copyOf(t.marks, t.nbMarks * 2);
+    }
+    t.marks[t.nbMarks++] = t.size;
   }
 
   /**
@@ -126,7 +127,11 @@ public final class GoalFrame {
    * @param theBinding
    */
   public void addBinding(Binding theBinding) {
-    this.trailingBindings.add(theBinding);
+    final Trail t = this.trail;
+    if (t.size == t.bindings.length) {
+      t.bindings = Arrays.copyOf(t.bindings, t.size * 2);
+    }
+    t.bindings[t.size++] = theBinding;
   }
 
   /**
@@ -134,12 +139,73 @@ public final class GoalFrame {
    * {@link #markForNextBindings()}
    */
   public void clearBindingsToMark() {
-    int indexOfPreviousMark = this.bindingMarkBetweenUnify.pop();
-    for (int i = this.trailingBindings.size() - 1; i >= indexOfPreviousMark; i--) {
-      final Binding binding = this.trailingBindings.remove(i); 
-      // TODO Is it efficient to remove() from an ArrayList?, see https://github.com/ltettoni/logic2j/issues/9
-      binding.free();
+    final Trail t = this.trail;
+    t.truncate(t.marks[--t.nbMarks]);
+  }
+
+  /**
+   * Forget the last mark set by {@link #markForNextBindings()}, without freeing the bindings
+   * added since: they now belong to the enclosing mark (or trail position) and will be 
+   * reset together with it.
+   */
+  public void discardMark() {
+    this.trail.nbMarks--;
+  }
+
+  /**
+   * @return The current number of bindings in the trail, to be used later with 
+   * {@link #clearBindingsToTrailSize(int)}.
+   */
+  public int getTrailSize() {
+    return this.trail.size;
+  }
+
+  /**
+   * @param theIndex
+   * @return The {@link Binding} at theIndex in the trail.
+   */
+  public Binding getTrailedBinding(int theIndex) {
+    if (theIndex >= this.trail.size) {
+      throw new IndexOutOfBoundsException("Index " + theIndex + " beyond trail size " + this.trail.size);
     }
+    return this.trail.bindings[theIndex];
+  }
+
+  /**
+   * Reset all bindings that were added to the trail after it had reached theTrailSize,
+   * regardless of marks.
+   * @param theTrailSize As obtained from {@link #getTrailSize()}
+   */
+  public void clearBindingsToTrailSize(int theTrailSize) {
+    this.trail.truncate(theTrailSize);
+  }
+
+  /**
+   * Remove from the trail, above theTrailSize, the bindings whose {@link Binding#getStamp()} is at least theStamp,
+   * without freeing them: they belong to frames that will be discarded when backtracking to theTrailSize, so
+   * they never need to be reset. The order of the other bindings is preserved.
+   * Nothing is done while a mark set by {@link #markForNextBindings()} is above theTrailSize.
+   * @param theTrailSize As obtained from {@link #getTrailSize()}
+   * @param theStamp
+   * @return The number of bindings removed from the trail.
+   */
+  public int releaseBindings(int theTrailSize, long theStamp) {
+    final Trail t = this.trail;
+    if (t.marks[t.nbMarks - 1] > theTrailSize) {
+      return 0;
+    }
+    final Binding[] bindings = t.bindings;
+    final int size = t.size;
+    int kept = theTrailSize;
+    for (int i = theTrailSize; i < size; i++) {
+      final Binding binding = bindings[i];
+      if (binding.getStamp() < theStamp) {
+        bindings[kept++] = binding;
+      }
+    }
+    Arrays.fill(bindings, kept, size, null);
+    t.size = kept;
+    return size - kept;
   }
 
   /**
@@ -148,7 +214,7 @@ public final class GoalFrame {
    */
   @Deprecated
   public Object nbBindings() {
-    return this.trailingBindings.size() - this.bindingMarkBetweenUnify.peek();
+    return this.trail.size - this.trail.marks[this.trail.nbMarks - 1];
   }
 
   //---------------------------------------------------------------------------
@@ -163,6 +229,27 @@ public final class GoalFrame {
     return this.userCanceled;
   }
 
+  //---------------------------------------------------------------------------
+  // Engine solving with this frame
+  //---------------------------------------------------------------------------
+
+  /**
+   * Record the engine solving with this frame, unless one was already recorded.
+   * @param theProlog
+   */
+  public void solvedBy(PrologImplementor theProlog) {
+    if (this.prolog == null) {
+      this.prolog = theProlog;
+    }
+  }
+
+  /**
+   * @return The engine solving with this frame, or null if no {@link GoalSolver} has used it yet.
+   */
+  public PrologImplementor getProlog() {
+    return this.prolog;
+  }
+
   //---------------------------------------------------------------------------
   // Accessors
   //---------------------------------------------------------------------------
@@ -191,12 +278,13 @@ public final class GoalFrame {
   public String toString() {
     StringBuilder sb = new StringBuilder(ReportUtils.shortDescription(this));
     sb.append('{');
-    int size = this.trailingBindings.size();
-    int i = this.bindingMarkBetweenUnify.peek();
+    final Trail t = this.trail;
+    final int size = t.size;
+    int i = t.marks[t.nbMarks - 1];
     sb.append(i);
     sb.append(':');
     while (i < size) {
-      sb.append(this.trailingBindings.get(i));
+      sb.append(t.bindings[i]);
       sb.append(' ');
       i++;
       sb.append(i);
@@ -213,4 +301,35 @@ public final class GoalFrame {
     return sb.toString();
   }
 
+  //---------------------------------------------------------------------------
+  // The trail
+  //---------------------------------------------------------------------------
+
+  /**
+   * Bindings done by unification, in order, and the stack of marks (positions into them) set by
+   * {@link GoalFrame#markForNextBindings()}. Both are plain arrays grown by doubling: pushing and popping
+   * does not allocate, and going back to a mark frees the bindings above it in one pass.
+   */
+  private static final class Trail {
+    Binding[] bindings = new Binding[INITIAL_SIZE];
+    int size = 0;
+    int[] marks = new int[INITIAL_SIZE];
+    int nbMarks = 1; // The bottom mark at 0 is never popped
+
+    /**
+     * Free the bindings above theSize, and forget them.
+     * @param theSize
+     */
+    void truncate(int theSize) {
+      final Binding[] b = this.bindings;
+      for (int i = this.size - 1; i >= theSize; i--) {
+        b[i].free();
+        b[i] = null;
+      }
+      if (theSize < this.size) {
+        this.size = theSize;
+      }
+    }
+  }
+
 }
@@ -0,0 +1,501 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.logic2j.ClauseProvider;
+import org.logic2j.PrologImplementor;
+import org.logic2j.model.Clause;
+import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.symbol.TermApi;
+import org.logic2j.model.symbol.Var;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.ioc.SolutionListener;
+import org.logic2j.util.ReportUtils;
+
+/**
+ * Opt-in {@link GoalSolver} that explores the alternatives of a goal in parallel, see
+ * https://github.com/ltettoni/logic2j/issues/18. Install it with {@link org.logic2j.PrologImpl#setSolver(GoalSolver)}.
+ * <br/>
+ * The leftmost sub-goal of the goal to solve is split into its alternatives: the branches of a disjunction,
+ * or the clauses of a user predicate. Each alternative, followed by the rest of the goal, is solved by a
+ * sequential {@link GoalSolver} within a task of a {@link ForkJoinPool}, on a copy of the goal that has its own
+ * {@link Bindings} and {@link GoalFrame}. Solutions are copied back and unified with the caller's goal,
+ * and the caller's {@link SolutionListener} is always notified from the calling thread, either in the
+ * same order as sequential solving would ({@link Delivery#ORDERED}), or as soon as they are found
+ * ({@link Delivery#UNORDERED}).
+ * <br/>
+ * When the {@link SolutionListener} requests to stop, or when the caller's {@link GoalFrame} is canceled
+ * with {@link GoalFrame#raiseUserCanceled()}, all branches are canceled. A branch finds at most
+ * {@link #QUEUE_CAPACITY} solutions in advance of their delivery, then waits: with ordered delivery, later
+ * branches do not pile up solutions while the caller consumes those of an earlier one.
+ * Alternatives that could cut the others (a cut in a clause body, in a disjunction branch or in the
+ * rest of the goal) are not split, the goal is then solved sequentially. Goals solved from within a
+ * branch (for example by findall/3) are also solved sequentially. Goals solved by a primitive called from
+ * the calling thread are still split, but their solutions are always delivered in order, since primitives
+ * such as findall/3 depend on it.
+ * Branches run concurrently, so side-effects (such as write/1) are not ordered.
+ */
+public class ParallelGoalSolver implements GoalSolver {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParallelGoalSolver.class);
+  private static final boolean debug = logger.isDebugEnabled();
+  private static final TermApi TERM_API = new TermApi();
+
+  /**
+   * Order in which solutions from parallel branches are notified.
+   */
+  public enum Delivery {
+    /**
+     * Same order as sequential solving: all solutions of a branch before those of the next one.
+     */
+    ORDERED,
+    /**
+     * As soon as found, by any branch.
+     */
+    UNORDERED
+  }
+
+  /**
+   * Marks the end of the solutions of a branch in a queue.
+   */
+  private static final Object END_OF_BRANCH = new Object();
+
+  /**
+   * Number of solutions a queue holds before their branch waits for the caller.
+   */
+  static final int QUEUE_CAPACITY = 100;
+
+  /**
+   * How long a branch waits for room in its queue before checking for cancellation again.
+   */
+  private static final long POLL_MILLIS = 100;
+
+  /**
+   * True while a goal is being solved by the calling thread, to detect goals solved from within primitives.
+   */
+  private static final ThreadLocal<Boolean> SOLVING = new ThreadLocal<Boolean>();
+
+  private final PrologImplementor prolog;
+  private final GoalSolver sequentialSolver;
+  private final ForkJoinPool pool;
+  private final Delivery delivery;
+
+  /**
+   * Ordered delivery, in the {@link ForkJoinPool#commonPool()}.
+   * @param theProlog
+   */
+  public ParallelGoalSolver(PrologImplementor theProlog) {
+    this(theProlog, ForkJoinPool.commonPool(), Delivery.ORDERED);
+  }
+
+  /**
+   * @param theProlog
+   * @param thePool Where branches are executed, the caller remains responsible for shutting it down.
+   * @param theDelivery
+   */
+  public ParallelGoalSolver(PrologImplementor theProlog, ForkJoinPool thePool, Delivery theDelivery) {
+    this.prolog = theProlog;
+    this.sequentialSolver = new StacklessGoalSolver(theProlog);
+    this.pool = thePool;
+    this.delivery = theDelivery;
+  }
+
+  @Override
+  public void solveGoal(final Bindings theGoalBindings, final GoalFrame callerFrame,
+      final SolutionListener theSolutionListener) {
+    solveGoalRecursive(theGoalBindings.getReferrer(), theGoalBindings, callerFrame, theSolutionListener);
+  }
+
+  @Override
+  public void solveGoalRecursive(final Term goalTerm, final Bindings theGoalBindings, final GoalFrame callerFrame,
+      final SolutionListener theSolutionListener) {
+    if (SOLVING.get() != null) {
+      solveGoalInThread(goalTerm, theGoalBindings, callerFrame, theSolutionListener, Delivery.ORDERED);
+      return;
+    }
+    SOLVING.set(Boolean.TRUE);
+    try {
+      solveGoalInThread(goalTerm, theGoalBindings, callerFrame, theSolutionListener, this.delivery);
+    } finally {
+      SOLVING.remove();
+    }
+  }
+
+  private void solveGoalInThread(Term goalTerm, Bindings theGoalBindings, GoalFrame callerFrame,
+      SolutionListener theSolutionListener, Delivery theDelivery) {
+    // Do not block pool threads on nested fan-outs
+    if (!ForkJoinTask.inForkJoinPool() && goalTerm instanceof Struct) {
+      final Struct goalStruct = (Struct) goalTerm;
+      // Split into the leftmost sub-goal and the rest of a conjunction
+      Struct first = goalStruct;
+      Term rest = null;
+      while (Struct.FUNCTOR_COMMA == first.getName() && first.getArity() == 2 && first.getArg(0) instanceof Struct) {
+        rest = (rest == null) ? first.getArg(1) : new Struct(Struct.FUNCTOR_COMMA, first.getArg(1), rest);
+        first = (Struct) first.getArg(0);
+      }
+      if (first != goalStruct && first.getName() == Struct.FUNCTOR_COMMA) {
+        first = goalStruct;
+        rest = null;
+      }
+      if (rest == null || !mayCut(rest)) {
+        final List<Object> alternatives = alternatives(first, theGoalBindings);
+        if (alternatives != null) {
+          final Struct whole = (rest == null) ? first : new Struct(Struct.FUNCTOR_COMMA, first, rest);
+          solveInParallel(whole, rest != null, alternatives, theGoalBindings, callerFrame, theSolutionListener,
+              theDelivery);
+          return;
+        }
+      }
+    }
+    this.sequentialSolver.solveGoalRecursive(goalTerm, theGoalBindings, callerFrame, theSolutionListener);
+  }
+
+  /**
+   * @param theGoal
+   * @param theGoalBindings
+   * @return The alternatives of theGoal: an index of disjunction branch ({@link Integer}) or {@link Clause}s;
+   * null if they are not worth or not safe to solve in parallel.
+   */
+  private List<Object> alternatives(Struct theGoal, Bindings theGoalBindings) {
+    final List<Object> result = new ArrayList<Object>();
+    if (Struct.FUNCTOR_SEMICOLON == theGoal.getName() && theGoal.getArity() == 2) {
+      final List<Term> branches = disjunctionBranches(theGoal);
+      for (Term branch : branches) {
+        if (mayCut(branch)) {
+          return null;
+        }
+        result.add(result.size());
+      }
+      return result;
+    }
+    if (theGoal.getPrimitiveInfo() != null || Struct.FUNCTOR_CALL == theGoal.getName()
+        || Struct.FUNCTOR_COMMA == theGoal.getName()) {
+      return null;
+    }
+    for (ClauseProvider provider : this.prolog.getClauseProviderResolver().find(theGoal)) {
+      for (Clause clause : provider.listMatchingClauses(theGoal, theGoalBindings)) {
+        if (!clause.isFact() && mayCut(clause.getBody())) {
+          return null;
+        }
+        result.add(clause);
+      }
+    }
+    if (result.size() < 2) {
+      return null;
+    }
+    return result;
+  }
+
+  private void solveInParallel(Struct theWhole, boolean hasRest, List<Object> theAlternatives,
+      Bindings theGoalBindings, GoalFrame callerFrame, SolutionListener theSolutionListener, Delivery theDelivery) {
+    final int nbBranches = theAlternatives.size();
+    if (debug) {
+      logger.debug("Solving {} in {} parallel branches", theWhole, nbBranches);
+    }
+    // Copy the goal from the calling thread, branches will never access the caller's bindings
+    final Struct copy = (Struct) copy(theWhole, theGoalBindings);
+    final Struct first = hasRest ? (Struct) copy.getArg(0) : copy;
+    final Term rest = hasRest ? copy.getArg(1) : null;
+    final AtomicBoolean canceled = new AtomicBoolean(false);
+    final List<BlockingQueue<Object>> queues = new ArrayList<BlockingQueue<Object>>();
+    final List<Future<?>> futures = new ArrayList<Future<?>>();
+    final List<Branch> branches = new ArrayList<Branch>();
+    BlockingQueue<Object> sharedQueue = null;
+    if (theDelivery == Delivery.UNORDERED) {
+      sharedQueue = new ArrayBlockingQueue<Object>(QUEUE_CAPACITY);
+    }
+    for (Object alternative : theAlternatives) {
+      final BlockingQueue<Object> queue = (sharedQueue != null) ? sharedQueue : new ArrayBlockingQueue<Object>(QUEUE_CAPACITY);
+      if (sharedQueue == null) {
+        queues.add(queue);
+      }
+      final Branch branch = new Branch(copy, first, rest, alternative, queue, canceled);
+      branches.add(branch);
+      futures.add(this.pool.submit(branch));
+    }
+    if (sharedQueue != null) {
+      queues.add(sharedQueue);
+    }
+    try {
+      int nbBranchesEnded = 0;
+      for (BlockingQueue<Object> queue : queues) {
+        while (nbBranchesEnded < nbBranches) {
+          final Object element = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+          if (element == null) {
+            if (callerFrame.isUserCanceled()) {
+              return;
+            }
+            continue;
+          }
+          if (element == END_OF_BRANCH) {
+            nbBranchesEnded++;
+            if (sharedQueue == null) {
+              // Ordered delivery: proceed to next branch's queue
+              break;
+            }
+            continue;
+          }
+          if (element instanceof RuntimeException) {
+            throw (RuntimeException) element;
+          }
+          final Term answer = (Term) element;
+          final Bindings answerBindings = new Bindings(answer);
+          if (this.prolog.getUnifyer().unify(theWhole, theGoalBindings, answer, answerBindings, callerFrame)) {
+            final boolean userContinue = theSolutionListener.onSolution();
+            this.prolog.getUnifyer().deunify(callerFrame);
+            if (!userContinue) {
+              return;
+            }
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InvalidTermException("Interrupted while solving " + theWhole + " in parallel", e);
+    } finally {
+      canceled.set(true);
+      for (Branch branch : branches) {
+        branch.cancel();
+      }
+      for (Future<?> future : futures) {
+        future.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * One alternative of the goal, followed by the rest of the goal, solved sequentially on its own copy of variables.
+   */
+  private class Branch implements Runnable {
+    private final Struct whole;
+    private final Struct first;
+    private final Term rest;
+    private final Object alternative;
+    private final BlockingQueue<Object> queue;
+    private final AtomicBoolean canceled;
+
+    private Bindings bindings;
+    private volatile GoalFrame goalFrame;
+
+    Branch(Struct theWhole, Struct theFirst, Term theRest, Object theAlternative, BlockingQueue<Object> theQueue,
+        AtomicBoolean theCanceled) {
+      this.whole = theWhole;
+      this.first = theFirst;
+      this.rest = theRest;
+      this.alternative = theAlternative;
+      this.queue = theQueue;
+      this.canceled = theCanceled;
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (!this.canceled.get()) {
+          solveBranch();
+        }
+        handOver(END_OF_BRANCH);
+      } catch (RuntimeException e) {
+        handOver(e);
+        handOver(END_OF_BRANCH);
+      }
+    }
+
+    private void solveBranch() {
+      final GoalSolver solver = ParallelGoalSolver.this.sequentialSolver;
+      this.bindings = new Bindings(this.whole);
+      this.goalFrame = new GoalFrame();
+      if (this.canceled.get()) {
+        // Canceled while the frame was created, cancel() may not have seen it
+        return;
+      }
+      final SolutionListener restListener = new SolutionListener() {
+        @Override
+        public boolean onSolution() {
+          return solveRest();
+        }
+      };
+      if (this.alternative instanceof Clause) {
+        final Clause clause = (Clause) this.alternative;
+        final Bindings clauseVars = Bindings.createLazyCopy(clause.getBindings());
+        if (!ParallelGoalSolver.this.prolog.getUnifyer().unify(this.first, this.bindings, clause.getHead(), clauseVars,
+            this.goalFrame)) {
+          return;
+        }
+        if (clause.isFact()) {
+          solveRest();
+        } else {
+          solver.solveGoalRecursive(clause.getBody(), clauseVars, this.goalFrame, restListener);
+        }
+      } else {
+        final Term branch = disjunctionBranches(this.first).get((Integer) this.alternative);
+        solver.solveGoalRecursive(branch, this.bindings, this.goalFrame, restListener);
+      }
+    }
+
+    private boolean solveRest() {
+      if (this.rest == null) {
+        return notifySolution();
+      }
+      final SolutionListener listener = new SolutionListener() {
+        @Override
+        public boolean onSolution() {
+          return notifySolution();
+        }
+      };
+      ParallelGoalSolver.this.sequentialSolver.solveGoalRecursive(this.rest, this.bindings, this.goalFrame, listener);
+      return !this.canceled.get();
+    }
+
+    private boolean notifySolution() {
+      if (this.canceled.get()) {
+        return false;
+      }
+      handOver(copy(this.whole, this.bindings));
+      return !this.canceled.get();
+    }
+
+    /**
+     * Stop solving this branch, even if it finds no more solutions. Called from the caller's thread once
+     * {@link #canceled} is set.
+     */
+    void cancel() {
+      final GoalFrame frame = this.goalFrame;
+      if (frame != null) {
+        frame.raiseUserCanceled();
+      }
+    }
+
+    /**
+     * Put an element in the queue, waiting for room unless the branch is canceled (the caller is then gone).
+     * The pool is told that this thread blocks, so that it can run the branch the caller waits for meanwhile.
+     * @param theElement
+     */
+    private void handOver(final Object theElement) {
+      final ForkJoinPool.ManagedBlocker blocker = new ForkJoinPool.ManagedBlocker() {
+        private boolean done = false;
+
+        @Override
+        public boolean block() throws InterruptedException {
+          this.done = Branch.this.canceled.get()
+              || Branch.this.queue.offer(theElement, POLL_MILLIS, TimeUnit.MILLISECONDS);
+          return this.done;
+        }
+
+        @Override
+        public boolean isReleasable() {
+          if (!this.done) {
+            this.done = Branch.this.canceled.get() || Branch.this.queue.offer(theElement);
+          }
+          return this.done;
+        }
+      };
+      boolean interrupted = false;
+      while (true) {
+        try {
+          ForkJoinPool.managedBlock(blocker);
+          break;
+        } catch (InterruptedException e) {
+          // The caller waits for every element until it cancels, do not lose this one
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  //---------------------------------------------------------------------------
+  // Support methods
+  //---------------------------------------------------------------------------
+
+  /**
+   * @param theTerm
+   * @param theBindings
+   * @return A normalized copy of theTerm with all bound variables replaced by their values,
+   *         and free variables renamed apart, so that it can be given new {@link Bindings}.
+   */
+  private Term copy(Term theTerm, Bindings theBindings) {
+    final Term copied = TERM_API.copy(theTerm, theBindings);
+    return this.prolog.getTermFactory().normalize(copied);
+  }
+
+  /**
+   * @param theDisjunction
+   * @return The branches of a (possibly right-nested) disjunction.
+   */
+  private static List<Term> disjunctionBranches(Struct theDisjunction) {
+    final List<Term> result = new ArrayList<Term>();
+    Term current = theDisjunction;
+    while (current instanceof Struct && Struct.FUNCTOR_SEMICOLON == ((Struct) current).getName()
+        && ((Struct) current).getArity() == 2) {
+      result.add(((Struct) current).getArg(0));
+      current = ((Struct) current).getArg(1);
+    }
+    result.add(current);
+    return result;
+  }
+
+  /**
+   * @param theTerm
+   * @return True if theTerm may execute a cut that is not local to it, or is an if-then-else.
+   */
+  public static boolean mayCut(Term theTerm) {
+    if (!(theTerm instanceof Struct)) {
+      // A variable goal could be bound to a cut
+      return theTerm instanceof Var;
+    }
+    final Struct struct = (Struct) theTerm;
+    final String functor = struct.getName();
+    if (Struct.FUNCTOR_CUT == functor && struct.getArity() == 0) {
+      return true;
+    }
+    if ("->".equals(functor)) {
+      return true;
+    }
+    if (Struct.FUNCTOR_COMMA == functor || Struct.FUNCTOR_SEMICOLON == functor) {
+      for (int i = 0; i < struct.getArity(); i++) {
+        if (mayCut(struct.getArg(i))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return ReportUtils.shortDescription(this);
+  }
+
+}
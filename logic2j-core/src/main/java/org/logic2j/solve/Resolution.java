@@ -0,0 +1,798 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.logic2j.ClauseProvider;
+import org.logic2j.PrologImplementor;
+import org.logic2j.library.mgmt.PrimitiveInfo;
+import org.logic2j.model.Clause;
+import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.symbol.PredicateKey;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.var.Binding;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.ioc.SolutionGenerator;
+import org.logic2j.solve.ioc.SolutionGeneratorListener;
+import org.logic2j.util.ReportUtils;
+
+/**
+ * The state of solving one goal with the {@link StacklessGoalSolver}.<br/>
+ * Instead of recursing on the Java stack for every conjunct, clause body and solution, the goals
+ * that remain to be proven (the "continuation") are kept as an immutable linked list on the heap,
+ * and the alternatives to try upon backtracking are kept on an explicit stack of choice points.
+ * Bindings are undone by resetting the trail of the {@link GoalFrame} to the size it had when
+ * the choice point was created.<br/>
+ * A Resolution is resumable: {@link #next()} runs the inference up to the next solution and
+ * returns, leaving the variables bound so that the caller can inspect them. The following call
+ * backtracks into the remaining alternatives. {@link #close()} abandons the search and frees all
+ * bindings done since the Resolution was created.<br/>
+ * {@link GoalFrame#raiseUserCanceled()}, possibly from another thread, stops the search before the next goal.
+ * Clause iterators that are {@link AutoCloseable} are closed when their choice point is cut or abandoned.<br/>
+ * Primitives notify their solutions during their invocation, these are recorded and replayed one by one. Primitives that
+ * hand over a {@link SolutionGenerator} instead are resumed on backtracking, one solution at a time, so that a cut or a
+ * caller that stops pulling solutions also stops them; their generator is closed like clause iterators.<br/>
+ * With a {@link CompilingGoalSolver}, clauses are unified and expanded from their {@link CompiledClause}
+ * instead of their {@link Struct}s.<br/>
+ * Last calls do not need to keep anything: the continuation of a clause's last goal is the one of its caller,
+ * and no choice point is left when the remaining clauses of a predicate were excluded by indexing. To run long
+ * deterministic iterations in constant memory, the trail is also compacted: the frames of the clauses are
+ * stamped, and bindings of frames younger than the most recent choice point are released from the trail since
+ * backtracking will discard their frame anyway.
+ */
+public class Resolution {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(Resolution.class);
+  private static final boolean debug = logger.isDebugEnabled();
+
+  /**
+   * Initial capacity of the choice point stack, grown automatically.
+   */
+  private static final int INITIAL_SIZE = 100;
+
+  /**
+   * Minimal growth of the trail before trying to release bindings from it.
+   */
+  private static final int TRAIL_RELEASE_INTERVAL = 1000;
+
+  /**
+   * Source of strictly increasing stamps, see {@link Binding#getStamp()}. Global so that frames from
+   * different Resolutions never get the same stamp.
+   */
+  private static final AtomicLong STAMPS = new AtomicLong();
+
+  private final PrologImplementor prolog;
+
+  private final GoalFrame goalFrame;
+
+  /**
+   * When true, clauses are unified and expanded from their {@link CompiledClause}.
+   */
+  private final boolean compiled;
+
+  /**
+   * When not null, the clauses to try for the first user predicate solved, instead of those of the providers.
+   */
+  private Iterable<Clause> firstGoalClauses;
+
+  /**
+   * The size of the trail when we started, all bindings above it are ours.
+   */
+  private final int initialTrailSize;
+
+  /**
+   * Goals remaining to be proven, in order; null when the goal is proven.
+   */
+  private Goal continuation;
+
+  private ChoicePoint[] choicePoints;
+  private int nbChoicePoints;
+
+  private boolean started;
+  private boolean finished;
+
+  /**
+   * Stamp of the Resolution when it started, frames created later are younger than any older binding.
+   */
+  private final long initialStamp;
+
+  /**
+   * Stamp to assign to new frames: the one of the most recently created choice point.
+   */
+  private long stamp;
+
+  /**
+   * Size the trail must reach before trying to release bindings again.
+   */
+  private int nextTrailRelease;
+
+  /**
+   * Prepare to solve theGoal - solving does not start until {@link #next()} is called.
+   * @param theProlog
+   * @param theGoal
+   * @param theGoalBindings
+   * @param theGoalFrame Its trail will record the bindings.
+   */
+  public Resolution(PrologImplementor theProlog, Term theGoal, Bindings theGoalBindings, GoalFrame theGoalFrame) {
+    this(theProlog, theGoal, theGoalBindings, theGoalFrame, false);
+  }
+
+  /**
+   * @param theProlog
+   * @param theGoal
+   * @param theGoalBindings
+   * @param theGoalFrame
+   * @param useCompiledClauses Use the {@link CompiledClause} of every clause instead of interpreting it.
+   */
+  public Resolution(PrologImplementor theProlog, Term theGoal, Bindings theGoalBindings, GoalFrame theGoalFrame,
+      boolean useCompiledClauses) {
+    this(theProlog, theGoal, theGoalBindings, theGoalFrame, useCompiledClauses, null);
+  }
+
+  /**
+   * Solve only some of the alternatives of a goal, in order to split the search.
+   * @param theProlog
+   * @param theGoal Its leftmost goal must be a user predicate.
+   * @param theGoalBindings
+   * @param theGoalFrame
+   * @param useCompiledClauses
+   * @param theFirstGoalClauses The clauses to try for the leftmost goal of theGoal, instead of those
+   * from the {@link ClauseProvider}s; null to try those.
+   */
+  public Resolution(PrologImplementor theProlog, Term theGoal, Bindings theGoalBindings, GoalFrame theGoalFrame,
+      boolean useCompiledClauses, Iterable<Clause> theFirstGoalClauses) {
+    this.prolog = theProlog;
+    this.firstGoalClauses = theFirstGoalClauses;
+    this.goalFrame = theGoalFrame;
+    theGoalFrame.solvedBy(theProlog);
+    this.compiled = useCompiledClauses;
+    this.initialTrailSize = theGoalFrame.getTrailSize();
+    // A cut at the top level cuts all choice points of this Resolution
+    this.continuation = new Goal(theGoal, theGoalBindings, 0, null);
+    this.choicePoints = new ChoicePoint[INITIAL_SIZE];
+    this.nbChoicePoints = 0;
+    this.started = false;
+    this.finished = false;
+    this.initialStamp = STAMPS.incrementAndGet();
+    this.stamp = this.initialStamp;
+    this.nextTrailRelease = this.initialTrailSize + TRAIL_RELEASE_INTERVAL;
+  }
+
+  /**
+   * Run until the next solution.
+   * @return true when a solution was found, the bindings of the goal then hold its values until the next call
+   * to {@link #next()} or {@link #close()}. false when there are no more solutions, all bindings are then freed.
+   */
+  public boolean next() {
+    if (this.finished) {
+      return false;
+    }
+    final boolean proceed;
+    if (this.started) {
+      // We are at a solution: look for alternatives
+      proceed = backtrack();
+    } else {
+      this.started = true;
+      proceed = true;
+    }
+    if (proceed && run()) {
+      return true;
+    }
+    finish();
+    return false;
+  }
+
+  /**
+   * Abandon solving, whatever the current state, and free all bindings.
+   * May be called more than once.
+   */
+  public void close() {
+    if (!this.finished) {
+      cutTo(0);
+      finish();
+    }
+  }
+
+  private void finish() {
+    this.finished = true;
+    this.continuation = null;
+    this.goalFrame.clearBindingsToTrailSize(this.initialTrailSize);
+  }
+
+  /**
+   * Prove the goals of the continuation one after the other.
+   * @return true on solution, false when no more solutions
+   */
+  private boolean run() {
+    while (true) {
+      final Goal goal = this.continuation;
+      if (goal == null) {
+        return true;
+      }
+      if (this.goalFrame.isUserCanceled()) {
+        cutTo(0);
+        return false;
+      }
+      this.continuation = goal.next;
+      if (!solve(goal) && !backtrack()) {
+        return false;
+      }
+      if (this.goalFrame.getTrailSize() >= this.nextTrailRelease) {
+        releaseTrail();
+      }
+    }
+  }
+
+  /**
+   * Release from the trail the bindings above the most recent choice point that belong to frames
+   * created after it: they can no longer be backtracked into.
+   */
+  private void releaseTrail() {
+    final int trailSize;
+    final long oldest;
+    if (this.nbChoicePoints > 0) {
+      final ChoicePoint top = this.choicePoints[this.nbChoicePoints - 1];
+      trailSize = top.trailSize;
+      oldest = top.stamp;
+    } else {
+      trailSize = this.initialTrailSize;
+      oldest = this.initialStamp;
+    }
+    final int released = this.goalFrame.releaseBindings(trailSize, oldest);
+    if (debug) {
+      logger.debug("Released {} bindings from the trail", released);
+    }
+    this.nextTrailRelease = this.goalFrame.getTrailSize() + Math.max(TRAIL_RELEASE_INTERVAL, this.goalFrame.getTrailSize() - trailSize);
+  }
+
+  /**
+   * Resume from the most recent choice point that still has alternatives.
+   * @return false when there are no more choice points
+   */
+  private boolean backtrack() {
+    while (this.nbChoicePoints > 0) {
+      final ChoicePoint choicePoint = this.choicePoints[--this.nbChoicePoints];
+      this.choicePoints[this.nbChoicePoints] = null;
+      this.goalFrame.clearBindingsToTrailSize(choicePoint.trailSize);
+      if (choicePoint.resume(this)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Start proving one goal: either expand the continuation, or bind variables, or create choice points.
+   * @param theGoal
+   * @return false if the goal failed immediately
+   */
+  private boolean solve(Goal theGoal) {
+    final Term goalTerm = theGoal.term;
+    if (debug) {
+      logger.debug("Solving {}, {} choice points", goalTerm, this.nbChoicePoints);
+    }
+    switch (theGoal.kind) {
+      case CompiledClause.GOAL_TRUE:
+        return true;
+      case CompiledClause.GOAL_CUT:
+        cutTo(theGoal.cutBarrier);
+        return true;
+      case CompiledClause.GOAL_PRIMITIVE:
+        return invokePrimitive(((Struct) goalTerm).getPrimitiveInfo(), (Struct) goalTerm, theGoal.bindings);
+      case CompiledClause.GOAL_USER:
+        return solveUserPredicate((Struct) goalTerm, theGoal.bindings,
+            this.prolog.getClauseProviderResolver().find(theGoal.key));
+      default:
+        break;
+    }
+    if (!(goalTerm instanceof Struct)) {
+      throw new InvalidTermException("Goal \"" + goalTerm + "\" is not a Struct and cannot be solved");
+    }
+    final Struct goalStruct = (Struct) goalTerm;
+    final String functor = goalStruct.getName();
+    final int arity = goalStruct.getArity();
+    if (Struct.FUNCTOR_COMMA == functor) {
+      // Logical AND: all sub-goals will be proven in sequence, before the rest
+      Goal next = this.continuation;
+      for (int i = arity - 1; i >= 0; i--) {
+        next = new Goal(goalStruct.getArg(i), theGoal.bindings, theGoal.cutBarrier, next);
+      }
+      this.continuation = next;
+      return true;
+    }
+    if (Struct.FUNCTOR_SEMICOLON == functor) {
+      // Logical OR: first branch now, the others upon backtracking
+      final DisjunctionChoicePoint choicePoint = new DisjunctionChoicePoint(this, theGoal, this.continuation);
+      return choicePoint.resume(this);
+    }
+    if (Struct.FUNCTOR_CALL == functor) {
+      if (arity != 1) {
+        throw new InvalidTermException("Primitive 'call' accepts only one argument, got " + arity);
+      }
+      final Bindings effectiveGoalBindings = theGoal.bindings.focus(goalStruct.getArg(0), Term.class);
+      if (effectiveGoalBindings == null) {
+        throw new InvalidTermException("Argument to primitive 'call' may not be a free variable, was " + goalStruct.getArg(0));
+      }
+      // The called goal is opaque to cut
+      this.continuation = new Goal(effectiveGoalBindings.getReferrer(), effectiveGoalBindings, this.nbChoicePoints,
+          this.continuation);
+      return true;
+    }
+    final PrimitiveInfo prim = goalStruct.getPrimitiveInfo();
+    if (prim != null) {
+      if (arity == 0 && Struct.FUNCTOR_CUT == functor) {
+        cutTo(theGoal.cutBarrier);
+        return true;
+      }
+      if (arity == 0 && Struct.FUNCTOR_TRUE == functor) {
+        return true;
+      }
+      return invokePrimitive(prim, goalStruct, theGoal.bindings);
+    }
+    return solveUserPredicate(goalStruct, theGoal.bindings, this.prolog.getClauseProviderResolver().find(goalStruct));
+  }
+
+  /**
+   * User predicate: try clauses in sequence.
+   */
+  private boolean solveUserPredicate(Struct theGoalStruct, Bindings theGoalBindings, Iterable<ClauseProvider> theProviders) {
+    Iterable<ClauseProvider> providers = theProviders;
+    if (this.firstGoalClauses != null) {
+      final Iterable<Clause> clauses = this.firstGoalClauses;
+      this.firstGoalClauses = null;
+      providers = Collections.<ClauseProvider> singletonList(new ClauseProvider() {
+        @Override
+        public Iterable<Clause> listMatchingClauses(Struct theGoal, Bindings theBindings) {
+          return clauses;
+        }
+      });
+    }
+    final ClauseChoicePoint choicePoint = new ClauseChoicePoint(this, theGoalStruct, theGoalBindings,
+        providers.iterator(), this.continuation);
+    return choicePoint.resume(this);
+  }
+
+  /**
+   * @param theClause
+   * @param theClauseVars
+   * @param theCutBarrier
+   * @param theContinuation
+   * @return The continuation made of the goals of the compiled body of theClause, followed by theContinuation.
+   */
+  private static Goal compiledBody(CompiledClause theClause, Bindings theClauseVars, int theCutBarrier, Goal theContinuation) {
+    final Term[] goals = theClause.getGoals();
+    final byte[] kinds = theClause.getGoalKinds();
+    final PredicateKey[] keys = theClause.getGoalKeys();
+    Goal next = theContinuation;
+    for (int i = goals.length - 1; i >= 0; i--) {
+      next = new Goal(goals[i], theClauseVars, theCutBarrier, next, kinds[i], keys[i]);
+    }
+    return next;
+  }
+
+  /**
+   * Primitives notify their solutions to a listener, and undo their bindings when it returns. We record
+   * what they bound for each solution, and replay it - the first now, the others upon backtracking.
+   * Primitives that hand over a {@link SolutionGenerator} are pulled from instead, one solution at a time.
+   * @return false if the primitive had no solution
+   */
+  private boolean invokePrimitive(PrimitiveInfo thePrimitive, Struct theGoalStruct, Bindings theGoalBindings) {
+    final RecordingListener listener = new RecordingListener(this.goalFrame);
+    try {
+      thePrimitive.invoke(theGoalStruct, theGoalBindings, this.goalFrame, listener);
+    } catch (RuntimeException e) {
+      if (listener.generator != null) {
+        listener.generator.close();
+      }
+      throw e;
+    }
+    // In case the primitive did not undo its own bindings
+    this.goalFrame.clearBindingsToTrailSize(listener.trailSize);
+    if (listener.generator != null) {
+      final GeneratorChoicePoint choicePoint = new GeneratorChoicePoint(this, listener.generator, this.continuation);
+      return choicePoint.resume(this);
+    }
+    if (listener.solutions == null) {
+      return false;
+    }
+    if (listener.solutions.size() == 1) {
+      // Deterministic, the most frequent case: no need for a choice point
+      restore(listener.solutions.get(0));
+      return true;
+    }
+    final PrimitiveChoicePoint choicePoint = new PrimitiveChoicePoint(this, listener, this.continuation);
+    return choicePoint.resume(this);
+  }
+
+  /**
+   * @param theRecorded Pairs of (binding, state to restore) as recorded by a {@link RecordingListener}
+   */
+  private void restore(Binding[] theRecorded) {
+    for (int i = 0; i < theRecorded.length; i += 2) {
+      theRecorded[i].restoreFrom(theRecorded[i + 1], this.goalFrame);
+    }
+  }
+
+  private void push(ChoicePoint theChoicePoint) {
+    if (this.nbChoicePoints == this.choicePoints.length) {
+      final ChoicePoint[] larger = new ChoicePoint[this.choicePoints.length * 2];
+      System.arraycopy(this.choicePoints, 0, larger, 0, this.nbChoicePoints);
+      this.choicePoints = larger;
+    }
+    this.choicePoints[this.nbChoicePoints++] = theChoicePoint;
+  }
+
+  /**
+   * Drop all choice points above theBarrier.
+   * @param theBarrier
+   */
+  private void cutTo(int theBarrier) {
+    while (this.nbChoicePoints > theBarrier) {
+      this.choicePoints[--this.nbChoicePoints].discard();
+      this.choicePoints[this.nbChoicePoints] = null;
+    }
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  /**
+   * @return The number of choice points currently stacked, mainly for testing.
+   */
+  public int getNbChoicePoints() {
+    return this.nbChoicePoints;
+  }
+
+  @Override
+  public String toString() {
+    return ReportUtils.shortDescription(this) + "{choicePoints=" + this.nbChoicePoints + ", finished=" + this.finished + '}';
+  }
+
+  //---------------------------------------------------------------------------
+  // Data structures of the goal and choice point stacks
+  //---------------------------------------------------------------------------
+
+  /**
+   * One node of the continuation: a goal with its bindings, and the height of the choice point stack
+   * to which a cut within this goal will cut.
+   */
+  private static final class Goal {
+    final Term term;
+    final Bindings bindings;
+    final int cutBarrier;
+    final Goal next;
+    /**
+     * How to dispatch a goal from a {@link CompiledClause}, or {@link CompiledClause#GOAL_INTERPRETED}.
+     */
+    final byte kind;
+    /**
+     * Predicate key when kind is {@link CompiledClause#GOAL_USER}.
+     */
+    final PredicateKey key;
+
+    Goal(Term theTerm, Bindings theBindings, int theCutBarrier, Goal theNext) {
+      this(theTerm, theBindings, theCutBarrier, theNext, CompiledClause.GOAL_INTERPRETED, null);
+    }
+
+    Goal(Term theTerm, Bindings theBindings, int theCutBarrier, Goal theNext, byte theKind, PredicateKey theKey) {
+      this.term = theTerm;
+      this.bindings = theBindings;
+      this.cutBarrier = theCutBarrier;
+      this.next = theNext;
+      this.kind = theKind;
+      this.key = theKey;
+    }
+  }
+
+  /**
+   * Alternatives to resume from upon backtracking. A choice point is popped before {@link #resume(Resolution)}
+   * is called, it pushes itself again if it has further alternatives after the one it resumes with.
+   */
+  private abstract static class ChoicePoint {
+    /**
+     * Bindings to keep when backtracking to here.
+     */
+    final int trailSize;
+    /**
+     * Index of this choice point in the stack, where a cut in any of the alternatives cuts.
+     */
+    final int barrier;
+    /**
+     * What follows the goal that created this choice point.
+     */
+    final Goal continuation;
+    /**
+     * Frames stamped with this value or more were created after this choice point.
+     */
+    final long stamp;
+
+    ChoicePoint(Resolution theResolution, Goal theContinuation) {
+      this.trailSize = theResolution.goalFrame.getTrailSize();
+      this.barrier = theResolution.nbChoicePoints;
+      this.continuation = theContinuation;
+      this.stamp = STAMPS.incrementAndGet();
+      theResolution.stamp = this.stamp;
+    }
+
+    /**
+     * Set the continuation of theResolution to the next alternative.
+     * @param theResolution
+     * @return false when no alternative was left
+     */
+    abstract boolean resume(Resolution theResolution);
+
+    /**
+     * The remaining alternatives will never be resumed: free what they hold.
+     */
+    void discard() {
+      // Nothing by default
+    }
+  }
+
+  /**
+   * Clauses of a user predicate, from all the {@link ClauseProvider}s.
+   */
+  private static final class ClauseChoicePoint extends ChoicePoint {
+    private final Struct goal;
+    private final Bindings goalBindings;
+    private final Iterator<ClauseProvider> providers;
+    private Iterator<Clause> clauses;
+
+    ClauseChoicePoint(Resolution theResolution, Struct theGoal, Bindings theGoalBindings, Iterator<ClauseProvider> theProviders, Goal theContinuation) {
+      super(theResolution, theContinuation);
+      this.goal = theGoal;
+      this.goalBindings = theGoalBindings;
+      this.providers = theProviders;
+      this.clauses = null;
+    }
+
+    @Override
+    boolean resume(Resolution theResolution) {
+      while (true) {
+        if (this.clauses == null || !this.clauses.hasNext()) {
+          if (!this.providers.hasNext()) {
+            return false;
+          }
+          discard();
+          this.clauses = this.providers.next().listMatchingClauses(this.goal, this.goalBindings).iterator();
+          continue;
+        }
+        final Clause clause = this.clauses.next();
+        if (debug) {
+          logger.debug("Trying clause {}", clause);
+        }
+        // Don't allocate anything for clauses that certainly don't match
+        if (!clause.mayUnify(this.goal, this.goalBindings)) {
+          continue;
+        }
+        // Copy the variables so that we won't mutate our current clause's ones
+        final Bindings clauseVars = Bindings.createLazyCopy(clause.getBindings());
+        clauseVars.setStamp(theResolution.stamp);
+        if (theResolution.compiled) {
+          final CompiledClause compiledClause = CompiledClause.of(clause);
+          final int trailSize = theResolution.goalFrame.getTrailSize();
+          if (!compiledClause.unifyHead(this.goal, this.goalBindings, clauseVars, theResolution.goalFrame,
+              theResolution.prolog.getUnifyer())) {
+            theResolution.goalFrame.clearBindingsToTrailSize(trailSize);
+            continue;
+          }
+          if (this.clauses.hasNext() || this.providers.hasNext()) {
+            theResolution.push(this);
+          }
+          theResolution.continuation = compiledBody(compiledClause, clauseVars, this.barrier, this.continuation);
+          return true;
+        }
+        final boolean unified = theResolution.prolog.getUnifyer().unify(this.goal, this.goalBindings, clause.getHead(),
+            clauseVars, theResolution.goalFrame);
+        if (unified) {
+          // Bindings will be undone when backtracking to a choice point, not at the mark
+          theResolution.goalFrame.discardMark();
+          if (this.clauses.hasNext() || this.providers.hasNext()) {
+            theResolution.push(this);
+          }
+          if (clause.isFact()) {
+            theResolution.continuation = this.continuation;
+          } else {
+            theResolution.continuation = new Goal(clause.getBody(), clauseVars, this.barrier, this.continuation);
+          }
+          return true;
+        }
+      }
+    }
+
+    @Override
+    void discard() {
+      if (this.clauses instanceof AutoCloseable) {
+        try {
+          ((AutoCloseable) this.clauses).close();
+        } catch (Exception e) {
+          logger.warn("Could not close clauses of {}: {}", this.goal, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Branches of a disjunction.
+   */
+  private static final class DisjunctionChoicePoint extends ChoicePoint {
+    private final Goal disjunction;
+    private int index;
+
+    DisjunctionChoicePoint(Resolution theResolution, Goal theDisjunction, Goal theContinuation) {
+      super(theResolution, theContinuation);
+      this.disjunction = theDisjunction;
+      this.index = 0;
+    }
+
+    @Override
+    boolean resume(Resolution theResolution) {
+      final Struct struct = (Struct) this.disjunction.term;
+      if (this.index >= struct.getArity()) {
+        return false;
+      }
+      final Term branch = struct.getArg(this.index++);
+      if (this.index < struct.getArity()) {
+        theResolution.push(this);
+      }
+      // Disjunction is transparent to cut
+      theResolution.continuation = new Goal(branch, this.disjunction.bindings, this.disjunction.cutBarrier, this.continuation);
+      return true;
+    }
+  }
+
+  /**
+   * Solutions of a primitive, as recorded by a {@link RecordingListener}.
+   */
+  private static final class PrimitiveChoicePoint extends ChoicePoint {
+    private final List<Binding[]> solutions;
+    private int index;
+
+    PrimitiveChoicePoint(Resolution theResolution, RecordingListener theListener, Goal theContinuation) {
+      super(theResolution, theContinuation);
+      this.solutions = theListener.solutions;
+      this.index = 0;
+    }
+
+    @Override
+    boolean resume(Resolution theResolution) {
+      if (this.index >= this.solutions.size()) {
+        return false;
+      }
+      final Binding[] recorded = this.solutions.get(this.index++);
+      if (this.index < this.solutions.size()) {
+        theResolution.push(this);
+      }
+      theResolution.restore(recorded);
+      theResolution.continuation = this.continuation;
+      return true;
+    }
+  }
+
+  /**
+   * Solutions of a primitive, pulled from its {@link SolutionGenerator}.
+   */
+  private static final class GeneratorChoicePoint extends ChoicePoint {
+    private final SolutionGenerator generator;
+
+    GeneratorChoicePoint(Resolution theResolution, SolutionGenerator theGenerator, Goal theContinuation) {
+      super(theResolution, theContinuation);
+      this.generator = theGenerator;
+    }
+
+    @Override
+    boolean resume(Resolution theResolution) {
+      final boolean generated;
+      try {
+        generated = this.generator.next(theResolution.goalFrame);
+      } catch (RuntimeException e) {
+        this.generator.close();
+        throw e;
+      }
+      if (!generated) {
+        this.generator.close();
+        return false;
+      }
+      // Whether there is another solution is only known by trying to generate it
+      theResolution.push(this);
+      theResolution.continuation = this.continuation;
+      return true;
+    }
+
+    @Override
+    void discard() {
+      this.generator.close();
+    }
+  }
+
+  /**
+   * Record the bindings done by a primitive, for each of its solutions; or keep its {@link SolutionGenerator}.
+   */
+  private static final class RecordingListener implements SolutionGeneratorListener {
+    private static final Binding[] NO_BINDING = new Binding[0];
+
+    final GoalFrame goalFrame;
+    final int trailSize;
+    List<Binding[]> solutions = null;
+    SolutionGenerator generator = null;
+
+    RecordingListener(GoalFrame theGoalFrame) {
+      this.goalFrame = theGoalFrame;
+      this.trailSize = theGoalFrame.getTrailSize();
+    }
+
+    @Override
+    public void onSolutions(SolutionGenerator theGenerator) {
+      if (this.generator == null && this.solutions == null) {
+        this.generator = theGenerator;
+        return;
+      }
+      // More than one source of solutions: record them all, in the order they came
+      final SolutionGenerator pending = this.generator;
+      this.generator = null;
+      if (pending != null) {
+        record(pending);
+      }
+      record(theGenerator);
+    }
+
+    private void record(SolutionGenerator theGenerator) {
+      final int size = this.goalFrame.getTrailSize();
+      try {
+        while (theGenerator.next(this.goalFrame)) {
+          onSolution();
+          this.goalFrame.clearBindingsToTrailSize(size);
+        }
+      } finally {
+        theGenerator.close();
+      }
+    }
+
+    @Override
+    public boolean onSolution() {
+      if (this.generator != null) {
+        throw new IllegalStateException("A primitive cannot notify solutions after handing over a generator");
+      }
+      final int nbBound = this.goalFrame.getTrailSize() - this.trailSize;
+      final Binding[] recorded;
+      if (nbBound == 0) {
+        recorded = NO_BINDING;
+      } else {
+        recorded = new Binding[nbBound * 2];
+        for (int i = 0; i < nbBound; i++) {
+          final Binding binding = this.goalFrame.getTrailedBinding(this.trailSize + i);
+          recorded[2 * i] = binding;
+          recorded[2 * i + 1] = binding.cloneIt();
+        }
+      }
+      if (this.solutions == null) {
+        this.solutions = new ArrayList<Binding[]>(1);
+      }
+      this.solutions.add(recorded);
+      // Collect all solutions, they will be replayed one by one
+      return true;
+    }
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve;
+
+import org.logic2j.PrologImplementor;
+import org.logic2j.model.Clause;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.ioc.SolutionListener;
+import org.logic2j.util.ReportUtils;
+
+/**
+ * Solve goals without recursing on the Java stack: goals and choice points are kept
+ * on the heap by a {@link Resolution}, so the depth of recursion of the Prolog program
+ * is only limited by the available memory, not by the thread's stack size.
+ * Solutions are notified to the {@link SolutionListener} from a single loop.
+ */
+public class StacklessGoalSolver implements GoalSolver {
+
+  private final PrologImplementor prolog;
+
+  public StacklessGoalSolver(PrologImplementor theProlog) {
+    this.prolog = theProlog;
+  }
+
+  @Override
+  public void solveGoal(final Bindings theGoalBindings, final GoalFrame callerFrame,
+      final SolutionListener theSolutionListener) {
+    solveGoalRecursive(theGoalBindings.getReferrer(), theGoalBindings, callerFrame, theSolutionListener);
+  }
+
+  @Override
+  public void solveGoalRecursive(final Term goalTerm, final Bindings theGoalBindings, final GoalFrame callerFrame,
+      final SolutionListener theSolutionListener) {
+    final Resolution resolution = newResolution(goalTerm, theGoalBindings, callerFrame, null);
+    try {
+      while (resolution.next()) {
+        final boolean userContinue = theSolutionListener.onSolution();
+        if (!userContinue) {
+          break;
+        }
+      }
+    } finally {
+      resolution.close();
+    }
+  }
+
+  /**
+   * Prepare to solve the goal one solution at a time, under the control of the caller.
+   * @param theGoalBindings
+   * @param theGoalFrame
+   * @return A {@link Resolution} not yet started.
+   */
+  public Resolution resolve(Bindings theGoalBindings, GoalFrame theGoalFrame) {
+    return newResolution(theGoalBindings.getReferrer(), theGoalBindings, theGoalFrame, null);
+  }
+
+  /**
+   * Same as {@link #resolve(Bindings, GoalFrame)}, but trying only some clauses for the leftmost goal, to split the search.
+   * @param theGoalBindings
+   * @param theGoalFrame
+   * @param theFirstGoalClauses
+   * @return A {@link Resolution} not yet started.
+   */
+  public Resolution resolve(Bindings theGoalBindings, GoalFrame theGoalFrame, Iterable<Clause> theFirstGoalClauses) {
+    return newResolution(theGoalBindings.getReferrer(), theGoalBindings, theGoalFrame, theFirstGoalClauses);
+  }
+
+  /**
+   * @param theGoal
+   * @param theGoalBindings
+   * @param theGoalFrame
+   * @param theFirstGoalClauses Clauses to try for the leftmost goal, null for those of the providers.
+   * @return The {@link Resolution} that will solve theGoal.
+   */
+  protected Resolution newResolution(Term theGoal, Bindings theGoalBindings, GoalFrame theGoalFrame,
+      Iterable<Clause> theFirstGoalClauses) {
+    return new Resolution(this.prolog, theGoal, theGoalBindings, theGoalFrame, false, theFirstGoalClauses);
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  protected PrologImplementor getProlog() {
+    return this.prolog;
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return ReportUtils.shortDescription(this);
+  }
+
+}
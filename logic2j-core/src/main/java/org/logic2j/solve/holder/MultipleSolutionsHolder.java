@@ -98,6 +98,7 @@ public class MultipleSolutionsHolder {
 
   /**
    *  Solves the goal and extract, for every solution, all bindings for all variables.
+   *  For large numbers of solutions, prefer {@link SolutionHolder#stream()} which does not hold them all in memory.
    *  @result An ordered list of bindings
    */
   public List<Map<String, Term>> bindings() {
@@ -0,0 +1,261 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve.holder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.logic2j.PrologImplementor;
+import org.logic2j.model.Clause;
+import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.symbol.TermApi;
+import org.logic2j.model.symbol.Var;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.GoalSolver;
+import org.logic2j.solve.Resolution;
+import org.logic2j.solve.Solution;
+import org.logic2j.solve.StacklessGoalSolver;
+import org.logic2j.solve.ioc.SolutionListener;
+import org.logic2j.solve.ioc.UniqueSolutionListener;
+
+/**
+ * Holds state necessary to describe the unique solution or multiple solutions 
+ * to a goal; this object lies between the expression of a goal (a request or query) and 
+ * the extraction of all aspects of the solution (a response or results).<br/>
+ * IMPORTANT: obtaining a {@link SolutionHolder} usually means that the execution has not yet
+ * started - state is held ready to execute, until you tell what you want!<br/>
+ * This object exposes strongly-typed, templated methods to extract results 
+ * depending on how the calling code expects them (unique or multiple solutions),
+ * and the type of data needed (just the number, resolved-term solutions or single variable bindings).<br/>
+ * Depending on the case, the actual calculation of the goal may be performed immediately 
+ * (then results are stored and returned as needed), or delayed until access methods are called.
+ *
+ * TODO Maybe have a way to allow limiting "all" to a reasonable number.
+ * 
+ * <p/>
+ * This type of API for extracting results from a data layer should further be analyzed and
+ * compared to other APIs such as JDBC, JNDI, SAX/DOM, or more exotic ones such as 
+ * JSon (MongoDB/Apache CouchDB), Neo4j and Protg. Also RDF frameworks APIs may be considered.
+ */
+public class SolutionHolder {
+  static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SolutionHolder.class);
+
+  static final TermApi TERM_API = new TermApi();
+
+  /**
+   * Number of solutions a producer task may find in advance of its consumer.
+   */
+  public static final int DEFAULT_CAPACITY = 16;
+
+  final PrologImplementor prolog;
+  final Bindings bindings;
+
+  public SolutionHolder(PrologImplementor theProlog, Bindings theBindings) {
+    this.prolog = theProlog;
+    this.bindings = theBindings;
+  }
+
+  /**
+   * Number of solutions - without their content.
+   * @return The value of {@link #all()}.{@link MultipleSolutionsHolder#number()}.
+   */
+  public int number() {
+    return all().number();
+  }
+
+  /**
+   * Indicate you are interested in all results - calling this method
+   * does NOT start solving.
+   * @return A relay object to access all solutions.
+   */
+  public MultipleSolutionsHolder all() {
+    return new MultipleSolutionsHolder(this);
+  }
+
+  /**
+   * Solves the goal, and holds the solution for further dereferencing.
+   * @return A relay object to access the unique solution.
+   */
+  public UniqueSolutionHolder unique() {
+    final UniqueSolutionListener listener = new UniqueSolutionListener(this.bindings);
+    this.prolog.getSolver().solveGoal(this.bindings, new GoalFrame(), listener);
+    return new UniqueSolutionHolder(listener.getSolution());
+  }
+
+  /**
+   * Enumerate solutions at the caller's own pace, in the caller's thread: each solution is computed
+   * when requested, by resuming the search where it stopped. No thread is involved.
+   * Close the returned iterator when abandoning it before the end, or just drop it.
+   * @return An iterator for all solutions.
+   */
+  public SolutionIterator iterator() {
+    return new SolutionIterator(this.prolog, this.bindings);
+  }
+
+  /**
+   * Stream the solutions, solving lazily as they are consumed. The stream can be made parallel: the search
+   * is then split on the clauses of the leftmost goal, when that is safe, see {@link SolutionSpliterator}.
+   * @return A stream of all solutions, in order unless consumed in parallel without order.
+   */
+  public Stream<Solution> stream() {
+    final Function<Bindings, Solution> extractor = new Function<Bindings, Solution>() {
+      @Override
+      public Solution apply(Bindings theBindings) {
+        return new Solution(theBindings);
+      }
+    };
+    return StreamSupport.stream(new SolutionSpliterator<Solution>(this.prolog, this.bindings, extractor), false);
+  }
+
+  /**
+   * Stream the values of one variable, see {@link #stream()}.
+   * @param theVariableName
+   * @return A stream of the value of the variable in each solution; free variables are streamed as themselves.
+   */
+  public Stream<Term> bindingStream(String theVariableName) {
+    final Term goal = this.bindings.getReferrer();
+    final Var var = goal.findVar(theVariableName);
+    if (var == null) {
+      throw new InvalidTermException("No variable named \"" + theVariableName + "\" in " + goal);
+    }
+    final Function<Bindings, Term> extractor = new Function<Bindings, Term>() {
+      @Override
+      public Term apply(Bindings theBindings) {
+        return TERM_API.substitute(var, theBindings, null);
+      }
+    };
+    return StreamSupport.stream(new SolutionSpliterator<Term>(this.prolog, this.bindings, extractor), false);
+  }
+
+  /**
+   * Solve in a producer task run by theExecutor, while the caller consumes {@link Solution}s at its own pace;
+   * the producer may find up to {@value #DEFAULT_CAPACITY} solutions in advance.
+   * @param theExecutor For example {@link SolverExecutors#getDefault()}.
+   * @return An iterator for all solutions, solving has already started.
+   */
+  public ThreadedSolutionIterator iterator(Executor theExecutor) {
+    return new ThreadedSolutionIterator(this.prolog, this.bindings, theExecutor, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Publish solutions to reactive subscribers, produced on the default executor as they are requested,
+   * see {@link SolverExecutors#getDefault()}.
+   * @return A publisher that solves the goal again for each subscriber.
+   */
+  public SolutionPublisher publisher() {
+    return publisher(SolverExecutors.getDefault());
+  }
+
+  /**
+   * @param theExecutor Where solutions are produced.
+   * @return A publisher that solves the goal again for each subscriber.
+   */
+  public SolutionPublisher publisher(Executor theExecutor) {
+    return new SolutionPublisher(this.prolog, this.bindings, theExecutor);
+  }
+
+  /**
+   * Solve on the default executor, see {@link SolverExecutors#getDefault()}.
+   * @return The future of all solutions.
+   */
+  public CompletableFuture<List<Solution>> solveAsync() {
+    return solveAsync(SolverExecutors.getDefault());
+  }
+
+  /**
+   * Solve in a task run by theExecutor. Canceling the returned future stops solving at the next goal, even
+   * between two solutions.
+   * @param theExecutor
+   * @return The future of all solutions.
+   */
+  public CompletableFuture<List<Solution>> solveAsync(Executor theExecutor) {
+    final Bindings copy = new Bindings(this.bindings);
+    final CompletableFuture<List<Solution>> future = new CompletableFuture<List<Solution>>();
+    final List<Solution> solutions = new ArrayList<Solution>();
+    final GoalFrame goalFrame = new GoalFrame();
+    future.whenComplete(new BiConsumer<List<Solution>, Throwable>() {
+
+      @Override
+      public void accept(List<Solution> theSolutions, Throwable theThrowable) {
+        if (future.isCancelled()) {
+          goalFrame.raiseUserCanceled();
+        }
+      }
+    });
+    final SolutionListener listener = new SolutionListener() {
+
+      @Override
+      public boolean onSolution() {
+        solutions.add(new Solution(copy));
+        return !future.isDone();
+      }
+    };
+    theExecutor.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        if (future.isDone()) {
+          return;
+        }
+        try {
+          SolutionHolder.this.prolog.getSolver().solveGoal(copy, goalFrame, listener);
+          future.complete(solutions);
+        } catch (RuntimeException e) {
+          future.completeExceptionally(e);
+        }
+      }
+    });
+    return future;
+  }
+
+  /**
+   * @param theProlog
+   * @param theBindings
+   * @param theGoalFrame
+   * @return A {@link Resolution} not yet started, from the solver of theProlog when it can be resumed.
+   */
+  static Resolution resolution(PrologImplementor theProlog, Bindings theBindings, GoalFrame theGoalFrame) {
+    return resolution(theProlog, theBindings, theGoalFrame, null);
+  }
+
+  /**
+   * @param theProlog
+   * @param theBindings
+   * @param theGoalFrame
+   * @param theFirstGoalClauses Clauses to try for the leftmost goal, null for those of the clause providers.
+   * @return A {@link Resolution} not yet started, from the solver of theProlog when it can be resumed.
+   */
+  static Resolution resolution(PrologImplementor theProlog, Bindings theBindings, GoalFrame theGoalFrame,
+      Iterable<Clause> theFirstGoalClauses) {
+    final GoalSolver solver = theProlog.getSolver();
+    if (solver instanceof StacklessGoalSolver) {
+      return ((StacklessGoalSolver) solver).resolve(theBindings, theGoalFrame, theFirstGoalClauses);
+    }
+    // Other solvers can't be resumed, solve as the default one does
+    return new Resolution(theProlog, theBindings.getReferrer(), theBindings, theGoalFrame, false, theFirstGoalClauses);
+  }
+
+}
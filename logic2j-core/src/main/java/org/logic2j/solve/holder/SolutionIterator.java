@@ -0,0 +1,121 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve.holder;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.logic2j.PrologImplementor;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.Resolution;
+import org.logic2j.solve.Solution;
+import org.logic2j.util.ReportUtils;
+
+/**
+ * Enumerate the {@link Solution}s of a goal by pulling them from a {@link Resolution}, in the caller's thread:
+ * each call to {@link #hasNext()} runs the inference up to the next solution, and no further. Only primitives
+ * that hand over a {@link org.logic2j.solve.ioc.SolutionGenerator} are pulled from this way, the others compute
+ * all their solutions when they are called, see {@link Resolution}.<br/>
+ * Solving is done on a copy of the goal's {@link Bindings}, so an iterator abandoned mid-stream never leaves
+ * the variables of its {@link SolutionHolder} bound, and holds nothing but heap state that is garbage-collected
+ * with it. {@link #close()} frees the bindings and choice points right away; it is called automatically when
+ * the last solution was reached or when solving threw an exception.
+ */
+public class SolutionIterator implements Iterator<Solution>, Closeable {
+
+  private final Bindings bindings;
+  private final Resolution resolution;
+
+  /**
+   * The solution found by {@link #hasNext()} and not yet returned by {@link #next()}.
+   */
+  private Solution solution;
+
+  private boolean closed;
+
+  /**
+   * Prepare to iterate - solving does not start until {@link #hasNext()} or {@link #next()} is called.
+   * @param theProlog
+   * @param theBindings Bindings of the goal, they are copied and not modified.
+   */
+  public SolutionIterator(PrologImplementor theProlog, Bindings theBindings) {
+    this.bindings = new Bindings(theBindings);
+    this.resolution = SolutionHolder.resolution(theProlog, this.bindings, new GoalFrame());
+    this.solution = null;
+    this.closed = false;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (this.solution != null) {
+      return true;
+    }
+    if (this.closed) {
+      return false;
+    }
+    boolean found = false;
+    try {
+      found = this.resolution.next();
+      if (found) {
+        this.solution = new Solution(this.bindings);
+      }
+    } finally {
+      if (!found) {
+        close();
+      }
+    }
+    return found;
+  }
+
+  @Override
+  public Solution next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more solutions");
+    }
+    final Solution toReturn = this.solution;
+    this.solution = null;
+    return toReturn;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("iterator() provides a read-only Solution iterator, cannot remove elements");
+  }
+
+  /**
+   * Abandon the iteration and free the bindings and choice points of the resolution. May be called more than once.
+   */
+  @Override
+  public void close() {
+    this.closed = true;
+    this.solution = null;
+    this.resolution.close();
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return ReportUtils.shortDescription(this) + "{closed=" + this.closed + ", " + this.resolution + '}';
+  }
+
+}
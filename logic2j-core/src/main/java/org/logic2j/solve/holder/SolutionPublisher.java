@@ -0,0 +1,213 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve.holder;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.logic2j.PrologImplementor;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.Resolution;
+import org.logic2j.solve.Solution;
+import org.logic2j.util.ReportUtils;
+
+/**
+ * A {@link Flow.Publisher} of the {@link Solution}s of a goal, that solves only as much as its subscribers request.
+ * Each subscriber gets its own {@link Resolution}, on a copy of the goal's {@link Bindings}: the search runs on the
+ * {@link Executor} while there is demand, and stays suspended at the last solution delivered when demand reaches zero,
+ * until {@link Flow.Subscription#request(long)} is called again.<br/>
+ * {@link Flow.Subscription#cancel()} raises {@link GoalFrame#raiseUserCanceled()}, which stops the search even
+ * when it is between two solutions, then the {@link Resolution} is closed, which closes the clause iterators it held.
+ * Signals to a subscriber are never concurrent, and none is sent after cancellation.
+ */
+public class SolutionPublisher implements Flow.Publisher<Solution> {
+
+  private final PrologImplementor prolog;
+  private final Bindings bindings;
+  private final Executor executor;
+
+  /**
+   * @param theProlog
+   * @param theBindings Bindings of the goal, they are copied for each subscriber and not modified.
+   * @param theExecutor Where solutions are produced.
+   */
+  public SolutionPublisher(PrologImplementor theProlog, Bindings theBindings, Executor theExecutor) {
+    this.prolog = theProlog;
+    this.bindings = theBindings;
+    this.executor = theExecutor;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super Solution> theSubscriber) {
+    if (theSubscriber == null) {
+      throw new NullPointerException("Subscriber may not be null");
+    }
+    final Bindings copy = new Bindings(this.bindings);
+    final GoalFrame goalFrame = new GoalFrame();
+    final Resolution resolution = SolutionHolder.resolution(this.prolog, copy, goalFrame);
+    theSubscriber.onSubscribe(new SolutionSubscription(theSubscriber, copy, goalFrame, resolution));
+  }
+
+  /**
+   * The state of one subscriber. All signals are sent from {@link #run()}, which only one thread executes at a time:
+   * requests and cancellation just schedule it.
+   */
+  private class SolutionSubscription implements Flow.Subscription, Runnable {
+    private final Flow.Subscriber<? super Solution> subscriber;
+    private final Bindings bindings;
+    private final GoalFrame goalFrame;
+    private final Resolution resolution;
+
+    /**
+     * Solutions requested and not yet delivered, Long.MAX_VALUE meaning unbounded.
+     */
+    private final AtomicLong demand = new AtomicLong();
+
+    /**
+     * Number of times {@link #run()} was scheduled and not yet processed.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile boolean canceled = false;
+    private volatile IllegalArgumentException invalidRequest = null;
+
+    /**
+     * Set once the subscriber received its terminal signal, or was canceled; only accessed from {@link #run()}.
+     */
+    private boolean done = false;
+
+    SolutionSubscription(Flow.Subscriber<? super Solution> theSubscriber, Bindings theBindings, GoalFrame theGoalFrame,
+        Resolution theResolution) {
+      this.subscriber = theSubscriber;
+      this.bindings = theBindings;
+      this.goalFrame = theGoalFrame;
+      this.resolution = theResolution;
+    }
+
+    @Override
+    public void request(long theNumber) {
+      if (theNumber <= 0) {
+        this.invalidRequest = new IllegalArgumentException("Number of solutions requested must be positive, was " + theNumber);
+      } else {
+        long current;
+        long updated;
+        do {
+          current = this.demand.get();
+          updated = current + theNumber;
+          if (updated < 0) {
+            updated = Long.MAX_VALUE;
+          }
+        } while (!this.demand.compareAndSet(current, updated));
+      }
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      this.canceled = true;
+      // Stops the search even if it is busy between two solutions
+      this.goalFrame.raiseUserCanceled();
+      schedule();
+    }
+
+    private void schedule() {
+      if (this.pending.getAndIncrement() == 0) {
+        SolutionPublisher.this.executor.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      int missed = 1;
+      do {
+        if (!this.done) {
+          deliver();
+        }
+        missed = this.pending.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    /**
+     * Deliver solutions while there is demand.
+     */
+    private void deliver() {
+      long delivered = 0;
+      final long requested = this.demand.get();
+      while (!this.done) {
+        if (this.canceled) {
+          finish();
+          return;
+        }
+        if (this.invalidRequest != null) {
+          finish();
+          this.subscriber.onError(this.invalidRequest);
+          return;
+        }
+        if (delivered == requested) {
+          break;
+        }
+        final boolean found;
+        try {
+          found = this.resolution.next();
+        } catch (RuntimeException e) {
+          finish();
+          if (!this.canceled) {
+            this.subscriber.onError(e);
+          }
+          return;
+        }
+        if (!found) {
+          finish();
+          if (!this.canceled) {
+            this.subscriber.onComplete();
+          }
+          return;
+        }
+        this.subscriber.onNext(new Solution(this.bindings));
+        delivered++;
+      }
+      if (requested != Long.MAX_VALUE) {
+        // Requests received meanwhile have scheduled another run
+        this.demand.addAndGet(-delivered);
+      }
+    }
+
+    private void finish() {
+      this.done = true;
+      this.resolution.close();
+    }
+
+    @Override
+    public String toString() {
+      return ReportUtils.shortDescription(this) + "{demand=" + this.demand + ", done=" + this.done + '}';
+    }
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return ReportUtils.shortDescription(this) + '{' + this.bindings.getReferrer() + '}';
+  }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve.holder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.logic2j.ClauseProvider;
+import org.logic2j.PrologImplementor;
+import org.logic2j.model.Clause;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.ParallelGoalSolver;
+import org.logic2j.solve.Resolution;
+import org.logic2j.util.ReportUtils;
+
+/**
+ * A {@link Spliterator} over the solutions of a goal, pulled lazily from a {@link Resolution}, and converted
+ * by an extractor function from the goal's {@link Bindings} at each solution.<br/>
+ * Before traversal starts, {@link #trySplit()} splits the clauses of the leftmost goal (which must be a user predicate):
+ * the prefix keeps the first half, this spliterator the other one, so that encounter order is the order of sequential
+ * solving. Splitting is refused when a cut could cross the split: in a clause body, or in the rest of the goal, as
+ * for the {@link ParallelGoalSolver}. Each spliterator solves on its own copy of the goal's bindings.
+ * @param <T> Type of the elements extracted from every solution.
+ */
+public class SolutionSpliterator<T> implements Spliterator<T> {
+
+  private final PrologImplementor prolog;
+  private final Bindings goalBindings;
+  private final Function<Bindings, T> extractor;
+
+  /**
+   * The clauses of the leftmost goal that this spliterator covers, null for all of them.
+   */
+  private List<Clause> alternatives;
+
+  /**
+   * True once we have determined if and how the goal can be split.
+   */
+  private boolean splitChecked;
+
+  private Bindings bindings = null;
+  private Resolution resolution = null;
+  private boolean finished = false;
+
+  /**
+   * @param theProlog
+   * @param theBindings Bindings of the goal, they are copied and not modified.
+   * @param theExtractor Converts the bindings at each solution into an element.
+   */
+  public SolutionSpliterator(PrologImplementor theProlog, Bindings theBindings, Function<Bindings, T> theExtractor) {
+    this(theProlog, theBindings, theExtractor, null);
+  }
+
+  private SolutionSpliterator(PrologImplementor theProlog, Bindings theBindings, Function<Bindings, T> theExtractor,
+      List<Clause> theAlternatives) {
+    this.prolog = theProlog;
+    this.goalBindings = theBindings;
+    this.extractor = theExtractor;
+    this.alternatives = theAlternatives;
+    this.splitChecked = theAlternatives != null;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> theAction) {
+    if (this.finished) {
+      return false;
+    }
+    if (this.resolution == null) {
+      this.bindings = new Bindings(this.goalBindings);
+      this.resolution = SolutionHolder.resolution(this.prolog, this.bindings, new GoalFrame(), this.alternatives);
+    }
+    boolean found = false;
+    try {
+      found = this.resolution.next();
+    } finally {
+      if (!found) {
+        this.finished = true;
+        this.resolution.close();
+      }
+    }
+    if (!found) {
+      return false;
+    }
+    theAction.accept(this.extractor.apply(this.bindings));
+    return true;
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    if (this.resolution != null || this.finished) {
+      // Already started
+      return null;
+    }
+    if (!this.splitChecked) {
+      this.splitChecked = true;
+      this.alternatives = splittableAlternatives();
+    }
+    if (this.alternatives == null || this.alternatives.size() < 2) {
+      return null;
+    }
+    final int middle = this.alternatives.size() / 2;
+    final List<Clause> prefix = new ArrayList<Clause>(this.alternatives.subList(0, middle));
+    this.alternatives = new ArrayList<Clause>(this.alternatives.subList(middle, this.alternatives.size()));
+    return new SolutionSpliterator<T>(this.prolog, this.goalBindings, this.extractor, prefix);
+  }
+
+  /**
+   * @return The clauses of the leftmost goal, or null when the goal cannot be split on them.
+   */
+  private List<Clause> splittableAlternatives() {
+    Term first = this.goalBindings.getReferrer();
+    while (first instanceof Struct && ((Struct) first).getName() == Struct.FUNCTOR_COMMA && ((Struct) first).getArity() == 2) {
+      if (ParallelGoalSolver.mayCut(((Struct) first).getArg(1))) {
+        return null;
+      }
+      first = ((Struct) first).getArg(0);
+    }
+    if (!(first instanceof Struct)) {
+      return null;
+    }
+    final Struct goal = (Struct) first;
+    final String functor = goal.getName();
+    if (goal.getPrimitiveInfo() != null || functor == Struct.FUNCTOR_SEMICOLON || functor == Struct.FUNCTOR_CALL) {
+      return null;
+    }
+    final List<Clause> result = new ArrayList<Clause>();
+    for (ClauseProvider provider : this.prolog.getClauseProviderResolver().find(goal)) {
+      for (Clause clause : provider.listMatchingClauses(goal, this.goalBindings)) {
+        if (!clause.isFact() && ParallelGoalSolver.mayCut(clause.getBody())) {
+          return null;
+        }
+        result.add(clause);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return Long.MAX_VALUE, the number of solutions is unknown.
+   */
+  @Override
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return ReportUtils.shortDescription(this) + "{alternatives=" + (this.alternatives == null ? "all" : this.alternatives.size())
+        + ", finished=" + this.finished + '}';
+  }
+
+}
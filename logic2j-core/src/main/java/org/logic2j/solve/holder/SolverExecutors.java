@@ -0,0 +1,100 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve.holder;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link Executor}s on which {@link SolutionHolder} solves goals asynchronously.<br/>
+ * By default, each goal gets a virtual thread when the JVM has them (Java 21 and later), so that tens of thousands
+ * of goals can wait on their consumers without one platform thread each. On older JVMs, goals run on a shared
+ * pool of daemon threads, which are reused from one goal to the next.
+ */
+public final class SolverExecutors {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SolverExecutors.class);
+
+  private static volatile Executor defaultExecutor = null;
+
+  private SolverExecutors() {
+    // Forbid instantiation
+  }
+
+  /**
+   * @return The executor used when none is specified.
+   */
+  public static Executor getDefault() {
+    Executor executor = defaultExecutor;
+    if (executor == null) {
+      synchronized (SolverExecutors.class) {
+        executor = defaultExecutor;
+        if (executor == null) {
+          executor = newVirtualThreadExecutor();
+          if (executor == null) {
+            executor = newDaemonThreadPool();
+          }
+          defaultExecutor = executor;
+        }
+      }
+    }
+    return executor;
+  }
+
+  /**
+   * @param theExecutor The executor to use when none is specified.
+   */
+  public static void setDefault(Executor theExecutor) {
+    defaultExecutor = theExecutor;
+  }
+
+  /**
+   * @return An executor that starts a new virtual thread for each task, or null when the JVM has no virtual threads.
+   */
+  public static ExecutorService newVirtualThreadExecutor() {
+    try {
+      // Looked up by reflection, to keep running on JVMs before Java 21
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException e) {
+      logger.debug("No virtual threads in this JVM");
+      return null;
+    } catch (Exception e) {
+      logger.debug("Could not create a virtual thread executor: {}", e.toString());
+      return null;
+    }
+  }
+
+  /**
+   * @return An unbounded pool of daemon threads, idle ones are reused.
+   */
+  public static ExecutorService newDaemonThreadPool() {
+    final AtomicInteger counter = new AtomicInteger();
+    return Executors.newCachedThreadPool(new ThreadFactory() {
+
+      @Override
+      public Thread newThread(Runnable theRunnable) {
+        final Thread thread = new Thread(theRunnable, "logic2j-solver-" + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+}
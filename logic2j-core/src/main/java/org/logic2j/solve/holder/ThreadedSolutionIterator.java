@@ -0,0 +1,164 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve.holder;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+
+import org.logic2j.PrologImplementor;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.Solution;
+import org.logic2j.solve.ioc.IterableSolutionListener;
+import org.logic2j.util.ReportUtils;
+
+/**
+ * Enumerate the {@link Solution}s of a goal solved by a producer task running on an {@link Executor},
+ * while the caller consumes them at its own pace: the producer may find a bounded number of solutions in advance,
+ * see {@link IterableSolutionListener}. Contrary to {@link SolutionIterator}, this works with any
+ * {@link org.logic2j.solve.GoalSolver}, and overlaps solving with consuming.<br/>
+ * Solving is done on a copy of the goal's {@link Bindings}. {@link #close()} raises
+ * {@link GoalFrame#raiseUserCanceled()} on the producer's frame, which stops the producer task even when it is
+ * between two solutions; it is called automatically when the last solution was reached. An iterator dropped
+ * without being closed is detected once garbage-collected, and its producer task is then stopped the same way.
+ */
+public class ThreadedSolutionIterator implements Iterator<Solution>, Closeable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ThreadedSolutionIterator.class);
+
+  private final IterableSolutionListener listener;
+
+  /**
+   * The frame the producer task solves with.
+   */
+  private final GoalFrame goalFrame;
+
+  /**
+   * The solution obtained by {@link #hasNext()} and not yet returned by {@link #next()}.
+   */
+  private Solution solution;
+
+  private boolean ended;
+
+  /**
+   * Start solving immediately.
+   * @param theProlog
+   * @param theBindings Bindings of the goal, they are copied and not modified.
+   * @param theExecutor Runs the producer task.
+   * @param theCapacity Number of solutions the producer may find in advance.
+   */
+  public ThreadedSolutionIterator(PrologImplementor theProlog, Bindings theBindings, Executor theExecutor,
+      int theCapacity) {
+    final Bindings bindings = new Bindings(theBindings);
+    this.listener = new IterableSolutionListener(bindings, theCapacity);
+    this.goalFrame = new GoalFrame();
+    this.listener.cancelSolving(this.goalFrame);
+    this.listener.cancelWhenCollected(this);
+    this.solution = null;
+    this.ended = false;
+    theExecutor.execute(new Producer(theProlog, bindings, this.goalFrame, this.listener));
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (this.solution != null) {
+      return true;
+    }
+    if (this.ended) {
+      return false;
+    }
+    try {
+      this.solution = this.listener.nextSolution();
+    } catch (RuntimeException e) {
+      this.ended = true;
+      throw e;
+    }
+    if (this.solution == null) {
+      this.ended = true;
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public Solution next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more solutions");
+    }
+    final Solution toReturn = this.solution;
+    this.solution = null;
+    return toReturn;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("iterator() provides a read-only Solution iterator, cannot remove elements");
+  }
+
+  /**
+   * Abandon the iteration: the producer task stops at its next goal. May be called more than once.
+   */
+  @Override
+  public void close() {
+    this.ended = true;
+    this.solution = null;
+    this.listener.cancel();
+    this.goalFrame.raiseUserCanceled();
+  }
+
+  /**
+   * The producer task; it must not reference its iterator, otherwise an abandoned iterator could never be collected.
+   */
+  private static class Producer implements Runnable {
+    private final PrologImplementor prolog;
+    private final Bindings bindings;
+    private final GoalFrame goalFrame;
+    private final IterableSolutionListener listener;
+
+    Producer(PrologImplementor theProlog, Bindings theBindings, GoalFrame theGoalFrame,
+        IterableSolutionListener theListener) {
+      this.prolog = theProlog;
+      this.bindings = theBindings;
+      this.goalFrame = theGoalFrame;
+      this.listener = theListener;
+    }
+
+    @Override
+    public void run() {
+      logger.debug("Started producer (prolog solver engine) task");
+      try {
+        this.prolog.getSolver().solveGoal(this.bindings, this.goalFrame, this.listener);
+        this.listener.endOfSolutions();
+      } catch (RuntimeException e) {
+        this.listener.failed(e);
+      }
+      logger.debug("Producer (prolog solver engine) task finishes");
+    }
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return ReportUtils.shortDescription(this) + "{ended=" + this.ended + '}';
+  }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve.ioc;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.Solution;
+
+/**
+ * A {@link SolutionListener} that allows the caller of the resolution engine
+ * to enumerates solutions to his goal, like all Prolog APIs do.
+ * The Prolog engine runs in a producer thread that calls back {@link #onSolution()}, which hands the
+ * {@link Solution} over to the consumer thread (the caller) through a bounded queue: the producer
+ * is blocked when the consumer is that many solutions behind.
+ */
+public class IterableSolutionListener implements SolutionListener {
+
+  /**
+   * Marks the end of solutions in the queue.
+   */
+  private static final Object END_OF_SOLUTIONS = new Object();
+
+  /**
+   * How long the producer waits for room in the queue before checking for cancellation again.
+   */
+  private static final long POLL_MILLIS = 100;
+
+  /**
+   * Cancels the listeners whose consumer was garbage-collected, see {@link #cancelWhenCollected(Object)}.
+   */
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final Bindings bindings;
+
+  /**
+   * Solutions, then either {@link #END_OF_SOLUTIONS} or the {@link RuntimeException} that ended solving.
+   */
+  private final BlockingQueue<Object> queue;
+
+  private volatile boolean canceled = false;
+
+  /**
+   * When set, the frame the producer solves with: canceling raises it.
+   */
+  private volatile GoalFrame goalFrame = null;
+
+  /**
+   * Hand solutions over one by one.
+   * @param theBindings
+   */
+  public IterableSolutionListener(Bindings theBindings) {
+    this(theBindings, 1);
+  }
+
+  /**
+   * @param theBindings
+   * @param theCapacity Number of solutions the producer may find in advance of the consumer.
+   */
+  public IterableSolutionListener(Bindings theBindings, int theCapacity) {
+    super();
+    this.bindings = theBindings;
+    this.queue = new ArrayBlockingQueue<Object>(theCapacity);
+  }
+
+  /**
+   * Implementation of the core logic2j's callback-based notification of solutions.
+   */
+  @Override
+  public boolean onSolution() {
+    if (this.canceled) {
+      return false;
+    }
+    handOver(new Solution(this.bindings));
+    // Continue for more solutions, unless the consumer gave up
+    return !this.canceled;
+  }
+
+  //---------------------------------------------------------------------------
+  // Producer side
+  //---------------------------------------------------------------------------
+
+  /**
+   * Tell the consumer that there are no more solutions.
+   */
+  public void endOfSolutions() {
+    handOver(END_OF_SOLUTIONS);
+  }
+
+  /**
+   * Tell the consumer that solving ended with an exception, it will be rethrown to it.
+   * @param theException
+   */
+  public void failed(RuntimeException theException) {
+    handOver(theException);
+  }
+
+  private void handOver(Object theElement) {
+    try {
+      while (!this.canceled) {
+        if (this.queue.offer(theElement, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      this.canceled = true;
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  //---------------------------------------------------------------------------
+  // Consumer side
+  //---------------------------------------------------------------------------
+
+  /**
+   * Wait for the next solution.
+   * @return The next solution, or null when there are no more.
+   */
+  public Solution nextSolution() {
+    final Object element;
+    try {
+      element = this.queue.take();
+    } catch (InterruptedException e) {
+      cancel();
+      Thread.currentThread().interrupt();
+      throw new InvalidTermException("Interrupted while waiting for a solution", e);
+    }
+    if (element == END_OF_SOLUTIONS) {
+      return null;
+    }
+    if (element instanceof RuntimeException) {
+      throw (RuntimeException) element;
+    }
+    return (Solution) element;
+  }
+
+  /**
+   * The consumer is no longer interested: the producer will never block, and stops at its next solution, or
+   * at its next goal when its {@link GoalFrame} was given to {@link #cancelSolving(GoalFrame)}.
+   */
+  public void cancel() {
+    this.canceled = true;
+    this.queue.clear();
+    final GoalFrame frame = this.goalFrame;
+    if (frame != null) {
+      frame.raiseUserCanceled();
+    }
+  }
+
+  /**
+   * Cancel automatically when theConsumer is garbage-collected, so that a producer never waits
+   * forever for a consumer that was dropped without being canceled.
+   * @param theConsumer Usually the iterator that calls {@link #nextSolution()}, it must not be referenced by this listener.
+   */
+  public void cancelWhenCollected(Object theConsumer) {
+    CLEANER.register(theConsumer, new Runnable() {
+
+      @Override
+      public void run() {
+        // Abandoned without being canceled
+        cancel();
+      }
+    });
+  }
+
+  /**
+   * Raise {@link GoalFrame#raiseUserCanceled()} on theGoalFrame when canceled, so that the producer stops even
+   * when it is busy between two solutions.
+   * @param theGoalFrame The frame the producer solves with.
+   */
+  public void cancelSolving(GoalFrame theGoalFrame) {
+    this.goalFrame = theGoalFrame;
+    if (this.canceled) {
+      theGoalFrame.raiseUserCanceled();
+    }
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  public boolean isCanceled() {
+    return this.canceled;
+  }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve.ioc;
+
+import org.logic2j.solve.GoalFrame;
+
+/**
+ * The solutions of a primitive, produced one at a time when asked for: the pull counterpart of notifying
+ * them all to a {@link SolutionListener}. Primitives that may have many (or infinitely many) solutions hand
+ * a generator over to a {@link SolutionGeneratorListener}, so that solving never computes more of them than
+ * it consumes, see org.logic2j.library.impl.LibraryBase#notifySolutions().
+ * The generator does all the bindings of a solution in {@link #next(GoalFrame)}: the primitive binds nothing
+ * itself.
+ */
+public interface SolutionGenerator extends AutoCloseable {
+
+  /**
+   * Bind the variables of the goal to the next solution, recording the bindings in the trail of theGoalFrame.
+   * The caller undoes them, by resetting the trail to the size it had before, prior to calling this again.
+   * @param theGoalFrame
+   * @return false when there are no more solutions, nothing is bound then.
+   */
+  boolean next(GoalFrame theGoalFrame);
+
+  /**
+   * No more solutions will be asked for: free what is held. Called whether or not all solutions were generated,
+   * may be called more than once.
+   */
+  @Override
+  void close();
+
+}
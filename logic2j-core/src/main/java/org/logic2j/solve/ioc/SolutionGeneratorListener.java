@@ -0,0 +1,33 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve.ioc;
+
+/**
+ * A {@link SolutionListener} that can take the solutions of a primitive as a {@link SolutionGenerator}, and pull
+ * them when it needs them instead of being notified of all of them during the invocation of the primitive.
+ */
+public interface SolutionGeneratorListener extends SolutionListener {
+
+  /**
+   * The solutions of the primitive being invoked, which must not notify any further solution by
+   * {@link #onSolution()}. The listener becomes responsible for closing theGenerator.
+   * @param theGenerator
+   */
+  void onSolutions(SolutionGenerator theGenerator);
+
+}
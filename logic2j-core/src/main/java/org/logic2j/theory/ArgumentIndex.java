@@ -0,0 +1,220 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.theory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.logic2j.model.Clause;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.TNumber;
+import org.logic2j.model.symbol.TString;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.symbol.Var;
+import org.logic2j.model.var.Binding;
+import org.logic2j.model.var.Bindings;
+
+/**
+ * A hash index of the {@link Clause}s of one predicate on one argument position of their head.
+ * Every bucket holds the clauses having a given argument, merged with the clauses having a
+ * variable at this position (they could match anything), always in source order.
+ * Lookups return immutable snapshots of the buckets, see {@link ClauseList}. They may run concurrently with
+ * modifications, which the owner must serialize.
+ */
+class ArgumentIndex {
+
+  /**
+   * Zero-based position of the indexed argument.
+   */
+  private final int position;
+
+  /**
+   * Clauses whose argument at {@link #position} is a variable: they are candidates for any goal.
+   */
+  private final ClauseList unindexed = new ClauseList();
+
+  /**
+   * Key:   the index key of an argument, see {@link #keyOf(Term, Bindings)}.
+   * Value: clauses having this argument, merged with the unindexed ones, in source order.
+   */
+  private final Map<Object, ClauseList> buckets = new ConcurrentHashMap<Object, ClauseList>();
+
+  /**
+   * Number of times this index was used to narrow down the candidate clauses.
+   * Usage is tracked without synchronization: concurrent lookups may lose updates, it only steers indexing.
+   */
+  private long nbLookups = 0;
+
+  /**
+   * Value of the predicate's call counter when this index was last used.
+   */
+  private long lastUsed;
+
+  /**
+   * @param thePosition
+   * @param theCallCounter Value of the predicate's call counter at creation.
+   */
+  ArgumentIndex(int thePosition, long theCallCounter) {
+    this.position = thePosition;
+    this.lastUsed = theCallCounter;
+  }
+
+  /**
+   * Determine the key under which an argument is indexed.
+   * @param theArgument
+   * @param theBindings To dereference theArgument when it is a {@link Var}, may be null.
+   * @return The key: the predicate indicator for a {@link Struct} (including atoms), the
+   * {@link TNumber} or {@link TString} itself for numbers and strings; or null when theArgument is a free variable and
+   * could match anything.
+   */
+  static Object keyOf(Term theArgument, Bindings theBindings) {
+    Term term = theArgument;
+    if (term instanceof Var) {
+      if (theBindings == null || ((Var) term).isAnonymous()) {
+        return null;
+      }
+      final Binding binding = ((Var) term).bindingWithin(theBindings).followLinks();
+      if (!binding.isLiteral()) {
+        return null;
+      }
+      term = binding.getTerm();
+    }
+    if (term instanceof Struct) {
+      return ((Struct) term).getPredicateKey();
+    }
+    if (term instanceof TNumber || term instanceof TString) {
+      return term;
+    }
+    return null;
+  }
+
+  /**
+   * Index one more {@link Clause}, it must be the last one of the predicate in source order.
+   * @param theClause
+   */
+  void add(Clause theClause) {
+    final Object key = keyOf(theClause.getHead().getArg(this.position), null);
+    if (key == null) {
+      // Could match any argument: append to every bucket, this preserves source order
+      this.unindexed.add(theClause);
+      for (ClauseList bucket : this.buckets.values()) {
+        bucket.add(theClause);
+      }
+      return;
+    }
+    ClauseList bucket = this.buckets.get(key);
+    if (bucket == null) {
+      // A new bucket starts with all clauses that could match anything
+      bucket = new ClauseList(this.unindexed);
+      this.buckets.put(key, bucket);
+    }
+    bucket.add(theClause);
+  }
+
+  /**
+   * Index one more {@link Clause}, it must be the first one of the predicate in source order.
+   * @param theClause
+   */
+  void addFirst(Clause theClause) {
+    final Object key = keyOf(theClause.getHead().getArg(this.position), null);
+    if (key == null) {
+      this.unindexed.addFirst(theClause);
+      for (ClauseList bucket : this.buckets.values()) {
+        bucket.addFirst(theClause);
+      }
+      return;
+    }
+    ClauseList bucket = this.buckets.get(key);
+    if (bucket == null) {
+      bucket = new ClauseList(this.unindexed);
+      this.buckets.put(key, bucket);
+    }
+    bucket.addFirst(theClause);
+  }
+
+  /**
+   * Stop indexing a {@link Clause}.
+   * @param theClause
+   */
+  void remove(Clause theClause) {
+    final Object key = keyOf(theClause.getHead().getArg(this.position), null);
+    if (key == null) {
+      this.unindexed.remove(theClause);
+      for (ClauseList bucket : this.buckets.values()) {
+        bucket.remove(theClause);
+      }
+      return;
+    }
+    final ClauseList bucket = this.buckets.get(key);
+    if (bucket != null) {
+      bucket.remove(theClause);
+      if (bucket.size() == 0) {
+        this.buckets.remove(key);
+      }
+    }
+  }
+
+  /**
+   * @param theKey A non-null key obtained from {@link #keyOf(Term, Bindings)}.
+   * @param theCallCounter Value of the predicate's call counter, to track usage.
+   * @return The candidate clauses for theKey, in source order; not affected by later changes.
+   */
+  List<Clause> lookup(Object theKey, long theCallCounter) {
+    this.nbLookups++;
+    this.lastUsed = theCallCounter;
+    final ClauseList bucket = this.buckets.get(theKey);
+    if (bucket == null) {
+      return this.unindexed.snapshot();
+    }
+    return bucket.snapshot();
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  int getPosition() {
+    return this.position;
+  }
+
+  /**
+   * @return The number of distinct keys, the higher the more selective this index is.
+   */
+  int getNbKeys() {
+    return this.buckets.size();
+  }
+
+  long getNbLookups() {
+    return this.nbLookups;
+  }
+
+  long getLastUsed() {
+    return this.lastUsed;
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + "(arg " + this.position + ", " + this.buckets.size() + " keys)";
+  }
+
+}
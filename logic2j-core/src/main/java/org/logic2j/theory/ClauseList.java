@@ -0,0 +1,190 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.theory;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.logic2j.model.Clause;
+
+/**
+ * A list of {@link Clause}s that hands out immutable snapshots: a snapshot keeps seeing the clauses that
+ * were present when it was taken, while the list is modified. This implements the "logical update view"
+ * of a dynamic database: a goal is solved against the clauses of its predicate at the time it is called.
+ * <ul>
+ * <li>Appending or prepending never overwrites an element visible to a snapshot: the array has room at both
+ * ends, and is replaced by a larger copy instead of being modified when full. Both are amortized O(1).</li>
+ * <li>Removing replaces the array by a copy without the removed clause, O(n).</li>
+ * </ul>
+ * Snapshots can therefore be iterated by solving threads without locking. Each modification publishes a new
+ * snapshot, so that snapshots can also be taken without locking while the list is modified. Modifications are not
+ * thread-safe, the owner must serialize them.
+ */
+final class ClauseList {
+
+  private static final Clause[] NO_CLAUSES = new Clause[0];
+
+  private Clause[] elements;
+
+  /**
+   * Clauses are elements[start] to elements[end - 1].
+   */
+  private int start;
+  private int end;
+
+  /**
+   * The current content, replaced by every modification.
+   */
+  private volatile Snapshot snapshot;
+
+  ClauseList() {
+    this.elements = NO_CLAUSES;
+    this.start = 0;
+    this.end = 0;
+    publish();
+  }
+
+  /**
+   * Create with the same content as another list.
+   * @param theOther
+   */
+  ClauseList(ClauseList theOther) {
+    this.elements = Arrays.copyOfRange(theOther.elements, theOther.start, theOther.start + Math.max(theOther.size(), 4));
+    this.start = 0;
+    this.end = theOther.size();
+    publish();
+  }
+
+  void add(Clause theClause) {
+    if (this.end == this.elements.length) {
+      reallocate(0, Math.max(4, size()));
+    }
+    this.elements[this.end++] = theClause;
+    publish();
+  }
+
+  void addAll(Collection<Clause> theClauses) {
+    if (this.end + theClauses.size() > this.elements.length) {
+      reallocate(0, Math.max(theClauses.size(), size()));
+    }
+    for (Clause clause : theClauses) {
+      this.elements[this.end++] = clause;
+    }
+    publish();
+  }
+
+  /**
+   * Insert theClause before all others.
+   * @param theClause
+   */
+  void addFirst(Clause theClause) {
+    if (this.start == 0) {
+      reallocate(Math.max(4, size()), 0);
+    }
+    this.elements[--this.start] = theClause;
+    publish();
+  }
+
+  /**
+   * @param theClause
+   * @return true if theClause (the same reference) was found and removed.
+   */
+  boolean remove(Clause theClause) {
+    for (int i = this.start; i < this.end; i++) {
+      if (this.elements[i] == theClause) {
+        // Never modify the current array, snapshots may see the clause
+        final Clause[] copy = new Clause[this.elements.length];
+        System.arraycopy(this.elements, this.start, copy, this.start, i - this.start);
+        System.arraycopy(this.elements, i + 1, copy, i, this.end - i - 1);
+        this.elements = copy;
+        this.end--;
+        publish();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Replace the array by a copy with the specified free room before and after the clauses.
+   */
+  private void reallocate(int theRoomBefore, int theRoomAfter) {
+    final int size = size();
+    final Clause[] copy = new Clause[theRoomBefore + size + theRoomAfter];
+    System.arraycopy(this.elements, this.start, copy, theRoomBefore, size);
+    this.elements = copy;
+    this.start = theRoomBefore;
+    this.end = theRoomBefore + size;
+  }
+
+  private void publish() {
+    this.snapshot = new Snapshot(this.elements, this.start, this.end);
+  }
+
+  int size() {
+    return this.end - this.start;
+  }
+
+  /**
+   * @return The current content, it will not change when the list is modified later.
+   */
+  List<Clause> snapshot() {
+    return this.snapshot;
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return snapshot().toString();
+  }
+
+  /**
+   * A read-only view on a range of an array whose elements in this range are never modified.
+   */
+  private static final class Snapshot extends AbstractList<Clause> implements RandomAccess {
+    private final Clause[] elements;
+    private final int start;
+    private final int size;
+
+    Snapshot(Clause[] theElements, int theStart, int theEnd) {
+      this.elements = theElements;
+      this.start = theStart;
+      this.size = theEnd - theStart;
+    }
+
+    @Override
+    public Clause get(int theIndex) {
+      if (theIndex < 0 || theIndex >= this.size) {
+        throw new IndexOutOfBoundsException("Index " + theIndex + " out of " + this.size + " clauses");
+      }
+      return this.elements[this.start + theIndex];
+    }
+
+    @Override
+    public int size() {
+      return this.size;
+    }
+  }
+
+}
@@ -24,13 +24,16 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URL;
+import java.util.List;
 
 import org.logic2j.PrologImplementor;
 import org.logic2j.io.parse.tuprolog.Parser;
 import org.logic2j.library.PLibrary;
 import org.logic2j.model.Clause;
 import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.symbol.PredicateKey;
 import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.TLong;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.var.Bindings;
 import org.logic2j.solve.GoalFrame;
@@ -48,13 +51,31 @@ public class DefaultTheoryManager implements TheoryManager {
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DefaultTheoryManager.class);
 
     private PrologImplementor prolog;
-    private TheoryContent wholeContent = new TheoryContent();
+    private volatile TheoryContent wholeContent = new TheoryContent();
+    private final TablingClauseProvider tabling;
 
     /**
      * @param theProlog
      */
     public DefaultTheoryManager(PrologImplementor theProlog) {
         this.prolog = theProlog;
+        this.tabling = new TablingClauseProvider(theProlog, this);
+    }
+
+    /**
+     * Create with the same theory as theTemplate, see {@link TheoryContent#fork()}: clauses added to
+     * either manager are not seen by the other. The same predicates are tabled, with no answers yet.
+     * 
+     * @param theProlog
+     * @param theTemplate
+     */
+    public DefaultTheoryManager(PrologImplementor theProlog, DefaultTheoryManager theTemplate) {
+        this.prolog = theProlog;
+        this.wholeContent = theTemplate.wholeContent.fork();
+        this.tabling = new TablingClauseProvider(theProlog, this);
+        for (PredicateKey predicateKey : theTemplate.tabling.getTabled()) {
+            this.tabling.table(predicateKey);
+        }
     }
 
     public TheoryContent load(CharSequence theTheoryText) {
@@ -113,12 +134,17 @@ public class DefaultTheoryManager implements TheoryManager {
         Term initializeGoal = null;
         while (clauseTerm != null) {
             // Term clauseTerm = iterator.next();
+            if (isTableDirective(clauseTerm)) {
+                addTabled(((Struct) ((Struct) clauseTerm).getArg(0)).getArg(0));
+                clauseTerm = theParser.nextTerm(true);
+                continue;
+            }
             // TODO Dubious we should not need to normalize here.
             logger.debug("Adding clause {}", clauseTerm);
             final Clause cl = new Clause(this.prolog, clauseTerm);
             if ("initialize".equals(cl.getHead().getName())) {
                 initializeGoal = cl.getBody();
-            } else {
+            } else if (!this.tabling.isTabled(cl.getPredicateKey())) {
                 prolog.getClauseProviderResolver().register(cl.getPredicateKey(), this);
             }
             content.add(cl);
@@ -139,6 +165,52 @@ public class DefaultTheoryManager implements TheoryManager {
         return content;
     }
 
+    /**
+     * Only the directive ":- table Name/Arity." is processed here, other directives are handled as clauses.
+     * 
+     * @param theTerm
+     * @return true if theTerm is a table directive
+     */
+    private static boolean isTableDirective(Term theTerm) {
+        if (!(theTerm instanceof Struct && ((Struct) theTerm).getName() == Struct.FUNCTOR_CLAUSE
+                && ((Struct) theTerm).getArity() == 1 && ((Struct) theTerm).getArg(0) instanceof Struct)) {
+            return false;
+        }
+        final Struct directive = (Struct) ((Struct) theTerm).getArg(0);
+        return "table".equals(directive.getName()) && directive.getArity() == 1;
+    }
+
+    /**
+     * @param theSpecs
+     *            One or several (as a list, or a parenthesized sequence) predicate
+     *            indicators Name/Arity.
+     */
+    private void addTabled(Term theSpecs) {
+        if (theSpecs instanceof Struct) {
+            final Struct specs = (Struct) theSpecs;
+            if ((specs.getName() == Struct.FUNCTOR_COMMA || specs.getName() == Struct.FUNCTOR_LIST)
+                    && specs.getArity() == 2) {
+                addTabled(specs.getArg(0));
+                addTabled(specs.getArg(1));
+                return;
+            }
+            if (specs.isEmptyList()) {
+                return;
+            }
+            if ("/".equals(specs.getName()) && specs.getArity() == 2 && specs.getArg(0) instanceof Struct
+                    && specs.getArg(1) instanceof TLong) {
+                final PredicateKey predicateKey = PredicateKey.of(((Struct) specs.getArg(0)).getName(),
+                        (int) ((TLong) specs.getArg(1)).longValue());
+                logger.debug("Tabling {}", predicateKey);
+                this.tabling.table(predicateKey);
+                this.prolog.getClauseProviderResolver().unregister(predicateKey, this);
+                this.prolog.getClauseProviderResolver().register(predicateKey, this.tabling);
+                return;
+            }
+        }
+        throw new InvalidTermException("Table directive expects Name/Arity, not " + theSpecs);
+    }
+
     /**
      * @param theContent
      *            to set - will replace any previously defined content.
@@ -146,6 +218,7 @@ public class DefaultTheoryManager implements TheoryManager {
     @Override
     public void setTheory(TheoryContent theContent) {
         this.wholeContent = theContent;
+        this.tabling.invalidateAll();
     }
 
     /**
@@ -155,27 +228,73 @@ public class DefaultTheoryManager implements TheoryManager {
     @Override
     public void addTheory(TheoryContent theContent) {
         this.wholeContent.add(theContent);
+        this.tabling.invalidateAll();
     }
 
-    // TODO => Check if the parameter theGoalBindings may be used because up to
-    // now it is declared in that method only because it has to implement it
-    // with those parameters (cf ClauseProvider).
     /**
      * @param theGoal
      * @return All {@link Clause}s from the {@link TheoryContent} that may match
-     *         theGoal.
+     *         theGoal, in the order of the theory.
      * @param theGoalBindings
-     *            : is not used in that method, so you can give null as a
-     *            parameter.
+     *            : used to dereference the first argument of theGoal in
+     *            order to only return clauses with a compatible first
+     *            argument. May be null, then all clauses of the predicate are
+     *            returned.
      */
     @Override
     public Iterable<Clause> listMatchingClauses(Struct theGoal, Bindings theGoalBindings) {
-        return this.wholeContent.find(theGoal);
+        return this.wholeContent.find(theGoal, theGoalBindings);
+    }
+
+    /**
+     * @return The indexing decisions taken on the whole theory content, see
+     *         {@link TheoryContent#getIndexStatistics()}.
+     */
+    public List<IndexStatistics> getIndexStatistics() {
+        return this.wholeContent.getIndexStatistics();
+    }
+
+    /**
+     * @return The provider of answers to tabled predicates, see
+     *         {@link TablingClauseProvider}.
+     */
+    public TablingClauseProvider getTabling() {
+        return this.tabling;
+    }
+
+    @Override
+    public void assertZ(Clause theClause) {
+        registerDynamic(theClause);
+        this.wholeContent.add(theClause);
+        // Answers of tabled predicates may depend on any other predicate
+        this.tabling.invalidateAll();
     }
 
     @Override
-    public void assertZ(Struct theClause, boolean theB, String theName, boolean theB2) {
-        throw new UnsupportedOperationException("Method assertZ() not implemented");
+    public void assertA(Clause theClause) {
+        registerDynamic(theClause);
+        this.wholeContent.addFirst(theClause);
+        this.tabling.invalidateAll();
+    }
+
+    @Override
+    public boolean retract(Clause theClause) {
+        final boolean removed = this.wholeContent.remove(theClause);
+        if (removed) {
+            this.tabling.invalidateAll();
+        }
+        return removed;
+    }
+
+    /**
+     * Make sure the predicate of an asserted clause is resolved to this manager.
+     * 
+     * @param theClause
+     */
+    private void registerDynamic(Clause theClause) {
+        if (!this.tabling.isTabled(theClause.getPredicateKey())) {
+            this.prolog.getClauseProviderResolver().register(theClause.getPredicateKey(), this);
+        }
     }
 
     // ---------------------------------------------------------------------------
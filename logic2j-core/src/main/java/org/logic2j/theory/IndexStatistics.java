@@ -0,0 +1,121 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.theory;
+
+import java.util.Arrays;
+
+import org.logic2j.model.symbol.PredicateKey;
+
+/**
+ * A snapshot of the indexing decisions taken for one predicate of a {@link TheoryContent}:
+ * which argument positions were found bound at call time, and which ones are indexed.
+ */
+public class IndexStatistics {
+
+  private final PredicateKey predicateKey;
+  private final int nbClauses;
+  private final long nbCalls;
+  private final long[] nbBoundCalls;
+  private final int[] indexedArguments;
+  private final int nbIndexesBuilt;
+  private final int nbIndexesDropped;
+
+  IndexStatistics(PredicateKey thePredicateKey, int theNbClauses, long theNbCalls, long[] theNbBoundCalls,
+      int[] theIndexedArguments, int theNbIndexesBuilt, int theNbIndexesDropped) {
+    this.predicateKey = thePredicateKey;
+    this.nbClauses = theNbClauses;
+    this.nbCalls = theNbCalls;
+    this.nbBoundCalls = theNbBoundCalls;
+    this.indexedArguments = theIndexedArguments;
+    this.nbIndexesBuilt = theNbIndexesBuilt;
+    this.nbIndexesDropped = theNbIndexesDropped;
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  /**
+   * @return The predicate indicator, such as "name/arity".
+   */
+  public PredicateKey getPredicateKey() {
+    return this.predicateKey;
+  }
+
+  public int getNbClauses() {
+    return this.nbClauses;
+  }
+
+  /**
+   * @return Number of times clauses of this predicate were listed for solving a goal.
+   */
+  public long getNbCalls() {
+    return this.nbCalls;
+  }
+
+  /**
+   * @param theArgument Zero-based position of the argument.
+   * @return Number of calls where the argument at theArgument was bound to an atom, number or compound.
+   */
+  public long getNbBoundCalls(int theArgument) {
+    return this.nbBoundCalls[theArgument];
+  }
+
+  /**
+   * @return Zero-based positions of the arguments currently indexed, in increasing order.
+   * The first argument is always indexed.
+   */
+  public int[] getIndexedArguments() {
+    return this.indexedArguments.clone();
+  }
+
+  /**
+   * @param theArgument Zero-based position of the argument.
+   * @return True if the argument at theArgument is currently indexed.
+   */
+  public boolean isIndexed(int theArgument) {
+    return Arrays.binarySearch(this.indexedArguments, theArgument) >= 0;
+  }
+
+  /**
+   * @return Number of indexes built just-in-time, on arguments other than the first.
+   */
+  public int getNbIndexesBuilt() {
+    return this.nbIndexesBuilt;
+  }
+
+  /**
+   * @return Number of just-in-time indexes dropped because they were no longer used.
+   */
+  public int getNbIndexesDropped() {
+    return this.nbIndexesDropped;
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + '(' + this.predicateKey + ", clauses=" + this.nbClauses + ", calls="
+        + this.nbCalls + ", boundCalls=" + Arrays.toString(this.nbBoundCalls) + ", indexed="
+        + Arrays.toString(this.indexedArguments) + ", built=" + this.nbIndexesBuilt + ", dropped="
+        + this.nbIndexesDropped + ')';
+  }
+
+}
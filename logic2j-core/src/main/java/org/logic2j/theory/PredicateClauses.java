@@ -0,0 +1,338 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.theory;
+
+import java.util.List;
+
+import org.logic2j.model.Clause;
+import org.logic2j.model.symbol.PredicateKey;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.var.Bindings;
+
+/**
+ * All the {@link Clause}s of one predicate, in their order of definition, together with
+ * their {@link ArgumentIndex}es.
+ * The first argument is always indexed. Other arguments are indexed just-in-time: every call
+ * records which arguments are bound, and once a large predicate is often called with an argument
+ * bound that has no index, an index is built for the most selective of these arguments.
+ * Indexes on other arguments than the first are dropped when they are no longer used.
+ * Modifications, and the building or dropping of an index, are synchronized. Listing candidates does not lock
+ * otherwise: the indexes array is replaced rather than modified, the lists of candidates are immutable snapshots
+ * (see {@link ClauseList}), and the usage counters are updated without synchronization since they only steer
+ * indexing.
+ */
+class PredicateClauses {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PredicateClauses.class);
+
+  /**
+   * Predicates with fewer clauses are not worth indexing on more than their first argument.
+   */
+  static final int JIT_MIN_CLAUSES = 32;
+
+  /**
+   * Number of calls with an argument bound before considering to index it.
+   */
+  static final int JIT_MIN_BOUND_CALLS = 8;
+
+  /**
+   * A just-in-time index not used during that many calls to its predicate is dropped.
+   */
+  static final long JIT_DROP_AFTER_CALLS = 10000;
+
+  private final PredicateKey predicateKey;
+
+  /**
+   * All clauses in source order.
+   */
+  private final ClauseList clauses = new ClauseList();
+
+  /**
+   * Indexes by argument position, null where not indexed. Created with the first clause, then replaced by a
+   * copy when an index is built or dropped.
+   */
+  private volatile ArgumentIndex[] indexes = null;
+
+  /**
+   * Number of calls where each argument was bound. Like {@link #nbCalls}, concurrent calls may lose updates.
+   */
+  private long[] nbBoundCalls = null;
+
+  /**
+   * Size of the predicate when an argument was last considered for indexing (and rejected).
+   * It will be reconsidered only when the predicate has doubled in size.
+   */
+  private int[] rejectedAtSize = null;
+
+  /**
+   * Number of calls, updated without synchronization: concurrent calls may lose updates.
+   */
+  private long nbCalls = 0;
+  private int nbIndexesBuilt = 0;
+  private int nbIndexesDropped = 0;
+
+  /**
+   * When true, this predicate belongs to several {@link TheoryContent}s, it must be copied before adding clauses.
+   */
+  private volatile boolean shared = false;
+
+  PredicateClauses(PredicateKey thePredicateKey) {
+    this.predicateKey = thePredicateKey;
+  }
+
+  synchronized void add(Clause theClause) {
+    initIndexes(theClause);
+    this.clauses.add(theClause);
+    for (ArgumentIndex index : this.indexes) {
+      if (index != null) {
+        index.add(theClause);
+      }
+    }
+  }
+
+  /**
+   * Add several {@link Clause}s at once, in their order.
+   * @param theClauses
+   */
+  synchronized void addAll(List<Clause> theClauses) {
+    if (theClauses.isEmpty()) {
+      return;
+    }
+    initIndexes(theClauses.get(0));
+    this.clauses.addAll(theClauses);
+    for (ArgumentIndex index : this.indexes) {
+      if (index != null) {
+        for (Clause clause : theClauses) {
+          index.add(clause);
+        }
+      }
+    }
+  }
+
+  /**
+   * Add a {@link Clause} before all others.
+   * @param theClause
+   */
+  synchronized void addFirst(Clause theClause) {
+    initIndexes(theClause);
+    this.clauses.addFirst(theClause);
+    for (ArgumentIndex index : this.indexes) {
+      if (index != null) {
+        index.addFirst(theClause);
+      }
+    }
+  }
+
+  /**
+   * @param theClause
+   * @return true if theClause (the same reference) was found and removed.
+   */
+  synchronized boolean remove(Clause theClause) {
+    if (!this.clauses.remove(theClause)) {
+      return false;
+    }
+    for (ArgumentIndex index : this.indexes) {
+      if (index != null) {
+        index.remove(theClause);
+      }
+    }
+    return true;
+  }
+
+  private void initIndexes(Clause theFirstClause) {
+    if (this.indexes == null) {
+      final int arity = theFirstClause.getHead().getArity();
+      this.indexes = new ArgumentIndex[arity];
+      this.nbBoundCalls = new long[arity];
+      this.rejectedAtSize = new int[arity];
+      if (arity > 0) {
+        this.indexes[0] = new ArgumentIndex(0, 0);
+      }
+    }
+  }
+
+  /**
+   * @param theGoal
+   * @param theGoalBindings May be null, then all variables of theGoal are considered free.
+   * @return The smallest list of candidate clauses that the indexes can provide, in source order.
+   * It is not affected by later changes.
+   */
+  List<Clause> candidates(Struct theGoal, Bindings theGoalBindings) {
+    final long call = ++this.nbCalls;
+    final ArgumentIndex[] currentIndexes = this.indexes;
+    final int arity = currentIndexes.length;
+    List<Clause> best = this.clauses.snapshot();
+    int nbBoundNotIndexed = 0;
+    Object[] keys = null;
+    for (int i = 0; i < arity; i++) {
+      final Object key = ArgumentIndex.keyOf(theGoal.getArg(i), theGoalBindings);
+      if (key == null) {
+        continue;
+      }
+      this.nbBoundCalls[i]++;
+      final ArgumentIndex index = currentIndexes[i];
+      if (index != null) {
+        final List<Clause> candidates = index.lookup(key, call);
+        if (candidates.size() < best.size()) {
+          best = candidates;
+        }
+      } else {
+        if (keys == null) {
+          keys = new Object[arity];
+        }
+        keys[i] = key;
+        nbBoundNotIndexed++;
+      }
+    }
+    if (nbBoundNotIndexed > 0 && best.size() >= JIT_MIN_CLAUSES && isWorthIndexing(keys)) {
+      final ArgumentIndex built = buildMostSelectiveIndex(keys, call);
+      if (built != null) {
+        final List<Clause> candidates = built.lookup(keys[built.getPosition()], call);
+        if (candidates.size() < best.size()) {
+          best = candidates;
+        }
+      }
+    }
+    if (call % JIT_DROP_AFTER_CALLS == 0) {
+      dropUnusedIndexes(call);
+    }
+    return best;
+  }
+
+  /**
+   * @param theKeys Keys of the current goal's arguments, null where not bound or already indexed.
+   * @return true if one of the arguments may be worth indexing, checked without locking to avoid locking
+   * on every call when no index is worth building.
+   */
+  private boolean isWorthIndexing(Object[] theKeys) {
+    final int size = this.clauses.snapshot().size();
+    for (int i = 0; i < theKeys.length; i++) {
+      if (theKeys[i] != null && this.nbBoundCalls[i] >= JIT_MIN_BOUND_CALLS && size >= 2 * this.rejectedAtSize[i]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Among the arguments bound in this call but not indexed, build an index on the one having
+   * the most distinct values, provided it was bound frequently enough.
+   * @param theKeys Keys of the current goal's arguments, null where not bound or already indexed.
+   * @param theCall
+   * @return The index built, or null if none was worth it.
+   */
+  private synchronized ArgumentIndex buildMostSelectiveIndex(Object[] theKeys, long theCall) {
+    final int size = this.clauses.size();
+    ArgumentIndex best = null;
+    for (int i = 0; i < theKeys.length; i++) {
+      if (theKeys[i] == null || this.indexes[i] != null || this.nbBoundCalls[i] < JIT_MIN_BOUND_CALLS
+          || size < 2 * this.rejectedAtSize[i]) {
+        // Not worth it, or built by another thread meanwhile
+        continue;
+      }
+      final ArgumentIndex index = new ArgumentIndex(i, theCall);
+      for (Clause clause : this.clauses.snapshot()) {
+        index.add(clause);
+      }
+      this.rejectedAtSize[i] = size;
+      // An index with a single key does not discriminate anything
+      if (index.getNbKeys() > 1 && (best == null || index.getNbKeys() > best.getNbKeys())) {
+        best = index;
+      }
+    }
+    if (best != null) {
+      final ArgumentIndex[] updated = this.indexes.clone();
+      updated[best.getPosition()] = best;
+      this.indexes = updated;
+      this.rejectedAtSize[best.getPosition()] = 0;
+      this.nbIndexesBuilt++;
+      logger.debug("Built index on {} for {}", best, this.predicateKey);
+    }
+    return best;
+  }
+
+  private synchronized void dropUnusedIndexes(long theCall) {
+    for (int i = 1; i < this.indexes.length; i++) {
+      final ArgumentIndex index = this.indexes[i];
+      if (index != null && theCall - index.getLastUsed() >= JIT_DROP_AFTER_CALLS) {
+        final ArgumentIndex[] updated = this.indexes.clone();
+        updated[i] = null;
+        this.indexes = updated;
+        this.nbBoundCalls[i] = 0;
+        this.nbIndexesDropped++;
+        logger.debug("Dropped unused index {} for {}", index, this.predicateKey);
+      }
+    }
+  }
+
+  /**
+   * @return A copy with the same clauses, that can be added to. Just-in-time indexes are not copied, they will
+   * be built again if needed.
+   */
+  PredicateClauses copy() {
+    final PredicateClauses copy = new PredicateClauses(this.predicateKey);
+    copy.addAll(getClauses());
+    return copy;
+  }
+
+  synchronized IndexStatistics statistics() {
+    int nbIndexed = 0;
+    for (ArgumentIndex index : this.indexes) {
+      if (index != null) {
+        nbIndexed++;
+      }
+    }
+    final int[] indexedArguments = new int[nbIndexed];
+    int j = 0;
+    for (int i = 0; i < this.indexes.length; i++) {
+      if (this.indexes[i] != null) {
+        indexedArguments[j++] = i;
+      }
+    }
+    return new IndexStatistics(this.predicateKey, this.clauses.size(), this.nbCalls, this.nbBoundCalls.clone(),
+        indexedArguments, this.nbIndexesBuilt, this.nbIndexesDropped);
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  boolean isShared() {
+    return this.shared;
+  }
+
+  void setShared() {
+    this.shared = true;
+  }
+
+  /**
+   * @return All clauses, in source order, as an immutable snapshot.
+   */
+  synchronized List<Clause> getClauses() {
+    return this.clauses.snapshot();
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return this.clauses.toString();
+  }
+
+}
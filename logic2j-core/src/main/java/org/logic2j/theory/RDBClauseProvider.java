@@ -31,6 +31,7 @@ import org.logic2j.model.Clause;
 import org.logic2j.model.exception.InvalidTermException;
 import org.logic2j.model.symbol.Struct;
 import org.logic2j.model.symbol.TNumber;
+import org.logic2j.model.symbol.TString;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.symbol.TermApi;
 import org.logic2j.model.symbol.Var;
@@ -46,6 +47,9 @@ import org.logic2j.util.SqlRunnerAdHoc;
  * goal "zipcode_city(94101, City)" which yields City='SAN FRANCISCO', this
  * class expects a database table or view such as
  * "PRED_ZIPCODE_CITY(INTEGER ARG_0, VARCHAR ARG_1)".
+ * Strings read from the database are {@link TString}s, except in atom columns (see
+ * {@link #addAtomColumn(String)}) and in columns the goal constrains to an atom or a string:
+ * the constant of the goal is then reused in all clauses.
  */
 public class RDBClauseProvider extends RDBBase implements ClauseProvider {
 
@@ -99,6 +103,8 @@ public class RDBClauseProvider extends RDBBase implements ClauseProvider {
         for (int i = 0; i < theGoal.getArity(); i++) {
             builder.addProjection(builder.column(table, originalNames[i + 1]));
         }
+        // Constants of the goal that the values of the matching rows are equal to
+        final Term[] goalConstants = new Term[theGoal.getArity()];
         for (int i = 0; i < theGoal.getArity(); i++) {
             Term t = theGoal.getArg(i);
             if (t instanceof Var && theGoalBindings != null) {
@@ -107,10 +113,15 @@ public class RDBClauseProvider extends RDBBase implements ClauseProvider {
             if (t instanceof TNumber) {
                 builder.addConjunction(builder.criterion(builder.column(table, originalNames[i + 1]),
                         SqlBuilder3.OPERATOR_EQ_OR_IN, t.toString()));
+            } else if (t instanceof TString) {
+                builder.addConjunction(builder.criterion(builder.column(table, originalNames[i + 1]),
+                        SqlBuilder3.OPERATOR_EQ_OR_IN, ((TString) t).getValue()));
+                goalConstants[i] = t;
             } else if (t instanceof Struct && (t.isAtom() || t.isList())) {
                 if (t.isAtom()) {
                     builder.addConjunction(builder.criterion(builder.column(table, originalNames[i + 1]),
                             SqlBuilder3.OPERATOR_EQ_OR_IN, ((Struct) t).getName()));
+                    goalConstants[i] = t;
                 } else if (t.isList()) {
                     addConjunctionList(builder, table, tableIdentifier, i + 1,
                             ((Struct) t).javaListFromPList(new ArrayList<Term>(), Term.class));
@@ -119,11 +130,24 @@ public class RDBClauseProvider extends RDBBase implements ClauseProvider {
             // Here we check if there is any bindings (theGoalBindings) that we
             // can unify with the Term theGoal.getArg(i) which is a variable.
         }
-        Iterable<Clause> clauses = queryForClauses(builder, predicateName);
+        final String[] columnNames = new String[theGoal.getArity()];
+        System.arraycopy(originalNames, 1, columnNames, 0, columnNames.length);
+        Iterable<Clause> clauses = queryForClauses(builder, predicateName, columnNames, goalConstants);
         return clauses;
     }
 
     protected Iterable<Clause> queryForClauses(SqlBuilder3 builder, final String predicateName) {
+        return queryForClauses(builder, predicateName, null, null);
+    }
+
+    /**
+     * @param builder
+     * @param predicateName
+     * @param columnNames Names of the projected columns, to determine the atom columns; may be null.
+     * @param goalConstants Terms to use for the values of the columns, when not null; may be null.
+     */
+    protected Iterable<Clause> queryForClauses(SqlBuilder3 builder, final String predicateName,
+            final String[] columnNames, final Term[] goalConstants) {
         Iterable<Object[]> rows;
         try {
             builder.generateSelect();
@@ -131,7 +155,7 @@ public class RDBClauseProvider extends RDBBase implements ClauseProvider {
             return new DynIterable<Clause, Object[]>(new DynIterable.DynBuilder<Clause, Object[]>() {
                 @Override
                 public Clause build(Object[] input) {
-                    return clauseBuilder(input, predicateName);
+                    return clauseBuilder(input, predicateName, columnNames, goalConstants);
                 }
             }, rows);
         } catch (SQLException e) {
@@ -144,17 +168,29 @@ public class RDBClauseProvider extends RDBBase implements ClauseProvider {
         Object[] listValues = new Object[structList.size()];
         for (int i = 0; i < structList.size(); i++) {
             Term term = structList.get(i);
-            listValues[i] = term instanceof Struct ? ((Struct) term).getName() : term.toString();
+            if (term instanceof Struct) {
+                listValues[i] = ((Struct) term).getName();
+            } else if (term instanceof TString) {
+                listValues[i] = ((TString) term).getValue();
+            } else {
+                listValues[i] = term.toString();
+            }
         }
         builder.addConjunction(builder.criterion(
                 builder.column(table, tablesMetaData.get(tableIdentifier)[columnNumber]), listValues));
     }
 
-    private Clause clauseBuilder(Object[] row, String predicateName) {
+    private Clause clauseBuilder(Object[] row, String predicateName, String[] columnNames, Term[] goalConstants) {
         Term[] args = new Term[row.length];
         for (int i = 0; i < row.length; i++) {
             Object object = row[i];
-            args[i] = getTermFactory().create(object, FactoryMode.ANY_TERM);
+            if (goalConstants != null && goalConstants[i] != null && object instanceof CharSequence) {
+                args[i] = goalConstants[i];
+            } else if (columnNames != null) {
+                args[i] = createTerm(object, columnNames[i]);
+            } else {
+                args[i] = getTermFactory().create(object, FactoryMode.ANY_TERM);
+            }
         }
         final Clause cl = new Clause(getProlog(), new Struct(predicateName, args));
         return cl;
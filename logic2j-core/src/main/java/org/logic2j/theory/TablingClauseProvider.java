@@ -0,0 +1,442 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.theory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.logic2j.ClauseProvider;
+import org.logic2j.PrologImplementor;
+import org.logic2j.model.Clause;
+import org.logic2j.model.symbol.PredicateKey;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.symbol.TermApi;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.ioc.SolutionListener;
+import org.logic2j.util.ReportUtils;
+
+/**
+ * A {@link ClauseProvider} for the predicates declared with the directive ":- table Name/Arity.".
+ * Instead of the clauses of a tabled predicate, it provides the answers (facts) of the goal,
+ * computed once and stored in an answer table. Tables are keyed by the goal's variant (the goal
+ * with its bound variables replaced by their values, and its free variables renamed in order),
+ * so that later calls to the same variant reuse the answers.
+ * <br/>
+ * Completion follows the SLG idea with a linear evaluation: a call to a variant that is being
+ * evaluated (such as a left-recursive call) does not recurse, it consumes the answers found so far
+ * and records a dependency on the table. A table is evaluated by iterating over its clauses until
+ * no new answer is found; tables depending on each other are completed together by the
+ * oldest of them (the leader of their strongly connected component). Left recursion therefore
+ * terminates as long as the number of answers is finite.
+ * <br/>
+ * Evaluations are private to their thread and hold no lock while solving: only completed tables
+ * are shared, so threads calling the same variant concurrently may both evaluate it.
+ * <br/>
+ * Answers are duplicate-free, their order is that of discovery. A cut in the body of a tabled
+ * predicate only cuts within its own clause. All tables are invalidated when the theory changes.
+ * The total number of answers kept is bounded: beyond {@link #getMaxAnswers()}, the least
+ * recently used completed tables are evicted, and will be evaluated again on their next call.
+ */
+public class TablingClauseProvider implements ClauseProvider {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TablingClauseProvider.class);
+  private static final boolean debug = logger.isDebugEnabled();
+  private static final TermApi TERM_API = new TermApi();
+
+  /**
+   * Default value for {@link #getMaxAnswers()}.
+   */
+  public static final int DEFAULT_MAX_ANSWERS = 100000;
+
+  private static enum State {
+    EVALUATING, INCOMPLETE, COMPLETE
+  }
+
+  private final PrologImplementor prolog;
+
+  /**
+   * Where the actual clauses of the tabled predicates come from.
+   */
+  private final ClauseProvider clauseProvider;
+
+  /**
+   * Keys of the tabled predicates.
+   */
+  private final Set<PredicateKey> tabled = new HashSet<PredicateKey>();
+
+  /**
+   * Completed tables, guarded by this provider's monitor.
+   * Key:   the variant of a goal, see {@link TermApi#copy(Term, Bindings)}. Its free variables are
+   *        named in order, so variants are equal terms.
+   * Value: its answers.
+   * In access order, the eldest entries are the least recently used.
+   */
+  private final LinkedHashMap<Term, AnswerTable> tables = new LinkedHashMap<Term, AnswerTable>(16, 0.75f, true);
+
+  /**
+   * The evaluation of each thread.
+   */
+  private final ThreadLocal<Evaluation> evaluation = new ThreadLocal<Evaluation>() {
+    @Override
+    protected Evaluation initialValue() {
+      return new Evaluation();
+    }
+  };
+
+  /**
+   * Incremented when all tables are invalidated, so that evaluations started before do not publish their tables.
+   */
+  private long generation = 0;
+
+  private int maxAnswers = DEFAULT_MAX_ANSWERS;
+  private int nbAnswers = 0;
+  private long nbEvictions = 0;
+
+  /**
+   * @param theProlog
+   * @param theClauseProvider Provider of the clauses of the tabled predicates.
+   */
+  public TablingClauseProvider(PrologImplementor theProlog, ClauseProvider theClauseProvider) {
+    this.prolog = theProlog;
+    this.clauseProvider = theClauseProvider;
+  }
+
+  /**
+   * Declare a predicate as tabled.
+   * @param thePredicateKey
+   */
+  public synchronized void table(PredicateKey thePredicateKey) {
+    this.tabled.add(thePredicateKey);
+  }
+
+  public synchronized boolean isTabled(PredicateKey thePredicateKey) {
+    return this.tabled.contains(thePredicateKey);
+  }
+
+  /**
+   * Discard the answers of all tables of a predicate.
+   * @param thePredicateKey
+   */
+  public synchronized void invalidate(PredicateKey thePredicateKey) {
+    final Iterator<AnswerTable> iter = this.tables.values().iterator();
+    while (iter.hasNext()) {
+      final AnswerTable table = iter.next();
+      if (table.predicateKey == thePredicateKey) {
+        this.nbAnswers -= table.answers.size();
+        iter.remove();
+      }
+    }
+  }
+
+  /**
+   * Discard the answers of all tables, typically because the theory has changed.
+   */
+  public synchronized void invalidateAll() {
+    this.tables.clear();
+    this.nbAnswers = 0;
+    this.generation++;
+  }
+
+  @Override
+  public Iterable<Clause> listMatchingClauses(Struct theGoal, Bindings theGoalBindings) {
+    final Struct variant = (Struct) TERM_API.copy(theGoal, theGoalBindings);
+    synchronized (this) {
+      final AnswerTable table = this.tables.get(variant);
+      if (table != null) {
+        return table.answers;
+      }
+    }
+    return this.evaluation.get().call(variant);
+  }
+
+  /**
+   * Share the tables of a completed component, unless the tables were invalidated since their evaluation started.
+   * @param theTables
+   * @param theGeneration
+   */
+  private synchronized void publish(List<AnswerTable> theTables, long theGeneration) {
+    if (theGeneration != this.generation) {
+      return;
+    }
+    for (AnswerTable table : theTables) {
+      // Another thread may have completed the same variant meanwhile: keep its table
+      if (!this.tables.containsKey(table.variant)) {
+        this.tables.put(table.variant, table);
+        this.nbAnswers += table.answers.size();
+      }
+    }
+    evictIfNeeded();
+  }
+
+  /**
+   * Evict the least recently used tables until the number of answers is within bounds.
+   */
+  private void evictIfNeeded() {
+    final Iterator<AnswerTable> iter = this.tables.values().iterator();
+    while (this.nbAnswers > this.maxAnswers && iter.hasNext()) {
+      final AnswerTable table = iter.next();
+      this.nbAnswers -= table.answers.size();
+      this.nbEvictions++;
+      iter.remove();
+      if (debug) {
+        logger.debug("Evicted table of {}", table.goal);
+      }
+    }
+  }
+
+  /**
+   * The tables of one thread that are not complete yet, and their evaluation stack.
+   */
+  private class Evaluation {
+    /**
+     * Tables being evaluated, or depending on a table being evaluated, keyed like {@link TablingClauseProvider#tables}.
+     */
+    final Map<Term, AnswerTable> pending = new HashMap<Term, AnswerTable>();
+
+    /**
+     * Tables being evaluated, the most recent call last.
+     */
+    final List<AnswerTable> stack = new ArrayList<AnswerTable>();
+
+    /**
+     * Tables whose evaluation is finished but that still depend on a table being evaluated.
+     */
+    final List<AnswerTable> incomplete = new ArrayList<AnswerTable>();
+
+    long nbAnswersAdded = 0;
+
+    /**
+     * Generation of the tables when the outermost evaluation started.
+     */
+    long generation;
+
+    Iterable<Clause> call(Struct theVariant) {
+      AnswerTable table = this.pending.get(theVariant);
+      if (table != null) {
+        if (table.state == State.EVALUATING) {
+          // A variant call from within its own evaluation: consume the answers found so far
+          dependsOn(table.stackIndex);
+          return new ArrayList<Clause>(table.answers);
+        }
+        // INCOMPLETE: evaluate again, within the evaluation of its leader
+      } else {
+        table = new AnswerTable(theVariant.getPredicateKey(), theVariant, (Struct) prolog.getTermFactory().normalize(theVariant));
+        this.pending.put(theVariant, table);
+      }
+      if (this.stack.isEmpty()) {
+        synchronized (TablingClauseProvider.this) {
+          this.generation = TablingClauseProvider.this.generation;
+        }
+      }
+      evaluate(table);
+      if (table.state == State.COMPLETE) {
+        return table.answers;
+      }
+      return new ArrayList<Clause>(table.answers);
+    }
+
+    /**
+     * Evaluate the clauses of a table's goal until no new answers are found.
+     * @param theTable
+     */
+    private void evaluate(AnswerTable theTable) {
+      final int incompleteMark = this.incomplete.size();
+      theTable.state = State.EVALUATING;
+      theTable.stackIndex = this.stack.size();
+      theTable.lowLink = theTable.stackIndex;
+      this.stack.add(theTable);
+      try {
+        long before;
+        do {
+          before = this.nbAnswersAdded;
+          for (Clause clause : clauseProvider.listMatchingClauses(theTable.goal, new Bindings(theTable.goal))) {
+            solveClause(theTable, clause);
+          }
+        } while (this.nbAnswersAdded != before);
+      } catch (RuntimeException e) {
+        // Answers may be incomplete: forget all tables of this evaluation
+        this.pending.remove(theTable.variant);
+        for (AnswerTable table : this.incomplete.subList(incompleteMark, this.incomplete.size())) {
+          this.pending.remove(table.variant);
+        }
+        this.incomplete.subList(incompleteMark, this.incomplete.size()).clear();
+        throw e;
+      } finally {
+        this.stack.remove(this.stack.size() - 1);
+      }
+      if (theTable.lowLink < theTable.stackIndex) {
+        // Depends on a table still being evaluated: its leader will complete it
+        theTable.state = State.INCOMPLETE;
+        this.incomplete.add(theTable);
+        dependsOn(theTable.lowLink);
+        return;
+      }
+      // Leader of its component: complete it with all tables evaluated under it
+      final List<AnswerTable> component = this.incomplete.subList(incompleteMark, this.incomplete.size());
+      component.add(theTable);
+      for (AnswerTable table : component) {
+        table.state = State.COMPLETE;
+        this.pending.remove(table.variant);
+      }
+      publish(component, this.generation);
+      component.clear();
+      if (debug) {
+        logger.debug("Completed table of {} with {} answers", theTable.goal, theTable.answers.size());
+      }
+    }
+
+    /**
+     * Record that the table being evaluated depends on the table at theStackIndex.
+     * @param theStackIndex
+     */
+    private void dependsOn(int theStackIndex) {
+      final AnswerTable caller = this.stack.get(this.stack.size() - 1);
+      caller.lowLink = Math.min(caller.lowLink, theStackIndex);
+    }
+
+    private void solveClause(final AnswerTable theTable, Clause theClause) {
+      final Bindings goalBindings = new Bindings(theTable.goal);
+      final Bindings clauseBindings = Bindings.createLazyCopy(theClause.getBindings());
+      final GoalFrame frame = new GoalFrame();
+      if (!prolog.getUnifyer().unify(theTable.goal, goalBindings, theClause.getHead(), clauseBindings, frame)) {
+        return;
+      }
+      if (theClause.isFact()) {
+        addAnswer(theTable, goalBindings);
+      } else {
+        final SolutionListener listener = new SolutionListener() {
+          @Override
+          public boolean onSolution() {
+            addAnswer(theTable, goalBindings);
+            return true;
+          }
+        };
+        prolog.getSolver().solveGoalRecursive(theClause.getBody(), clauseBindings, frame, listener);
+      }
+      prolog.getUnifyer().deunify(frame);
+    }
+
+    private void addAnswer(AnswerTable theTable, Bindings theGoalBindings) {
+      final Term answer = TERM_API.copy(theTable.goal, theGoalBindings);
+      if (theTable.variants.add(answer)) {
+        theTable.answers.add(new Clause(prolog, answer));
+        this.nbAnswersAdded++;
+      }
+    }
+  }
+
+  /**
+   * The answers of one variant of a tabled goal.
+   */
+  private static class AnswerTable {
+    final PredicateKey predicateKey;
+
+    /**
+     * The variant of the goal, its key.
+     */
+    final Term variant;
+
+    /**
+     * The variant goal, normalized.
+     */
+    final Struct goal;
+
+    final List<Clause> answers = new ArrayList<Clause>();
+
+    /**
+     * Variants of the answers, to avoid duplicates.
+     */
+    final Set<Term> variants = new HashSet<Term>();
+
+    State state;
+
+    /**
+     * Position in the evaluation stack, and lowest position of the tables it depends on.
+     */
+    int stackIndex;
+    int lowLink;
+
+    AnswerTable(PredicateKey thePredicateKey, Term theVariant, Struct theGoal) {
+      this.predicateKey = thePredicateKey;
+      this.variant = theVariant;
+      this.goal = theGoal;
+    }
+  }
+
+  //---------------------------------------------------------------------------
+  // Accessors
+  //---------------------------------------------------------------------------
+
+  /**
+   * @return The maximal number of answers kept in all tables, beyond it tables are evicted.
+   */
+  public synchronized int getMaxAnswers() {
+    return this.maxAnswers;
+  }
+
+  public synchronized void setMaxAnswers(int theMaxAnswers) {
+    this.maxAnswers = theMaxAnswers;
+    evictIfNeeded();
+  }
+
+  /**
+   * @return Keys of the tabled predicates.
+   */
+  public synchronized Set<PredicateKey> getTabled() {
+    return Collections.unmodifiableSet(new HashSet<PredicateKey>(this.tabled));
+  }
+
+  /**
+   * @return Number of answer tables currently kept.
+   */
+  public synchronized int getNbTables() {
+    return this.tables.size();
+  }
+
+  /**
+   * @return Number of answers in all tables currently kept.
+   */
+  public synchronized int getNbAnswers() {
+    return this.nbAnswers;
+  }
+
+  /**
+   * @return Number of tables evicted to keep within {@link #getMaxAnswers()}.
+   */
+  public synchronized long getNbEvictions() {
+    return this.nbEvictions;
+  }
+
+  //---------------------------------------------------------------------------
+  // Core java.lang.Object methods
+  //---------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return ReportUtils.shortDescription(this);
+  }
+
+}
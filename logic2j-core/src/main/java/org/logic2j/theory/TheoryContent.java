@@ -0,0 +1,194 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.theory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.logic2j.model.Clause;
+import org.logic2j.model.symbol.PredicateKey;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.Var;
+import org.logic2j.model.var.Bindings;
+
+/**
+ * Storage of the content of a theory: a structured list of {@link Clause}s.
+ * Clauses of every predicate are indexed on their first argument, and just-in-time on
+ * other arguments that are frequently bound at call time (see {@link PredicateClauses}),
+ * so that a goal only needs to be tried against the clauses that could possibly unify.
+ * Clauses may be added and removed while other threads are solving: {@link #find(Struct, Bindings)} does not lock
+ * this content, and returns snapshots that are not affected by later changes.
+ * A content can be forked, see {@link #fork()}.
+ */
+public class TheoryContent {
+
+  /**
+   * Key:   unique key for all clauses whose head is a family, see {@link Clause#getPredicateKey()}.
+   * Value: ordered list of very immutable {@link Clause}s, with its indexes.
+   */
+  private final ConcurrentHashMap<PredicateKey, PredicateClauses> content = new ConcurrentHashMap<PredicateKey, PredicateClauses>();
+
+  /**
+   * Create with empty content.
+   */
+  public TheoryContent() {
+    super();
+  }
+
+  /**
+   * Create a content with the same clauses as this one, sharing them and their indexes until either content
+   * adds clauses to a predicate: the predicate is then copied by the content adding.
+   * @return The new content, this one is not modified.
+   */
+  public synchronized TheoryContent fork() {
+    final TheoryContent result = new TheoryContent();
+    for (PredicateClauses family : this.content.values()) {
+      family.setShared();
+    }
+    result.content.putAll(this.content);
+    return result;
+  }
+
+  /**
+   * Add one {@link Clause}.
+   * @param theClause
+   */
+  public synchronized void add(Clause theClause) {
+    family(theClause.getPredicateKey()).add(theClause);
+  }
+
+  /**
+   * Add one {@link Clause} before the other clauses of its predicate.
+   * @param theClause
+   */
+  public synchronized void addFirst(Clause theClause) {
+    family(theClause.getPredicateKey()).addFirst(theClause);
+  }
+
+  /**
+   * Remove one {@link Clause}. Goals being solved keep seeing it, see {@link #find(Struct, Bindings)}.
+   * @param theClause
+   * @return true if theClause (the same reference) was found and removed.
+   */
+  public synchronized boolean remove(Clause theClause) {
+    final PredicateKey key = theClause.getPredicateKey();
+    if (!this.content.containsKey(key)) {
+      return false;
+    }
+    return family(key).remove(theClause);
+  }
+
+  /**
+   * Add all {@link Clause}s contained in theExtraContent. 
+   * Watch out, references are added, Clauses are NOT copied, because of their immutable nature,
+   * they can be shared.
+   * @param theExtraContent
+   */
+  public synchronized void add(TheoryContent theExtraContent) {
+    for (PredicateClauses extraFamily : theExtraContent.content.values()) {
+      final List<Clause> clauses = extraFamily.getClauses();
+      if (!clauses.isEmpty()) {
+        family(clauses.get(0).getPredicateKey()).addAll(clauses);
+      }
+    }
+  }
+
+  /**
+   * @param thePredicateKey
+   * @return The clauses of thePredicateKey that this content can add to, created empty if none was defined yet.
+   */
+  private PredicateClauses family(PredicateKey thePredicateKey) {
+    PredicateClauses family = this.content.get(thePredicateKey);
+    if (family == null) {
+      // No Clause yet defined in this family, create one
+      family = new PredicateClauses(thePredicateKey);
+      this.content.put(thePredicateKey, family);
+    } else if (family.isShared()) {
+      // Shared with a forked content
+      family = family.copy();
+      this.content.put(thePredicateKey, family);
+    }
+    return family;
+  }
+
+  /**
+   * Retrieve clauses matching theGoalTerm.
+   * @param theGoalTerm
+   * @return An iterable for a foreach() loop.
+   */
+  public Iterable<Clause> find(Struct theGoalTerm) {
+    return find(theGoalTerm, null);
+  }
+
+  /**
+   * Retrieve clauses matching theGoalTerm, using its arguments (dereferenced through theGoalBindings)
+   * to narrow down the candidates.
+   * @param theGoalTerm
+   * @param theGoalBindings The {@link Bindings} of theGoalTerm, may be null in which case {@link Var}iable
+   * arguments are considered free.
+   * @return An iterable for a foreach() loop, the candidate clauses are in the order of the source theory.
+   */
+  public Iterable<Clause> find(Struct theGoalTerm, Bindings theGoalBindings) {
+    final PredicateKey key = theGoalTerm.getPredicateKey();
+    final PredicateClauses family = this.content.get(key);
+    if (family == null) {
+      // Predicate not registered in this theory content, return empty, it's not a failure condition
+      return Collections.emptyList();
+    }
+    return family.candidates(theGoalTerm, theGoalBindings);
+  }
+
+  /**
+   * @return The indexing decisions for every predicate, see {@link IndexStatistics}.
+   */
+  public List<IndexStatistics> getIndexStatistics() {
+    final List<IndexStatistics> result = new ArrayList<IndexStatistics>();
+    for (PredicateClauses family : this.content.values()) {
+      result.add(family.statistics());
+    }
+    return result;
+  }
+
+  /**
+   * @param thePredicateIndicator Such as "name/arity".
+   * @return The indexing decisions for thePredicateIndicator, or null if the predicate has no clause.
+   */
+  public IndexStatistics getIndexStatistics(String thePredicateIndicator) {
+    return getIndexStatistics(PredicateKey.valueOf(thePredicateIndicator));
+  }
+
+  /**
+   * @param thePredicateKey
+   * @return The indexing decisions for thePredicateKey, or null if the predicate has no clause.
+   */
+  public IndexStatistics getIndexStatistics(PredicateKey thePredicateKey) {
+    final PredicateClauses family = this.content.get(thePredicateKey);
+    if (family == null) {
+      return null;
+    }
+    return family.statistics();
+  }
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + '(' + this.content + ')';
+  }
+
+}
@@ -24,7 +24,6 @@ import org.logic2j.ClauseProvider;
 import org.logic2j.PrologImplementor;
 import org.logic2j.library.PLibrary;
 import org.logic2j.model.Clause;
-import org.logic2j.model.symbol.Struct;
 import org.logic2j.solve.GoalSolver;
 
 /**
@@ -68,6 +67,27 @@ public interface TheoryManager extends ClauseProvider {
    */
   public abstract void addTheory(TheoryContent theContent);
 
-  public abstract void assertZ(Struct theClause, boolean theB, String theName, boolean theB2);
+  //---------------------------------------------------------------------------
+  // Dynamic database
+  //---------------------------------------------------------------------------
+
+  /**
+   * Add a clause after the other clauses of its predicate. Goals being solved do not see it.
+   * @param theClause
+   */
+  public abstract void assertZ(Clause theClause);
+
+  /**
+   * Add a clause before the other clauses of its predicate. Goals being solved do not see it.
+   * @param theClause
+   */
+  public abstract void assertA(Clause theClause);
+
+  /**
+   * Remove a clause. Goals being solved keep seeing it.
+   * @param theClause One of the clauses provided by this manager.
+   * @return true if theClause was removed, false if it was not (or no longer) part of the theory.
+   */
+  public abstract boolean retract(Clause theClause);
 
 }
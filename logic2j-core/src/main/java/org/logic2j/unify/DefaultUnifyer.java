@@ -19,6 +19,7 @@ package org.logic2j.unify;
 
 import org.logic2j.model.symbol.Struct;
 import org.logic2j.model.symbol.TNumber;
+import org.logic2j.model.symbol.TString;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.symbol.Var;
 import org.logic2j.model.var.Binding;
@@ -84,12 +85,9 @@ public class DefaultUnifyer implements Unifyer {
         throw new IllegalStateException("Internal error, unexpected binding type for " + binding1);
       }
     }
-    // term1 can only be a TNumber or Struct
-    if (term1 instanceof TNumber) {
-      if (term2 instanceof TNumber) {
-        return term1.equals(term2);
-      }
-      return false;
+    // term1 can only be a TNumber, TString or Struct
+    if (term1 instanceof TNumber || term1 instanceof TString) {
+      return term1.equals(term2);
     } else if (term1 instanceof Struct) {
       if (term2 instanceof Struct) {
         Struct s1 = (Struct) term1;
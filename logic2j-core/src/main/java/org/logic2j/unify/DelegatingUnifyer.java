@@ -25,6 +25,7 @@ import java.util.TreeMap;
 import org.logic2j.model.exception.InvalidTermException;
 import org.logic2j.model.symbol.Struct;
 import org.logic2j.model.symbol.TNumber;
+import org.logic2j.model.symbol.TString;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.symbol.Var;
 import org.logic2j.model.var.Binding;
@@ -117,6 +118,10 @@ public class DelegatingUnifyer implements Unifyer {
     return false;
   }
 
+  public boolean unify(Struct term1, TString term2, Bindings theBindings1, Bindings theBindings2, GoalFrame theGoalFrame) {
+    return false;
+  }
+
   public boolean unify(Struct term1, Var term2, Bindings theBindings1, Bindings theBindings2, GoalFrame theGoalFrame) {
     // Second term is var, we prefer have it first
     return unify(term2, term1, theBindings2, theBindings1, theGoalFrame);
@@ -130,11 +135,32 @@ public class DelegatingUnifyer implements Unifyer {
     return term1.equals(term2);
   }
 
+  public boolean unify(TNumber term1, TString term2, Bindings theBindings1, Bindings theBindings2, GoalFrame theGoalFrame) {
+    return false;
+  }
+
   public boolean unify(TNumber term1, Var term2, Bindings theBindings1, Bindings theBindings2, GoalFrame theGoalFrame) {
     // Second term is var, we prefer have it first
     return unify(term2, term1, theBindings2, theBindings1, theGoalFrame);
   }
 
+  public boolean unify(TString term1, Struct term2, Bindings theBindings1, Bindings theBindings2, GoalFrame theGoalFrame) {
+    return false;
+  }
+
+  public boolean unify(TString term1, TNumber term2, Bindings theBindings1, Bindings theBindings2, GoalFrame theGoalFrame) {
+    return false;
+  }
+
+  public boolean unify(TString term1, TString term2, Bindings theBindings1, Bindings theBindings2, GoalFrame theGoalFrame) {
+    return term1.equals(term2);
+  }
+
+  public boolean unify(TString term1, Var term2, Bindings theBindings1, Bindings theBindings2, GoalFrame theGoalFrame) {
+    // Second term is var, we prefer have it first
+    return unify(term2, term1, theBindings2, theBindings1, theGoalFrame);
+  }
+
   public boolean unify(Var term1, Struct term2, Bindings theBindings1, Bindings theBindings2, GoalFrame theGoalFrame) {
     return unifyVarToWhatever(term1, term2, theBindings1, theBindings2, theGoalFrame);
   }
@@ -143,6 +169,10 @@ public class DelegatingUnifyer implements Unifyer {
     return unifyVarToWhatever(term1, term2, theBindings1, theBindings2, theGoalFrame);
   }
 
+  public boolean unify(Var term1, TString term2, Bindings theBindings1, Bindings theBindings2, GoalFrame theGoalFrame) {
+    return unifyVarToWhatever(term1, term2, theBindings1, theBindings2, theGoalFrame);
+  }
+
   public boolean unify(Var term1, Var term2, Bindings theBindings1, Bindings theBindings2, GoalFrame theGoalFrame) {
     return unifyVarToWhatever(term1, term2, theBindings1, theBindings2, theGoalFrame);
   }
@@ -820,6 +820,13 @@ public class SqlBuilder3 {
       return this.table;
     }
 
+    /**
+     * @return the column name, unqualified
+     */
+    public String getColumnName() {
+      return this.columnName;
+    }
+
     @Override
     public String toString() {
       return sql();
@@ -0,0 +1,130 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.logic2j.library.impl.io.IOLibrary;
+import org.logic2j.model.symbol.PredicateKey;
+import org.logic2j.theory.DefaultTheoryManager;
+import org.logic2j.theory.TheoryManager;
+
+/**
+ * Check engines obtained with {@link PrologImpl#fork()}.
+ */
+public class PrologImplTest extends PrologTestBase {
+
+  private PrologImpl template;
+
+  @Override
+  @Before
+  public void setUp() {
+    super.setUp();
+    try {
+      addTheory("src/test/resources/test-data.pl");
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    this.template = (PrologImpl) getProlog();
+  }
+
+  @Test
+  public void forkSolvesLikeTemplate() {
+    final PrologImpl fork = this.template.fork();
+    assertEquals(10, fork.solve("int10(X)").all().number());
+    assertEquals(100, fork.solve("int10(X), int10(Y)").all().number());
+    assertEquals(term("[1,2,3,4,5,6,7,8,9,10]"), fork.solve("findall(X, int10(X), L)").unique().binding("L"));
+    assertEquals(1, fork.solve("not(int10(11))").all().number());
+    assertEquals(6, fork.solve("perm([1,2,3], X)").all().number());
+  }
+
+  @Test
+  public void theoriesAreIndependent() {
+    final PrologImpl fork = this.template.fork();
+    load(fork, "int10(11). only_fork(1).");
+    load(this.template, "only_template(1).");
+    assertEquals(11, fork.solve("int10(X)").all().number());
+    assertEquals(10, this.template.solve("int10(X)").all().number());
+    // Primitives solve subgoals in the engine running them, even from the template's libraries
+    assertEquals(term(11), fork.solve("findall(X, int10(X), L), L = [_,_,_,_,_,_,_,_,_,_,E]").unique().binding("E"));
+    assertEquals(0, fork.solve("not(int10(11))").all().number());
+    assertEquals(1, fork.solve("only_fork(X)").all().number());
+    assertEquals(0, this.template.solve("only_fork(X)").all().number());
+    assertEquals(0, fork.solve("only_template(X)").all().number());
+    assertEquals(1, this.template.solve("only_template(X)").all().number());
+  }
+
+  @Test
+  public void dynamicDatabase() {
+    final PrologImpl fork = this.template.fork();
+    assertEquals(1, fork.solve("assertz(int10(11)), retract(int10(1))").all().number());
+    assertEquals(10, fork.solve("int10(X)").all().number());
+    assertEquals(0, fork.solve("int10(1)").all().number());
+    assertEquals(1, this.template.solve("int10(1)").all().number());
+    assertEquals(0, this.template.solve("int10(11)").all().number());
+  }
+
+  @Test
+  public void forksAreIndependent() {
+    final PrologImpl fork1 = this.template.fork();
+    final PrologImpl fork2 = this.template.fork();
+    load(fork1, "int10(11).");
+    load(fork2, "int10(12). int10(13).");
+    assertEquals(11, fork1.solve("int10(X)").all().number());
+    assertEquals(12, fork2.solve("int10(X)").all().number());
+    assertEquals(10, this.template.solve("int10(X)").all().number());
+    // Forks of forks
+    final PrologImpl fork3 = fork2.fork();
+    load(fork3, "int10(14).");
+    assertEquals(13, fork3.solve("int10(X)").all().number());
+    assertEquals(12, fork2.solve("int10(X)").all().number());
+  }
+
+  @Test
+  public void librariesAreIndependent() {
+    final PrologImpl fork = this.template.fork();
+    fork.getLibraryManager().loadLibrary(new IOLibrary(fork));
+    assertTrue(fork.getLibraryManager().wholeContent().primitiveMap.containsKey(PredicateKey.valueOf("write/N")));
+    assertFalse(this.template.getLibraryManager().wholeContent().primitiveMap.containsKey(PredicateKey.valueOf("write/N")));
+    assertEquals(1, fork.solve("int10(X), X > 9, write(X)").all().number());
+  }
+
+  @Test
+  public void tabledPredicates() throws IOException {
+    final TheoryManager manager = this.template.getTheoryManager();
+    manager.addTheory(manager.load(new File("src/test/resources/test-tabling.pl")));
+    final PrologImpl fork = this.template.fork();
+    assertEquals(4, fork.solve("path(a, X)").all().number());
+    load(fork, "edge(d, e).");
+    assertEquals(5, fork.solve("path(a, X)").all().number());
+    assertEquals(4, this.template.solve("path(a, X)").all().number());
+  }
+
+  private static void load(PrologImpl theProlog, String theTheory) {
+    final DefaultTheoryManager manager = (DefaultTheoryManager) theProlog.getTheoryManager();
+    manager.addTheory(manager.load(theTheory));
+  }
+
+}
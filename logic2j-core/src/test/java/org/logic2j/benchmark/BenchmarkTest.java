@@ -0,0 +1,359 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.benchmark;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.logic2j.PrologImpl;
+import org.logic2j.PrologTestBase;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.model.var.VarFrame;
+import org.logic2j.model.var.VarTrail;
+import org.logic2j.solve.CompilingGoalSolver;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.GoalSolver;
+import org.logic2j.solve.ParallelGoalSolver;
+import org.logic2j.solve.StacklessGoalSolver;
+import org.logic2j.theory.DefaultTheoryManager;
+import org.logic2j.theory.TheoryManager;
+import org.logic2j.unify.Unifyer;
+
+/**
+ * Benchmarking the Prolog engine (unification, inference engine).
+ *
+ */
+public class BenchmarkTest extends PrologTestBase {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(BenchmarkTest.class);
+
+  /**
+   * The default solver does not consume Java stack with recursion depth, hanoi(20) runs under the default stack size.
+   * (The recursive DefaultGoalSolver was failing with stack overflow if more than hanoi(8) unless -Xss10m.)
+   * @throws IOException
+   */
+  @Test
+  public void testHanoi() throws IOException {
+    addTheory("src/test/resources/hanoi.pl");
+    long t1 = System.currentTimeMillis();
+    assertOneSolution("move(20,left,right,center)");
+    long t2 = System.currentTimeMillis();
+    logger.info("Elapse {}", t2 - t1);
+  }
+
+  /**
+   * Recursion one million deep (not tail-recursive), under the default stack size.
+   * @throws IOException
+   */
+  @Test
+  public void testDeepRecursion() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    long t1 = System.currentTimeMillis();
+    assertOneSolution("long_list_length(1000000, 1000000)");
+    long t2 = System.currentTimeMillis();
+    logger.info("Elapse {}", t2 - t1);
+  }
+
+  /**
+   * Tail-recursive iteration ten million times: the trail is released as we go so that memory remains constant.
+   * @throws IOException
+   */
+  @Test
+  public void testTailRecursion() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    long t1 = System.currentTimeMillis();
+    assertOneSolution("count(0, 10000000)");
+    long t2 = System.currentTimeMillis();
+    logger.info("Elapse {}", t2 - t1);
+  }
+
+  /**
+   * Iteration dominated by the invocation of primitives (is/2, &lt;/2, &gt;/2, =/2).
+   * @throws IOException
+   */
+  @Test
+  public void testPrimitiveLoop() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    for (int round = 0; round < 3; round++) {
+      long t1 = System.currentTimeMillis();
+      assertOneSolution("prim_loop(0, 300000)");
+      long t2 = System.currentTimeMillis();
+      logger.info("Elapse {}", t2 - t1);
+    }
+  }
+
+  /**
+   * Takes lots of time and stack - use with parcimony and with -Xss10m
+   * @throws IOException
+   */
+  @Ignore // See note above
+  @Test
+  public void testMillionLoops() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    long t1 = System.currentTimeMillis();
+    assertNSolutions(10000000, "int10(_),int10(_),int10(_),int10(_),int10(_),int10(_),int10(_)");
+    long t2 = System.currentTimeMillis();
+    logger.info("Elapse {}", t2 - t1);
+
+    t1 = System.currentTimeMillis();
+    assertNSolutions(10000000, "','(int10(_),int10(_),int10(_),int10(_),int10(_),int10(_),int10(_))");
+    t2 = System.currentTimeMillis();
+    logger.info("Elapse {}", t2 - t1);
+  }
+
+  @Test
+  public void testProfileMillionLoops() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    long t1 = System.currentTimeMillis();
+    assertNSolutions(10000, "int10(_),int10(_),int10(_),int10(_)");
+    long t2 = System.currentTimeMillis();
+    logger.info("Elapse {}", t2 - t1);
+  }
+
+  /**
+   * All solutions over a search space whose alternatives are explored in parallel, compared to sequential.
+   * The speedup depends on the number of processors.
+   * @throws IOException
+   */
+  @Test
+  public void testParallelAllSolutions() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    addTheory("src/test/resources/hanoi.pl");
+    final String goal = "int10(X), move(14,left,right,center)";
+    long t1 = System.currentTimeMillis();
+    assertNSolutions(10, goal);
+    long t2 = System.currentTimeMillis();
+    logger.info("Sequential elapse {}", t2 - t1);
+    ((PrologImpl) getProlog()).setSolver(new ParallelGoalSolver(getProlog()));
+    t1 = System.currentTimeMillis();
+    assertNSolutions(10, goal);
+    t2 = System.currentTimeMillis();
+    logger.info("Parallel elapse {} with {} processors", t2 - t1, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Interpreted clauses compared to compiled ones, see {@link CompilingGoalSolver}.
+   * @throws IOException
+   */
+  @Test
+  public void testCompiledClauses() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    addTheory("src/test/resources/hanoi.pl");
+    final GoalSolver[] solvers = { new StacklessGoalSolver(getProlog()), new CompilingGoalSolver(getProlog()) };
+    // Alternate solvers so that both benefit from the warm-up
+    for (int round = 0; round < 4; round++) {
+      ((PrologImpl) getProlog()).setSolver(solvers[round % 2]);
+      long t1 = System.currentTimeMillis();
+      assertOneSolution("move(18,left,right,center)");
+      long t2 = System.currentTimeMillis();
+      assertNSolutions(1000000, "int10(_),int10(_),int10(_),int10(_),int10(_),int10(_)");
+      long t3 = System.currentTimeMillis();
+      logger.info("{}: hanoi elapse {}, int10 loops elapse {}", new Object[] { solvers[round % 2], t2 - t1, t3 - t2 });
+    }
+  }
+
+  /**
+   * Throughput of the dynamic database: readers solving over a predicate while writers assert and retract its
+   * clauses. Readers are not blocked by writers, they see a snapshot of the clauses at call time.
+   * @throws Exception
+   */
+  @Test
+  public void testDynamicDatabase() throws Exception {
+    final StringBuilder facts = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      facts.append("fact(").append(i).append(", ").append(i % 10).append(").\n");
+    }
+    final TheoryManager manager = getProlog().getTheoryManager();
+    manager.addTheory(((DefaultTheoryManager) manager).load(facts));
+    final int nbReaders = 4;
+    final int nbWriters = 2;
+    final long duration = 1000;
+    final AtomicLong nbReads = new AtomicLong();
+    final AtomicLong nbWrites = new AtomicLong();
+    final long end = System.currentTimeMillis() + duration;
+    final List<Thread> threads = new ArrayList<Thread>();
+    for (int i = 0; i < nbReaders + nbWriters; i++) {
+      final boolean writer = i < nbWriters;
+      final int offset = 1000 + i * 1000000;
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          int n = 0;
+          while (System.currentTimeMillis() < end) {
+            if (writer) {
+              getProlog().solve("assertz(fact(" + (offset + n) + ", 3)), retract(fact(" + (offset + n - 1) + ", _)) ; true").all().number();
+              nbWrites.incrementAndGet();
+            } else {
+              getProlog().solve("fact(X, 3), X > 500").all().number();
+              nbReads.incrementAndGet();
+            }
+            n++;
+          }
+        }
+      });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    logger.info("Dynamic database: {} reads/s by {} readers, {} writes/s by {} writers", new Object[] {
+        nbReads.get() * 1000 / duration, nbReaders, nbWrites.get() * 1000 / duration, nbWriters });
+  }
+
+  /**
+   * Time and memory allocated per pair of unification and deunification, the operation done on every clause
+   * tried. Both should not depend on the size of the {@link GoalFrame}'s trail: nothing is allocated once the
+   * trail has grown to its working size. The trail is first filled as it would be deep into a resolution.
+   */
+  @Test
+  public void testUnifyDeunify() {
+    final Unifyer unifyer = getProlog().getUnifyer();
+    final Term left = term("f(X, Y, g(Z, X), a, [1,2,Y])");
+    final Term right = term("f(1, b, g(c, T), U, [V,2,W])");
+    final Bindings leftBindings = new Bindings(left);
+    final Bindings rightBindings = new Bindings(right);
+    final GoalFrame frame = new GoalFrame();
+    final StringBuilder vars = new StringBuilder();
+    final StringBuilder values = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      vars.append(i == 0 ? "" : ",").append("X").append(i);
+      values.append(i == 0 ? "" : ",").append(i);
+    }
+    final Term deep = term("p(" + vars + ")");
+    final Term deepValues = term("p(" + values + ")");
+    unifyer.unify(deep, new Bindings(deep), deepValues, new Bindings(deepValues), frame);
+    final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    final long threadId = Thread.currentThread().getId();
+    final int nbPairs = 2000000;
+    for (int round = 0; round < 3; round++) {
+      final long bytes1 = threads.getThreadAllocatedBytes(threadId);
+      final long t1 = System.nanoTime();
+      for (int i = 0; i < nbPairs; i++) {
+        if (!unifyer.unify(left, leftBindings, right, rightBindings, frame)) {
+          throw new AssertionError("Should have unified");
+        }
+        unifyer.deunify(frame);
+      }
+      final long t2 = System.nanoTime();
+      final long bytes2 = threads.getThreadAllocatedBytes(threadId);
+      logger.info("Unify/deunify: {} ns/pair, {} bytes/pair", (t2 - t1) / nbPairs, (bytes2 - bytes1) / nbPairs);
+    }
+  }
+
+  /**
+   * Time and memory allocated to solve a goal where most clauses are tried but fail on their head: only
+   * one argument of fact/3 can be looked up by index, the candidate clauses mostly differ on the other.
+   */
+  @Test
+  public void testFailingClauses() {
+    final StringBuilder facts = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      facts.append("fact(").append(i).append(", ").append(i % 10).append(", ").append(i % 7).append(").\n");
+    }
+    final TheoryManager manager = getProlog().getTheoryManager();
+    manager.addTheory(((DefaultTheoryManager) manager).load(facts));
+    final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    final long threadId = Thread.currentThread().getId();
+    final int nbSolves = 2000;
+    for (int round = 0; round < 3; round++) {
+      final long bytes1 = threads.getThreadAllocatedBytes(threadId);
+      final long t1 = System.nanoTime();
+      for (int i = 0; i < nbSolves; i++) {
+        getProlog().solve("fact(X, 3, 5)").all().number();
+      }
+      final long t2 = System.nanoTime();
+      final long bytes2 = threads.getThreadAllocatedBytes(threadId);
+      logger.info("Failing clauses: {} us/solve, {} bytes/solve", (t2 - t1) / nbSolves / 1000, (bytes2 - bytes1) / nbSolves);
+    }
+  }
+
+  /**
+   * Memory per inference and GC pressure of the packed {@link VarFrame}s compared to {@link Bindings} of
+   * {@link org.logic2j.model.var.Binding}s, copied eagerly or lazily. One inference is: a frame for the
+   * clause's variables, unification of its head with the goal, and undoing it.
+   */
+  @Test
+  public void testVarFrames() {
+    final Unifyer unifyer = getProlog().getUnifyer();
+    final Term goal = term("append([1,2,3], [4,5], Z)");
+    final Term head = term("append([H|T], L, [H|R])");
+    final Bindings goalBindings = new Bindings(goal);
+    final Bindings headBindings = new Bindings(head);
+    final GoalFrame goalFrame = new GoalFrame();
+    final VarFrame goalVarFrame = new VarFrame(goal);
+    final VarFrame headVarFrame = new VarFrame(head);
+    final VarTrail trail = new VarTrail();
+    final String[] models = { "Bindings (eager copy)", "Bindings (lazy copy)", "VarFrame" };
+    final int nbInferences = 3000000;
+    for (int round = 0; round < 2 * models.length; round++) {
+      final int model = round % models.length;
+      final long[] gc1 = gcCountAndTime();
+      final long bytes1 = allocatedBytes();
+      final long t1 = System.nanoTime();
+      for (int i = 0; i < nbInferences; i++) {
+        final boolean unified;
+        if (model == 2) {
+          unified = VarFrame.unify(goal, goalVarFrame, head, headVarFrame.fresh(), trail);
+          trail.undoTo(0);
+        } else {
+          final Bindings clauseBindings = model == 0 ? new Bindings(headBindings) : Bindings.createLazyCopy(headBindings);
+          unified = unifyer.unify(goal, goalBindings, head, clauseBindings, goalFrame);
+          unifyer.deunify(goalFrame);
+        }
+        if (!unified) {
+          throw new AssertionError("Should have unified");
+        }
+      }
+      final long t2 = System.nanoTime();
+      final long bytes2 = allocatedBytes();
+      final long[] gc2 = gcCountAndTime();
+      logger.info("{}: {} ns/inference, {} bytes/inference, {} collections taking {} ms", new Object[] { models[model],
+          (t2 - t1) / nbInferences, (bytes2 - bytes1) / nbInferences, gc2[0] - gc1[0], gc2[1] - gc1[1] });
+    }
+  }
+
+  private static long allocatedBytes() {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread
+        .currentThread().getId());
+  }
+
+  private static long[] gcCountAndTime() {
+    final long[] result = new long[2];
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      result[0] += gc.getCollectionCount();
+      result[1] += gc.getCollectionTime();
+    }
+    return result;
+  }
+
+  public static void main(String[] args) throws InterruptedException, IOException {
+    BenchmarkTest benchmarkTest = new BenchmarkTest();
+    benchmarkTest.setUp();
+    Thread.sleep(20000);
+    benchmarkTest.testMillionLoops();
+  }
+
+}
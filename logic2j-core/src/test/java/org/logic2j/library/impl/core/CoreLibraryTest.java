@@ -19,12 +19,16 @@ package org.logic2j.library.impl.core;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
 
 import java.io.IOException;
 
 import org.junit.Ignore;
 import org.junit.Test;
 import org.logic2j.PrologTestBase;
+import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.TLong;
 import org.logic2j.solve.holder.UniqueSolutionHolder;
 
 public class CoreLibraryTest extends PrologTestBase {
@@ -106,6 +110,97 @@ public class CoreLibraryTest extends PrologTestBase {
     assertEquals(term(9), assertOneSolution("N=10, M is N-1").binding("M"));
   }
 
+  @Test
+  public void test_is_compiled() {
+    assertEquals(term(7.5), assertOneSolution("X is 2.5 * 3").binding("X"));
+    assertEquals(term(-0.5), assertOneSolution("X is 1 - 1.5").binding("X"));
+    // Variables bound to expressions are evaluated
+    assertEquals(term(9), assertOneSolution("E = 2 + X, X = 7, Y is E").binding("Y"));
+    assertEquals(term(21), assertOneSolution("E = 2 + X, X = 5, Y is E * 3").binding("Y"));
+    assertNoSolution("X is Y");
+    // The compiled form is cached in the expression, and reused with other bindings
+    final Struct expression = (Struct) getProlog().term("N - 1");
+    assertSame(expression.getArithmeticExpression(), expression.getArithmeticExpression());
+    assertEquals(term(3), assertOneSolution("N = 4, M is N - 1").binding("M"));
+    assertEquals(term(4), assertOneSolution("N = 5, M is N - 1").binding("M"));
+    assertSame(TLong.valueOf(100), TLong.valueOf(100));
+  }
+
+  @Test
+  public void test_compare() {
+    assertOneSolution("1.5 > 1");
+    assertNoSolution("1.5 < 1");
+    assertOneSolution("1 < 1.5");
+    assertOneSolution("X = 3, (X * 2) > (X + 2)");
+    assertNoSolution("X > 1");
+    assertOneSolution("2 >= 2.0");
+    assertOneSolution("1 =< 2, 2 =< 2");
+    assertNoSolution("3 =< 2");
+    assertOneSolution("(1 + 1) =:= 2.0");
+    assertOneSolution("1 =\\= 1.5");
+    assertNoSolution("2 =\\= 2");
+    // No truncation of floats
+    assertNoSolution("1.5 =:= 1");
+    assertOneSolution("1.5 >= 1.4");
+  }
+
+  @Test
+  public void test_is_iso() {
+    assertEquals(term(2), assertOneSolution("X is 6 / 3").binding("X"));
+    assertEquals(term(3.5), assertOneSolution("X is 7 / 2").binding("X"));
+    assertEquals(term(-3), assertOneSolution("X is -7 // 2").binding("X"));
+    assertEquals(term(1), assertOneSolution("X is -7 mod 2").binding("X"));
+    assertEquals(term(-1), assertOneSolution("X is -7 rem 2").binding("X"));
+    assertEquals(term(2), assertOneSolution("X is min(2, 3.0)").binding("X"));
+    assertEquals(term(3.0), assertOneSolution("X is max(2, 3.0)").binding("X"));
+    assertEquals(term(4), assertOneSolution("X is abs(-4)").binding("X"));
+    assertEquals(term(-1.0), assertOneSolution("X is sign(-2.5)").binding("X"));
+    assertEquals(term(2), assertOneSolution("X is 6 /\\ 3").binding("X"));
+    assertEquals(term(7), assertOneSolution("X is 6 \\/ 3").binding("X"));
+    assertEquals(term(5), assertOneSolution("X is 6 xor 3").binding("X"));
+    assertEquals(term(-7), assertOneSolution("X is \\ 6").binding("X"));
+    assertEquals(term(12), assertOneSolution("X is 3 << 2").binding("X"));
+    assertEquals(term(-2), assertOneSolution("X is -7 >> 2").binding("X"));
+    assertEquals(term(1024), assertOneSolution("X is 2 ^ 10").binding("X"));
+    assertEquals(term(8.0), assertOneSolution("X is 2 ** 3").binding("X"));
+    assertEquals(term(3.0), assertOneSolution("X is sqrt(9)").binding("X"));
+    assertEquals(term(0.0), assertOneSolution("X is sin(0)").binding("X"));
+    assertEquals(term(1.0), assertOneSolution("X is exp(0)").binding("X"));
+    assertEquals(term(3), assertOneSolution("X is round(2.5)").binding("X"));
+    assertEquals(term(-2), assertOneSolution("X is truncate(-2.5)").binding("X"));
+    assertEquals(term(-3), assertOneSolution("X is floor(-2.5)").binding("X"));
+    assertEquals(term(3), assertOneSolution("X is ceiling(2.1)").binding("X"));
+    assertEquals(term(2.0), assertOneSolution("X is float(2)").binding("X"));
+    assertEquals(term(Math.PI), assertOneSolution("X is pi").binding("X"));
+    // Primitives invoked directly evaluate the same way
+    assertEquals(term(3.5), assertOneSolution("X = 7, Y is X / 2").binding("Y"));
+  }
+
+  @Test
+  public void test_is_big_integers() {
+    assertEquals("9223372036854775808", assertOneSolution("X is 9223372036854775807 + 1").binding("X").toString());
+    assertEquals("-9223372036854775809", assertOneSolution("X is -9223372036854775807 - 2").binding("X").toString());
+    assertEquals("85070591730234615847396907784232501249",
+        assertOneSolution("X is 9223372036854775807 * 9223372036854775807").binding("X").toString());
+    assertEquals("1267650600228229401496703205376", assertOneSolution("X is 2 ^ 100").binding("X").toString());
+    assertEquals("18446744073709551616", assertOneSolution("X is 1 << 64").binding("X").toString());
+    // Back to longs when small enough
+    assertEquals(term(1), assertOneSolution("X is (2 ^ 100) - ((2 ^ 100) - 1)").binding("X"));
+    assertEquals(term(5), assertOneSolution("X is 100000000000000000000 // 20000000000000000000").binding("X"));
+    assertOneSolution("123456789012345678901234567890 > 9223372036854775807");
+    assertOneSolution("X is 2 ^ 64, X =:= 18446744073709551616");
+  }
+
+  @Test(expected = InvalidTermException.class)
+  public void test_is_zero_divisor() {
+    assertOneSolution("X is 1 // 0");
+  }
+
+  @Test(expected = InvalidTermException.class)
+  public void test_is_integer_expected() {
+    assertOneSolution("X is 1.5 mod 2");
+  }
+
   @Test
   public void test_predicate2PList() {
     assertNoSolution("a(b,c,d) =.. f");
@@ -217,4 +312,43 @@ public class CoreLibraryTest extends PrologTestBase {
     // TODO: This fails with an Exception - improve
     // assertNoSolution("atom_length(X, 3)");
   }
+
+  @Test
+  public void assert_retract() {
+    assertNoSolution("counter(_)");
+    assertOneSolution("assertz(counter(1))");
+    assertOneSolution("asserta(counter(0)), assert(counter(2))");
+    assertEquals(termList(0, 1, 2), assertNSolutions(3, "counter(X)").binding("X"));
+    assertOneSolution("retract(counter(1))");
+    assertNoSolution("retract(counter(1))");
+    assertEquals(termList(0, 2), assertNSolutions(2, "counter(X)").binding("X"));
+    assertEquals(term(0), assertOneSolution("retract(counter(X)), !").binding("X"));
+    assertEquals(term(2), assertOneSolution("counter(X)").binding("X"));
+    // Rules
+    assertOneSolution("assertz((double(X, Y) :- Y is 2 * X))");
+    assertEquals(term(6), assertOneSolution("double(3, Y)").binding("Y"));
+    assertOneSolution("retract((double(_, _) :- _))");
+    assertNoSolution("double(3, Y)");
+  }
+
+  @Test
+  public void retractall() {
+    assertOneSolution("assertz(item(a, 1)), assertz(item(b, 2)), assertz(item(a, 3))");
+    assertOneSolution("retractall(item(a, _))");
+    assertEquals(term(2), assertOneSolution("item(_, X)").binding("X"));
+    assertOneSolution("retractall(item(_, _))");
+    assertOneSolution("retractall(item(_, _))");
+    assertNoSolution("item(_, _)");
+  }
+
+  @Test
+  public void logicalUpdateView() {
+    assertOneSolution("assertz(item(1)), assertz(item(2))");
+    // The clauses asserted while solving item(X) are not seen by it, otherwise this would not terminate
+    assertOneSolution("item(X), Y is X + 10, assertz(item(Y)), fail ; true");
+    assertEquals(termList(1, 2, 11, 12), assertNSolutions(4, "item(X)").binding("X"));
+    // Failure-driven loop: retract/1 removes the next clause upon backtracking
+    assertOneSolution("retract(item(_)), fail ; true");
+    assertNoSolution("item(_)");
+  }
 }
@@ -25,6 +25,7 @@ import org.logic2j.model.symbol.TNumber;
 import org.logic2j.model.symbol.Term;
 import org.logic2j.model.var.Bindings;
 import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.ioc.SolutionGenerator;
 import org.logic2j.solve.ioc.SolutionListener;
 
 /**
@@ -32,6 +33,11 @@ import org.logic2j.solve.ioc.SolutionListener;
 public class AdHocLibraryForTesting extends LibraryBase {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AdHocLibraryForTesting.class);
 
+  /**
+   * Number of generators of int_range/3 closed.
+   */
+  int nbClosed = 0;
+
   public AdHocLibraryForTesting(PrologImplementor theProlog) {
     super(theProlog);
   }
@@ -47,10 +53,25 @@ public class AdHocLibraryForTesting extends LibraryBase {
     assertValidBindings(b2, "int_range/3");
     final long upper = ((TNumber)b2.getReferrer()).longValue();
     
-    for (long iter = lower; iter <= upper; iter++) {
-      final TLong iterTerm = new TLong(iter);
-      final boolean unified = unify(theIterable, theBindings, iterTerm, theBindings, theGoalFrame);
-      notifyIfUnified(unified, theGoalFrame, theListener);
-    }
+    notifySolutions(new SolutionGenerator() {
+      private long iter = lower;
+
+      @Override
+      public boolean next(GoalFrame theFrame) {
+        while (this.iter <= upper) {
+          final TLong iterTerm = new TLong(this.iter++);
+          if (unify(theIterable, theBindings, iterTerm, theBindings, theFrame)) {
+            theFrame.discardMark();
+            return true;
+          }
+        }
+        return false;
+      }
+
+      @Override
+      public void close() {
+        nbClosed++;
+      }
+    }, theGoalFrame, theListener);
   }
 }
@@ -21,10 +21,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 
+import java.util.Iterator;
+
 import org.junit.Test;
 import org.logic2j.PrologImplementor;
 import org.logic2j.PrologTestBase;
 import org.logic2j.library.impl.core.CoreLibrary;
+import org.logic2j.solve.Solution;
+import org.logic2j.solve.holder.SolutionIterator;
 
 /**
  */
@@ -60,4 +64,18 @@ public class AdHocLibraryTest extends PrologTestBase {
     // assertNoSolution("int_range(A, X, 10)");
   }
 
+  @Test
+  public void test_int_range_onDemand() {
+    final AdHocLibraryForTesting library = new AdHocLibraryForTesting(getProlog());
+    loadLibrary(library);
+    // Solutions are generated as they are consumed, the cut stops generating them
+    assertEquals(term(3), assertOneSolution("int_range(1, X, 1000000000000), X > 2, !").binding("X"));
+    assertEquals(1, library.nbClosed);
+    final Iterator<Solution> iterator = getProlog().solve("int_range(1, X, 1000000000000)").iterator();
+    assertEquals(term(1), iterator.next().getBinding("X"));
+    assertEquals(term(2), iterator.next().getBinding("X"));
+    ((SolutionIterator) iterator).close();
+    assertEquals(2, library.nbClosed);
+  }
+
 }
@@ -0,0 +1,93 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.library.mgmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.logic2j.PrologImplementor;
+import org.logic2j.PrologTestBase;
+import org.logic2j.library.impl.LibraryBase;
+import org.logic2j.library.impl.test.AdHocLibraryForTesting;
+import org.logic2j.model.symbol.PredicateKey;
+import org.logic2j.model.symbol.TLong;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.ioc.SolutionListener;
+
+/**
+ * Check how primitives are registered: from the {@link PrimitiveRegistry} generated at build time
+ * by logic2j-processor, or by reflection when there is none.
+ */
+public class DefaultLibraryManagerTest extends PrologTestBase {
+
+  /**
+   * Nested classes are not processed at build time.
+   */
+  public static class NestedLibrary extends LibraryBase {
+
+    public NestedLibrary(PrologImplementor theProlog) {
+      super(theProlog);
+    }
+
+    @Primitive(synonyms = "nested_answer")
+    public void answer(SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings, Term theTerm) {
+      notifyIfUnified(unify(theTerm, theBindings, new TLong(42), theBindings, theGoalFrame), theGoalFrame, theListener);
+    }
+  }
+
+  @Test
+  public void generatedRegistry() {
+    final PrimitiveInfo unify = primitive("=/2");
+    assertTrue(unify.isGenerated());
+    assertNull(unify.getMethod());
+    assertEquals("=", unify.getName());
+    assertTrue(primitive("\\+/1").isGenerated());
+    assertTrue(primitive("rdb_config/N").isVarargs());
+    assertOneSolution("X = f(Y), Y is 2 * 3 + 1, \\+ X = g(_)");
+  }
+
+  @Test
+  public void generatedRegistryOfTestLibrary() {
+    loadLibrary(new AdHocLibraryForTesting(getProlog()));
+    assertTrue(primitive("int_range/3").isGenerated());
+    assertEquals(termList(1, 2, 3), assertNSolutions(3, "int_range(1, X, 3)").binding("X"));
+  }
+
+  @Test
+  public void reflectionFallback() {
+    loadLibrary(new NestedLibrary(getProlog()));
+    final PrimitiveInfo answer = primitive("answer/1");
+    assertFalse(answer.isGenerated());
+    assertNotNull(answer.getMethod());
+    assertEquals(term(42), assertOneSolution("answer(X)").binding("X"));
+    assertEquals(term(42), assertOneSolution("nested_answer(X)").binding("X"));
+  }
+
+  private PrimitiveInfo primitive(String theKey) {
+    final PrimitiveInfo info = getProlog().getLibraryManager().wholeContent().primitiveMap.get(PredicateKey.valueOf(theKey));
+    assertNotNull("No primitive " + theKey, info);
+    return info;
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.model;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.logic2j.Prolog;
+import org.logic2j.PrologImpl;
+import org.logic2j.PrologImpl.InitLevel;
+import org.logic2j.TermFactory.FactoryMode;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.StructObject;
+import org.logic2j.model.symbol.TString;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.symbol.Var;
+import org.logic2j.model.var.Bindings;
+
+/**
+ * The quick check of {@link Clause#mayUnify(Struct, Bindings)} before unifying a goal with a clause's head.
+ */
+public class ClauseTest {
+
+  private final Prolog prolog = new PrologImpl(InitLevel.L0_BARE);
+
+  private Term term(String theText) {
+    return this.prolog.getTermFactory().create(theText, FactoryMode.ANY_TERM);
+  }
+
+  private Clause clause(String theText) {
+    return new Clause(this.prolog, term(theText));
+  }
+
+  private boolean mayUnify(Clause theClause, Term theGoal) {
+    final Term goal = this.prolog.getTermFactory().normalize(theGoal);
+    return theClause.mayUnify((Struct) goal, new Bindings(goal));
+  }
+
+  @Test
+  public void atom() {
+    final Clause clause = clause("p(a, X)");
+    assertTrue(mayUnify(clause, term("p(a, b)")));
+    assertFalse(mayUnify(clause, term("p(b, b)")));
+    assertFalse(mayUnify(clause, term("p(1, b)")));
+    assertFalse(mayUnify(clause, term("p(a(1), b)")));
+    // Extensions of Struct unify with atoms by name
+    assertTrue(mayUnify(clause, new Struct("p", new StructObject<Object>("a", new Object()), term("b"))));
+    assertFalse(mayUnify(clause, new Struct("p", new StructObject<Object>("b", new Object()), term("b"))));
+  }
+
+  @Test
+  public void number() {
+    final Clause clause = clause("p(1, 2.5)");
+    assertTrue(mayUnify(clause, term("p(1, 2.5)")));
+    assertFalse(mayUnify(clause, term("p(2, 2.5)")));
+    assertFalse(mayUnify(clause, term("p(1, 2)")));
+    assertFalse(mayUnify(clause, term("p(a, 2.5)")));
+  }
+
+  @Test
+  public void string() {
+    final Clause clause = clause("p(X)");
+    assertTrue(mayUnify(clause, new Struct("p", new TString("abc"))));
+    final Clause withString = new Clause(this.prolog, new Struct("p", new TString("abc")));
+    assertTrue(mayUnify(withString, new Struct("p", new TString("abc"))));
+    assertFalse(mayUnify(withString, new Struct("p", new TString("abd"))));
+    assertFalse(mayUnify(withString, term("p(abd)")));
+    assertTrue(mayUnify(withString, term("p(X)")));
+  }
+
+  @Test
+  public void boundVar() {
+    final Clause clause = clause("p(a)");
+    final Term goal = term("p(X)");
+    final Bindings bindings = new Bindings(goal);
+    assertTrue(clause.mayUnify((Struct) goal, bindings));
+    ((Var) ((Struct) goal).getArg(0)).bindingWithin(bindings).bindTo(term("b"), bindings, null);
+    assertFalse(clause.mayUnify((Struct) goal, bindings));
+    final Bindings other = new Bindings(goal);
+    ((Var) ((Struct) goal).getArg(0)).bindingWithin(other).bindTo(term("a"), other, null);
+    assertTrue(clause.mayUnify((Struct) goal, other));
+  }
+
+  @Test
+  public void anonymousVar() {
+    final Clause clause = clause("p(a, 1)");
+    assertTrue(mayUnify(clause, term("p(_, _)")));
+    assertTrue(mayUnify(clause, term("p(_, 1)")));
+    assertFalse(mayUnify(clause, term("p(_, 2)")));
+  }
+
+  @Test
+  public void mismatchedArity() {
+    final Clause clause = clause("p(a, X)");
+    assertFalse(mayUnify(clause, term("p(a)")));
+    assertFalse(mayUnify(clause, term("p(a, b, c)")));
+    assertFalse(mayUnify(clause, term("q(a, b)")));
+    assertFalse(mayUnify(clause, term("p")));
+  }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.model.symbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Check the {@link SymbolTable} of atom and functor names.
+ */
+public class SymbolTableTest {
+
+  @Test
+  public void uniqueSymbols() {
+    final SymbolTable table = new SymbolTable();
+    final String name = new String("abc");
+    final Symbol symbol = table.symbol(name);
+    assertSame(symbol, table.symbol(new String("abc")));
+    assertSame(name, table.symbol(new String("abc")).getName());
+    assertNotSame(symbol, table.symbol("abd"));
+    assertSame(symbol, table.symbol(symbol.getId()));
+    assertNull(table.symbol(1000));
+  }
+
+  @Test
+  public void structsShareSymbols() {
+    final Struct s1 = new Struct(new String("f"), new Struct("a"));
+    final Struct s2 = new Struct(new String("f"), new Struct("b"));
+    assertSame(s1.getSymbol(), s2.getSymbol());
+    assertSame(s1.getName(), s2.getName());
+    // Constants keep their String instance, they are compared with ==
+    assertSame(Struct.FUNCTOR_TRUE, new Struct(new String("true")).getName());
+    assertSame(Struct.FUNCTOR_LIST_EMPTY, new Struct(new String("[]")).getName());
+    assertTrue(new Struct(new String("[]")).isEmptyList());
+  }
+
+  @Test
+  public void collectedSymbols() {
+    final SymbolTable table = new SymbolTable();
+    final Symbol kept = table.symbol("kept");
+    final String keptName = kept.getName();
+    final List<Symbol> transients = new ArrayList<Symbol>();
+    for (int i = 0; i < 1000; i++) {
+      transients.add(table.symbol("transient" + i));
+    }
+    assertEquals(1001, table.size());
+    final int maxId = transients.get(999).getId();
+    transients.clear();
+    for (int attempt = 0; attempt < 50 && table.getNbCollected() == 0; attempt++) {
+      System.gc();
+    }
+    assertTrue("No symbol was collected", table.getNbCollected() > 0);
+    assertTrue(table.size() < 1001);
+    // Ids of collected symbols are reused
+    assertTrue(table.symbol("new one").getId() <= maxId);
+    assertSame(kept, table.symbol(new String("kept")));
+    assertSame(keptName, kept.getName());
+  }
+
+}
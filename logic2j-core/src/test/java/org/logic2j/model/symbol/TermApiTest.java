@@ -25,6 +25,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Test;
 import org.logic2j.Prolog;
@@ -98,6 +99,40 @@ public class TermApiTest {
     assertEquals(clause.toString(), t2.toString());
   }
 
+  @Test
+  public void test_normalizeSharesGroundTerms() {
+    final TermTable table = new TermTable();
+    final Struct t1 = (Struct) TERM_API.normalize(new Struct("f", new Struct("g", "a", 1), "X", new Struct("k", "X")), null, table);
+    final Struct t2 = (Struct) TERM_API.normalize(new Struct("h", "Y", new Struct("g", "a", 1), new Struct("k", "X")), null, table);
+    // Ground sub-terms are shared across terms
+    assertSame(t1.getArg(0), t2.getArg(1));
+    assertEquals(0, t1.getArg(0).getIndex());
+    assertEquals(1, t1.getIndex());
+    assertEquals(2, t2.getIndex());
+    // Others are not
+    assertNotSame(t1.getArg(2), t2.getArg(2));
+    // Without table, equal sub-terms are shared within a term
+    final Struct t3 = (Struct) TERM_API.normalize(new Struct("f", new Struct("k", "X"), new Struct("k", "X")), null);
+    assertSame(t3.getArg(0), t3.getArg(1));
+    assertEquals(1, t3.getIndex());
+  }
+
+  /**
+   * Compaction is linear in the size of terms.
+   */
+  @Test
+  public void test_normalizeLongList() {
+    final List<Term> elements = new ArrayList<Term>();
+    for (int i = 0; i < 2000; i++) {
+      elements.add(new Struct("f", new TLong(i % 10)));
+    }
+    final Struct list = (Struct) TERM_API.normalize(Struct.createPList(elements), null, new TermTable());
+    final List<Term> normalized = list.javaListFromPList(null, Term.class);
+    assertEquals(2000, normalized.size());
+    assertSame(normalized.get(3), normalized.get(1993));
+    assertEquals(0, list.getIndex());
+  }
+
   @Test
   public void test_assignVarOffsets() {
     int nbVars;
@@ -146,6 +181,19 @@ public class TermApiTest {
     }
   }
 
+  @Test
+  public void test_predicateKey() {
+    final Struct struct = (Struct) this.prolog.term("append(X, [], X)");
+    assertSame(PredicateKey.of("append", 3), struct.getPredicateKey());
+    assertSame(struct.getPredicateKey(), struct.getPredicateKey());
+    assertSame(PredicateKey.valueOf("append/3"), struct.getPredicateKey());
+    assertEquals("append/3", struct.getPredicateIndicator());
+    assertSame(PredicateKey.valueOf("append/N"), struct.getPredicateKey().varargs());
+    assertTrue(struct.getPredicateKey().varargs().isVarargs());
+    assertSame(PredicateKey.of("/", 2), PredicateKey.valueOf("//2"));
+    assertNotSame(PredicateKey.of("append", 2), struct.getPredicateKey());
+  }
+
   @Test
   public void test_selections() {
     Term term = this.prolog.getTermFactory().create("a(b(c,c2),b2)", FactoryMode.ANY_TERM);
@@ -0,0 +1,107 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.model.var;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.logic2j.Prolog;
+import org.logic2j.PrologImpl;
+import org.logic2j.PrologImpl.InitLevel;
+import org.logic2j.TermFactory.FactoryMode;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.symbol.Var;
+
+/**
+ * Unification and extraction of values with the packed {@link VarFrame}.
+ */
+public class VarFrameTest {
+
+  private final Prolog prolog = new PrologImpl(InitLevel.L0_BARE);
+
+  private Term term(String theText) {
+    return this.prolog.getTermFactory().create(theText, FactoryMode.ANY_TERM);
+  }
+
+  @Test
+  public void unifyAndResolve() {
+    final Term goal = term("p(X, Y, Z)");
+    final Term head = term("p(A, f(A, B), [B, c])");
+    final VarFrame goalFrame = new VarFrame(goal);
+    final VarFrame headFrame = new VarFrame(head).fresh();
+    final VarTrail trail = new VarTrail();
+    assertTrue(VarFrame.unify(goal, goalFrame, head, headFrame, trail));
+    // X is linked to the free A, so it is not reported
+    assertEquals(2, goalFrame.explicitBindings().size());
+    assertEquals(term("f(A, B)"), goalFrame.explicitBindings().get("Y"));
+    assertEquals(term("[B, c]"), goalFrame.explicitBindings().get("Z"));
+    // Bind the shared variables
+    final Term other = term("q(1, 2)");
+    final Term otherPattern = term("q(A, B)");
+    assertTrue(VarFrame.unify(otherPattern, headFrame, other, new VarFrame(other), trail));
+    assertEquals(term("f(1, 2)"), goalFrame.resolve(((Struct) goal).getArg(1)));
+    assertEquals(term("p(1, f(1, 2), [2, c])"), goalFrame.resolve(goal));
+    trail.undoTo(0);
+    assertEquals(0, goalFrame.explicitBindings().size());
+    assertEquals(0, trail.size());
+  }
+
+  @Test
+  public void failureUndoesBindings() {
+    final Term left = term("f(X, X, Y)");
+    final Term right = term("f(a, b, c)");
+    final VarFrame leftFrame = new VarFrame(left);
+    final VarTrail trail = new VarTrail();
+    assertFalse(VarFrame.unify(left, leftFrame, right, new VarFrame(right), trail));
+    assertEquals(0, trail.size());
+    assertEquals(VarFrame.FREE, leftFrame.getTag(0));
+    assertTrue(VarFrame.unify(left, leftFrame, term("f(a, a, c)"), new VarFrame(right), trail));
+    assertEquals(VarFrame.LIT, leftFrame.getTag(0));
+  }
+
+  @Test
+  public void linkedVariables() {
+    final Term left = term("f(X, Y, X)");
+    final Term right = term("f(Y, Z, Z)");
+    final VarFrame leftFrame = new VarFrame(left);
+    final VarFrame rightFrame = new VarFrame(right);
+    final VarTrail trail = new VarTrail();
+    assertTrue(VarFrame.unify(left, leftFrame, right, rightFrame, trail));
+    assertEquals(VarFrame.LINK, leftFrame.getTag(0));
+    // All variables end up on the same free one
+    assertEquals(new Var("Z"), leftFrame.resolve(term("X")));
+    assertEquals(term("f(Z, Z, Z)"), leftFrame.resolve(left));
+    assertTrue(VarFrame.unify(term("Y"), rightFrame, term("a"), null, trail));
+    assertEquals(term("f(a, a, a)"), leftFrame.resolve(left));
+  }
+
+  @Test
+  public void anonymousAndAtomic() {
+    final Term left = term("f(_, 1, 2.5, a)");
+    final VarFrame frame = new VarFrame(left);
+    assertEquals(0, frame.getSize());
+    final VarTrail trail = new VarTrail();
+    assertTrue(VarFrame.unify(left, frame, term("f(x, 1, 2.5, a)"), frame, trail));
+    assertFalse(VarFrame.unify(left, frame, term("f(x, 1, 2.5, b)"), frame, trail));
+    assertFalse(VarFrame.unify(left, frame, term("f(x, 1.0, 2.5, a)"), frame, trail));
+  }
+
+}
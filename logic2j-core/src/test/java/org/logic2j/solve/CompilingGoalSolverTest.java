@@ -0,0 +1,93 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.logic2j.PrologImpl;
+import org.logic2j.PrologTestBase;
+import org.logic2j.model.Clause;
+import org.logic2j.model.symbol.PredicateKey;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.StructObject;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.var.Bindings;
+
+/**
+ * Check that the {@link CompilingGoalSolver} finds the same solutions as the interpreting one.
+ */
+public class CompilingGoalSolverTest extends PrologTestBase {
+
+  private static final String[] GOALS = { "int10(X)", "int10(X), int10(Y)", "(X=1 ; X=2 ; X=3)",
+      "member(X, [a,b,c])", "append(X, Y, [1,2,3])", "int_list(5, X)", "list_length([a,b,c], X)",
+      "perm([1,2,3], X)", "int10(X), X > 100", "reverse([1,2,3], X)", "findall(Z, int10(Z), X)",
+      "count(0, 1000)", "long_list_length(1000, X)", "move(6,left,right,center)" };
+
+  @Test
+  public void sameAsInterpreted() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    addTheory("src/test/resources/hanoi.pl");
+    for (String goal : GOALS) {
+      final List<Map<String, Term>> expected = getProlog().solve(goal).all().bindings();
+      ((PrologImpl) getProlog()).setSolver(new CompilingGoalSolver(getProlog()));
+      assertEquals(goal, expected, getProlog().solve(goal).all().bindings());
+      ((PrologImpl) getProlog()).setSolver(new StacklessGoalSolver(getProlog()));
+    }
+  }
+
+  @Test
+  public void headUnification() throws IOException {
+    addTheory("src/test/resources/test-functional.pl");
+    ((PrologImpl) getProlog()).setSolver(new CompilingGoalSolver(getProlog()));
+    assertOneSolution("unifyterms(X,X)");
+    assertEquals(term(123), assertOneSolution("unifyterms21(X,123)").binding("X"));
+    assertEquals(term(123), assertOneSolution("unifyterms22(123, X)").binding("X"));
+  }
+
+  @Test
+  public void compiledClause() {
+    final CompiledClause compiled = CompiledClause.of(new Clause(getProlog(), term("p(a, 1, X, _, f(Y), X) :- q(X), !, (r ; s), Y > 2")));
+    assertEquals(4, compiled.getGoals().length);
+    assertEquals(CompiledClause.GOAL_USER, compiled.getGoalKinds()[0]);
+    assertSame(PredicateKey.of("q", 1), compiled.getGoalKeys()[0]);
+    assertEquals(CompiledClause.GOAL_CUT, compiled.getGoalKinds()[1]);
+    assertEquals(CompiledClause.GOAL_INTERPRETED, compiled.getGoalKinds()[2]);
+    assertEquals(CompiledClause.GOAL_PRIMITIVE, compiled.getGoalKinds()[3]);
+  }
+
+  @Test
+  public void atomHeldByStructSubclass() {
+    final Clause clause = new Clause(getProlog(), term("p(a, 1)"));
+    final CompiledClause compiled = CompiledClause.of(clause);
+    for (String name : new String[] { "a", "b" }) {
+      final Term goal = getProlog().getTermFactory().normalize(
+          new Struct("p", new StructObject<Object>(name, new Object()), term(1)));
+      final boolean unified = compiled.unifyHead((Struct) goal, new Bindings(goal),
+          Bindings.createLazyCopy(clause.getBindings()), new GoalFrame(), getProlog().getUnifyer());
+      // Extensions of Struct unify with atoms by name, as with the interpreter
+      assertEquals(name.equals("a"), unified);
+    }
+  }
+
+}
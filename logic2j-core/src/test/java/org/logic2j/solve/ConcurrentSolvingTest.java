@@ -0,0 +1,130 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.logic2j.PrologTestBase;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.theory.DefaultTheoryManager;
+import org.logic2j.theory.TheoryManager;
+
+/**
+ * Stress one {@link org.logic2j.PrologImpl} with many threads solving at the same time.
+ */
+public class ConcurrentSolvingTest extends PrologTestBase {
+
+  private static final int NB_THREADS = 16;
+  private static final int NB_ROUNDS = 50;
+
+  private static final String[] GOALS = { "int10(X)", "int10(X), int10(Y)", "(X=1 ; X=2 ; X=3)",
+      "member(X, [a,b,c])", "append(X, Y, [1,2,3])", "int_list(5, X)", "perm([1,2,3], X)", "reverse([1,2,3], X)",
+      "findall(Z, int10(Z), X)", "big(X, 37)", "big(X, Y), Y > 95", "not(big(_, 1000))" };
+
+  @Test
+  public void sameSolutionsAsSequential() throws Exception {
+    loadTheories();
+    final List<List<Map<String, Term>>> expected = solveAll();
+    final ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int t = 0; t < NB_THREADS; t++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int round = 0; round < NB_ROUNDS; round++) {
+              assertEquals(expected, solveAll());
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void solveWhileAddingClauses() throws Exception {
+    loadTheories();
+    final TheoryManager manager = getProlog().getTheoryManager();
+    final ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int t = 0; t < NB_THREADS; t++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            int previous = 0;
+            for (int round = 0; round < NB_ROUNDS; round++) {
+              // Every solve sees the clauses added so far, and no clause is lost or seen twice
+              final int nb = getProlog().solve("added(X)").all().number();
+              assertTrue(nb + " after " + previous, nb >= previous && nb <= 2000);
+              previous = nb;
+              assertEquals(1, getProlog().solve("big(X, 37)").all().number());
+            }
+            return null;
+          }
+        }));
+      }
+      for (int i = 0; i < 2000; i++) {
+        manager.addTheory(((DefaultTheoryManager) manager).load("added(" + i + "). extra_" + i + "(" + i + ")."));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertNSolutions(2000, "added(X)");
+  }
+
+  private void loadTheories() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    final StringBuilder big = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      big.append("big(").append(i % 7).append(", ").append(i).append(").\n");
+    }
+    big.append("added(none) :- fail.\n");
+    final TheoryManager manager = getProlog().getTheoryManager();
+    manager.addTheory(((DefaultTheoryManager) manager).load(big));
+  }
+
+  private List<List<Map<String, Term>>> solveAll() {
+    final List<List<Map<String, Term>>> result = new ArrayList<List<Map<String, Term>>>();
+    for (String goal : GOALS) {
+      result.add(getProlog().solve(goal).all().bindings());
+    }
+    return result;
+  }
+
+}
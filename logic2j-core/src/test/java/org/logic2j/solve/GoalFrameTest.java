@@ -0,0 +1,210 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.logic2j.Prolog;
+import org.logic2j.PrologImpl;
+import org.logic2j.PrologImpl.InitLevel;
+import org.logic2j.TermFactory.FactoryMode;
+import org.logic2j.model.symbol.TLong;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.var.Binding;
+import org.logic2j.model.var.Bindings;
+
+/**
+ * The trail of a {@link GoalFrame}: bindings undone back to marks or trail sizes, and released without being undone.
+ */
+public class GoalFrameTest {
+
+  private final Prolog prolog = new PrologImpl(InitLevel.L0_BARE);
+
+  private final GoalFrame frame = new GoalFrame();
+
+  /**
+   * @return A new binding, bound to theValue and trailed.
+   */
+  private Binding bind(int theValue) {
+    return bind(new Binding(), theValue);
+  }
+
+  private Binding bind(Binding theBinding, int theValue) {
+    theBinding.bindTo(new TLong(theValue), null, this.frame);
+    return theBinding;
+  }
+
+  private Bindings bindings(String theText, long theStamp) {
+    final Term term = this.prolog.getTermFactory().normalize(
+        this.prolog.getTermFactory().create(theText, FactoryMode.ANY_TERM));
+    final Bindings result = new Bindings(term);
+    result.setStamp(theStamp);
+    return result;
+  }
+
+  private static void assertBound(int theValue, Binding theBinding) {
+    assertTrue(theBinding.isLiteral());
+    assertEquals(new TLong(theValue), theBinding.getTerm());
+  }
+
+  @Test
+  public void clearToMark() {
+    final Binding first = bind(1);
+    final Binding second = bind(2);
+    this.frame.markForNextBindings();
+    final Binding third = bind(3);
+    final Binding fourth = bind(4);
+    assertEquals(4, this.frame.getTrailSize());
+    this.frame.clearBindingsToMark();
+    assertTrue(third.isFree());
+    assertTrue(fourth.isFree());
+    assertBound(1, first);
+    assertBound(2, second);
+    assertEquals(2, this.frame.getTrailSize());
+    assertSame(second, this.frame.getTrailedBinding(1));
+  }
+
+  @Test
+  public void nestedMarks() {
+    this.frame.markForNextBindings();
+    final Binding outer = bind(1);
+    this.frame.markForNextBindings();
+    final Binding middle = bind(2);
+    this.frame.markForNextBindings();
+    // No binding at all after the innermost mark
+    this.frame.clearBindingsToMark();
+    assertBound(2, middle);
+    this.frame.markForNextBindings();
+    final Binding inner = bind(3);
+    this.frame.clearBindingsToMark();
+    assertTrue(inner.isFree());
+    assertBound(2, middle);
+    this.frame.clearBindingsToMark();
+    assertTrue(middle.isFree());
+    assertBound(1, outer);
+    // A freed binding may be bound and trailed again
+    bind(middle, 4);
+    assertEquals(2, this.frame.getTrailSize());
+    this.frame.clearBindingsToMark();
+    assertTrue(outer.isFree());
+    assertTrue(middle.isFree());
+    assertEquals(0, this.frame.getTrailSize());
+  }
+
+  @Test
+  public void clearToTrailSize() {
+    final List<Binding> bound = new ArrayList<Binding>();
+    for (int i = 0; i < 5; i++) {
+      bound.add(bind(i));
+    }
+    this.frame.clearBindingsToTrailSize(5);
+    assertEquals(5, this.frame.getTrailSize());
+    // Regardless of marks
+    this.frame.markForNextBindings();
+    this.frame.clearBindingsToTrailSize(2);
+    assertEquals(2, this.frame.getTrailSize());
+    assertBound(0, bound.get(0));
+    assertBound(1, bound.get(1));
+    for (int i = 2; i < 5; i++) {
+      assertTrue(bound.get(i).isFree());
+    }
+    try {
+      this.frame.getTrailedBinding(2);
+      fail("Bindings above the trail size should have been forgotten");
+    } catch (IndexOutOfBoundsException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void growth() {
+    // Well beyond the initial capacity of both the bindings and the marks
+    final int nb = 1000;
+    final List<Binding> bound = new ArrayList<Binding>();
+    for (int i = 0; i < nb; i++) {
+      bound.add(bind(i));
+      this.frame.markForNextBindings();
+      bound.add(bind(-i));
+    }
+    assertEquals(2 * nb, this.frame.getTrailSize());
+    for (int i = nb - 1; i >= 0; i--) {
+      this.frame.clearBindingsToMark();
+      assertEquals(2 * i + 1, this.frame.getTrailSize());
+      assertTrue(bound.get(2 * i + 1).isFree());
+      assertBound(i, bound.get(2 * i));
+      assertSame(bound.get(2 * i), this.frame.getTrailedBinding(2 * i));
+    }
+  }
+
+  @Test
+  public void discardMark() {
+    final Binding before = bind(1);
+    this.frame.markForNextBindings();
+    final Binding outer = bind(2);
+    this.frame.markForNextBindings();
+    final Binding inner = bind(3);
+    this.frame.discardMark();
+    // The bindings of the discarded mark now belong to the enclosing one
+    this.frame.clearBindingsToMark();
+    assertTrue(outer.isFree());
+    assertTrue(inner.isFree());
+    assertBound(1, before);
+    assertEquals(1, this.frame.getTrailSize());
+  }
+
+  @Test
+  public void releaseBindings() {
+    final Bindings old = bindings("f(A, B, C)", 1);
+    final Bindings young = bindings("g(D, E)", 5);
+    final Binding base = bind(old.getBinding((short) 0), 0);
+    final int trailSize = this.frame.getTrailSize();
+    final Binding old1 = bind(old.getBinding((short) 1), 1);
+    final Binding young0 = bind(young.getBinding((short) 0), 2);
+    final Binding old2 = bind(old.getBinding((short) 2), 3);
+    final Binding young1 = bind(young.getBinding((short) 1), 4);
+    // Not while a mark is above the trail size
+    this.frame.markForNextBindings();
+    assertEquals(0, this.frame.releaseBindings(trailSize, 5));
+    assertEquals(5, this.frame.getTrailSize());
+    this.frame.discardMark();
+    assertEquals(2, this.frame.releaseBindings(trailSize, 5));
+    // Older bindings kept in order, the released ones are not undone
+    assertEquals(3, this.frame.getTrailSize());
+    assertSame(base, this.frame.getTrailedBinding(0));
+    assertSame(old1, this.frame.getTrailedBinding(1));
+    assertSame(old2, this.frame.getTrailedBinding(2));
+    assertBound(2, young0);
+    assertBound(4, young1);
+    // Backtracking now only undoes the kept ones
+    this.frame.clearBindingsToTrailSize(trailSize);
+    assertTrue(old1.isFree());
+    assertTrue(old2.isFree());
+    assertBound(0, base);
+    assertBound(2, young0);
+    assertFalse(young1.isFree());
+  }
+
+}
@@ -0,0 +1,331 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.logic2j.Prolog;
+import org.logic2j.PrologImpl;
+import org.logic2j.PrologImplementor;
+import org.logic2j.PrologTestBase;
+import org.logic2j.PrologImpl.InitLevel;
+import org.logic2j.model.symbol.TLong;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.GoalFrame;
+import org.logic2j.solve.GoalSolver;
+import org.logic2j.solve.Solution;
+import org.logic2j.solve.holder.SolutionHolder;
+import org.logic2j.solve.holder.SolutionIterator;
+import org.logic2j.solve.holder.ThreadedSolutionIterator;
+import org.logic2j.solve.holder.UniqueSolutionHolder;
+import org.logic2j.solve.ioc.SolutionListener;
+import org.logic2j.theory.DefaultTheoryManager;
+
+/**
+ * Check {@link GoalSolver} on extremely trivial goals, and also check
+ * the {@link SolutionHolder} API to extract solutions (results and bindings).
+ * 
+ */
+public class GoalSolverTest extends PrologTestBase {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(GoalSolverTest.class);
+
+  private static final Runnable NOTHING = new Runnable() {
+
+    @Override
+    public void run() {
+      // Only tells when the executor's thread is free
+    }
+  };
+
+  @Test
+  public void testVeryBasic() {
+    assertEquals(null, assertOneSolution("X=X").binding("X"));
+  }
+
+  @Test
+  public void test_unique() {
+    final Prolog prolog = new PrologImpl(InitLevel.L2_BASE_LIBRARIES);
+    //
+    try {
+      prolog.solve("1=2").unique();
+      fail("There was no solution, unique() should have failed because it immediately solves the goal (unlike all()).");
+    } catch (Exception e) {
+      // Expected
+    }
+    try {
+      prolog.solve("2=2").unique().binding("X");
+      fail("There was one solution, but no variable X, variable() should have failed.");
+    } catch (Exception e) {
+      // Expected
+    }
+    // Value of a non-bound variable
+    assertEquals(null, prolog.solve("Z=Z").unique().binding("Z"));
+    assertEquals(null, prolog.solve("Z=Y").unique().binding("Z"));
+    assertEquals(null, prolog.solve("write(Z)").unique().binding("Z"));
+    // Obtain values of bound variables
+    final UniqueSolutionHolder unique = prolog.solve("X=2, Y=3").unique();
+    assertEquals(new TLong(2), unique.binding("X"));
+    assertEquals(new TLong(3), unique.binding("Y"));
+    // Obtain all variables
+    final Map<String, Term> vars = new HashMap<String, Term>();
+    vars.put("X", new TLong(2));
+    vars.put("Y", new TLong(3));
+    assertEquals(vars, unique.bindings());
+    // Obtain resolved term
+    assertEquals(prolog.term("2=2, 3=3"), unique.solution());
+  }
+
+  @Test
+  public void test_multiple() {
+    final Prolog prolog = new PrologImpl();
+    // Nothing should be actually solved by calling all()
+    prolog.solve("1=2").all();
+
+    try {
+      prolog.solve("2=2").all().binding("X");
+      fail("There was one solution, but no variable X, variable() should have failed.");
+    } catch (Exception e) {
+      // Expected
+    }
+    //
+    assertEquals(termList("a", "b"), prolog.solve("member(X, [a,b])").all().binding("X"));
+  }
+
+  @Test
+  public void test_iterator() throws InterruptedException {
+    final Prolog prolog = new PrologImpl();
+    Iterator<Solution> iterator = prolog.solve("member(X, [1,2,3,4])").iterator();
+    assertNotNull(iterator);
+    int counter = 0;
+    while (iterator.hasNext()) {
+      logger.info(" value of next()={}", iterator.next());
+      counter++;
+    }
+    assertEquals(4, counter);
+  }
+
+  @Test
+  public void test_iteratorAbandoned() {
+    final Prolog prolog = new PrologImpl();
+    final SolutionHolder holder = prolog.solve("member(X, [1,2,3,4])");
+    final int nbThreads = Thread.activeCount();
+    for (int i = 0; i < 100000; i++) {
+      final Iterator<Solution> iterator = holder.iterator();
+      assertEquals(new TLong(1), iterator.next().getBindings().get("X"));
+      if (i % 2 == 0) {
+        ((SolutionIterator) iterator).close();
+        assertFalse(iterator.hasNext());
+      }
+    }
+    // No producer thread was started, and abandoned iterators did not leave X bound
+    assertEquals(nbThreads, Thread.activeCount());
+    assertEquals(termList(1, 2, 3, 4), holder.all().binding("X"));
+  }
+
+  @Test(timeout = 10000)
+  public void test_iteratorOnExecutor() {
+    final Prolog prolog = new PrologImpl();
+    final SolutionHolder holder = prolog.solve("member(X, [1,2,3,4])");
+    // A single thread: a producer that did not finish would block the next ones
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      for (int i = 0; i < 100; i++) {
+        final ThreadedSolutionIterator iterator = holder.iterator(executor);
+        assertEquals(new TLong(1), iterator.next().getBindings().get("X"));
+        iterator.close();
+        assertFalse(iterator.hasNext());
+      }
+      int counter = 0;
+      for (final Iterator<Solution> iterator = holder.iterator(executor); iterator.hasNext(); iterator.next()) {
+        counter++;
+      }
+      assertEquals(4, counter);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void test_iteratorClosedBetweenSolutions() throws Exception {
+    addNat();
+    final SolutionHolder holder = getProlog().solve("X = a ; nat(X), X < 0");
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final ThreadedSolutionIterator iterator = holder.iterator(executor);
+      assertEquals(term("a"), iterator.next().getBindings().get("X"));
+      // The producer now searches forever for a second solution
+      iterator.close();
+      executor.submit(NOTHING).get();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void test_iteratorAbandonedBetweenSolutions() throws Exception {
+    addNat();
+    final SolutionHolder holder = getProlog().solve("X = a ; nat(X), X < 0");
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertEquals(term("a"), holder.iterator(executor).next().getBindings().get("X"));
+      // The iterator is dropped without being closed
+      final Future<?> marker = executor.submit(NOTHING);
+      while (!marker.isDone()) {
+        System.gc();
+        Thread.sleep(100);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void test_solveAsyncCanceled() throws Exception {
+    addNat();
+    final SolutionHolder holder = getProlog().solve("nat(X), X < 0");
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final CompletableFuture<List<Solution>> future = holder.solveAsync(executor);
+      Thread.sleep(200);
+      future.cancel(true);
+      executor.submit(NOTHING).get();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void test_solveAsync() throws Exception {
+    final Prolog prolog = new PrologImpl();
+    final SolutionHolder holder = prolog.solve("member(X, [1,2,3,4]), Y is X * 2");
+    final List<CompletableFuture<List<Solution>>> futures = new ArrayList<CompletableFuture<List<Solution>>>();
+    for (int i = 0; i < 1000; i++) {
+      futures.add(holder.solveAsync());
+    }
+    for (CompletableFuture<List<Solution>> future : futures) {
+      final List<Solution> solutions = future.get();
+      assertEquals(4, solutions.size());
+      assertEquals(new TLong(8), solutions.get(3).getBindings().get("Y"));
+    }
+    try {
+      prolog.solve("X is foo + 1").solveAsync().get();
+      fail("Evaluating an atom should have failed");
+    } catch (ExecutionException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Just count solutions - won't request user cancellation.
+   */
+  static class CountingListener implements SolutionListener {
+    int counter = 0;
+
+    @Override
+    public boolean onSolution() {
+      this.counter++;
+      return true;
+    }
+  }
+
+  /**
+   * Will request user cancellation after the first solution was found.
+   */
+  static class Max1Listener implements SolutionListener {
+    int counter = 0;
+
+    @Override
+    public boolean onSolution() {
+      this.counter++;
+      return false;
+    }
+  }
+
+  /**
+   * Will request user cancellation after 5 solutions were found.
+   *
+   */
+  static class Max5Listener implements SolutionListener {
+    int counter = 0;
+
+    @Override
+    public boolean onSolution() {
+      this.counter++;
+      boolean requestContinue = this.counter < 5;
+      return requestContinue;
+    }
+  }
+
+  @Test
+  public void test_userCancel() throws InterruptedException {
+    final PrologImplementor prolog = new PrologImpl();
+    Term term = prolog.term("member(X, [0,1,2,3,4,5,6,7,8,9])");
+    CountingListener listenerAll = new CountingListener();
+    getProlog().getSolver().solveGoal(new Bindings(term), new GoalFrame(), listenerAll);
+    assertEquals(10, listenerAll.counter);
+    //
+    Max1Listener listener1 = new Max1Listener();
+    getProlog().getSolver().solveGoal(new Bindings(term), new GoalFrame(), listener1);
+    assertEquals(1, listener1.counter);
+    //
+    Max5Listener listener5 = new Max5Listener();
+    getProlog().getSolver().solveGoal(new Bindings(term), new GoalFrame(), listener5);
+    assertEquals(5, listener5.counter);
+  }
+
+  @Test
+  public void test_backtrackAfterLongDeterministicIteration() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    assertNSolutions(2, "int10(X), count(0, 5000), X > 8");
+    assertEquals(termList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), getProlog().solve("int10(X), count(X, 3000)").all().binding("X"));
+    assertEquals(termList(3000, 3001), getProlog().solve("(N=3000 ; N=3001), count(0, 5000), count(0, N)").all().binding("N"));
+  }
+
+  @Test
+  public void test_firstArgumentIndex() {
+    final DefaultTheoryManager theoryManager = (DefaultTheoryManager) getProlog().getTheoryManager();
+    theoryManager.addTheory(theoryManager.load("q(a,1). q(X,2). q(b,3). q(a,4)."));
+    assertNSolutions(3, "q(a,N)", "X=a, q(X,N)", "X=Y, Y=a, q(X,N)");
+    assertNSolutions(2, "q(b,N)", "X=b, q(X,N)");
+    assertNSolutions(1, "q(zz,N)", "q(X,3)");
+    assertNSolutions(4, "q(X,N)", "q(_,N)");
+  }
+
+  private void addNat() {
+    final DefaultTheoryManager theoryManager = (DefaultTheoryManager) getProlog().getTheoryManager();
+    theoryManager.addTheory(theoryManager.load("nat(0). nat(N) :- nat(M), N is M + 1."));
+  }
+
+}
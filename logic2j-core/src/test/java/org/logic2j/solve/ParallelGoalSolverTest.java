@@ -0,0 +1,184 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.logic2j.PrologImpl;
+import org.logic2j.PrologTestBase;
+import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.ParallelGoalSolver.Delivery;
+import org.logic2j.solve.ioc.SolutionListener;
+import org.logic2j.theory.DefaultTheoryManager;
+import org.logic2j.theory.TheoryManager;
+
+/**
+ * Check that the {@link ParallelGoalSolver} finds the same solutions as the sequential one.
+ */
+public class ParallelGoalSolverTest extends PrologTestBase {
+
+  private static final String[] GOALS = { "int10(X)", "int10(X), int10(Y)", "(X=1 ; X=2 ; X=3)",
+      "(X=1 ; X=2), int10(Y), Y < 3", "member(X, [a,b,c])", "append(X, Y, [1,2,3])", "int_list(5, X)",
+      "list_length([a,b,c], X)", "perm([1,2,3], X)", "int10(X), X > 100", "reverse([1,2,3], X)",
+      "findall(Z, int10(Z), X)" };
+
+  @Test
+  public void orderedSameAsSequential() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    for (String goal : GOALS) {
+      final List<Map<String, Term>> expected = getProlog().solve(goal).all().bindings();
+      useParallelSolver(Delivery.ORDERED);
+      assertEquals(goal, expected, getProlog().solve(goal).all().bindings());
+      useSequentialSolver();
+    }
+  }
+
+  @Test
+  public void unorderedSameSolutions() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    for (String goal : GOALS) {
+      final List<String> expected = sortedSolutions(goal);
+      useParallelSolver(Delivery.UNORDERED);
+      assertEquals(goal, expected, sortedSolutions(goal));
+      useSequentialSolver();
+    }
+  }
+
+  @Test
+  public void userCancel() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    useParallelSolver(Delivery.ORDERED);
+    final Term term = getProlog().term("int10(X), int10(Y)");
+    final int[] counter = new int[1];
+    getProlog().getSolver().solveGoal(new Bindings(term), new GoalFrame(), new SolutionListener() {
+      @Override
+      public boolean onSolution() {
+        counter[0]++;
+        return counter[0] < 15;
+      }
+    });
+    assertEquals(15, counter[0]);
+  }
+
+  /**
+   * The infinite second branch fills its queue many times while the first one is delivered, then is canceled.
+   */
+  @Test
+  public void infiniteBranch() {
+    addNat();
+    useParallelSolver(Delivery.ORDERED);
+    final int nbSolutions = 10 * ParallelGoalSolver.QUEUE_CAPACITY;
+    final Term term = getProlog().term("(X = a ; nat(X))");
+    final Bindings bindings = new Bindings(term);
+    final List<Term> solutions = new ArrayList<Term>();
+    getProlog().getSolver().solveGoal(bindings, new GoalFrame(), new SolutionListener() {
+      @Override
+      public boolean onSolution() {
+        solutions.add(new Solution(bindings).getBinding("X"));
+        return solutions.size() < nbSolutions;
+      }
+    });
+    assertEquals(nbSolutions, solutions.size());
+    assertEquals(term("a"), solutions.get(0));
+    assertEquals(term(nbSolutions - 2), solutions.get(nbSolutions - 1));
+  }
+
+  /**
+   * The second branch searches forever without finding a solution: only the caller's cancellation stops it.
+   */
+  @Test(timeout = 60000)
+  public void callerCancel() throws InterruptedException {
+    addNat();
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    ((PrologImpl) getProlog()).setSolver(new ParallelGoalSolver(getProlog(), pool, Delivery.ORDERED));
+    final Term term = getProlog().term("(X = a ; nat(X), X < 0)");
+    final GoalFrame frame = new GoalFrame();
+    final Thread canceler = new Thread() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(200);
+        } catch (InterruptedException e) {
+          // Cancel now
+        }
+        frame.raiseUserCanceled();
+      }
+    };
+    final int[] counter = new int[1];
+    canceler.start();
+    getProlog().getSolver().solveGoal(new Bindings(term), frame, new SolutionListener() {
+      @Override
+      public boolean onSolution() {
+        counter[0]++;
+        return true;
+      }
+    });
+    canceler.join();
+    assertEquals(1, counter[0]);
+    assertTrue("Branches should stop once canceled", pool.awaitQuiescence(10, TimeUnit.SECONDS));
+    pool.shutdown();
+  }
+
+  @Test
+  public void exceptionInBranch() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    useParallelSolver(Delivery.ORDERED);
+    try {
+      getProlog().solve("int10(X), call(Y)").all().number();
+      fail("Calling a free variable should have failed");
+    } catch (InvalidTermException e) {
+      // Expected
+    }
+  }
+
+  private List<String> sortedSolutions(String theGoal) {
+    final List<String> result = new ArrayList<String>();
+    for (Map<String, Term> solution : getProlog().solve(theGoal).all().bindings()) {
+      result.add(String.valueOf(solution));
+    }
+    Collections.sort(result);
+    return result;
+  }
+
+  private void addNat() {
+    final TheoryManager manager = getProlog().getTheoryManager();
+    manager.addTheory(((DefaultTheoryManager) manager).load("nat(0). nat(N) :- nat(M), N is M + 1."));
+  }
+
+  private void useParallelSolver(Delivery theDelivery) {
+    ((PrologImpl) getProlog()).setSolver(new ParallelGoalSolver(getProlog(), new ForkJoinPool(4), theDelivery));
+  }
+
+  private void useSequentialSolver() {
+    ((PrologImpl) getProlog()).setSolver(new StacklessGoalSolver(getProlog()));
+  }
+
+}
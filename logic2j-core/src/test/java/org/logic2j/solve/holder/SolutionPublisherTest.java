@@ -0,0 +1,165 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve.holder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.logic2j.PrologTestBase;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.solve.Solution;
+
+/**
+ * Check the demand-driven {@link SolutionPublisher}.
+ */
+public class SolutionPublisherTest extends PrologTestBase {
+
+  /**
+   * Runs in the calling thread, to make the tests deterministic.
+   */
+  private static final Executor SAME_THREAD = new Executor() {
+    @Override
+    public void execute(Runnable theCommand) {
+      theCommand.run();
+    }
+  };
+
+  /**
+   * Record all signals.
+   */
+  static class RecordingSubscriber implements Flow.Subscriber<Solution> {
+    final List<Term> values = new ArrayList<Term>();
+    final CountDownLatch terminated = new CountDownLatch(1);
+    Flow.Subscription subscription;
+    boolean completed = false;
+    Throwable error = null;
+
+    @Override
+    public void onSubscribe(Flow.Subscription theSubscription) {
+      this.subscription = theSubscription;
+    }
+
+    @Override
+    public void onNext(Solution theSolution) {
+      this.values.add(theSolution.getBindings().get("X"));
+    }
+
+    @Override
+    public void onError(Throwable theError) {
+      this.error = theError;
+      this.terminated.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      this.completed = true;
+      this.terminated.countDown();
+    }
+  }
+
+  @Test
+  public void demandDriven() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    final RecordingSubscriber subscriber = new RecordingSubscriber();
+    getProlog().solve("int10(X)").publisher(SAME_THREAD).subscribe(subscriber);
+    assertEquals(0, subscriber.values.size());
+    subscriber.subscription.request(3);
+    assertEquals(termList(1, 2, 3), subscriber.values);
+    assertFalse(subscriber.completed);
+    subscriber.subscription.request(2);
+    assertEquals(termList(1, 2, 3, 4, 5), subscriber.values);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertEquals(10, subscriber.values.size());
+    assertTrue(subscriber.completed);
+    assertNull(subscriber.error);
+  }
+
+  @Test
+  public void requestFromOnNext() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    final RecordingSubscriber subscriber = new RecordingSubscriber() {
+      @Override
+      public void onNext(Solution theSolution) {
+        super.onNext(theSolution);
+        // One at a time, re-entrantly
+        this.subscription.request(1);
+      }
+    };
+    getProlog().solve("int10(X), int10(Y)").publisher(SAME_THREAD).subscribe(subscriber);
+    subscriber.subscription.request(1);
+    assertEquals(100, subscriber.values.size());
+    assertTrue(subscriber.completed);
+  }
+
+  @Test
+  public void cancel() throws IOException {
+    addTheory("src/test/resources/test-data.pl");
+    final RecordingSubscriber subscriber = new RecordingSubscriber() {
+      @Override
+      public void onNext(Solution theSolution) {
+        super.onNext(theSolution);
+        if (this.values.size() == 5) {
+          this.subscription.cancel();
+        }
+      }
+    };
+    getProlog().solve("int10(X), int10(Y)").publisher(SAME_THREAD).subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertEquals(5, subscriber.values.size());
+    subscriber.subscription.request(10);
+    assertEquals(5, subscriber.values.size());
+    assertFalse(subscriber.completed);
+    assertNull(subscriber.error);
+  }
+
+  @Test
+  public void errors() {
+    final RecordingSubscriber subscriber = new RecordingSubscriber();
+    getProlog().solve("X is foo + 1").publisher(SAME_THREAD).subscribe(subscriber);
+    subscriber.subscription.request(1);
+    assertTrue(subscriber.error instanceof RuntimeException);
+    // Invalid request
+    final RecordingSubscriber subscriber2 = new RecordingSubscriber();
+    getProlog().solve("X = 1").publisher(SAME_THREAD).subscribe(subscriber2);
+    subscriber2.subscription.request(0);
+    assertTrue(subscriber2.error instanceof IllegalArgumentException);
+  }
+
+  @Test
+  public void onDefaultExecutor() throws Exception {
+    addTheory("src/test/resources/test-data.pl");
+    final RecordingSubscriber subscriber = new RecordingSubscriber();
+    getProlog().solve("int10(X)").publisher().subscribe(subscriber);
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+    assertEquals(10, subscriber.values.size());
+    assertTrue(subscriber.completed);
+  }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.solve.holder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.logic2j.PrologTestBase;
+import org.logic2j.model.exception.InvalidTermException;
+import org.logic2j.model.symbol.TLong;
+import org.logic2j.model.symbol.Term;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.solve.Solution;
+
+/**
+ * Check streams of solutions, see {@link SolutionSpliterator}.
+ */
+public class SolutionSpliteratorTest extends PrologTestBase {
+
+  @Override
+  @Before
+  public void setUp() {
+    super.setUp();
+    try {
+      addTheory("src/test/resources/test-data.pl");
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  public void sequential() {
+    final List<Solution> solutions = getProlog().solve("int10(X), Y is X * 2").stream().collect(Collectors.toList());
+    assertEquals(10, solutions.size());
+    assertEquals(term(20), solutions.get(9).getBindings().get("Y"));
+    assertEquals(getProlog().solve("int10(X)").all().binding("X"),
+        getProlog().solve("int10(X)").bindingStream("X").collect(Collectors.toList()));
+  }
+
+  @Test
+  public void lazy() {
+    // A million solutions, only the first ones are computed
+    assertEquals(termList(1, 2, 3), getProlog().solve("int100(X), int100(Y), int100(Z)").bindingStream("Z").limit(3)
+        .collect(Collectors.toList()));
+  }
+
+  @Test
+  public void parallelSameAsSequential() {
+    final String goal = "int100(X), int10(Y), Z is X * Y";
+    final List<Term> expected = getProlog().solve(goal).all().binding("Z");
+    assertEquals(1000, expected.size());
+    assertEquals(expected, getProlog().solve(goal).bindingStream("Z").parallel().collect(Collectors.toList()));
+    long sum = 0;
+    for (Term term : expected) {
+      sum += ((TLong) term).longValue();
+    }
+    assertEquals(sum, getProlog().solve(goal).bindingStream("Z").parallel().mapToLong(new ToLongFunction<Term>() {
+      @Override
+      public long applyAsLong(Term theTerm) {
+        return ((TLong) theTerm).longValue();
+      }
+    }).sum());
+  }
+
+  @Test
+  public void splitting() {
+    final Function<Bindings, Term> extractor = new Function<Bindings, Term>() {
+      @Override
+      public Term apply(Bindings theBindings) {
+        return theBindings.getReferrer();
+      }
+    };
+    final Spliterator<Term> ten = new SolutionSpliterator<Term>(getProlog(), new Bindings(term("int10(X), X > 2")), extractor);
+    final Spliterator<Term> firstFive = ten.trySplit();
+    assertNotNull(firstFive);
+    assertEquals(5, count(ten.trySplit()) + count(firstFive));
+    assertEquals(3, count(ten));
+    // Primitives are not split, neither are clauses with a cut
+    assertNull(new SolutionSpliterator<Term>(getProlog(), new Bindings(term("X = 1")), extractor).trySplit());
+    assertNull(new SolutionSpliterator<Term>(getProlog(), new Bindings(term("int_list(3, L)")), extractor).trySplit());
+    assertNull(new SolutionSpliterator<Term>(getProlog(), new Bindings(term("int10(X), !")), extractor).trySplit());
+  }
+
+  @Test
+  public void unknownVariable() {
+    try {
+      getProlog().solve("int10(X)").bindingStream("Y");
+      fail("There is no variable Y");
+    } catch (InvalidTermException e) {
+      // Expected
+    }
+  }
+
+  private static long count(Spliterator<Term> theSpliterator) {
+    final long[] counter = new long[1];
+    while (theSpliterator.tryAdvance(new Consumer<Term>() {
+      @Override
+      public void accept(Term theTerm) {
+        counter[0]++;
+      }
+    })) {
+      // Just count
+    }
+    return counter[0];
+  }
+
+}
@@ -30,6 +30,8 @@ import org.logic2j.PrologWithDataSourcesTestBase;
 import org.logic2j.library.impl.rdb.RDBBase;
 import org.logic2j.model.Clause;
 import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.TString;
+import org.logic2j.model.symbol.Term;
 
 public class RDBClauseProviderTest extends PrologWithDataSourcesTestBase {
 
@@ -100,4 +102,19 @@ public class RDBClauseProviderTest extends PrologWithDataSourcesTestBase {
         assertNoSolution("zipcodesdb_zip_code(X, X)");
     }
 
+    @Test
+    public void stringsAreNotAtoms() {
+        for (Term zip : assertNSolutions(79, "zipcodesdb_zip_code(X, 34.0)").binding("X")) {
+            assertEquals(TString.class, zip.getClass());
+            assertEquals('"' + ((TString) zip).getValue() + '"', zip.toString());
+        }
+        assertNoSolution("zipcodesdb_zip_code(X, 34.0), X = '90008'");
+    }
+
+    @Test
+    public void atomColumns() {
+        clauseProvider.addAtomColumn("zip_code");
+        assertEquals(new Struct("90008"), assertNSolutions(4, "zipcodesdb_zip_code(X, 34.0), X = '90008'").binding("X").get(0));
+    }
+
 }
\ No newline at end of file
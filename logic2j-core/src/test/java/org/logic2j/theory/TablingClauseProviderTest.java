@@ -0,0 +1,124 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.theory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.logic2j.PrologImpl;
+import org.logic2j.PrologTestBase;
+import org.logic2j.solve.ParallelGoalSolver;
+
+/**
+ * Check predicates declared with ":- table Name/Arity.", see {@link TablingClauseProvider}.
+ */
+public class TablingClauseProviderTest extends PrologTestBase {
+
+  private TablingClauseProvider tabling;
+
+  @Override
+  @Before
+  public void setUp() {
+    super.setUp();
+    try {
+      addTheory("src/test/resources/test-tabling.pl");
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    this.tabling = ((DefaultTheoryManager) getProlog().getTheoryManager()).getTabling();
+  }
+
+  @Test
+  public void leftRecursion() {
+    assertEquals(termList("b", "c", "a", "d"), assertNSolutions(4, "path(a, X)").binding("X"));
+    assertNSolutions(0, "path(d, X)");
+    assertNSolutions(12, "path(X, Y)");
+    assertOneSolution("path(a, d)");
+    assertOneSolution("path(b, b)");
+  }
+
+  @Test
+  public void mutualLeftRecursion() {
+    assertNSolutions(4, "reach1(a, X)");
+    assertNSolutions(4, "reach2(b, X)");
+    assertNSolutions(12, "reach1(X, Y)");
+  }
+
+  @Test
+  public void answersAreReused() {
+    assertEquals(term(832040), assertOneSolution("fib(30, F)").binding("F"));
+    assertEquals(31, this.tabling.getNbTables());
+    assertEquals(term(832040), assertOneSolution("fib(30, F)").binding("F"));
+    assertEquals(31, this.tabling.getNbTables());
+    assertEquals(31, this.tabling.getNbAnswers());
+  }
+
+  @Test
+  public void invalidatedWhenTheoryChanges() {
+    assertNSolutions(4, "path(a, X)");
+    final TheoryManager manager = getProlog().getTheoryManager();
+    manager.addTheory(((DefaultTheoryManager) manager).load("edge(d, e)."));
+    assertEquals(0, this.tabling.getNbTables());
+    assertNSolutions(5, "path(a, X)");
+  }
+
+  @Test
+  public void eviction() {
+    this.tabling.setMaxAnswers(10);
+    assertNSolutions(4, "path(a, X)");
+    assertNSolutions(4, "path(b, X)");
+    assertEquals(8, this.tabling.getNbAnswers());
+    assertNSolutions(4, "path(c, X)");
+    // The least recently used table, path(a, X), was evicted
+    assertEquals(1, this.tabling.getNbEvictions());
+    assertEquals(2, this.tabling.getNbTables());
+    assertEquals(8, this.tabling.getNbAnswers());
+    assertNSolutions(4, "path(a, X)");
+    assertEquals(2, this.tabling.getNbEvictions());
+  }
+
+  @Test
+  public void variantsAreStructural() {
+    assertOneSolution("ab(f('A', 'B'))");
+    assertNoSolution("ab(f('A'', ''B'))");
+    assertEquals(2, this.tabling.getNbTables());
+  }
+
+  /**
+   * Branches of the parallel solver call tabled predicates while the calling thread evaluates a table.
+   */
+  @Test(timeout = 60000)
+  public void parallelSolver() {
+    ((PrologImpl) getProlog()).setSolver(new ParallelGoalSolver(getProlog()));
+    assertEquals(term(832040), assertOneSolution("small_fib(30, F)").binding("F"));
+    assertNSolutions(3, "small_fib(N, F)");
+  }
+
+  /**
+   * Directives other than table are handed to {@link org.logic2j.model.Clause} as they were before tabling.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void otherDirectivesAsBefore() {
+    final TheoryManager manager = getProlog().getTheoryManager();
+    manager.addTheory(((DefaultTheoryManager) manager).load(":- dynamic(edge/2)."));
+  }
+
+}
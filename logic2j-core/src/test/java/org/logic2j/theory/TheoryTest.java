@@ -0,0 +1,139 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.theory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.logic2j.PrologTestBase;
+import org.logic2j.PrologImpl.InitLevel;
+import org.logic2j.library.impl.core.CoreLibrary;
+import org.logic2j.model.Clause;
+import org.logic2j.model.symbol.Struct;
+import org.logic2j.model.symbol.TNumber;
+import org.logic2j.model.var.Bindings;
+import org.logic2j.theory.DefaultTheoryManager;
+import org.logic2j.theory.TheoryContent;
+import org.logic2j.theory.TheoryManager;
+
+/**
+ */
+public class TheoryTest extends PrologTestBase {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TheoryTest.class);
+
+  @Override
+  protected InitLevel initLevel() {
+    return InitLevel.L0_BARE;
+  }
+
+  @Test
+  public void testLoadTheory() {
+    final TheoryManager theoryManager = new DefaultTheoryManager(getProlog());
+    final TheoryContent content = theoryManager.load(new CoreLibrary(getProlog()));
+    logger.info("Loaded theory: {}", content);
+  }
+
+  @Test
+  public void testFirstArgumentIndex() {
+    final DefaultTheoryManager theoryManager = new DefaultTheoryManager(getProlog());
+    final TheoryContent content = theoryManager.load("p(a,1). p(X,2). p(b,3). p(f(x),4). p(a,5). p(1,6). p(f(y,z),7). p(1.0,8).");
+    assertEquals(Arrays.asList(1L, 2L, 5L), secondArgs(content, "p(a,Y)"));
+    assertEquals(Arrays.asList(2L, 3L), secondArgs(content, "p(b,Y)"));
+    assertEquals(Arrays.asList(2L), secondArgs(content, "p(c,Y)"));
+    assertEquals(Arrays.asList(2L, 4L), secondArgs(content, "p(f(_),Y)"));
+    assertEquals(Arrays.asList(2L, 7L), secondArgs(content, "p(f(_,_),Y)"));
+    assertEquals(Arrays.asList(2L, 6L), secondArgs(content, "p(1,Y)"));
+    assertEquals(Arrays.asList(2L, 8L), secondArgs(content, "p(1.0,Y)"));
+    assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), secondArgs(content, "p(_,Y)"));
+    assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), secondArgs(content, "p(X,Y)"));
+    // Clauses added later are indexed too, and remain in source order
+    content.add(new Clause(getProlog(), term("p(a,9)")));
+    content.add(new Clause(getProlog(), term("p(Z,10)")));
+    assertEquals(Arrays.asList(1L, 2L, 5L, 9L, 10L), secondArgs(content, "p(a,Y)"));
+    assertEquals(Arrays.asList(2L, 10L), secondArgs(content, "p(c,Y)"));
+  }
+
+  @Test
+  public void testJustInTimeIndex() {
+    final DefaultTheoryManager theoryManager = new DefaultTheoryManager(getProlog());
+    final StringBuilder theory = new StringBuilder();
+    final String[] statuses = { "'ACTIVE'", "'CLOSED'", "'PENDING'", "'SUSPENDED'" };
+    for (int i = 0; i < 200; i++) {
+      theory.append("comm_status(").append(i).append(", ").append(statuses[i % statuses.length]).append(").\n");
+    }
+    theory.append("comm_status(X, 'ACTIVE').\n");
+    final TheoryContent content = theoryManager.load(theory);
+    final Struct goal = (Struct) term("comm_status(X, 'PENDING')");
+    for (int i = 0; i < PredicateClauses.JIT_MIN_BOUND_CALLS - 1; i++) {
+      assertEquals(201, count(content.find(goal, new Bindings(goal))));
+    }
+    IndexStatistics stats = content.getIndexStatistics("comm_status/2");
+    assertEquals(false, stats.isIndexed(1));
+    // Enough calls with the second argument bound: it gets indexed
+    assertEquals(50, count(content.find(goal, new Bindings(goal))));
+    stats = content.getIndexStatistics("comm_status/2");
+    logger.info("Index statistics: {}", stats);
+    assertEquals(true, stats.isIndexed(0));
+    assertEquals(true, stats.isIndexed(1));
+    assertEquals(1, stats.getNbIndexesBuilt());
+    assertEquals(PredicateClauses.JIT_MIN_BOUND_CALLS, stats.getNbBoundCalls(1));
+    // Candidates remain in source order
+    final List<Long> firstArgs = new ArrayList<Long>();
+    for (Clause clause : content.find(goal, new Bindings(goal))) {
+      if (clause.getHead().getArg(0) instanceof TNumber) {
+        firstArgs.add(((TNumber) clause.getHead().getArg(0)).longValue());
+      }
+    }
+    assertEquals(50, firstArgs.size());
+    assertEquals(Long.valueOf(2), firstArgs.get(0));
+    assertEquals(Long.valueOf(6), firstArgs.get(1));
+    assertEquals(Long.valueOf(198), firstArgs.get(49));
+    assertEquals(2, count(content.find((Struct) term("comm_status(5, 'ACTIVE')"), null)));
+    // Not used any longer: the index is dropped
+    final Struct byId = (Struct) term("comm_status(7, S)");
+    for (long i = 0; i < 2 * PredicateClauses.JIT_DROP_AFTER_CALLS; i++) {
+      content.find(byId, new Bindings(byId));
+    }
+    stats = content.getIndexStatistics("comm_status/2");
+    assertEquals(false, stats.isIndexed(1));
+    assertEquals(1, stats.getNbIndexesDropped());
+    assertEquals(true, stats.isIndexed(0));
+  }
+
+  private int count(Iterable<Clause> theClauses) {
+    int counter = 0;
+    for (@SuppressWarnings("unused") Clause clause : theClauses) {
+      counter++;
+    }
+    return counter;
+  }
+
+  private List<Long> secondArgs(TheoryContent theContent, String theGoal) {
+    final Struct goal = (Struct) term(theGoal);
+    final List<Long> result = new ArrayList<Long>();
+    for (Clause clause : theContent.find(goal, new Bindings(goal))) {
+      result.add(((TNumber) clause.getHead().getArg(1)).longValue());
+    }
+    return result;
+  }
+
+}
@@ -5,6 +5,27 @@
 */
 
 
+% Deep recursion: build and measure long lists
+
+int_list(0, []) :- !.
+int_list(N, [N|T]) :- M is N-1, int_list(M, T).
+
+list_length([], 0).
+list_length([_|T], N) :- list_length(T, M), N is M+1.
+
+long_list_length(N, Len) :- int_list(N, L), list_length(L, Len).
+
+% Tail recursion: count from I up to N
+
+count(N, N) :- !.
+count(I, N) :- I1 is I+1, count(I1, N).
+
+% Primitive-heavy iteration: arithmetic, comparisons and unification at every step
+
+prim_loop(N, N) :- !.
+prim_loop(I, N) :- I < N, J is I*2, J > I-1, K is J-I, K = I, I1 is I+1, prim_loop(I1, N).
+
+
 int10(1).
 int10(2).
 int10(3).
@@ -0,0 +1,50 @@
+/*
+
+  Tabled predicates.
+
+*/
+
+
+% Left recursion over a cyclic graph: would loop forever without tabling
+
+:- table path/2.
+
+path(X, Y) :- path(X, Z), edge(Z, Y).
+path(X, Y) :- edge(X, Y).
+
+edge(a, b).
+edge(b, c).
+edge(c, a).
+edge(c, d).
+
+% Mutual left recursion
+
+:- table [reach1/2, reach2/2].
+
+reach1(X, Y) :- reach2(X, Z), edge(Z, Y).
+reach1(X, Y) :- edge(X, Y).
+reach2(X, Y) :- reach1(X, Y).
+
+% Exponential without tabling
+
+:- table fib/2.
+
+fib(0, 0).
+fib(1, 1).
+fib(N, F) :- N > 1, N1 is N-1, N2 is N-2, fib(N1, F1), fib(N2, F2), F is F1+F2.
+
+% Variants are keyed on their structure, not their text: f('A'', ''B') prints as f('A', 'B')
+
+:- table ab/1.
+
+ab(f('A', 'B')).
+
+% Evaluated by the parallel solver, the branches of small(N) call fib/2 from other threads
+
+:- table small_fib/2.
+
+small_fib(N, F) :- small(N), fib(N, F).
+
+small(10).
+small(20).
+small(30).
@@ -0,0 +1,327 @@
+/*
+ * logic2j - "Bring Logic to your Java" - Copyright (C) 2011 Laurent.Tettoni@gmail.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.logic2j.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates, for each library class declaring methods annotated with @Primitive, a class "&lt;Library&gt;_Primitives"
+ * in the same package that implements org.logic2j.library.mgmt.PrimitiveRegistry: it registers the primitives
+ * (and their synonyms) with a dispatcher that invokes them by direct calls, so that the library manager
+ * needs no reflection at startup, and no MethodHandle when solving.
+ * The checks of the signatures that the library manager would do at runtime are done here, at compile time.
+ * Only top-level, non-abstract classes implementing PLibrary are processed; others keep being loaded by reflection.
+ */
+@SupportedAnnotationTypes(PrimitiveProcessor.PRIMITIVE)
+public class PrimitiveProcessor extends AbstractProcessor {
+
+  static final String PRIMITIVE = "org.logic2j.library.mgmt.Primitive";
+  private static final String PLIBRARY = "org.logic2j.library.PLibrary";
+  private static final String SOLUTION_LISTENER = "org.logic2j.solve.ioc.SolutionListener";
+  private static final String GOAL_FRAME = "org.logic2j.solve.GoalFrame";
+  private static final String BINDINGS = "org.logic2j.model.var.Bindings";
+  private static final String TERM = "org.logic2j.model.symbol.Term";
+  private static final String SUFFIX = "_Primitives";
+  private static final String VARARG_ARITY_INDICATOR = "N";
+  private static final int NB_EXTRA_PARAMS = 3;
+
+  /**
+   * Library classes already generated, across rounds.
+   */
+  private final Set<String> generated = new HashSet<String>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> theAnnotations, RoundEnvironment theRoundEnv) {
+    final TypeElement primitive = processingEnv.getElementUtils().getTypeElement(PRIMITIVE);
+    if (primitive == null) {
+      return false;
+    }
+    final Set<TypeElement> libraries = new LinkedHashSet<TypeElement>();
+    for (Element element : theRoundEnv.getElementsAnnotatedWith(primitive)) {
+      final Element enclosing = element.getEnclosingElement();
+      if (enclosing instanceof TypeElement && isGeneratedFor((TypeElement) enclosing)) {
+        libraries.add((TypeElement) enclosing);
+      }
+    }
+    for (TypeElement library : libraries) {
+      if (this.generated.add(library.getQualifiedName().toString())) {
+        generate(library, primitive);
+      }
+    }
+    // @Primitive is only meant for this processor: claim it
+    return theAnnotations.contains(primitive);
+  }
+
+  private boolean isGeneratedFor(TypeElement theType) {
+    if (theType.getNestingKind() != NestingKind.TOP_LEVEL || theType.getModifiers().contains(Modifier.ABSTRACT)) {
+      return false;
+    }
+    final TypeElement pLibrary = processingEnv.getElementUtils().getTypeElement(PLIBRARY);
+    return pLibrary != null
+        && processingEnv.getTypeUtils().isAssignable(theType.asType(), processingEnv.getTypeUtils().erasure(pLibrary.asType()));
+  }
+
+  /**
+   * One annotated method of a library.
+   */
+  private static class PrimitiveMethod {
+    ExecutableElement method;
+    String type;
+    List<String> keys = new ArrayList<String>();
+    String name;
+    boolean varargs;
+    List<String> argumentCasts = new ArrayList<String>();
+  }
+
+  private void generate(TypeElement theLibrary, TypeElement thePrimitive) {
+    final Elements elements = processingEnv.getElementUtils();
+    final List<PrimitiveMethod> methods = new ArrayList<PrimitiveMethod>();
+    boolean valid = true;
+    // All public methods, including inherited ones, as Class.getMethods() at runtime
+    for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(theLibrary))) {
+      final AnnotationMirror annotation = annotationOf(method, thePrimitive);
+      if (annotation == null || !method.getModifiers().contains(Modifier.PUBLIC)) {
+        continue;
+      }
+      final PrimitiveMethod primitiveMethod = describe(method, annotation);
+      if (primitiveMethod == null) {
+        valid = false;
+      } else {
+        methods.add(primitiveMethod);
+      }
+    }
+    if (!valid) {
+      return;
+    }
+    final PackageElement pkg = elements.getPackageOf(theLibrary);
+    final String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    final String libraryName = theLibrary.getSimpleName().toString();
+    final String className = libraryName + SUFFIX;
+    final String qualifiedName = packageName.isEmpty() ? className : packageName + '.' + className;
+    try {
+      final JavaFileObject source = processingEnv.getFiler().createSourceFile(qualifiedName, theLibrary);
+      final PrintWriter out = new PrintWriter(source.openWriter());
+      try {
+        write(out, packageName, libraryName, className, methods);
+      } finally {
+        out.close();
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Kind.ERROR, "Could not generate " + qualifiedName + ": " + e, theLibrary);
+    }
+  }
+
+  private AnnotationMirror annotationOf(ExecutableElement theMethod, TypeElement thePrimitive) {
+    for (AnnotationMirror mirror : theMethod.getAnnotationMirrors()) {
+      if (processingEnv.getTypeUtils().isSameType(mirror.getAnnotationType(), thePrimitive.asType())) {
+        return mirror;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Check the signature of an annotated method, as DefaultLibraryManager does at runtime.
+   * @return null when invalid, an error was reported.
+   */
+  private PrimitiveMethod describe(ExecutableElement theMethod, AnnotationMirror theAnnotation) {
+    final Types types = processingEnv.getTypeUtils();
+    final PrimitiveMethod result = new PrimitiveMethod();
+    result.method = theMethod;
+    final TypeMirror returnType = theMethod.getReturnType();
+    if (returnType.getKind() == TypeKind.VOID) {
+      result.type = "PREDICATE";
+    } else if (types.isSameType(returnType, typeOf(TERM))) {
+      result.type = "FUNCTOR";
+    } else {
+      return error(theMethod, "Unexpected return type " + returnType + " for primitive, must be void or " + TERM);
+    }
+    final List<? extends VariableElement> params = theMethod.getParameters();
+    final String[] expected = { SOLUTION_LISTENER, GOAL_FRAME, BINDINGS };
+    for (int i = 0; i < NB_EXTRA_PARAMS; i++) {
+      if (i >= params.size() || !types.isAssignable(params.get(i).asType(), typeOf(expected[i]))) {
+        return error(theMethod, "Argument type at index " + i + " of primitive not of proper " + expected[i]);
+      }
+    }
+    if (params.size() > NB_EXTRA_PARAMS && types.isSameType(params.get(NB_EXTRA_PARAMS).asType(), types.getArrayType(typeOf(TERM)))) {
+      result.varargs = true;
+    } else {
+      for (int i = NB_EXTRA_PARAMS; i < params.size(); i++) {
+        final TypeMirror paramType = types.erasure(params.get(i).asType());
+        if (!types.isAssignable(paramType, typeOf(TERM))) {
+          return error(theMethod, "Argument type at index " + i + " of primitive not of proper " + TERM);
+        }
+        result.argumentCasts.add(types.isSameType(paramType, typeOf(TERM)) ? "" : "(" + paramType + ") ");
+      }
+    }
+    String name = "";
+    final List<String> synonyms = new ArrayList<String>();
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : processingEnv.getElementUtils()
+        .getElementValuesWithDefaults(theAnnotation).entrySet()) {
+      final String attribute = entry.getKey().getSimpleName().toString();
+      if ("name".equals(attribute)) {
+        name = (String) entry.getValue().getValue();
+      } else if ("synonyms".equals(attribute)) {
+        for (Object synonym : (List<?>) entry.getValue().getValue()) {
+          synonyms.add((String) ((AnnotationValue) synonym).getValue());
+        }
+      }
+    }
+    if (name.isEmpty()) {
+      name = theMethod.getSimpleName().toString();
+    }
+    result.name = name;
+    final String arityIndicator = result.varargs ? VARARG_ARITY_INDICATOR : Integer.toString(params.size() - NB_EXTRA_PARAMS);
+    result.keys.add(name + '/' + arityIndicator);
+    for (String synonym : synonyms) {
+      result.keys.add(synonym + '/' + arityIndicator);
+    }
+    return result;
+  }
+
+  private TypeMirror typeOf(String theQualifiedName) {
+    return processingEnv.getTypeUtils().erasure(processingEnv.getElementUtils().getTypeElement(theQualifiedName).asType());
+  }
+
+  private PrimitiveMethod error(ExecutableElement theMethod, String theMessage) {
+    processingEnv.getMessager().printMessage(Kind.ERROR, theMessage, theMethod);
+    return null;
+  }
+
+  private static void write(PrintWriter out, String thePackage, String theLibrary, String theClass,
+      List<PrimitiveMethod> theMethods) {
+    if (!thePackage.isEmpty()) {
+      out.println("package " + thePackage + ';');
+      out.println();
+    }
+    out.println("import org.logic2j.library.PLibrary;");
+    out.println("import org.logic2j.library.mgmt.LibraryContent;");
+    out.println("import org.logic2j.library.mgmt.PrimitiveDispatcher;");
+    out.println("import org.logic2j.library.mgmt.PrimitiveInfo;");
+    out.println("import org.logic2j.library.mgmt.PrimitiveInfo.PrimitiveType;");
+    out.println("import org.logic2j.library.mgmt.PrimitiveRegistry;");
+    out.println("import org.logic2j.model.symbol.Struct;");
+    out.println("import org.logic2j.model.symbol.Term;");
+    out.println("import org.logic2j.model.var.Bindings;");
+    out.println("import org.logic2j.solve.GoalFrame;");
+    out.println("import org.logic2j.solve.ioc.SolutionListener;");
+    out.println();
+    out.println("/**");
+    out.println(" * Primitives of {@link " + theLibrary + "}, generated by " + PrimitiveProcessor.class.getName() + " - do not edit.");
+    out.println(" */");
+    out.println("public final class " + theClass + " implements PrimitiveRegistry {");
+    out.println();
+    out.println("  @Override");
+    out.println("  public void registerPrimitives(PLibrary theLibrary, LibraryContent theContent) {");
+    out.println("    final Dispatcher dispatcher = new Dispatcher((" + theLibrary + ") theLibrary);");
+    for (int i = 0; i < theMethods.size(); i++) {
+      final PrimitiveMethod method = theMethods.get(i);
+      for (String key : method.keys) {
+        out.println("    theContent.putPrimitive(\"" + escape(key) + "\", new PrimitiveInfo(PrimitiveType." + method.type
+            + ", theLibrary, \"" + escape(method.name) + "\", \"" + method.method.getSimpleName() + "\", dispatcher, " + i
+            + ", " + method.varargs + "));");
+      }
+    }
+    out.println("  }");
+    out.println();
+    out.println("  private static final class Dispatcher implements PrimitiveDispatcher {");
+    out.println("    private final " + theLibrary + " library;");
+    out.println();
+    out.println("    Dispatcher(" + theLibrary + " theLibrary) {");
+    out.println("      this.library = theLibrary;");
+    out.println("    }");
+    out.println();
+    out.println("    @Override");
+    out.println("    public Object invoke(int theIndex, SolutionListener theListener, GoalFrame theGoalFrame, Bindings theBindings,");
+    out.println("        Struct theGoalStruct) throws Exception {");
+    out.println("      switch (theIndex) {");
+    for (int i = 0; i < theMethods.size(); i++) {
+      final PrimitiveMethod method = theMethods.get(i);
+      final StringBuilder call = new StringBuilder();
+      call.append("this.library.").append(method.method.getSimpleName()).append("(theListener, theGoalFrame, theBindings");
+      if (method.varargs) {
+        call.append(", arguments(theGoalStruct)");
+      } else {
+        for (int j = 0; j < method.argumentCasts.size(); j++) {
+          call.append(", ").append(method.argumentCasts.get(j)).append("theGoalStruct.getArg(").append(j).append(')');
+        }
+      }
+      call.append(')');
+      out.println("        case " + i + ":");
+      if ("FUNCTOR".equals(method.type)) {
+        out.println("          return " + call + ';');
+      } else {
+        out.println("          " + call + ';');
+        out.println("          return null;");
+      }
+    }
+    out.println("        default:");
+    out.println("          throw new IllegalArgumentException(\"No primitive at index \" + theIndex + \" in " + theLibrary + "\");");
+    out.println("      }");
+    out.println("    }");
+    out.println("  }");
+    out.println();
+    out.println("  private static Term[] arguments(Struct theGoalStruct) {");
+    out.println("    final Term[] arguments = new Term[theGoalStruct.getArity()];");
+    out.println("    for (int i = 0; i < arguments.length; i++) {");
+    out.println("      arguments[i] = theGoalStruct.getArg(i);");
+    out.println("    }");
+    out.println("    return arguments;");
+    out.println("  }");
+    out.println();
+    out.println("}");
+  }
+
+  private static String escape(String theLiteral) {
+    return theLiteral.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+
+}